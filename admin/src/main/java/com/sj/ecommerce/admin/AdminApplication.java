@@ -0,0 +1,54 @@
+package com.sj.ecommerce.admin;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sj.ecommerce.admin.replay.AdaptivePacer;
+import com.sj.ecommerce.admin.replay.DlqReplayer;
+import com.sj.ecommerce.admin.replay.ParkingLot;
+import com.sj.ecommerce.admin.replay.ReplayConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.SqsClientBuilder;
+
+import java.util.Arrays;
+
+/**
+ * Entry point for operational commands.
+ *
+ * Example: ./gradlew run --args="dlq-replay --queue=order-events-queue --event-types=ORDER_CREATED"
+ */
+public class AdminApplication {
+
+    private static final Logger log = LoggerFactory.getLogger(AdminApplication.class);
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0 || !"dlq-replay".equals(args[0])) {
+            System.err.println("Usage: dlq-replay --queue=<name> [--key=value ...], see admin/README.md");
+            System.exit(2);
+        }
+        ReplayConfig config = ReplayConfig.fromArgs(Arrays.copyOfRange(args, 1, args.length));
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        try (SqsClient sqs = sqsClient(config);
+             ParkingLot parkingLot = new ParkingLot(objectMapper, config.parkFile())) {
+            AdaptivePacer pacer = new AdaptivePacer(config.initialRate(), config.minRate(), config.maxRate(), config.lagTarget());
+            DlqReplayer.Report report = new DlqReplayer(sqs, config, pacer, parkingLot, objectMapper).run();
+            if (report.parked() > 0) {
+                log.warn("{} messages parked in {}", report.parked(), parkingLot.file().toAbsolutePath());
+            }
+        }
+    }
+
+    static SqsClient sqsClient(ReplayConfig config) {
+        SqsClientBuilder builder = SqsClient.builder().region(Region.of(config.region()));
+        if (config.endpoint() != null) {
+            // Local stand-in: any credentials are accepted
+            builder.endpointOverride(config.endpoint())
+                    .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("local", "local")));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.sj.ecommerce.admin.replay;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiter for re-published messages whose rate follows consumer lag (AIMD).
+ *
+ * While the source queue's visible backlog stays at or under the lag target the rate grows by
+ * a tenth of the starting rate per sample; above it, or when sending fails, the rate is halved.
+ * That keeps a redrive of tens of thousands of messages from piling up in front of consumers
+ * that are still recovering.
+ */
+public final class AdaptivePacer {
+
+    static final double DECREASE_FACTOR = 0.5;
+
+    private final double minRate;
+    private final double maxRate;
+    private final double increaseStep;
+    private final long lagTarget;
+    private double rate;
+    private long nextPermitNanos = System.nanoTime();
+
+    public AdaptivePacer(double initialRate, double minRate, double maxRate, long lagTarget) {
+        if (minRate <= 0 || minRate > maxRate) {
+            throw new IllegalArgumentException("Need 0 < min-rate <= max-rate");
+        }
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.increaseStep = Math.max(1, initialRate / 10);
+        this.lagTarget = lagTarget;
+        this.rate = clamp(initialRate);
+    }
+
+    /** Blocks until {@code permits} messages may be sent. */
+    public void acquire(int permits) throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long at = Math.max(now, nextPermitNanos);
+            nextPermitNanos = at + (long) (permits * TimeUnit.SECONDS.toNanos(1) / rate);
+            waitNanos = at - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /** Visible messages in the source queue, sampled periodically. */
+    public synchronized void onLag(long visibleMessages) {
+        rate = clamp(visibleMessages > lagTarget ? rate * DECREASE_FACTOR : rate + increaseStep);
+    }
+
+    public synchronized void onSendFailure() {
+        rate = clamp(rate * DECREASE_FACTOR);
+    }
+
+    public synchronized double rate() {
+        return rate;
+    }
+
+    private double clamp(double value) {
+        return Math.max(minRate, Math.min(maxRate, value));
+    }
+}
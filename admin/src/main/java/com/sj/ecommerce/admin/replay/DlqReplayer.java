@@ -0,0 +1,308 @@
+package com.sj.ecommerce.admin.replay;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sqs.model.MessageSystemAttributeName;
+import software.amazon.awssdk.services.sqs.model.QueueAttributeName;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves messages from a dead-letter queue back to the queue its consumers read.
+ *
+ * - {@code readers} loops receive DLQ batches of 10 in parallel and stop after
+ *   {@code idlePolls} empty receives in a row, or once {@code limit} messages were replayed
+ * - messages the filter rejects stay in the DLQ, invisible for {@code hold} so the run does not
+ *   see them again
+ * - matching messages are re-sent in batches paced by {@link AdaptivePacer}, which slows down
+ *   while the source queue backs up, and are deleted from the DLQ only once the send succeeded
+ * - each replay increments the {@value #REPLAY_COUNT_ATTRIBUTE} attribute. A message that comes
+ *   back to the DLQ after {@code maxReplays} replays, or that SQS refuses, is written to the
+ *   {@link ParkingLot} with the reason and then deleted
+ */
+public final class DlqReplayer {
+
+    private static final Logger log = LoggerFactory.getLogger(DlqReplayer.class);
+
+    public static final String REPLAY_COUNT_ATTRIBUTE = "dlqReplayCount";
+    private static final int BATCH_SIZE = 10;
+    private static final int WAIT_SECONDS = 1;
+
+    public record Report(long received, long replayed, long skipped, long parked, long sendFailures) {
+    }
+
+    private final SqsClient sqs;
+    private final ReplayConfig config;
+    private final ReplayFilter filter;
+    private final AdaptivePacer pacer;
+    private final ParkingLot parkingLot;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong sendFailures = new AtomicLong();
+
+    public DlqReplayer(SqsClient sqs, ReplayConfig config, AdaptivePacer pacer, ParkingLot parkingLot,
+                       ObjectMapper objectMapper) {
+        this.sqs = sqs;
+        this.config = config;
+        this.filter = new ReplayFilter(config.eventTypes(), config.from(), config.to());
+        this.pacer = pacer;
+        this.parkingLot = parkingLot;
+        this.objectMapper = objectMapper;
+    }
+
+    public Report run() throws InterruptedException {
+        String sourceUrl = sqs.getQueueUrl(r -> r.queueName(config.queue())).queueUrl();
+        String dlqUrl = sqs.getQueueUrl(r -> r.queueName(config.deadLetterQueue())).queueUrl();
+        log.info("Replaying {} -> {} (types={}, from={}, to={}, dryRun={})", config.deadLetterQueue(), config.queue(),
+                config.eventTypes().isEmpty() ? "all" : config.eventTypes(), config.from(), config.to(), config.dryRun());
+
+        ScheduledExecutorService lagSampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "dlq-replay-lag");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagSampler.scheduleWithFixedDelay(() -> sampleLag(sourceUrl),
+                0, config.lagSampleInterval().toMillis(), TimeUnit.MILLISECONDS);
+        try (ExecutorService readers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.readers(); i++) {
+                readers.execute(() -> read(sourceUrl, dlqUrl));
+            }
+        } finally {
+            lagSampler.shutdownNow();
+        }
+
+        Report report = new Report(received.get(), replayed.get(), skipped.get(), parkingLot.parked(), sendFailures.get());
+        log.info("Replay of {} finished: {}", config.deadLetterQueue(), report);
+        return report;
+    }
+
+    private void read(String sourceUrl, String dlqUrl) {
+        int idle = 0;
+        while (idle < config.idlePolls() && !limitReached() && !Thread.currentThread().isInterrupted()) {
+            List<Message> messages;
+            try {
+                messages = sqs.receiveMessage(r -> r.queueUrl(dlqUrl)
+                        .maxNumberOfMessages(BATCH_SIZE)
+                        .waitTimeSeconds(WAIT_SECONDS)
+                        .visibilityTimeout((int) config.hold().toSeconds())
+                        .messageSystemAttributeNames(MessageSystemAttributeName.ALL)
+                        .messageAttributeNames("All")).messages();
+            } catch (SdkException e) {
+                log.warn("Receive from {} failed, retrying", config.deadLetterQueue(), e);
+                idle++;
+                continue;
+            }
+            if (messages.isEmpty()) {
+                idle++;
+                continue;
+            }
+            idle = 0;
+            received.addAndGet(messages.size());
+            try {
+                replay(sourceUrl, dlqUrl, messages);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void replay(String sourceUrl, String dlqUrl, List<Message> messages) throws InterruptedException {
+        List<Message> selected = new ArrayList<>();
+        List<Message> done = new ArrayList<>();
+        for (Message message : messages) {
+            String parkReason = select(message, selected);
+            if (parkReason == null) {
+                continue;
+            }
+            if (config.dryRun()) {
+                log.info("Dry run: would park {}: {}", message.messageId(), parkReason);
+            } else {
+                parkingLot.park(config.deadLetterQueue(), message, parkReason);
+                done.add(message);
+            }
+        }
+        if (!selected.isEmpty()) {
+            pacer.acquire(selected.size());
+            if (config.dryRun()) {
+                replayed.addAndGet(selected.size());
+                log.info("Dry run: would replay {} messages", selected.size());
+            } else {
+                done.addAll(send(sourceUrl, dlqUrl, selected));
+            }
+        }
+        if (!done.isEmpty()) {
+            delete(dlqUrl, done);
+        }
+    }
+
+    /**
+     * Adds the message to {@code selected} when it should be replayed.
+     *
+     * @return a park reason, or null when the message was selected or skipped
+     */
+    private String select(Message message, List<Message> selected) {
+        int replays = replayCount(message);
+        if (replays >= config.maxReplays()) {
+            return "Dead-lettered again after " + replays + " replay(s)";
+        }
+        if (filter.isSelective()) {
+            JsonNode event;
+            try {
+                event = objectMapper.readTree(message.body());
+            } catch (JsonProcessingException e) {
+                return "Body is not JSON, cannot apply filters: " + e.getOriginalMessage();
+            }
+            if (!filter.matches(event, sentAt(message))) {
+                skipped.incrementAndGet();
+                return null;
+            }
+        }
+        if (limitReached()) {
+            // Leave it in the DLQ for a later run
+            skipped.incrementAndGet();
+            return null;
+        }
+        selected.add(message);
+        return null;
+    }
+
+    /** @return the messages that were re-sent or parked, i.e. can be deleted from the DLQ */
+    private List<Message> send(String sourceUrl, String dlqUrl, List<Message> messages) {
+        Map<String, Message> byEntryId = new HashMap<>();
+        List<SendMessageBatchRequestEntry> entries = new ArrayList<>();
+        for (int i = 0; i < messages.size(); i++) {
+            Message message = messages.get(i);
+            String id = String.valueOf(i);
+            byEntryId.put(id, message);
+            Map<String, MessageAttributeValue> attributes = new HashMap<>(message.messageAttributes());
+            attributes.put(REPLAY_COUNT_ATTRIBUTE, MessageAttributeValue.builder()
+                    .dataType("Number").stringValue(String.valueOf(replayCount(message) + 1)).build());
+            entries.add(SendMessageBatchRequestEntry.builder()
+                    .id(id).messageBody(message.body()).messageAttributes(attributes).build());
+        }
+
+        SendMessageBatchResponse response;
+        try {
+            response = sqs.sendMessageBatch(r -> r.queueUrl(sourceUrl).entries(entries));
+        } catch (SdkException e) {
+            sendFailures.addAndGet(messages.size());
+            pacer.onSendFailure();
+            log.warn("Re-sending {} messages to {} failed, they stay in the DLQ", messages.size(), config.queue(), e);
+            release(dlqUrl, messages);
+            return List.of();
+        }
+
+        List<Message> done = new ArrayList<>();
+        response.successful().forEach(entry -> done.add(byEntryId.get(entry.id())));
+        replayed.addAndGet(response.successful().size());
+        for (BatchResultErrorEntry failure : response.failed()) {
+            Message message = byEntryId.get(failure.id());
+            sendFailures.incrementAndGet();
+            if (Boolean.TRUE.equals(failure.senderFault())) {
+                // SQS will never accept it as is
+                parkingLot.park(config.deadLetterQueue(), message, "Re-send rejected: " + failure.code() + " " + failure.message());
+                done.add(message);
+            } else {
+                release(dlqUrl, List.of(message));
+            }
+        }
+        if (!response.failed().isEmpty()) {
+            pacer.onSendFailure();
+        }
+        return done;
+    }
+
+    private void delete(String dlqUrl, List<Message> messages) {
+        List<DeleteMessageBatchRequestEntry> entries = new ArrayList<>();
+        for (int i = 0; i < messages.size(); i++) {
+            entries.add(DeleteMessageBatchRequestEntry.builder()
+                    .id(String.valueOf(i)).receiptHandle(messages.get(i).receiptHandle()).build());
+        }
+        try {
+            sqs.deleteMessageBatch(r -> r.queueUrl(dlqUrl).entries(entries)).failed().forEach(failure ->
+                    log.warn("Could not delete replayed message from {}: {} {}", config.deadLetterQueue(),
+                            failure.code(), failure.message()));
+        } catch (SdkException e) {
+            // The messages reappear after the hold and are replayed again; consumers are idempotent
+            log.warn("Deleting {} replayed messages from {} failed", messages.size(), config.deadLetterQueue(), e);
+        }
+    }
+
+    /** Makes messages visible in the DLQ again so a later receive retries them. */
+    private void release(String dlqUrl, List<Message> messages) {
+        List<ChangeMessageVisibilityBatchRequestEntry> entries = new ArrayList<>();
+        for (int i = 0; i < messages.size(); i++) {
+            entries.add(ChangeMessageVisibilityBatchRequestEntry.builder()
+                    .id(String.valueOf(i)).receiptHandle(messages.get(i).receiptHandle()).visibilityTimeout(0).build());
+        }
+        try {
+            sqs.changeMessageVisibilityBatch(r -> r.queueUrl(dlqUrl).entries(entries));
+        } catch (SdkException e) {
+            log.debug("Could not release {} messages in {}, they return after the hold", messages.size(),
+                    config.deadLetterQueue(), e);
+        }
+    }
+
+    private void sampleLag(String sourceUrl) {
+        try {
+            String visible = sqs.getQueueAttributes(r -> r.queueUrl(sourceUrl)
+                            .attributeNames(QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES))
+                    .attributes().get(QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES);
+            if (visible != null) {
+                double before = pacer.rate();
+                pacer.onLag(Long.parseLong(visible));
+                if (pacer.rate() != before) {
+                    log.info("Source backlog={}, replay rate {} -> {} msg/s", visible,
+                            String.format("%.1f", before), String.format("%.1f", pacer.rate()));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.debug("Could not sample backlog of {}", config.queue(), e);
+        }
+    }
+
+    private boolean limitReached() {
+        return config.limit() > 0 && replayed.get() >= config.limit();
+    }
+
+    private static int replayCount(Message message) {
+        MessageAttributeValue value = message.messageAttributes().get(REPLAY_COUNT_ATTRIBUTE);
+        if (value == null || value.stringValue() == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value.stringValue());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static Instant sentAt(Message message) {
+        String sent = message.attributesAsStrings().get("SentTimestamp");
+        return sent == null ? Instant.now() : Instant.ofEpochMilli(Long.parseLong(sent));
+    }
+}
@@ -0,0 +1,72 @@
+package com.sj.ecommerce.admin.replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import software.amazon.awssdk.services.sqs.model.Message;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+/**
+ * Append-only JSON Lines file of messages the replay gave up on, one object per line with the
+ * original body, message attributes and the reason. Lines are flushed as they are written so
+ * an interrupted run still leaves a complete record.
+ */
+public final class ParkingLot implements AutoCloseable {
+
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    private BufferedWriter writer;
+    private long parked;
+
+    public ParkingLot(ObjectMapper objectMapper, Path file) {
+        this.objectMapper = objectMapper;
+        this.file = file;
+    }
+
+    public synchronized void park(String queue, Message message, String reason) {
+        ObjectNode line = objectMapper.createObjectNode();
+        line.put("parkedAt", Instant.now().toString());
+        line.put("queue", queue);
+        line.put("messageId", message.messageId());
+        line.put("reason", reason);
+        line.put("receiveCount", message.attributesAsStrings().get("ApproximateReceiveCount"));
+        ObjectNode attributes = line.putObject("messageAttributes");
+        message.messageAttributes().forEach((name, value) -> attributes.put(name, value.stringValue()));
+        line.put("body", message.body());
+        try {
+            if (writer == null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            writer.write(objectMapper.writeValueAsString(line));
+            writer.newLine();
+            writer.flush();
+            parked++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not park message " + message.messageId() + " in " + file, e);
+        }
+    }
+
+    public synchronized long parked() {
+        return parked;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+}
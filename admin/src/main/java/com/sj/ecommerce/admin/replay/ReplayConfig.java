@@ -0,0 +1,94 @@
+package com.sj.ecommerce.admin.replay;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * DLQ replay settings. Every value can be overridden with {@code --key=value} on the command line
+ * or {@code -Dreplay.key=value}; command-line arguments win.
+ *
+ * @param queue          queue the consumers read; messages are re-sent here
+ * @param deadLetterQueue queue to drain, {@code <queue>-dlq} unless set
+ * @param endpoint       SQS endpoint override, e.g. the local stand-in; null for AWS
+ * @param eventTypes     only replay these event types (empty: all)
+ * @param from           only replay events that occurred at or after this instant (null: no lower bound)
+ * @param to             only replay events that occurred before this instant (null: no upper bound)
+ * @param readers        parallel DLQ receive loops, each fetching batches of up to 10
+ * @param hold           how long received but skipped messages stay invisible in the DLQ
+ * @param limit          stop after replaying this many messages (0: no limit)
+ * @param maxReplays     messages already replayed this many times are parked instead of replayed
+ */
+public record ReplayConfig(
+        String queue,
+        String deadLetterQueue,
+        URI endpoint,
+        String region,
+        Set<String> eventTypes,
+        Instant from,
+        Instant to,
+        int readers,
+        int idlePolls,
+        Duration hold,
+        long limit,
+        int maxReplays,
+        boolean dryRun,
+        double initialRate,
+        double minRate,
+        double maxRate,
+        long lagTarget,
+        Duration lagSampleInterval,
+        Path parkFile
+) {
+
+    public static ReplayConfig fromArgs(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        System.getProperties().forEach((k, v) -> {
+            String key = k.toString();
+            if (key.startsWith("replay.")) {
+                values.put(key.substring("replay.".length()), v.toString());
+            }
+        });
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value but got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        String queue = values.get("queue");
+        if (queue == null || queue.isBlank()) {
+            throw new IllegalArgumentException("--queue is required, e.g. --queue=order-events-queue");
+        }
+        String endpoint = values.get("endpoint");
+        return new ReplayConfig(
+                queue,
+                values.getOrDefault("dlq", queue + "-dlq"),
+                endpoint == null || endpoint.isBlank() ? null : URI.create(endpoint),
+                values.getOrDefault("region", "ap-south-1"),
+                Arrays.stream(values.getOrDefault("event-types", "").split(","))
+                        .map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.toUnmodifiableSet()),
+                values.containsKey("from") ? Instant.parse(values.get("from")) : null,
+                values.containsKey("to") ? Instant.parse(values.get("to")) : null,
+                Integer.parseInt(values.getOrDefault("readers", "4")),
+                Integer.parseInt(values.getOrDefault("idle-polls", "3")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("hold-seconds", "900"))),
+                Long.parseLong(values.getOrDefault("limit", "0")),
+                Integer.parseInt(values.getOrDefault("max-replays", "1")),
+                Boolean.parseBoolean(values.getOrDefault("dry-run", "false")),
+                Double.parseDouble(values.getOrDefault("rate", "20")),
+                Double.parseDouble(values.getOrDefault("min-rate", "1")),
+                Double.parseDouble(values.getOrDefault("max-rate", "500")),
+                Long.parseLong(values.getOrDefault("lag-target", "100")),
+                Duration.ofMillis(Long.parseLong(values.getOrDefault("lag-sample-ms", "2000"))),
+                Path.of(values.getOrDefault("park-file", "admin/build/parked/" + queue + ".jsonl"))
+        );
+    }
+}
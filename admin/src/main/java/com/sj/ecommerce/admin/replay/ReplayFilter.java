@@ -0,0 +1,84 @@
+package com.sj.ecommerce.admin.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Selects dead-lettered events by type and by when they occurred.
+ *
+ * SNS raw delivery drops the event type the services publish with, so it is recovered from the
+ * payload the same way the listeners tell events apart: payment events carry paymentId, and the
+ * failure/expiry variants carry reason. Type names match case-insensitively with or without
+ * underscores, so ORDER_CREATED, PaymentFailed and payment_failed all work.
+ */
+public final class ReplayFilter {
+
+    public static final String ORDER_CREATED = "ORDER_CREATED";
+    public static final String ORDER_EXPIRED = "ORDER_EXPIRED";
+    public static final String PAYMENT_COMPLETED = "PAYMENT_COMPLETED";
+    public static final String PAYMENT_FAILED = "PAYMENT_FAILED";
+
+    private final Set<String> eventTypes;
+    private final Instant from;
+    private final Instant to;
+
+    public ReplayFilter(Set<String> eventTypes, Instant from, Instant to) {
+        this.eventTypes = eventTypes.stream().map(ReplayFilter::normalize).collect(Collectors.toUnmodifiableSet());
+        this.from = from;
+        this.to = to;
+    }
+
+    /** True when any criterion is set, i.e. the payload has to be understood to decide. */
+    public boolean isSelective() {
+        return !eventTypes.isEmpty() || from != null || to != null;
+    }
+
+    /**
+     * @param sentAt fallback when the payload has no occurredAt
+     */
+    public boolean matches(JsonNode event, Instant sentAt) {
+        if (!eventTypes.isEmpty() && !eventTypes.contains(normalize(eventType(event)))) {
+            return false;
+        }
+        if (from == null && to == null) {
+            return true;
+        }
+        Instant occurredAt = occurredAt(event);
+        Instant at = occurredAt != null ? occurredAt : sentAt;
+        return (from == null || !at.isBefore(from)) && (to == null || at.isBefore(to));
+    }
+
+    public static String eventType(JsonNode event) {
+        boolean payment = event.hasNonNull("paymentId");
+        boolean reason = event.hasNonNull("reason");
+        if (payment) {
+            return reason ? PAYMENT_FAILED : PAYMENT_COMPLETED;
+        }
+        return reason ? ORDER_EXPIRED : ORDER_CREATED;
+    }
+
+    static Instant occurredAt(JsonNode event) {
+        JsonNode node = event.get("occurredAt");
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        if (node.isNumber()) {
+            // WRITE_DATES_AS_TIMESTAMPS style: seconds with a fractional part
+            return Instant.ofEpochMilli(Math.round(node.asDouble() * 1000));
+        }
+        try {
+            return Instant.parse(node.asText());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String normalize(String type) {
+        return type.replace("_", "").toUpperCase(Locale.ROOT);
+    }
+}
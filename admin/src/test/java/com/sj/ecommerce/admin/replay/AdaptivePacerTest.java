@@ -0,0 +1,38 @@
+package com.sj.ecommerce.admin.replay;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptivePacerTest {
+
+	@Test
+	void backsOffWhileConsumersLagAndRecoversAdditively() {
+		AdaptivePacer pacer = new AdaptivePacer(100, 5, 200, 1000);
+
+		pacer.onLag(5000);
+		assertEquals(50, pacer.rate());
+		pacer.onLag(5000);
+		pacer.onLag(5000);
+		pacer.onLag(5000);
+		pacer.onLag(5000);
+		assertEquals(5, pacer.rate(), "never below min-rate");
+
+		pacer.onLag(10);
+		assertEquals(15, pacer.rate());
+	}
+
+	@Test
+	void acquireSpacesPermitsAtTheCurrentRate() throws InterruptedException {
+		AdaptivePacer pacer = new AdaptivePacer(100, 1, 100, 1000);
+
+		long start = System.nanoTime();
+		pacer.acquire(10);
+		pacer.acquire(10);
+		long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+		// The second batch of 10 waits for the first one's 100ms slot at 100 msg/s
+		assertTrue(elapsedMillis >= 90, "elapsed " + elapsedMillis + "ms");
+	}
+}
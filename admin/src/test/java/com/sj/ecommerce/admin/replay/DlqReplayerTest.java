@@ -0,0 +1,122 @@
+package com.sj.ecommerce.admin.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sj.ecommerce.load_test.broker.AwsProtocolServer;
+import com.sj.ecommerce.load_test.broker.BrokerMessage;
+import com.sj.ecommerce.load_test.broker.InMemoryBroker;
+import com.sj.ecommerce.load_test.broker.MessageAttribute;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sqs.SqsClient;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the replay through the AWS SDK against the load-test SQS stand-in.
+ */
+class DlqReplayerTest {
+
+	private static final String QUEUE = "order-events-queue";
+	private static final String DLQ = QUEUE + "-dlq";
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final InMemoryBroker broker = new InMemoryBroker();
+	private AwsProtocolServer server;
+	private SqsClient sqs;
+
+	@TempDir
+	Path tempDir;
+
+	@BeforeEach
+	void start() throws IOException {
+		broker.createQueue(DLQ, 30);
+		broker.createQueue(QUEUE, 30, 5, DLQ);
+		int port;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			port = socket.getLocalPort();
+		}
+		server = new AwsProtocolServer(broker, objectMapper, port);
+		server.start();
+		sqs = SqsClient.builder()
+				.endpointOverride(URI.create(server.endpoint()))
+				.region(Region.AP_SOUTH_1)
+				.credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+				.build();
+	}
+
+	@AfterEach
+	void stop() {
+		sqs.close();
+		server.stop();
+	}
+
+	@Test
+	void replaysOnlyMatchingEventsAndHoldsTheRestInTheDeadLetterQueue() throws Exception {
+		for (int orderId = 1; orderId <= 3; orderId++) {
+			broker.send(DLQ, orderCreated(orderId), Map.of());
+		}
+		broker.send(DLQ, "{\"orderId\":4,\"occurredAt\":\"2026-01-01T00:00:00Z\",\"reason\":\"PAYMENT_TIMEOUT\"}", Map.of());
+
+		DlqReplayer.Report report = replayer("--event-types=ORDER_CREATED").run();
+
+		assertEquals(3, report.replayed());
+		assertEquals(1, report.skipped());
+		List<BrokerMessage> replayed = broker.receive(QUEUE, 10, 0, -1);
+		assertEquals(3, replayed.size());
+		for (BrokerMessage message : replayed) {
+			assertEquals("1", message.getAttributes().get(DlqReplayer.REPLAY_COUNT_ATTRIBUTE).stringValue());
+		}
+		assertEquals("0", broker.attributes(DLQ).get("ApproximateNumberOfMessages"));
+		assertEquals("1", broker.attributes(DLQ).get("ApproximateNumberOfMessagesNotVisible"));
+	}
+
+	@Test
+	void parksMessagesThatFailAgainAfterReplay() throws Exception {
+		broker.send(DLQ, orderCreated(7), Map.of(DlqReplayer.REPLAY_COUNT_ATTRIBUTE, new MessageAttribute("Number", "1")));
+
+		DlqReplayer.Report report = replayer().run();
+
+		assertEquals(0, report.replayed());
+		assertEquals(1, report.parked());
+		assertTrue(broker.receive(QUEUE, 10, 0, -1).isEmpty());
+		assertEquals("0", broker.attributes(DLQ).get("ApproximateNumberOfMessagesNotVisible"));
+
+		List<String> lines = Files.readAllLines(tempDir.resolve("parked.jsonl"));
+		assertEquals(1, lines.size());
+		JsonNode parked = objectMapper.readTree(lines.get(0));
+		assertEquals(orderCreated(7), parked.path("body").asText());
+		assertTrue(parked.path("reason").asText().startsWith("Dead-lettered again"));
+	}
+
+	private DlqReplayer replayer(String... extraArgs) {
+		List<String> args = new ArrayList<>(List.of(
+				"--queue=" + QUEUE, "--readers=2", "--idle-polls=1", "--hold-seconds=60",
+				"--rate=1000", "--max-rate=1000", "--lag-sample-ms=100",
+				"--park-file=" + tempDir.resolve("parked.jsonl")));
+		args.addAll(List.of(extraArgs));
+		ReplayConfig config = ReplayConfig.fromArgs(args.toArray(String[]::new));
+		AdaptivePacer pacer = new AdaptivePacer(config.initialRate(), config.minRate(), config.maxRate(), config.lagTarget());
+		return new DlqReplayer(sqs, config, pacer, new ParkingLot(objectMapper, config.parkFile()), objectMapper);
+	}
+
+	private static String orderCreated(long orderId) {
+		return "{\"eventId\":\"e-" + orderId + "\",\"occurredAt\":\"2026-01-01T00:00:00Z\",\"orderId\":" + orderId
+				+ ",\"userId\":1,\"amount\":10.0}";
+	}
+}
@@ -0,0 +1,90 @@
+package com.sj.ecommerce.common.backfill;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Fills a column in small batches on a background thread once the application is ready, e.g.
+ * the amount_minor backfill of the dual-read money migration. Services subclass it as a bean
+ * and pass their own batch query:
+ *
+ * - the batch takes a batch size and returns the number of rows it updated; batches repeat,
+ *   {@code pauseMillis} apart, until one comes back short
+ * - batches must be idempotent, so the job can stop and resume at any point and every
+ *   instance may run it
+ * - a database error stops the job with a warning; the next start picks up where it left off
+ */
+public class BatchBackfill implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchBackfill.class);
+
+    private final String name;
+    private final IntUnaryOperator batch;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long pauseMillis;
+    private ExecutorService worker;
+
+    /**
+     * @param name thread name and log label, e.g. "order-amount-backfill"
+     */
+    public BatchBackfill(String name, IntUnaryOperator batch, boolean enabled, int batchSize, long pauseMillis) {
+        this.name = name;
+        this.batch = batch;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        worker = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        worker.execute(this::run);
+    }
+
+    @Override
+    public void close() {
+        if (worker != null) {
+            worker.shutdownNow();
+        }
+    }
+
+    /** Runs batches until one comes back short; returns the number of rows filled. */
+    public long run() {
+        long total = 0;
+        try {
+            int updated;
+            do {
+                updated = batch.applyAsInt(batchSize);
+                total += updated;
+                if (updated == batchSize) {
+                    TimeUnit.MILLISECONDS.sleep(pauseMillis);
+                }
+            } while (updated == batchSize);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (DataAccessException e) {
+            log.warn("{} stopped after {} rows, resumes on next start", name, total, e);
+            return total;
+        }
+        if (total > 0) {
+            log.info("{} filled {} rows", name, total);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,50 @@
+package com.sj.ecommerce.common.events;
+
+import com.ecommerce.contracts.bus.EventBus;
+import com.ecommerce.contracts.bus.EventBusException;
+import com.ecommerce.contracts.bus.EventHandler;
+import com.sj.ecommerce.common.profiling.SnsPublishEvent;
+import io.awspring.cloud.sns.core.SnsTemplate;
+
+import java.util.Map;
+
+/**
+ * EventBus backed by SNS topics, one per channel.
+ *
+ * Consumption stays with the @SqsListener containers subscribed to those topics, so
+ * {@link #subscribe} registers nothing: the handler is never called and the returned
+ * subscription's close() does nothing either.
+ */
+public class SnsEventBus implements EventBus {
+
+    private static final Subscription NO_SUBSCRIPTION = () -> {
+    };
+
+    private final SnsTemplate snsTemplate;
+    private final Map<String, String> topicArnsByChannel;
+
+    public SnsEventBus(SnsTemplate snsTemplate, Map<String, String> topicArnsByChannel) {
+        this.snsTemplate = snsTemplate;
+        this.topicArnsByChannel = Map.copyOf(topicArnsByChannel);
+    }
+
+    @Override
+    public void publish(String channel, String eventType, Object event) {
+        String topicArn = topicArnsByChannel.get(channel);
+        if (topicArn == null) {
+            throw new EventBusException("No SNS topic configured for channel=" + channel);
+        }
+        SnsPublishEvent profile = SnsPublishEvent.begin(channel, eventType);
+        try {
+            snsTemplate.sendNotification(topicArn, event, eventType);
+            profile.succeeded();
+        } finally {
+            profile.finish();
+        }
+    }
+
+    @Override
+    public Subscription subscribe(String channel, EventHandler handler) {
+        return NO_SUBSCRIPTION;
+    }
+}
@@ -0,0 +1,24 @@
+package com.sj.ecommerce.common.persistence;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.Currency;
+
+/**
+ * Stores a currency as its ISO 4217 code in a char(3) column; unknown codes fail on load
+ * instead of surfacing later as a wrong minor-unit scale.
+ */
+@Converter
+public class CurrencyConverter implements AttributeConverter<Currency, String> {
+
+    @Override
+    public String convertToDatabaseColumn(Currency currency) {
+        return currency == null ? null : currency.getCurrencyCode();
+    }
+
+    @Override
+    public Currency convertToEntityAttribute(String code) {
+        return code == null ? null : Currency.getInstance(code.trim());
+    }
+}
@@ -0,0 +1,67 @@
+package com.sj.ecommerce.common.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning one business flow, e.g. an incoming SQS event, an order placed over HTTP or
+ * a Razorpay webhook.
+ *
+ * Usage is begin, do the work, mark success, then {@link #finish()} in a finally block. While no
+ * recording has the event enabled, finish() does not commit anything and the JIT can drop the
+ * allocation, so the instrumentation stays in place in production.
+ */
+@Name(HandlerEvent.NAME)
+@Label("Handler")
+@Category("Ecommerce")
+@Description("Time spent handling one incoming event or request")
+@StackTrace(false)
+public class HandlerEvent extends Event {
+
+    public static final String NAME = "ecommerce.Handler";
+
+    @Label("Handler")
+    String handler;
+
+    @Label("Event Type")
+    String eventType;
+
+    @Label("Order Id")
+    long orderId;
+
+    @Label("Success")
+    boolean success;
+
+    public static HandlerEvent begin(String handler, String eventType, Long orderId) {
+        HandlerEvent event = new HandlerEvent();
+        event.handler = handler;
+        event.eventType = eventType;
+        event.orderId = orderId != null ? orderId : 0;
+        event.begin();
+        return event;
+    }
+
+    /** For flows that only learn the event type or order id part way through, e.g. raw payloads. */
+    public void eventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public void orderId(Long orderId) {
+        this.orderId = orderId != null ? orderId : 0;
+    }
+
+    public void succeeded() {
+        this.success = true;
+    }
+
+    public void finish() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.sj.ecommerce.common.profiling;
+
+import jdk.jfr.Recording;
+
+/**
+ * Adds a service's own events to recordings started through {@link JfrRecordingEndpoint}, on top
+ * of the handler, SNS publish and pool wait events every service has.
+ */
+@FunctionalInterface
+public interface JfrRecordingCustomizer {
+
+    void customize(Recording recording);
+}
@@ -0,0 +1,173 @@
+package com.sj.ecommerce.common.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for time-boxed JDK Flight Recorder recordings.
+ *
+ * - POST /actuator/jfr starts a recording with the custom events enabled, plus whatever the
+ *   service's {@link JfrRecordingCustomizer}s add, optionally
+ *   with durationSeconds (capped at profiling.jfr.max-duration) and settings ("default" or "profile")
+ * - GET /actuator/jfr streams the .jfr file, a snapshot if the recording is still running
+ * - DELETE /actuator/jfr stops the recording early; the file stays available until the next start
+ *
+ * One recording runs at a time. It always stops by itself when its duration is up, so a
+ * forgotten recording cannot keep writing to disk.
+ */
+@WebEndpoint(id = "jfr")
+public class JfrRecordingEndpoint implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(JfrRecordingEndpoint.class);
+
+    private static final int STATUS_CONFLICT = 409;
+
+    private final String serviceName;
+    private final List<JfrRecordingCustomizer> customizers;
+    private final Duration defaultDuration;
+    private final Duration maxDuration;
+    private final long maxSizeBytes;
+
+    private Recording recording;
+    private Path file;
+    private Instant startedAt;
+
+    public JfrRecordingEndpoint(String serviceName, List<JfrRecordingCustomizer> customizers,
+                                Duration defaultDuration, Duration maxDuration, long maxSizeMb) {
+        this.serviceName = serviceName;
+        this.customizers = List.copyOf(customizers);
+        this.defaultDuration = defaultDuration;
+        this.maxDuration = maxDuration;
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> start(@Nullable Long durationSeconds,
+                                                                       @Nullable String settings) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(status(), STATUS_CONFLICT);
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings != null ? settings : "default");
+        } catch (IOException | ParseException e) {
+            return new WebEndpointResponse<>(Map.of("error", "Unknown JFR settings " + settings),
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        Duration duration = durationSeconds != null ? Duration.ofSeconds(durationSeconds) : defaultDuration;
+        if (duration.isNegative() || duration.isZero()) {
+            return new WebEndpointResponse<>(Map.of("error", "durationSeconds must be positive"),
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        if (duration.compareTo(maxDuration) > 0) {
+            duration = maxDuration;
+        }
+
+        discard();
+        try {
+            file = Files.createTempFile(serviceName + "-", ".jfr");
+            recording = new Recording(configuration);
+            recording.setName(serviceName + "-on-demand");
+            recording.enable(HandlerEvent.NAME);
+            recording.enable(SnsPublishEvent.NAME);
+            recording.enable(PoolWaitEvent.NAME).withStackTrace();
+            customizers.forEach(customizer -> customizer.customize(recording));
+            recording.setToDisk(true);
+            recording.setMaxSize(maxSizeBytes);
+            recording.setDuration(duration);
+            recording.setDestination(file);
+            recording.start();
+        } catch (IOException e) {
+            discard();
+            throw new UncheckedIOException("Could not start JFR recording", e);
+        }
+        startedAt = Instant.now();
+        log.info("Started JFR recording for {} with {} settings, writing to {}", duration, configuration.getName(), file);
+        return new WebEndpointResponse<>(status(), WebEndpointResponse.STATUS_OK);
+    }
+
+    @ReadOperation
+    public synchronized WebEndpointResponse<Resource> download() {
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        try {
+            if (recording.getState() == RecordingState.RUNNING) {
+                // Snapshot of what has been recorded so far; the recording carries on
+                Path snapshot = file.resolveSibling(file.getFileName() + ".snapshot");
+                recording.dump(snapshot);
+                return new WebEndpointResponse<>(new FileSystemResource(snapshot), WebEndpointResponse.STATUS_OK);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not dump JFR recording", e);
+        }
+        if (!Files.exists(file)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        return new WebEndpointResponse<>(new FileSystemResource(file), WebEndpointResponse.STATUS_OK);
+    }
+
+    @DeleteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> stop() {
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            log.info("Stopped JFR recording, written to {}", file);
+        }
+        return new WebEndpointResponse<>(status(), WebEndpointResponse.STATUS_OK);
+    }
+
+    private Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", recording.getState().name());
+        status.put("startedAt", startedAt);
+        status.put("duration", recording.getDuration());
+        status.put("file", file.toString());
+        return status;
+    }
+
+    private void discard() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".snapshot"));
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete JFR recording {}", file, e);
+            }
+            file = null;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        discard();
+    }
+}
@@ -0,0 +1,46 @@
+package com.sj.ecommerce.common.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for a thread that waited on a Hikari pool for a connection.
+ *
+ * Hikari measures the wait itself and reports it after the fact, so the event carries it in
+ * {@code waitTime} rather than in the event duration. The stack trace is kept: it is the only
+ * way to tell which caller was starved.
+ */
+@Name(PoolWaitEvent.NAME)
+@Label("Connection Pool Wait")
+@Category("Ecommerce")
+@Description("Wait for a JDBC connection above profiling.jfr.pool-wait-threshold")
+@StackTrace(true)
+public class PoolWaitEvent extends Event {
+
+    public static final String NAME = "ecommerce.PoolWait";
+
+    @Label("Pool")
+    String pool;
+
+    @Label("Wait Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long waitTime;
+
+    @Label("Timed Out")
+    boolean timedOut;
+
+    static void emit(String pool, long waitNanos, boolean timedOut) {
+        PoolWaitEvent event = new PoolWaitEvent();
+        if (event.shouldCommit()) {
+            event.pool = pool;
+            event.waitTime = waitNanos;
+            event.timedOut = timedOut;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.sj.ecommerce.common.profiling;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.time.Duration;
+
+/**
+ * Reports connection waits on every Hikari pool as {@link PoolWaitEvent}s.
+ *
+ * - installs a Hikari MetricsTrackerFactory before the pool starts; Hikari already times each
+ *   getConnection() for its metrics, so no extra clock reads are added to the checkout path
+ * - the factory delegates to Micrometer, which Boot would otherwise install itself, so the
+ *   hikaricp.* meters are unchanged
+ * - only waits of at least profiling.jfr.pool-wait-threshold are emitted, plus every timeout;
+ *   an uncontended checkout takes microseconds and never reaches JFR
+ *
+ * Registered by {@link ProfilingAutoConfiguration} when Hikari is on the classpath.
+ */
+public class PoolWaitProfiler implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final long thresholdNanos;
+
+    public PoolWaitProfiler(ObjectProvider<MeterRegistry> meterRegistry,
+                            Duration threshold) {
+        this.meterRegistry = meterRegistry;
+        this.thresholdNanos = threshold.toNanos();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource hikari
+                && hikari.getMetricsTrackerFactory() == null && hikari.getMetricRegistry() == null) {
+            hikari.setMetricsTrackerFactory(new TrackerFactory(hikari.getConnectionTimeout()));
+        }
+        return bean;
+    }
+
+    private final class TrackerFactory implements MetricsTrackerFactory {
+
+        private final long connectionTimeoutNanos;
+
+        TrackerFactory(long connectionTimeoutMs) {
+            this.connectionTimeoutNanos = Duration.ofMillis(connectionTimeoutMs).toNanos();
+        }
+
+        @Override
+        public IMetricsTracker create(String poolName, PoolStats poolStats) {
+            // Pools start on first checkout, by then the registry can be created if it is not yet
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            IMetricsTracker delegate = registry != null
+                    ? new MicrometerMetricsTrackerFactory(registry).create(poolName, poolStats)
+                    : new IMetricsTracker() { };
+            return new Tracker(poolName, delegate, thresholdNanos, connectionTimeoutNanos);
+        }
+    }
+
+    static final class Tracker implements IMetricsTracker {
+
+        private final String poolName;
+        private final IMetricsTracker delegate;
+        private final long thresholdNanos;
+        private final long connectionTimeoutNanos;
+
+        Tracker(String poolName, IMetricsTracker delegate, long thresholdNanos, long connectionTimeoutNanos) {
+            this.poolName = poolName;
+            this.delegate = delegate;
+            this.thresholdNanos = thresholdNanos;
+            this.connectionTimeoutNanos = connectionTimeoutNanos;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            delegate.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+            if (elapsedAcquiredNanos >= thresholdNanos) {
+                PoolWaitEvent.emit(poolName, elapsedAcquiredNanos, false);
+            }
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            delegate.recordConnectionTimeout();
+            PoolWaitEvent.emit(poolName, connectionTimeoutNanos, true);
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            delegate.recordConnectionCreatedMillis(connectionCreatedMillis);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            delegate.recordConnectionUsageMillis(elapsedBorrowedMillis);
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.sj.ecommerce.common.profiling;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * On-demand JFR recordings and connection pool wait events, see {@link JfrRecordingEndpoint}
+ * and {@link PoolWaitProfiler}. Recordings are named after spring.application.name.
+ */
+@AutoConfiguration
+public class ProfilingAutoConfiguration {
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(Endpoint.class)
+    static class JfrEndpointConfiguration {
+
+        @Bean
+        public JfrRecordingEndpoint jfrRecordingEndpoint(
+                ObjectProvider<JfrRecordingCustomizer> customizers,
+                @Value("${spring.application.name:application}") String serviceName,
+                @Value("${profiling.jfr.default-duration:60s}") Duration defaultDuration,
+                @Value("${profiling.jfr.max-duration:10m}") Duration maxDuration,
+                @Value("${profiling.jfr.max-size-mb:100}") long maxSizeMb) {
+            return new JfrRecordingEndpoint(serviceName, customizers.orderedStream().toList(),
+                    defaultDuration, maxDuration, maxSizeMb);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(HikariDataSource.class)
+    static class PoolWaitConfiguration {
+
+        @Bean
+        public static PoolWaitProfiler poolWaitProfiler(
+                ObjectProvider<MeterRegistry> meterRegistry,
+                @Value("${profiling.jfr.pool-wait-threshold:1ms}") Duration threshold) {
+            return new PoolWaitProfiler(meterRegistry, threshold);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.sj.ecommerce.common.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event around one SNS publish, from serialization to the topic's acknowledgement.
+ */
+@Name(SnsPublishEvent.NAME)
+@Label("SNS Publish")
+@Category("Ecommerce")
+@Description("Publishing one event to an SNS topic")
+@StackTrace(false)
+public class SnsPublishEvent extends Event {
+
+    public static final String NAME = "ecommerce.SnsPublish";
+
+    @Label("Channel")
+    String channel;
+
+    @Label("Event Type")
+    String eventType;
+
+    @Label("Success")
+    boolean success;
+
+    public static SnsPublishEvent begin(String channel, String eventType) {
+        SnsPublishEvent event = new SnsPublishEvent();
+        event.channel = channel;
+        event.eventType = eventType;
+        event.begin();
+        return event;
+    }
+
+    public void succeeded() {
+        this.success = true;
+    }
+
+    public void finish() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
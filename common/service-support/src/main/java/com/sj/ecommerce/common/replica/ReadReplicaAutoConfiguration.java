@@ -0,0 +1,133 @@
+package com.sj.ecommerce.common.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceAutoConfiguration;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * {@link ReadRouting} for every service with JDBC, and a split of the single datasource into a
+ * write pool and a read-replica pool when datasource.replica.url is set.
+ *
+ * - @Transactional(readOnly = true) work goes to the "replica" Hikari pool, everything else to "primary"
+ * - pools are named so hikaricp.* metrics are tagged per route
+ * - if the replica lags more than datasource.replica.max-lag-ms, or cannot be reached,
+ *   reads fall back to the primary until it catches up
+ *
+ * Runs before DataSourceAutoConfiguration, whose pool then backs off for the routing datasource.
+ */
+@AutoConfiguration(before = DataSourceAutoConfiguration.class)
+@ConditionalOnClass({LazyConnectionDataSourceProxy.class, HikariDataSource.class})
+public class ReadReplicaAutoConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadReplicaAutoConfiguration.class);
+
+    // Zero on a primary or a fully replayed standby, otherwise time since the last replayed commit
+    private static final String REPLICATION_LAG_SQL = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000
+            END""";
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ReadRouting readRouting(@Value("${datasource.replica.read-your-writes-window-ms:2000}") long readYourWritesWindowMs) {
+        return new ReadRouting(readYourWritesWindowMs);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableScheduling
+    @ConditionalOnProperty(name = "datasource.replica.url")
+    static class ReplicaConfiguration {
+
+        @Bean
+        @ConfigurationProperties("spring.datasource.hikari")
+        public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            dataSource.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+            return dataSource;
+        }
+
+        @Bean
+        @ConfigurationProperties("datasource.replica.hikari")
+        public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                                  @Value("${datasource.replica.url}") String url,
+                                                  @Value("${datasource.replica.username:${spring.datasource.username:}}") String username,
+                                                  @Value("${datasource.replica.password:${spring.datasource.password:}}") String password) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url)
+                    .username(username)
+                    .password(password)
+                    .build();
+            dataSource.setPoolName(ReplicaRoutingDataSource.REPLICA);
+            dataSource.setReadOnly(true);
+            return dataSource;
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                     @Qualifier("replicaDataSource") DataSource replica,
+                                     ReadRouting readRouting) {
+            return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, readRouting));
+        }
+
+        @Bean
+        public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+                                                   ReadRouting readRouting,
+                                                   @Value("${datasource.replica.max-lag-ms:1000}") long maxLagMs) {
+            return new ReplicaLagMonitor(new JdbcTemplate(replica), readRouting, maxLagMs);
+        }
+    }
+
+    public static class ReplicaLagMonitor {
+        private final JdbcTemplate replica;
+        private final ReadRouting readRouting;
+        private final long maxLagMs;
+
+        ReplicaLagMonitor(JdbcTemplate replica, ReadRouting readRouting, long maxLagMs) {
+            this.replica = replica;
+            this.readRouting = readRouting;
+            this.maxLagMs = maxLagMs;
+        }
+
+        @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval-ms:5000}")
+        public void check() {
+            boolean lagging;
+            try {
+                Double lagMs = replica.queryForObject(REPLICATION_LAG_SQL, Double.class);
+                lagging = lagMs != null && lagMs > maxLagMs;
+                if (lagging != readRouting.isReplicaLagging()) {
+                    log.warn("Replica lag {} ms (max {} ms), reads now go to {}", lagMs, maxLagMs,
+                            lagging ? ReplicaRoutingDataSource.PRIMARY : ReplicaRoutingDataSource.REPLICA);
+                }
+            } catch (Exception e) {
+                lagging = true;
+                if (!readRouting.isReplicaLagging()) {
+                    log.warn("Replica lag check failed, routing reads to primary", e);
+                }
+            }
+            readRouting.setReplicaLagging(lagging);
+        }
+    }
+}
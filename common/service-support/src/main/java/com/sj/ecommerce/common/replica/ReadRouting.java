@@ -0,0 +1,118 @@
+package com.sj.ecommerce.common.replica;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Decides whether read-only work may use the replica pool.
+ *
+ * Reads go to the replica unless the replica is lagging (see {@link ReadReplicaAutoConfiguration})
+ * or the key being read was written within the read-your-writes window, in which case the
+ * read is pinned to the primary. Without a configured replica this only tracks state.
+ */
+public class ReadRouting {
+
+    private static final int PRUNE_THRESHOLD = 10_000;
+
+    private final long readYourWritesWindowNanos;
+    private final Map<String, Long> recentWrites = new ConcurrentHashMap<>();
+    private final ThreadLocal<Boolean> pinnedToPrimary = new ThreadLocal<>();
+    private volatile boolean replicaLagging;
+
+    public ReadRouting(long readYourWritesWindowMs) {
+        this.readYourWritesWindowNanos = Duration.ofMillis(readYourWritesWindowMs).toNanos();
+    }
+
+    /**
+     * Marks keys as recently written. Inside a transaction the window starts at commit.
+     */
+    public void recordWrite(String... keys) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markWritten(keys);
+                }
+            });
+        } else {
+            markWritten(keys);
+        }
+    }
+
+    /**
+     * Runs a read, pinned to the primary when the replica may not have the latest write for the key.
+     * Call from inside a readOnly transaction; the connection is only fetched on first use.
+     */
+    public <T> T read(String key, Supplier<T> query) {
+        return read(isRecentlyWritten(key), query);
+    }
+
+    /**
+     * Runs one read covering several keys, e.g. a batch lookup; it is pinned to the primary when
+     * any of them was written within the window.
+     */
+    public <T> T read(Collection<String> keys, Supplier<T> query) {
+        boolean recentlyWritten = false;
+        for (String key : keys) {
+            if (isRecentlyWritten(key)) {
+                recentlyWritten = true;
+                break;
+            }
+        }
+        return read(recentlyWritten, query);
+    }
+
+    private <T> T read(boolean recentlyWritten, Supplier<T> query) {
+        if (!replicaLagging && !recentlyWritten) {
+            return query.get();
+        }
+        pinnedToPrimary.set(Boolean.TRUE);
+        try {
+            return query.get();
+        } finally {
+            pinnedToPrimary.remove();
+        }
+    }
+
+    public boolean routeToReplica() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !replicaLagging
+                && pinnedToPrimary.get() == null;
+    }
+
+    public boolean isReplicaLagging() {
+        return replicaLagging;
+    }
+
+    void setReplicaLagging(boolean replicaLagging) {
+        this.replicaLagging = replicaLagging;
+    }
+
+    private boolean isRecentlyWritten(String key) {
+        Long writtenAt = recentWrites.get(key);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - writtenAt < readYourWritesWindowNanos) {
+            return true;
+        }
+        recentWrites.remove(key, writtenAt);
+        return false;
+    }
+
+    private void markWritten(String... keys) {
+        long now = System.nanoTime();
+        for (String key : keys) {
+            recentWrites.put(key, now);
+        }
+        if (recentWrites.size() > PRUNE_THRESHOLD) {
+            recentWrites.values().removeIf(writtenAt -> now - writtenAt >= readYourWritesWindowNanos);
+        }
+    }
+}
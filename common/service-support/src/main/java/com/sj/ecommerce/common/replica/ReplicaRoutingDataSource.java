@@ -0,0 +1,31 @@
+package com.sj.ecommerce.common.replica;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Routes each connection request to the primary or replica pool as decided by {@link ReadRouting}.
+ * Must sit behind a LazyConnectionDataSourceProxy so the decision is made after the
+ * transaction's read-only flag is known.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    private final ReadRouting readRouting;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReadRouting readRouting) {
+        this.readRouting = readRouting;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return readRouting.routeToReplica() ? REPLICA : PRIMARY;
+    }
+}
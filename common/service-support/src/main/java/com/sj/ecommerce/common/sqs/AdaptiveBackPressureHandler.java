@@ -0,0 +1,113 @@
+package com.sj.ecommerce.common.sqs;
+
+import io.awspring.cloud.sqs.listener.backpressure.BatchAwareBackPressureHandler;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * SQS back-pressure handler whose in-flight limit and poll batch size are changed at runtime
+ * by {@link AdaptiveListenerController}.
+ *
+ * The container polls for exactly as many messages as permits granted, so the batch size here
+ * is the effective maxMessagesPerPoll. While paused no permits are granted and polling stops.
+ */
+public class AdaptiveBackPressureHandler implements BatchAwareBackPressureHandler {
+
+    private final Duration acquireTimeout;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    private int limit;
+    private int batchSize;
+    private boolean paused;
+    private int inFlight;
+
+    public AdaptiveBackPressureHandler(AimdConcurrencyPolicy.Limits initial, Duration acquireTimeout) {
+        this.limit = initial.concurrency();
+        this.batchSize = initial.batchSize();
+        this.paused = initial.paused();
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    public void update(AimdConcurrencyPolicy.Limits limits) {
+        lock.lock();
+        try {
+            this.limit = limits.concurrency();
+            this.batchSize = limits.batchSize();
+            this.paused = limits.paused();
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int requestBatch() throws InterruptedException {
+        return request(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Waits up to the acquire timeout for capacity and grants at most one batch.
+     * Returns 0 when paused or saturated; the container then simply asks again.
+     */
+    @Override
+    public int request(int amount) throws InterruptedException {
+        long remaining = acquireTimeout.toNanos();
+        lock.lockInterruptibly();
+        try {
+            while (paused || inFlight >= limit) {
+                if (remaining <= 0) {
+                    return 0;
+                }
+                remaining = changed.awaitNanos(remaining);
+            }
+            int granted = Math.min(Math.min(amount, batchSize), limit - inFlight);
+            inFlight += granted;
+            return granted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void release(int amount, ReleaseReason reason) {
+        lock.lock();
+        try {
+            inFlight = Math.max(0, inFlight - amount);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean drain(Duration timeout) {
+        long remaining = timeout.toNanos();
+        lock.lock();
+        try {
+            while (inFlight > 0) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = changed.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.sj.ecommerce.common.sqs;
+
+import io.awspring.cloud.sqs.config.SqsMessageListenerContainerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.util.ClassUtils;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+
+import javax.sql.DataSource;
+import java.util.function.IntSupplier;
+
+/**
+ * Replaces the fixed SQS listener defaults with {@link AdaptiveListenerController}.
+ * Disable with aws.sqs.listener.adaptive.enabled=false to fall back to the container defaults.
+ *
+ * - aws.sqs.listener.adaptive.queue-name, by default aws.sqs.queue-name, is the queue whose
+ *   depth drives scaling up
+ * - the primary DataSource, if there is one and it is backed by Hikari, supplies the
+ *   pool-waiters signal; services without a database scale on latency and failures alone
+ */
+@AutoConfiguration
+@EnableScheduling
+@ConditionalOnClass(SqsMessageListenerContainerFactory.class)
+@ConditionalOnProperty(name = "aws.sqs.listener.adaptive.enabled", havingValue = "true", matchIfMissing = true)
+public class AdaptiveListenerAutoConfiguration {
+
+    private static final String HIKARI = "com.zaxxer.hikari.HikariDataSource";
+
+    @Bean
+    public AdaptiveListenerController adaptiveListenerController(
+            SqsAsyncClient sqsAsyncClient,
+            ObjectProvider<DataSource> dataSource,
+            @Value("${aws.sqs.listener.adaptive.queue-name:${aws.sqs.queue-name}}") String queueName,
+            @Value("${aws.sqs.listener.adaptive.min-concurrency:1}") int minConcurrency,
+            @Value("${aws.sqs.listener.adaptive.max-concurrency:10}") int maxConcurrency,
+            @Value("${aws.sqs.listener.adaptive.initial-concurrency:3}") int initialConcurrency,
+            @Value("${aws.sqs.listener.adaptive.max-batch-size:10}") int maxBatchSize,
+            @Value("${aws.sqs.listener.adaptive.latency-target-ms:500}") long latencyTargetMs,
+            @Value("${aws.sqs.listener.adaptive.decrease-factor:0.5}") double decreaseFactor) {
+        AimdConcurrencyPolicy policy = new AimdConcurrencyPolicy(
+                minConcurrency, maxConcurrency, maxBatchSize, latencyTargetMs, decreaseFactor);
+        return new AdaptiveListenerController(policy, initialConcurrency, sqsAsyncClient,
+                poolThreadsAwaiting(dataSource.getIfAvailable()), queueName);
+    }
+
+    /**
+     * Hooks the controller into the auto-configured listener factory so converter and
+     * observation settings from Spring Cloud AWS are kept.
+     */
+    @Bean
+    public static BeanPostProcessor adaptiveSqsListenerFactoryPostProcessor(
+            ObjectProvider<AdaptiveListenerController> controller) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof SqsMessageListenerContainerFactory<?> factory) {
+                    configure(factory, controller.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static IntSupplier poolThreadsAwaiting(DataSource dataSource) {
+        if (dataSource == null || !ClassUtils.isPresent(HIKARI, AdaptiveListenerAutoConfiguration.class.getClassLoader())) {
+            return () -> 0;
+        }
+        return new HikariThreadsAwaiting(dataSource);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void configure(SqsMessageListenerContainerFactory<?> factory, AdaptiveListenerController controller) {
+        SqsMessageListenerContainerFactory<Object> typed = (SqsMessageListenerContainerFactory<Object>) factory;
+        typed.configure(options -> options
+                .maxConcurrentMessages(controller.maxConcurrency())
+                .maxMessagesPerPoll(controller.maxBatchSize())
+                .backPressureHandlerFactory(controller));
+        typed.addMessageInterceptor(controller);
+    }
+}
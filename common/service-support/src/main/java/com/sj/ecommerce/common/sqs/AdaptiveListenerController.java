@@ -0,0 +1,138 @@
+package com.sj.ecommerce.common.sqs;
+
+import io.awspring.cloud.sqs.listener.ContainerOptions;
+import io.awspring.cloud.sqs.listener.backpressure.BackPressureHandler;
+import io.awspring.cloud.sqs.listener.backpressure.BackPressureHandlerFactory;
+import io.awspring.cloud.sqs.listener.interceptor.MessageInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.scheduling.annotation.Scheduled;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.QueueAttributeName;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adapts SQS listener concurrency and poll batch size to what the service can absorb.
+ *
+ * Every interval it samples the approximate queue depth, threads waiting for a database
+ * connection (see {@link HikariThreadsAwaiting}; always 0 for a service without a pool) and the
+ * average listener latency/failures observed through the message interceptor, feeds them to
+ * {@link AimdConcurrencyPolicy} and pushes the result to every {@link AdaptiveBackPressureHandler}
+ * it created.
+ */
+public class AdaptiveListenerController implements BackPressureHandlerFactory, MessageInterceptor<Object> {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveListenerController.class);
+    private static final Duration ACQUIRE_TIMEOUT = Duration.ofSeconds(1);
+    private static final long ATTRIBUTE_TIMEOUT_MS = 2000;
+
+    private final AimdConcurrencyPolicy policy;
+    private final SqsAsyncClient sqsAsyncClient;
+    private final IntSupplier poolThreadsAwaiting;
+    private final String queueName;
+
+    private final List<AdaptiveBackPressureHandler> handlers = new CopyOnWriteArrayList<>();
+    private final Map<UUID, Long> startedAt = new ConcurrentHashMap<>();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private volatile AimdConcurrencyPolicy.Limits limits;
+    private volatile String queueUrl;
+
+    public AdaptiveListenerController(AimdConcurrencyPolicy policy, int initialConcurrency,
+                                      SqsAsyncClient sqsAsyncClient, IntSupplier poolThreadsAwaiting,
+                                      String queueName) {
+        this.policy = policy;
+        this.sqsAsyncClient = sqsAsyncClient;
+        this.poolThreadsAwaiting = poolThreadsAwaiting;
+        this.queueName = queueName;
+        this.limits = policy.initial(initialConcurrency);
+    }
+
+    @Override
+    public BackPressureHandler createBackPressureHandler(ContainerOptions<?, ?> containerOptions) {
+        AdaptiveBackPressureHandler handler = new AdaptiveBackPressureHandler(limits, ACQUIRE_TIMEOUT);
+        handlers.add(handler);
+        return handler;
+    }
+
+    @Override
+    public Message<Object> intercept(Message<Object> message) {
+        startedAt.put(message.getHeaders().getId(), System.nanoTime());
+        return message;
+    }
+
+    @Override
+    public void afterProcessing(Message<Object> message, Throwable t) {
+        Long start = startedAt.remove(message.getHeaders().getId());
+        if (start != null) {
+            completed.increment();
+            latencyNanos.add(System.nanoTime() - start);
+        }
+        if (t != null) {
+            failures.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${aws.sqs.listener.adaptive.interval-ms:2000}")
+    public void adjust() {
+        long count = completed.sumThenReset();
+        long nanos = latencyNanos.sumThenReset();
+        AimdConcurrencyPolicy.Signals signals = new AimdConcurrencyPolicy.Signals(
+                queueDepth(),
+                poolThreadsAwaiting.getAsInt(),
+                count == 0 ? 0 : nanos / 1_000_000.0 / count,
+                failures.sumThenReset());
+
+        AimdConcurrencyPolicy.Limits next = policy.next(limits, signals);
+        if (!next.equals(limits)) {
+            log.info("Listener limits {} -> {} for queue={} ({})", limits, next, queueName, signals);
+        }
+        limits = next;
+        handlers.forEach(handler -> handler.update(next));
+    }
+
+    public AimdConcurrencyPolicy.Limits currentLimits() {
+        return limits;
+    }
+
+    public int maxConcurrency() {
+        return policy.maxConcurrency();
+    }
+
+    public int maxBatchSize() {
+        return policy.maxBatchSize();
+    }
+
+    private long queueDepth() {
+        try {
+            if (queueUrl == null) {
+                queueUrl = sqsAsyncClient.getQueueUrl(r -> r.queueName(queueName))
+                        .get(ATTRIBUTE_TIMEOUT_MS, TimeUnit.MILLISECONDS).queueUrl();
+            }
+            String depth = sqsAsyncClient.getQueueAttributes(r -> r.queueUrl(queueUrl)
+                            .attributeNames(QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES))
+                    .get(ATTRIBUTE_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                    .attributes().get(QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES);
+            return depth == null ? AimdConcurrencyPolicy.UNKNOWN_DEPTH : Long.parseLong(depth);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return AimdConcurrencyPolicy.UNKNOWN_DEPTH;
+        } catch (Exception e) {
+            log.debug("Could not read depth of queue={}", queueName, e);
+            return AimdConcurrencyPolicy.UNKNOWN_DEPTH;
+        }
+    }
+
+}
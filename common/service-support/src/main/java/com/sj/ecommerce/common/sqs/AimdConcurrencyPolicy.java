@@ -0,0 +1,81 @@
+package com.sj.ecommerce.common.sqs;
+
+/**
+ * Additive-increase / multiplicative-decrease policy for SQS listener concurrency.
+ *
+ * - Backlog and healthy signals: concurrency and batch size grow by one per interval.
+ * - Threads waiting on the connection pool or failed deliveries: both are halved.
+ * - Average listener latency above target: both are halved and polling pauses for one interval.
+ */
+public class AimdConcurrencyPolicy {
+
+    /** Unknown queue depth, e.g. when the attribute lookup failed. */
+    public static final long UNKNOWN_DEPTH = -1;
+
+    /** SQS caps ReceiveMessage at 10 messages. */
+    public static final int MAX_SQS_BATCH = 10;
+
+    public record Limits(int concurrency, int batchSize, boolean paused) {
+    }
+
+    public record Signals(long queueDepth, int poolThreadsAwaiting, double averageLatencyMillis, long failures) {
+    }
+
+    private final int minConcurrency;
+    private final int maxConcurrency;
+    private final int maxBatchSize;
+    private final double latencyTargetMillis;
+    private final double decreaseFactor;
+
+    public AimdConcurrencyPolicy(int minConcurrency, int maxConcurrency, int maxBatchSize,
+                                 double latencyTargetMillis, double decreaseFactor) {
+        if (minConcurrency < 1 || maxConcurrency < minConcurrency) {
+            throw new IllegalArgumentException("Require 1 <= min-concurrency <= max-concurrency");
+        }
+        if (decreaseFactor <= 0 || decreaseFactor >= 1) {
+            throw new IllegalArgumentException("decrease-factor must be between 0 and 1");
+        }
+        this.minConcurrency = minConcurrency;
+        this.maxConcurrency = maxConcurrency;
+        this.maxBatchSize = Math.max(1, Math.min(maxBatchSize, MAX_SQS_BATCH));
+        this.latencyTargetMillis = latencyTargetMillis;
+        this.decreaseFactor = decreaseFactor;
+    }
+
+    public Limits initial(int concurrency) {
+        int clamped = clamp(concurrency, minConcurrency, maxConcurrency);
+        return new Limits(clamped, Math.min(clamped, maxBatchSize), false);
+    }
+
+    public Limits next(Limits current, Signals signals) {
+        boolean slow = signals.averageLatencyMillis() > latencyTargetMillis;
+        boolean saturated = signals.poolThreadsAwaiting() > 0 || signals.failures() > 0;
+
+        if (slow || saturated) {
+            int concurrency = clamp((int) (current.concurrency() * decreaseFactor), minConcurrency, maxConcurrency);
+            int batchSize = clamp((int) (current.batchSize() * decreaseFactor), 1, Math.min(concurrency, maxBatchSize));
+            return new Limits(concurrency, batchSize, slow);
+        }
+
+        if (signals.queueDepth() > 0) {
+            int concurrency = Math.min(current.concurrency() + 1, maxConcurrency);
+            int batchSize = clamp(current.batchSize() + 1, 1,
+                    (int) Math.min(Math.min(concurrency, maxBatchSize), signals.queueDepth()));
+            return new Limits(concurrency, batchSize, false);
+        }
+
+        return new Limits(current.concurrency(), current.batchSize(), false);
+    }
+
+    public int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int maxBatchSize() {
+        return Math.min(maxBatchSize, maxConcurrency);
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(value, max));
+    }
+}
@@ -0,0 +1,39 @@
+package com.sj.ecommerce.common.sqs;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.function.IntSupplier;
+
+/**
+ * Threads currently waiting for a connection from the Hikari pool behind a DataSource, the
+ * back-pressure signal {@link AdaptiveListenerController} reads each interval.
+ * 0 when the DataSource is not (or does not currently route to) a Hikari pool.
+ */
+public class HikariThreadsAwaiting implements IntSupplier {
+
+    private static final Logger log = LoggerFactory.getLogger(HikariThreadsAwaiting.class);
+
+    private final DataSource dataSource;
+
+    public HikariThreadsAwaiting(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public int getAsInt() {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+                return pool == null ? 0 : pool.getThreadsAwaitingConnection();
+            }
+        } catch (SQLException e) {
+            log.debug("Could not read Hikari pool state", e);
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,56 @@
+package com.sj.ecommerce.common.sqs;
+
+import io.awspring.cloud.sqs.config.SqsMessageListenerContainerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
+
+/**
+ * Adds {@link VisibilityHeartbeat} to the SQS listener factory and bounds the shutdown drain.
+ *
+ * On SIGTERM the context closes, the listener containers stop polling and wait up to
+ * aws.sqs.listener.heartbeat.drain-timeout-seconds for in-flight messages. Keep
+ * spring.lifecycle.timeout-per-shutdown-phase above that so the drain is not cut short.
+ * Disable with aws.sqs.listener.heartbeat.enabled=false.
+ */
+@AutoConfiguration
+@ConditionalOnClass(SqsMessageListenerContainerFactory.class)
+@ConditionalOnProperty(name = "aws.sqs.listener.heartbeat.enabled", havingValue = "true", matchIfMissing = true)
+public class SqsHeartbeatAutoConfiguration {
+
+    @Bean
+    public VisibilityHeartbeat visibilityHeartbeat(
+            MeterRegistry meterRegistry,
+            @Value("${aws.sqs.listener.heartbeat.visibility-timeout-seconds:30}") int visibilityTimeoutSeconds,
+            @Value("${aws.sqs.listener.heartbeat.max-extension-seconds:900}") long maxExtensionSeconds) {
+        VisibilityHeartbeat heartbeat = new VisibilityHeartbeat(
+                visibilityTimeoutSeconds, Duration.ofSeconds(maxExtensionSeconds), meterRegistry);
+        heartbeat.start();
+        return heartbeat;
+    }
+
+    @Bean
+    public static BeanPostProcessor sqsHeartbeatListenerFactoryPostProcessor(
+            ObjectProvider<VisibilityHeartbeat> heartbeat,
+            @Value("${aws.sqs.listener.heartbeat.drain-timeout-seconds:30}") long drainTimeoutSeconds) {
+        return new BeanPostProcessor() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof SqsMessageListenerContainerFactory<?> factory) {
+                    SqsMessageListenerContainerFactory<Object> typed = (SqsMessageListenerContainerFactory<Object>) factory;
+                    typed.configure(options -> options.listenerShutdownTimeout(Duration.ofSeconds(drainTimeoutSeconds)));
+                    typed.addMessageInterceptor(heartbeat.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
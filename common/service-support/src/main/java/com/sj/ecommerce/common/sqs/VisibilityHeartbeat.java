@@ -0,0 +1,151 @@
+package com.sj.ecommerce.common.sqs;
+
+import io.awspring.cloud.sqs.listener.SqsHeaders;
+import io.awspring.cloud.sqs.listener.Visibility;
+import io.awspring.cloud.sqs.listener.interceptor.MessageInterceptor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps SQS messages invisible while their listener is still working on them, and hands
+ * unfinished ones back to the queue on shutdown.
+ *
+ * - every third of the visibility timeout, messages in flight for longer than that get their
+ *   visibility reset to the full timeout, up to max-extension per message so a hung handler
+ *   still lets its message be redelivered eventually
+ * - on shutdown the listener container stops polling and waits up to its listener shutdown
+ *   timeout for in-flight messages (see SqsHeartbeatAutoConfiguration); the heartbeat keeps running
+ *   meanwhile, and whatever is still unfinished afterwards is made visible again right away
+ *   instead of after the timeout
+ * - sqs.listener.redeliveries counts messages received more than once
+ */
+public class VisibilityHeartbeat implements MessageInterceptor<Object>, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(VisibilityHeartbeat.class);
+
+    private record InFlight(Visibility visibility, long startedAtNanos) {
+    }
+
+    private final int visibilityTimeoutSeconds;
+    private final long intervalNanos;
+    private final long maxExtensionNanos;
+    private final Map<UUID, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Counter redeliveries;
+    private final Counter extensions;
+    private final Counter released;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "sqs-visibility-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public VisibilityHeartbeat(int visibilityTimeoutSeconds, Duration maxExtension, MeterRegistry meterRegistry) {
+        this.visibilityTimeoutSeconds = visibilityTimeoutSeconds;
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(visibilityTimeoutSeconds) / 3;
+        this.maxExtensionNanos = maxExtension.toNanos();
+        this.redeliveries = Counter.builder("sqs.listener.redeliveries")
+                .description("Messages received more than once").register(meterRegistry);
+        this.extensions = Counter.builder("sqs.listener.visibility.extensions")
+                .description("Visibility timeout extensions for slow messages").register(meterRegistry);
+        this.released = Counter.builder("sqs.listener.released")
+                .description("Unfinished messages made visible again at shutdown").register(meterRegistry);
+        Gauge.builder("sqs.listener.inflight", inFlight, Map::size).register(meterRegistry);
+    }
+
+    public void start() {
+        scheduler.scheduleWithFixedDelay(() -> beat(System.nanoTime()),
+                intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public Message<Object> intercept(Message<Object> message) {
+        if (receiveCount(message) > 1) {
+            redeliveries.increment();
+        }
+        Object visibility = message.getHeaders().get(SqsHeaders.SQS_VISIBILITY_TIMEOUT_HEADER);
+        if (visibility instanceof Visibility v) {
+            inFlight.put(message.getHeaders().getId(), new InFlight(v, System.nanoTime()));
+        }
+        return message;
+    }
+
+    @Override
+    public void afterProcessing(Message<Object> message, Throwable t) {
+        inFlight.remove(message.getHeaders().getId());
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void onShutdown() {
+        if (!inFlight.isEmpty()) {
+            log.info("Shutting down with {} SQS messages in flight, draining", inFlight.size());
+        }
+    }
+
+    /** Runs after the listener containers have stopped, i.e. after the drain finished or timed out. */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        int count = 0;
+        for (InFlight message : inFlight.values()) {
+            message.visibility().changeToAsync(0);
+            count++;
+        }
+        inFlight.clear();
+        if (count > 0) {
+            released.increment(count);
+            log.warn("Drain deadline passed with {} SQS messages unfinished, made them visible for redelivery", count);
+        }
+    }
+
+    void beat(long nowNanos) {
+        inFlight.forEach((id, message) -> {
+            long elapsed = nowNanos - message.startedAtNanos();
+            if (elapsed < intervalNanos) {
+                return;
+            }
+            if (elapsed > maxExtensionNanos) {
+                log.warn("SQS message {} still processing after {}s, no longer extending its visibility",
+                        id, TimeUnit.NANOSECONDS.toSeconds(elapsed));
+                inFlight.remove(id, message);
+                return;
+            }
+            message.visibility().changeToAsync(visibilityTimeoutSeconds).whenComplete((ignored, e) -> {
+                if (e == null) {
+                    extensions.increment();
+                } else {
+                    log.warn("Could not extend visibility of SQS message {}", id, e);
+                }
+            });
+        });
+    }
+
+    private static int receiveCount(Message<?> message) {
+        Object count = message.getHeaders().get(SqsHeaders.MessageSystemAttributes.SQS_APPROXIMATE_RECEIVE_COUNT);
+        if (count == null) {
+            return 1;
+        }
+        try {
+            return Integer.parseInt(count.toString());
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+}
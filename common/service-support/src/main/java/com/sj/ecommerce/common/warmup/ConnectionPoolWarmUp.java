@@ -0,0 +1,53 @@
+package com.sj.ecommerce.common.warmup;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills every Hikari pool to its maximum size and validates each connection, before any other
+ * warm-up step, so the first queries neither wait for connections to open nor time out on them.
+ */
+public class ConnectionPoolWarmUp implements WarmUpWorkload, Ordered {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final ObjectProvider<HikariDataSource> pools;
+
+    public ConnectionPoolWarmUp(ObjectProvider<HikariDataSource> pools) {
+        this.pools = pools;
+    }
+
+    @Override
+    public List<WarmUpStep> steps() {
+        return List.of(new WarmUpStep("connection pools", this::primePools));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private void primePools() throws SQLException {
+        for (HikariDataSource pool : pools.orderedStream().toList()) {
+            // Held all at once, so the pool has to open every connection it is allowed
+            List<Connection> held = new ArrayList<>(pool.getMaximumPoolSize());
+            try {
+                for (int i = 0; i < pool.getMaximumPoolSize() && !Thread.currentThread().isInterrupted(); i++) {
+                    Connection connection = pool.getConnection();
+                    held.add(connection);
+                    connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+                }
+            } finally {
+                for (Connection connection : held) {
+                    connection.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.sj.ecommerce.common.warmup;
+
+import io.awspring.cloud.sqs.listener.MessageListenerContainer;
+import io.awspring.cloud.sqs.listener.MessageListenerContainerRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Keeps a new instance away from traffic until its warm-up steps have run or warmup.deadline
+ * has passed, whichever comes first:
+ *
+ * - as the "warmUp" health indicator, which is in the readiness group, it reports
+ *   OUT_OF_SERVICE meanwhile, so /actuator/health/readiness answers 503
+ * - SQS listener containers are created without auto-startup (see WarmUpAutoConfiguration) and
+ *   are only started here
+ *
+ * A workload still running at the deadline is interrupted, and a failing one is logged; traffic
+ * is let in either way.
+ */
+public class WarmUp implements HealthIndicator, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmUp.class);
+
+    private final Runnable workload;
+    private final ObjectProvider<MessageListenerContainerRegistry> listeners;
+    private final boolean enabled;
+    private final Duration deadline;
+    private final CompletableFuture<String> released = new CompletableFuture<>();
+    private volatile long startedAtNanos;
+    private volatile long durationMs;
+    private volatile boolean closed;
+    private ExecutorService worker;
+
+    public WarmUp(Runnable workload, ObjectProvider<MessageListenerContainerRegistry> listeners,
+                  boolean enabled, Duration deadline) {
+        this.workload = workload;
+        this.listeners = listeners;
+        this.enabled = enabled;
+        this.deadline = deadline;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        startedAtNanos = System.nanoTime();
+        if (!enabled) {
+            release("disabled");
+            return;
+        }
+        worker = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletableFuture.runAsync(workload, worker)
+                .orTimeout(deadline.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((ignored, e) -> {
+                    Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                    if (cause == null) {
+                        release("completed");
+                    } else if (cause instanceof TimeoutException) {
+                        worker.shutdownNow();
+                        release("deadline passed");
+                    } else {
+                        log.warn("Warm-up failed, accepting traffic anyway", cause);
+                        release("failed");
+                    }
+                });
+    }
+
+    @Override
+    public Health health() {
+        String outcome = released.getNow(null);
+        if (outcome == null) {
+            long elapsedMs = startedAtNanos == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAtNanos);
+            return Health.outOfService()
+                    .withDetail("elapsedMs", elapsedMs)
+                    .withDetail("deadlineMs", deadline.toMillis())
+                    .build();
+        }
+        return Health.up()
+                .withDetail("outcome", outcome)
+                .withDetail("durationMs", durationMs)
+                .build();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (worker != null) {
+            worker.shutdownNow();
+        }
+    }
+
+    /** Completes with the outcome once traffic is let in. */
+    CompletableFuture<String> whenReleased() {
+        return released;
+    }
+
+    private void release(String outcome) {
+        durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAtNanos);
+        // Shutting down before warm-up ended: leave the containers stopped
+        if (!closed) {
+            MessageListenerContainerRegistry registry = listeners.getIfAvailable();
+            if (registry != null) {
+                for (MessageListenerContainer<?> container : registry.getListenerContainers()) {
+                    if (!container.isRunning()) {
+                        container.start();
+                    }
+                }
+            }
+        }
+        log.info("Warm-up {} after {} ms, accepting traffic", outcome, durationMs);
+        released.complete(outcome);
+    }
+}
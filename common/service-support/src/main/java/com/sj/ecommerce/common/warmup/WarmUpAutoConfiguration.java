@@ -0,0 +1,61 @@
+package com.sj.ecommerce.common.warmup;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.awspring.cloud.sqs.config.SqsMessageListenerContainerFactory;
+import io.awspring.cloud.sqs.listener.MessageListenerContainerRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Runs every {@link WarmUpWorkload} bean before the instance takes traffic, see {@link WarmUp};
+ * with Hikari on the classpath, {@link ConnectionPoolWarmUp} fills the pools first.
+ *
+ * The listener containers never start on their own, so that WarmUp can start them; with
+ * warmup.enabled=false that happens as soon as the application is ready. The bean name is the
+ * health indicator name listed in management.endpoint.health.group.readiness.include.
+ */
+@AutoConfiguration
+@ConditionalOnClass({HealthIndicator.class, SqsMessageListenerContainerFactory.class})
+public class WarmUpAutoConfiguration {
+
+    @Bean
+    public WarmUp warmUp(ObjectProvider<WarmUpWorkload> workloads,
+                         ObjectProvider<MessageListenerContainerRegistry> listeners,
+                         @Value("${warmup.enabled:true}") boolean enabled,
+                         @Value("${warmup.deadline:60s}") Duration deadline) {
+        return new WarmUp(() -> WarmUpStep.runAll(workloads.orderedStream()
+                .flatMap(workload -> workload.steps().stream())
+                .toList()), listeners, enabled, deadline);
+    }
+
+    @Bean
+    public static BeanPostProcessor warmUpListenerFactoryPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof SqsMessageListenerContainerFactory<?> factory) {
+                    factory.configure(options -> options.autoStartup(false));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(HikariDataSource.class)
+    static class ConnectionPoolConfiguration {
+
+        @Bean
+        public ConnectionPoolWarmUp connectionPoolWarmUp(ObjectProvider<HikariDataSource> pools) {
+            return new ConnectionPoolWarmUp(pools);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.sj.ecommerce.common.warmup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * One named piece of a {@link WarmUpWorkload}, e.g. "connection pools" or "event serialization".
+ * Tasks that loop should stop early once the thread is interrupted, which is how {@link WarmUp}
+ * ends a warm-up that runs past its deadline.
+ */
+public record WarmUpStep(String name, Task task) {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmUpStep.class);
+
+    @FunctionalInterface
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    /**
+     * Runs the steps in order until the thread is interrupted. A failing step is logged and the
+     * rest still run, so e.g. the database being unreachable does not skip the in-memory steps.
+     */
+    public static void runAll(List<WarmUpStep> steps) {
+        for (WarmUpStep step : steps) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                step.task().run();
+                log.debug("Warm-up step '{}' took {} ms", step.name(), (System.nanoTime() - start) / 1_000_000);
+            } catch (Exception e) {
+                log.warn("Warm-up step '{}' failed", step.name(), e);
+            }
+        }
+    }
+}
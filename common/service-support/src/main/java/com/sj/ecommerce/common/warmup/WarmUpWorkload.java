@@ -0,0 +1,13 @@
+package com.sj.ecommerce.common.warmup;
+
+import java.util.List;
+
+/**
+ * A service's warm-up steps: what a new instance would otherwise warm up on its first real
+ * requests and messages, run against sinks that discard the output. Every bean of this type
+ * is run by {@link WarmUp}, in {@link org.springframework.core.annotation.Order} order.
+ */
+public interface WarmUpWorkload {
+
+    List<WarmUpStep> steps();
+}
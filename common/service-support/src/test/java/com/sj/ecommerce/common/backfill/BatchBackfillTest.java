@@ -0,0 +1,51 @@
+package com.sj.ecommerce.common.backfill;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchBackfillTest {
+
+	@Test
+	void runsBatchesUntilOneComesBackShort() {
+		Queue<Integer> results = new ArrayDeque<>(List.of(10, 10, 3, 0));
+		BatchBackfill backfill = new BatchBackfill("test-backfill", batchSize -> {
+			assertEquals(10, batchSize);
+			return results.remove();
+		}, true, 10, 0);
+
+		assertEquals(23, backfill.run());
+		assertEquals(List.of(0), List.copyOf(results), "no batch after the short one");
+	}
+
+	@Test
+	void databaseErrorStopsTheJobWithTheRowsFilledSoFar() {
+		Queue<Integer> results = new ArrayDeque<>(List.of(10, 10));
+		BatchBackfill backfill = new BatchBackfill("test-backfill", batchSize -> {
+			if (results.isEmpty()) {
+				throw new QueryTimeoutException("statement timeout");
+			}
+			return results.remove();
+		}, true, 10, 0);
+
+		assertEquals(20, backfill.run());
+	}
+
+	@Test
+	void interruptStopsBetweenBatches() {
+		BatchBackfill backfill = new BatchBackfill("test-backfill", batchSize -> batchSize, true, 10, 60_000);
+		Thread.currentThread().interrupt();
+		try {
+			assertEquals(10, backfill.run());
+			assertTrue(Thread.currentThread().isInterrupted(), "the interrupt is kept for the worker");
+		} finally {
+			Thread.interrupted();
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package com.sj.ecommerce.common.events;
+
+import com.ecommerce.contracts.bus.EventBus;
+import com.ecommerce.contracts.bus.EventBusException;
+import com.ecommerce.contracts.bus.EventChannels;
+import io.awspring.cloud.sns.core.SnsTemplate;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class SnsEventBusTest {
+
+	private final SnsTemplate snsTemplate = mock(SnsTemplate.class);
+	private final SnsEventBus bus = new SnsEventBus(snsTemplate,
+			Map.of(EventChannels.PAYMENT_EVENTS, "arn:aws:sns:ap-south-1:123:payment-events-topic"));
+
+	@Test
+	void publishesToTheChannelsTopicWithTheEventTypeAsSubject() {
+		Object event = new Object();
+
+		bus.publish(EventChannels.PAYMENT_EVENTS, "PaymentCompleted", event);
+
+		verify(snsTemplate).sendNotification("arn:aws:sns:ap-south-1:123:payment-events-topic", event, "PaymentCompleted");
+	}
+
+	@Test
+	void channelWithoutTopicIsRejected() {
+		assertThrows(EventBusException.class, () -> bus.publish(EventChannels.ORDER_EVENTS, "OrderCreated", new Object()));
+		verify(snsTemplate, never()).sendNotification(anyString(), any(), anyString());
+	}
+
+	@Test
+	void subscribeIsANoOp() {
+		try (EventBus.Subscription subscription = bus.subscribe(EventChannels.PAYMENT_EVENTS, event -> {
+			throw new AssertionError("SNS deliveries go through @SqsListener");
+		})) {
+			bus.publish(EventChannels.PAYMENT_EVENTS, "PaymentCompleted", new Object());
+		}
+	}
+}
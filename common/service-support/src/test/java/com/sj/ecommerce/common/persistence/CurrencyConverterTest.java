@@ -0,0 +1,27 @@
+package com.sj.ecommerce.common.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Currency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CurrencyConverterTest {
+
+	private final CurrencyConverter converter = new CurrencyConverter();
+
+	@Test
+	void storesTheIsoCode() {
+		assertEquals("INR", converter.convertToDatabaseColumn(Currency.getInstance("INR")));
+		assertNull(converter.convertToDatabaseColumn(null));
+	}
+
+	@Test
+	void loadsPaddedCodesAndRefusesUnknownOnes() {
+		assertEquals(Currency.getInstance("USD"), converter.convertToEntityAttribute("USD "));
+		assertNull(converter.convertToEntityAttribute(null));
+		assertThrows(IllegalArgumentException.class, () -> converter.convertToEntityAttribute("XYZ"));
+	}
+}
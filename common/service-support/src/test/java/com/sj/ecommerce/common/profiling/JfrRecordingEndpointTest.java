@@ -0,0 +1,68 @@
+package com.sj.ecommerce.common.profiling;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JfrRecordingEndpointTest {
+
+	private final List<String> customized = new CopyOnWriteArrayList<>();
+	private final JfrRecordingEndpoint endpoint = new JfrRecordingEndpoint("order-service",
+			List.of(recording -> customized.add(recording.getName())), Duration.ofSeconds(30), Duration.ofMinutes(1), 10);
+
+	@AfterEach
+	void close() {
+		endpoint.close();
+	}
+
+	@Test
+	void recordsCustomEventsUntilStoppedAndServesTheFile() throws Exception {
+		assertEquals(200, endpoint.start(null, null).getStatus());
+		assertEquals(409, endpoint.start(null, null).getStatus());
+		assertEquals(List.of("order-service-on-demand"), customized, "the service's customizers see the new recording");
+
+		HandlerEvent handler = HandlerEvent.begin("PaymentEventListener", "PaymentCompletedV2", 42L);
+		handler.succeeded();
+		handler.finish();
+		IMetricsTracker tracker = new PoolWaitProfiler.Tracker("primary", new IMetricsTracker() { },
+				Duration.ofMillis(1).toNanos(), Duration.ofSeconds(30).toNanos());
+		tracker.recordConnectionAcquiredNanos(Duration.ofMillis(5).toNanos());
+		tracker.recordConnectionAcquiredNanos(Duration.ofNanos(500).toNanos());
+
+		WebEndpointResponse<Map<String, Object>> stopped = endpoint.stop();
+		assertEquals("CLOSED", stopped.getBody().get("state"), "the file is written when the recording closes");
+		WebEndpointResponse<Resource> download = endpoint.download();
+		assertEquals(200, download.getStatus());
+
+		List<RecordedEvent> events = RecordingFile.readAllEvents(download.getBody().getFile().toPath());
+		List<RecordedEvent> handled = events.stream().filter(e -> e.getEventType().getName().equals(HandlerEvent.NAME)).toList();
+		assertEquals(1, handled.size());
+		assertEquals(42L, handled.get(0).getLong("orderId"));
+		assertTrue(handled.get(0).getBoolean("success"));
+
+		List<RecordedEvent> waits = events.stream().filter(e -> e.getEventType().getName().equals(PoolWaitEvent.NAME)).toList();
+		assertEquals(1, waits.size(), "waits under the threshold are not recorded");
+		assertEquals(Duration.ofMillis(5), waits.get(0).getDuration("waitTime"));
+		assertFalse(waits.get(0).getBoolean("timedOut"));
+	}
+
+	@Test
+	void rejectsUnknownSettingsAndNothingToDownloadBeforeStart() {
+		assertEquals(404, endpoint.download().getStatus());
+		assertEquals(400, endpoint.start(null, "no-such-settings").getStatus());
+		assertEquals(400, endpoint.start(0L, null).getStatus());
+	}
+}
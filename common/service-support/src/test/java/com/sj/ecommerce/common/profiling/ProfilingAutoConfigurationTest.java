@@ -0,0 +1,37 @@
+package com.sj.ecommerce.common.profiling;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProfilingAutoConfigurationTest {
+
+	private final ApplicationContextRunner runner = new ApplicationContextRunner()
+			// SpringApplication installs this for the services; it turns "60s" into a Duration
+			.withInitializer(context -> context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance()))
+			.withConfiguration(AutoConfigurations.of(PropertyPlaceholderAutoConfiguration.class, ProfilingAutoConfiguration.class));
+
+	@Test
+	void registersTheEndpointAndThePoolWaitProfiler() {
+		List<String> customized = new CopyOnWriteArrayList<>();
+		runner.withPropertyValues("spring.application.name=payment-service")
+				.withBean(JfrRecordingCustomizer.class, () -> recording -> customized.add(recording.getName()))
+				.run(context -> {
+					assertThat(context).hasSingleBean(PoolWaitProfiler.class);
+					JfrRecordingEndpoint endpoint = context.getBean(JfrRecordingEndpoint.class);
+					try {
+						endpoint.start(null, null);
+						assertThat(customized).containsExactly("payment-service-on-demand");
+					} finally {
+						endpoint.close();
+					}
+				});
+	}
+}
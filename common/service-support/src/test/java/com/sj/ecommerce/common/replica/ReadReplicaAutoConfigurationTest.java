@@ -0,0 +1,44 @@
+package com.sj.ecommerce.common.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadReplicaAutoConfigurationTest {
+
+	private final ApplicationContextRunner runner = new ApplicationContextRunner()
+			.withConfiguration(AutoConfigurations.of(PropertyPlaceholderAutoConfiguration.class,
+					DataSourceAutoConfiguration.class, ReadReplicaAutoConfiguration.class))
+			.withPropertyValues("spring.datasource.url=jdbc:h2:mem:primary");
+
+	@Test
+	void withoutReplicaOnlyReadRoutingIsAdded() {
+		runner.run(context -> {
+			assertThat(context).hasSingleBean(ReadRouting.class);
+			assertThat(context).doesNotHaveBean(ReadReplicaAutoConfiguration.ReplicaLagMonitor.class);
+			assertThat(context.getBean(DataSource.class)).isInstanceOf(HikariDataSource.class);
+		});
+	}
+
+	@Test
+	void replicaUrlSplitsThePoolsBehindOneRoutingDataSource() {
+		runner.withPropertyValues("datasource.replica.url=jdbc:h2:mem:replica",
+						"datasource.replica.lag-check-interval-ms=600000")
+				.run(context -> {
+					assertThat(context.getBean(DataSource.class)).isInstanceOf(LazyConnectionDataSourceProxy.class);
+					assertThat(context.getBean("primaryDataSource", HikariDataSource.class).getPoolName()).isEqualTo("primary");
+					HikariDataSource replica = context.getBean("replicaDataSource", HikariDataSource.class);
+					assertThat(replica.getPoolName()).isEqualTo("replica");
+					assertThat(replica.isReadOnly()).isTrue();
+					assertThat(context).hasSingleBean(ReadReplicaAutoConfiguration.ReplicaLagMonitor.class);
+				});
+	}
+}
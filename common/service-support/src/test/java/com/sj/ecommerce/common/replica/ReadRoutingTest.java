@@ -0,0 +1,60 @@
+package com.sj.ecommerce.common.replica;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadRoutingTest {
+
+	private final ReadRouting readRouting = new ReadRouting(60_000);
+
+	@BeforeEach
+	void readOnlyTransaction() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+	}
+
+	@AfterEach
+	void clear() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+	}
+
+	@Test
+	void readOnlyWorkUsesReplicaAndWritesUsePrimary() {
+		assertTrue(readRouting.read("order:1", readRouting::routeToReplica));
+
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		assertFalse(readRouting.routeToReplica());
+	}
+
+	@Test
+	void recentlyWrittenKeyIsReadFromPrimary() {
+		readRouting.recordWrite("order:1");
+
+		assertFalse(readRouting.read("order:1", readRouting::routeToReplica));
+		assertTrue(readRouting.read("order:2", readRouting::routeToReplica));
+		assertTrue(readRouting.routeToReplica(), "pin must not leak past the read");
+	}
+
+	@Test
+	void batchReadIsPinnedWhenAnyKeyWasRecentlyWritten() {
+		readRouting.recordWrite("order:2");
+
+		assertFalse(readRouting.read(List.of("order:1", "order:2"), readRouting::routeToReplica));
+		assertTrue(readRouting.read(List.of("order:1", "order:3"), readRouting::routeToReplica));
+	}
+
+	@Test
+	void laggingReplicaSendsAllReadsToPrimary() {
+		readRouting.setReplicaLagging(true);
+		assertFalse(readRouting.read("order:2", readRouting::routeToReplica));
+
+		readRouting.setReplicaLagging(false);
+		assertTrue(readRouting.read("order:2", readRouting::routeToReplica));
+	}
+}
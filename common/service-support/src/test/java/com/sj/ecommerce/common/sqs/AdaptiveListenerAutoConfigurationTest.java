@@ -0,0 +1,34 @@
+package com.sj.ecommerce.common.sqs;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class AdaptiveListenerAutoConfigurationTest {
+
+	private final ApplicationContextRunner runner = new ApplicationContextRunner()
+			.withConfiguration(AutoConfigurations.of(AdaptiveListenerAutoConfiguration.class))
+			.withBean(SqsAsyncClient.class, () -> mock(SqsAsyncClient.class))
+			.withPropertyValues("aws.sqs.queue-name=order-events-queue");
+
+	@Test
+	void registersTheControllerWithConfiguredLimits() {
+		runner.withPropertyValues("aws.sqs.listener.adaptive.max-concurrency=6",
+						"aws.sqs.listener.adaptive.initial-concurrency=4")
+				.run(context -> {
+					AdaptiveListenerController controller = context.getBean(AdaptiveListenerController.class);
+					assertThat(controller.maxConcurrency()).isEqualTo(6);
+					assertThat(controller.currentLimits().concurrency()).isEqualTo(4);
+				});
+	}
+
+	@Test
+	void backsOffWhenDisabled() {
+		runner.withPropertyValues("aws.sqs.listener.adaptive.enabled=false")
+				.run(context -> assertThat(context).doesNotHaveBean(AdaptiveListenerController.class));
+	}
+}
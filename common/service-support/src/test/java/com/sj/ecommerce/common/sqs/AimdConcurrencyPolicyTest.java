@@ -0,0 +1,63 @@
+package com.sj.ecommerce.common.sqs;
+
+import com.sj.ecommerce.common.sqs.AimdConcurrencyPolicy.Limits;
+import com.sj.ecommerce.common.sqs.AimdConcurrencyPolicy.Signals;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AimdConcurrencyPolicyTest {
+
+	private final AimdConcurrencyPolicy policy = new AimdConcurrencyPolicy(1, 8, 10, 500, 0.5);
+
+	@Test
+	void growsAdditivelyWhileBacklogDrainsHealthily() {
+		Limits limits = policy.initial(3);
+		for (int i = 0; i < 10; i++) {
+			limits = policy.next(limits, new Signals(100, 0, 50, 0));
+		}
+		assertEquals(new Limits(8, 8, false), limits);
+	}
+
+	@Test
+	void halvesWhenPoolHasWaitersWithoutPausing() {
+		Limits limits = policy.next(new Limits(8, 6, false), new Signals(100, 2, 50, 0));
+		assertEquals(new Limits(4, 3, false), limits);
+	}
+
+	@Test
+	void pausesForOneIntervalWhenLatencyPassesTarget() {
+		Limits limits = policy.next(new Limits(2, 2, false), new Signals(100, 0, 900, 0));
+		assertEquals(new Limits(1, 1, true), limits);
+
+		// Nothing processed while paused, so the next sample resumes at the reduced limit
+		limits = policy.next(limits, new Signals(100, 0, 0, 0));
+		assertFalse(limits.paused());
+		assertEquals(2, limits.concurrency());
+	}
+
+	@Test
+	void holdsWhenQueueIsEmptyOrDepthUnknown() {
+		Limits current = new Limits(4, 2, false);
+		assertEquals(current, policy.next(current, new Signals(0, 0, 10, 0)));
+		assertEquals(current, policy.next(current, new Signals(AimdConcurrencyPolicy.UNKNOWN_DEPTH, 0, 10, 0)));
+	}
+
+	@Test
+	void handlerGrantsAtMostOneBatchWithinTheLimit() throws InterruptedException {
+		AdaptiveBackPressureHandler handler = new AdaptiveBackPressureHandler(new Limits(3, 2, false), Duration.ofMillis(10));
+
+		assertEquals(2, handler.requestBatch());
+		assertEquals(1, handler.requestBatch());
+		assertEquals(0, handler.requestBatch());
+
+		handler.release(3, AdaptiveBackPressureHandler.ReleaseReason.PROCESSED);
+		handler.update(new Limits(3, 2, true));
+		assertEquals(0, handler.requestBatch());
+		assertTrue(handler.drain(Duration.ofMillis(10)));
+	}
+}
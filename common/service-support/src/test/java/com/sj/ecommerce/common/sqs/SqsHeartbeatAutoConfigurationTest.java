@@ -0,0 +1,31 @@
+package com.sj.ecommerce.common.sqs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqsHeartbeatAutoConfigurationTest {
+
+	private final ApplicationContextRunner runner = new ApplicationContextRunner()
+			.withConfiguration(AutoConfigurations.of(PropertyPlaceholderAutoConfiguration.class, SqsHeartbeatAutoConfiguration.class))
+			.withBean(MeterRegistry.class, SimpleMeterRegistry::new);
+
+	@Test
+	void registersTheHeartbeatAndItsMeters() {
+		runner.run(context -> {
+			assertThat(context).hasSingleBean(VisibilityHeartbeat.class);
+			assertThat(context.getBean(MeterRegistry.class).find("sqs.listener.inflight").gauge()).isNotNull();
+		});
+	}
+
+	@Test
+	void backsOffWhenDisabled() {
+		runner.withPropertyValues("aws.sqs.listener.heartbeat.enabled=false")
+				.run(context -> assertThat(context).doesNotHaveBean(VisibilityHeartbeat.class));
+	}
+}
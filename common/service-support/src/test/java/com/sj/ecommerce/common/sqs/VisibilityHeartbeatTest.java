@@ -0,0 +1,80 @@
+package com.sj.ecommerce.common.sqs;
+
+import io.awspring.cloud.sqs.listener.SqsHeaders;
+import io.awspring.cloud.sqs.listener.Visibility;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VisibilityHeartbeatTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final VisibilityHeartbeat heartbeat = new VisibilityHeartbeat(30, Duration.ofSeconds(120), registry);
+
+	@Test
+	void extendsOnlyMessagesStillProcessingPastAThirdOfTheTimeout() {
+		RecordingVisibility slow = new RecordingVisibility();
+		RecordingVisibility done = new RecordingVisibility();
+		Message<Object> slowMessage = message(slow, "1");
+		Message<Object> doneMessage = message(done, "1");
+		heartbeat.intercept(slowMessage);
+		heartbeat.intercept(doneMessage);
+		heartbeat.afterProcessing(doneMessage, null);
+
+		heartbeat.beat(System.nanoTime() + TimeUnit.SECONDS.toNanos(11));
+
+		assertEquals(List.of(30), slow.changes);
+		assertEquals(List.of(), done.changes);
+		assertEquals(1.0, registry.get("sqs.listener.visibility.extensions").counter().count());
+	}
+
+	@Test
+	void stopsExtendingAfterMaxExtension() {
+		RecordingVisibility hung = new RecordingVisibility();
+		heartbeat.intercept(message(hung, "1"));
+
+		heartbeat.beat(System.nanoTime() + TimeUnit.SECONDS.toNanos(121));
+		heartbeat.beat(System.nanoTime() + TimeUnit.SECONDS.toNanos(131));
+
+		assertEquals(List.of(), hung.changes);
+		assertEquals(0, heartbeat.inFlight());
+	}
+
+	@Test
+	void releasesUnfinishedMessagesOnCloseAndCountsRedeliveries() {
+		RecordingVisibility unfinished = new RecordingVisibility();
+		heartbeat.intercept(message(unfinished, "3"));
+
+		heartbeat.close();
+
+		assertEquals(List.of(0), unfinished.changes);
+		assertEquals(1.0, registry.get("sqs.listener.released").counter().count());
+		assertEquals(1.0, registry.get("sqs.listener.redeliveries").counter().count());
+	}
+
+	private static Message<Object> message(Visibility visibility, String receiveCount) {
+		return MessageBuilder.<Object>withPayload("{}")
+				.setHeader(SqsHeaders.SQS_VISIBILITY_TIMEOUT_HEADER, visibility)
+				.setHeader(SqsHeaders.MessageSystemAttributes.SQS_APPROXIMATE_RECEIVE_COUNT, receiveCount)
+				.build();
+	}
+
+	private static final class RecordingVisibility implements Visibility {
+		private final List<Integer> changes = new CopyOnWriteArrayList<>();
+
+		@Override
+		public CompletableFuture<Void> changeToAsync(int seconds) {
+			changes.add(seconds);
+			return CompletableFuture.completedFuture(null);
+		}
+	}
+}
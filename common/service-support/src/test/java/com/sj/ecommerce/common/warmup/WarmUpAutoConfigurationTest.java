@@ -0,0 +1,64 @@
+package com.sj.ecommerce.common.warmup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.Ordered;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WarmUpAutoConfigurationTest {
+
+	private final List<String> ran = new CopyOnWriteArrayList<>();
+	private final ApplicationContextRunner runner = new ApplicationContextRunner()
+			// SpringApplication installs this for the services; it turns "60s" into a Duration
+			.withInitializer(context -> context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance()))
+			.withConfiguration(AutoConfigurations.of(PropertyPlaceholderAutoConfiguration.class, WarmUpAutoConfiguration.class));
+
+	@Test
+	void runsEveryWorkloadInOrderPastAFailingStep() {
+		runner.withBean("late", WarmUpWorkload.class, () -> new Workload(Ordered.LOWEST_PRECEDENCE, "late"))
+				.withBean("early", WarmUpWorkload.class, () -> new Workload(0, "early"))
+				.run(context -> {
+					assertThat(context).hasSingleBean(ConnectionPoolWarmUp.class);
+					WarmUp warmUp = context.getBean("warmUp", WarmUp.class);
+					warmUp.start();
+
+					assertThat(warmUp.whenReleased().get(5, TimeUnit.SECONDS)).isEqualTo("completed");
+					// The pools step finds no pools here and does nothing
+					assertThat(ran).containsExactly("early 1", "early 2", "late 1", "late 2");
+				});
+	}
+
+	private final class Workload implements WarmUpWorkload, Ordered {
+
+		private final int order;
+		private final String name;
+
+		Workload(int order, String name) {
+			this.order = order;
+			this.name = name;
+		}
+
+		@Override
+		public List<WarmUpStep> steps() {
+			return List.of(
+					new WarmUpStep(name + " 1", () -> {
+						ran.add(name + " 1");
+						throw new IllegalStateException("database unreachable");
+					}),
+					new WarmUpStep(name + " 2", () -> ran.add(name + " 2")));
+		}
+
+		@Override
+		public int getOrder() {
+			return order;
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package com.sj.ecommerce.common.warmup;
+
+import io.awspring.cloud.sqs.listener.MessageListenerContainer;
+import io.awspring.cloud.sqs.listener.MessageListenerContainerRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.health.contributor.Status;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WarmUpTest {
+
+	private final MessageListenerContainer<?> container = mock(MessageListenerContainer.class);
+	private final CountDownLatch finish = new CountDownLatch(1);
+	private final CountDownLatch interrupted = new CountDownLatch(1);
+	private WarmUp warmUp;
+
+	@AfterEach
+	void tearDown() {
+		finish.countDown();
+		warmUp.close();
+	}
+
+	@Test
+	void staysOutOfServiceAndKeepsListenersStoppedUntilTheWorkloadEnds() throws Exception {
+		warmUp = new WarmUp(this::blockUntilFinished, listeners(), true, Duration.ofSeconds(30));
+		warmUp.start();
+
+		assertEquals(Status.OUT_OF_SERVICE, warmUp.health().getStatus());
+		verify(container, never()).start();
+
+		finish.countDown();
+
+		assertEquals("completed", warmUp.whenReleased().get(5, TimeUnit.SECONDS));
+		assertEquals(Status.UP, warmUp.health().getStatus());
+		verify(container).start();
+	}
+
+	@Test
+	void deadlineLetsTrafficInAndInterruptsTheWorkload() throws Exception {
+		warmUp = new WarmUp(this::blockUntilFinished, listeners(), true, Duration.ofMillis(50));
+		warmUp.start();
+
+		assertEquals("deadline passed", warmUp.whenReleased().get(5, TimeUnit.SECONDS));
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+		assertEquals(Status.UP, warmUp.health().getStatus());
+		verify(container).start();
+	}
+
+	@Test
+	void failingWorkloadStillLetsTrafficIn() throws Exception {
+		warmUp = new WarmUp(() -> {
+			throw new IllegalStateException("database unreachable");
+		}, listeners(), true, Duration.ofSeconds(30));
+		warmUp.start();
+
+		assertEquals("failed", warmUp.whenReleased().get(5, TimeUnit.SECONDS));
+		verify(container).start();
+	}
+
+	private void blockUntilFinished() {
+		try {
+			finish.await();
+		} catch (InterruptedException e) {
+			interrupted.countDown();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private ObjectProvider<MessageListenerContainerRegistry> listeners() {
+		MessageListenerContainerRegistry registry = mock(MessageListenerContainerRegistry.class);
+		doReturn(List.of(container)).when(registry).getListenerContainers();
+		ObjectProvider<MessageListenerContainerRegistry> provider = mock(ObjectProvider.class);
+		when(provider.getIfAvailable()).thenReturn(registry);
+		return provider;
+	}
+}
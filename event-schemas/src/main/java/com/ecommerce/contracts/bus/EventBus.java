@@ -0,0 +1,34 @@
+package com.ecommerce.contracts.bus;
+
+/**
+ * Transport-neutral publish/subscribe API for domain events.
+ *
+ * Services publish and consume the generated contract classes (e.g. {@code OrderCreatedV1})
+ * on named channels (see {@link EventChannels}). Implementations decide how events travel:
+ * over SNS/SQS between processes, or through {@link InProcessEventBus} inside one JVM.
+ */
+public interface EventBus {
+
+    /**
+     * Publish an event to every subscriber of the channel.
+     *
+     * @param channel   logical channel, one of {@link EventChannels}
+     * @param eventType short type label carried as transport metadata (SNS subject, log field)
+     * @param event     contract instance; never serialized by in-process transports
+     */
+    void publish(String channel, String eventType, Object event);
+
+    /**
+     * Register a handler for a channel.
+     *
+     * Broker-backed transports may deliver through their own listener containers instead;
+     * their subscribe registers nothing and returns a subscription whose close() is a no-op.
+     */
+    Subscription subscribe(String channel, EventHandler handler);
+
+    /** Handle returned by {@link #subscribe}; closing it stops delivery to that handler. */
+    interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
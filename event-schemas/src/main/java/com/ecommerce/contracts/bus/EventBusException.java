@@ -0,0 +1,15 @@
+package com.ecommerce.contracts.bus;
+
+/**
+ * Thrown when an event cannot be handed to the transport, e.g. a full in-process buffer.
+ */
+public class EventBusException extends RuntimeException {
+
+    public EventBusException(String message) {
+        super(message);
+    }
+
+    public EventBusException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
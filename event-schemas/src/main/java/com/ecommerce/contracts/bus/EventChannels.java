@@ -0,0 +1,17 @@
+package com.ecommerce.contracts.bus;
+
+/**
+ * Logical channel names shared by all services.
+ *
+ * Broker-backed transports map these to SNS topics in each service's configuration.
+ */
+public final class EventChannels {
+
+    /** OrderCreatedV2, OrderExpiredV2 (V1 during the money migration, see ContractVersions) */
+    public static final String ORDER_EVENTS = "order-events";
+
+    /** PaymentCompletedV2, PaymentFailedV2 (V1 during the money migration, see ContractVersions) */
+    public static final String PAYMENT_EVENTS = "payment-events";
+
+    private EventChannels() {}
+}
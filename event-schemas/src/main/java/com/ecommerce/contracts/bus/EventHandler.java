@@ -0,0 +1,13 @@
+package com.ecommerce.contracts.bus;
+
+/**
+ * Consumer of events delivered by an {@link EventBus}.
+ *
+ * Throwing signals a failed delivery, mirroring SQS listener semantics: the transport retries
+ * and finally dead-letters the event.
+ */
+@FunctionalInterface
+public interface EventHandler {
+
+    void handle(Object event) throws Exception;
+}
@@ -0,0 +1,179 @@
+package com.ecommerce.contracts.bus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link EventBus} for services co-located in one JVM, i.e. tests that start several of them.
+ *
+ * Each subscription owns a bounded ring buffer (array-backed, fixed capacity) drained by a
+ * dedicated daemon thread, so events are passed by reference with no serialization and a slow
+ * consumer never blocks other subscribers. Publishing blocks for at most the configured publish
+ * timeout when a buffer is full and then fails with {@link EventBusException}, which gives
+ * publishers the same back-pressure signal as a failed SNS publish.
+ *
+ * Failed deliveries are retried up to {@code maxAttempts} times, then counted as dead-lettered.
+ * Like SQS standard queues, delivery is at-least-once per subscriber but not durable: events
+ * still buffered when the JVM stops are lost, and events for a channel without subscribers are
+ * dropped with a warning and counted by {@link #droppedCount()}.
+ */
+public final class InProcessEventBus implements EventBus, AutoCloseable {
+
+    private static final System.Logger log = System.getLogger(InProcessEventBus.class.getName());
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final Duration DEFAULT_PUBLISH_TIMEOUT = Duration.ofSeconds(1);
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    private static final InProcessEventBus SHARED =
+            new InProcessEventBus(DEFAULT_CAPACITY, DEFAULT_PUBLISH_TIMEOUT, DEFAULT_MAX_ATTEMPTS);
+
+    private final int capacity;
+    private final Duration publishTimeout;
+    private final int maxAttempts;
+    private final Map<String, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicInteger threadIds = new AtomicInteger();
+
+    public InProcessEventBus(int capacity, Duration publishTimeout, int maxAttempts) {
+        if (capacity < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("capacity and maxAttempts must be positive");
+        }
+        this.capacity = capacity;
+        this.publishTimeout = publishTimeout;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * JVM-wide instance. Only Spring contexts started in the same JVM and class loader see the
+     * same channels; separately launched services (or Boot fat jars) each get their own copy
+     * and never receive each other's events, so this is meant for tests.
+     */
+    public static InProcessEventBus shared() {
+        return SHARED;
+    }
+
+    @Override
+    public void publish(String channel, String eventType, Object event) {
+        List<Subscriber> targets = subscribers.get(channel);
+        if (targets == null || targets.isEmpty()) {
+            // Nothing in this JVM consumes the channel, which usually means the consumer runs in
+            // another process: the event is lost, so say so every time
+            dropped.incrementAndGet();
+            log.log(System.Logger.Level.WARNING, "No in-process subscribers for channel={0}, dropped {1}; "
+                    + "the in-process bus only reaches consumers in the same JVM", channel, eventType);
+            return;
+        }
+        for (Subscriber subscriber : targets) {
+            subscriber.offer(event, eventType);
+        }
+    }
+
+    @Override
+    public Subscription subscribe(String channel, EventHandler handler) {
+        Subscriber subscriber = new Subscriber(channel, handler);
+        subscribers.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(subscriber);
+        subscriber.start();
+        return () -> {
+            subscribers.getOrDefault(channel, List.of()).remove(subscriber);
+            subscriber.stop();
+        };
+    }
+
+    /** Events that exhausted their delivery attempts since startup. */
+    public long deadLetteredCount() {
+        return deadLettered.get();
+    }
+
+    /** Events published to a channel nobody had subscribed to, since startup. */
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    /** Events currently buffered for a channel, summed over its subscribers. */
+    public int backlog(String channel) {
+        return subscribers.getOrDefault(channel, List.of()).stream().mapToInt(s -> s.buffer.size()).sum();
+    }
+
+    @Override
+    public void close() {
+        subscribers.values().forEach(list -> list.forEach(Subscriber::stop));
+        subscribers.clear();
+    }
+
+    private final class Subscriber implements Runnable {
+        private final String channel;
+        private final EventHandler handler;
+        private final BlockingQueue<Object> buffer = new ArrayBlockingQueue<>(capacity);
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        Subscriber(String channel, EventHandler handler) {
+            this.channel = channel;
+            this.handler = handler;
+            this.thread = new Thread(this, "event-bus-" + channel + "-" + threadIds.incrementAndGet());
+            this.thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        void stop() {
+            running = false;
+            thread.interrupt();
+        }
+
+        void offer(Object event, String eventType) {
+            try {
+                if (!buffer.offer(event, publishTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                    throw new EventBusException("In-process buffer full for channel=" + channel
+                            + " (capacity=" + capacity + "), rejected " + eventType);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new EventBusException("Interrupted while publishing " + eventType + " to channel=" + channel, e);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                Object event;
+                try {
+                    event = buffer.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                deliver(event);
+            }
+        }
+
+        private void deliver(Object event) {
+            for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+                try {
+                    handler.handle(event);
+                    return;
+                } catch (Exception e) {
+                    if (attempt == maxAttempts) {
+                        deadLettered.incrementAndGet();
+                        log.log(System.Logger.Level.ERROR, "Dead-lettering " + event.getClass().getSimpleName()
+                                + " on channel=" + channel + " after " + maxAttempts + " attempts", e);
+                    } else {
+                        log.log(System.Logger.Level.WARNING, "Delivery attempt " + attempt + " failed on channel="
+                                + channel + ", retrying", e);
+                    }
+                }
+            }
+        }
+    }
+}
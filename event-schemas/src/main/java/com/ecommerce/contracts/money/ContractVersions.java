@@ -0,0 +1,84 @@
+package com.ecommerce.contracts.money;
+
+import com.ecommerce.contracts.events.OrderCreatedV1;
+import com.ecommerce.contracts.events.OrderCreatedV2;
+import com.ecommerce.contracts.events.OrderExpiredV1;
+import com.ecommerce.contracts.events.OrderExpiredV2;
+import com.ecommerce.contracts.events.PaymentCompletedV1;
+import com.ecommerce.contracts.events.PaymentCompletedV2;
+import com.ecommerce.contracts.events.PaymentFailedV1;
+import com.ecommerce.contracts.events.PaymentFailedV2;
+
+/**
+ * Conversions between the v1 (floating-point amount) and v2 (minor units plus currency)
+ * contracts, for the migration window in which both are on the wire.
+ *
+ * Consumers upgrade whatever they receive to v2 and only handle v2 internally. Producers
+ * publish v2, or downgrade to v1 while some consumer has not been upgraded yet. v1 amounts
+ * are always in {@link Money#DEFAULT_CURRENCY}.
+ */
+public final class ContractVersions {
+
+    public static final String V1 = "1.0";
+    public static final String V2 = "2.0";
+
+    /** JSON property that only v2 money-carrying events have, for telling raw payloads apart. */
+    public static final String V2_MARKER = "\"amountMinor\"";
+
+    private ContractVersions() {}
+
+    public static boolean isV2(String json) {
+        return json.contains(V2_MARKER);
+    }
+
+    public static OrderCreatedV2 upgrade(OrderCreatedV1 e) {
+        return new OrderCreatedV2(e.getEventId(), V2, e.getOccurredAt(), e.getOrderId(), e.getUserId(),
+                legacyMinor(e.getAmount()), Money.DEFAULT_CURRENCY);
+    }
+
+    public static OrderExpiredV2 upgrade(OrderExpiredV1 e) {
+        return new OrderExpiredV2(e.getEventId(), V2, e.getOccurredAt(), e.getOrderId(), e.getUserId(),
+                legacyMinor(e.getAmount()), Money.DEFAULT_CURRENCY, e.getReason());
+    }
+
+    public static PaymentCompletedV2 upgrade(PaymentCompletedV1 e) {
+        return new PaymentCompletedV2(e.getEventId(), V2, e.getOccurredAt(), e.getPaymentId(), e.getOrderId(),
+                e.getUserId(), legacyMinor(e.getAmount()), Money.DEFAULT_CURRENCY);
+    }
+
+    public static PaymentFailedV2 upgrade(PaymentFailedV1 e) {
+        return new PaymentFailedV2(e.getEventId(), V2, e.getOccurredAt(), e.getPaymentId(), e.getOrderId(),
+                e.getUserId(), legacyMinor(e.getAmount()), Money.DEFAULT_CURRENCY, e.getReason());
+    }
+
+    public static OrderCreatedV1 downgrade(OrderCreatedV2 e) {
+        return new OrderCreatedV1(e.getEventId(), V1, e.getOccurredAt(), e.getOrderId(), e.getUserId(),
+                legacyAmount(e.getAmountMinor(), e.getCurrency()));
+    }
+
+    public static OrderExpiredV1 downgrade(OrderExpiredV2 e) {
+        return new OrderExpiredV1(e.getEventId(), V1, e.getOccurredAt(), e.getOrderId(), e.getUserId(),
+                legacyAmount(e.getAmountMinor(), e.getCurrency()), e.getReason());
+    }
+
+    public static PaymentCompletedV1 downgrade(PaymentCompletedV2 e) {
+        return new PaymentCompletedV1(e.getEventId(), V1, e.getOccurredAt(), e.getPaymentId(), e.getOrderId(),
+                e.getUserId(), legacyAmount(e.getAmountMinor(), e.getCurrency()));
+    }
+
+    public static PaymentFailedV1 downgrade(PaymentFailedV2 e) {
+        return new PaymentFailedV1(e.getEventId(), V1, e.getOccurredAt(), e.getPaymentId(), e.getOrderId(),
+                e.getUserId(), legacyAmount(e.getAmountMinor(), e.getCurrency()), e.getReason());
+    }
+
+    private static long legacyMinor(Double amount) {
+        return amount == null ? 0L : Money.fromLegacyDouble(amount, Money.DEFAULT_CURRENCY);
+    }
+
+    private static double legacyAmount(long amountMinor, String currency) {
+        if (!Money.DEFAULT_CURRENCY.equals(currency)) {
+            throw new IllegalArgumentException("v1 contracts cannot carry " + currency + " amounts");
+        }
+        return Money.toLegacyDouble(amountMinor, currency);
+    }
+}
@@ -0,0 +1,165 @@
+package com.ecommerce.contracts.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fixed-point money arithmetic on {@code long} minor units (paise for INR) with an ISO 4217
+ * currency code carried alongside.
+ *
+ * Everything on the pricing and payment path takes and returns primitives: no boxing, no
+ * floating point, and overflow throws instead of wrapping. Conversions from decimal strings,
+ * BigDecimal and legacy {@code double} amounts exist only for request parsing and for
+ * reading data written before amounts were stored in minor units.
+ */
+public final class Money {
+
+    public static final String DEFAULT_CURRENCY = "INR";
+
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000};
+    private static final Map<String, Integer> FRACTION_DIGITS = new ConcurrentHashMap<>();
+
+    private Money() {}
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /** Line total of {@code quantity} items at {@code unitMinor} each. */
+    public static long times(long unitMinor, long quantity) {
+        return Math.multiplyExact(unitMinor, quantity);
+    }
+
+    /**
+     * {@code basisPoints}/10000 of {@code amountMinor} (1850 = 18.5%), rounded half up to a
+     * whole minor unit, e.g. for tax or discounts.
+     */
+    public static long percentOf(long amountMinor, long basisPoints) {
+        long product = Math.multiplyExact(amountMinor, basisPoints);
+        long quotient = Math.floorDiv(product, 10_000L);
+        long remainder = Math.floorMod(product, 10_000L);
+        return remainder >= 5_000 ? quotient + 1 : quotient;
+    }
+
+    /**
+     * Splits {@code totalMinor} in proportion to {@code weights} into {@code out} so that the
+     * shares add up to the total exactly; leftover minor units go to the earliest shares.
+     * {@code out} must be at least as long as {@code weights}. Allocates nothing.
+     */
+    public static void allocate(long totalMinor, long[] weights, long[] out) {
+        if (out.length < weights.length) {
+            throw new IllegalArgumentException("out has " + out.length + " slots for " + weights.length + " weights");
+        }
+        long weightSum = 0;
+        for (long weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight " + weight);
+            }
+            weightSum = Math.addExact(weightSum, weight);
+        }
+        if (weightSum == 0) {
+            throw new IllegalArgumentException("Weights sum to zero");
+        }
+        long allocated = 0;
+        for (int i = 0; i < weights.length; i++) {
+            out[i] = Math.multiplyExact(totalMinor, weights[i]) / weightSum;
+            allocated += out[i];
+        }
+        long leftover = totalMinor - allocated;
+        long step = leftover >= 0 ? 1 : -1;
+        for (int i = 0; leftover != 0; i = (i + 1) % weights.length) {
+            if (weights[i] > 0) {
+                out[i] += step;
+                leftover -= step;
+            }
+        }
+    }
+
+    /** Minor-unit digits of an ISO 4217 currency: 2 for INR, 0 for JPY, 3 for KWD. */
+    public static int fractionDigits(String currency) {
+        if (DEFAULT_CURRENCY.equals(currency)) {
+            return 2;
+        }
+        return FRACTION_DIGITS.computeIfAbsent(currency, code -> {
+            int digits = Currency.getInstance(code).getDefaultFractionDigits();
+            if (digits < 0 || digits >= POWERS_OF_TEN.length) {
+                throw new IllegalArgumentException("Currency " + code + " has no fixed minor unit");
+            }
+            return digits;
+        });
+    }
+
+    /** Validated, upper-case currency code; null or blank means {@link #DEFAULT_CURRENCY}. */
+    public static String currencyOrDefault(String currency) {
+        if (currency == null || currency.isBlank()) {
+            return DEFAULT_CURRENCY;
+        }
+        String code = currency.trim().toUpperCase(Locale.ROOT);
+        fractionDigits(code);
+        return code;
+    }
+
+    /**
+     * Exact conversion of a major-unit decimal such as 199.99. Throws ArithmeticException when
+     * the value has more decimals than the currency's minor unit.
+     */
+    public static long fromDecimal(BigDecimal amount, String currency) {
+        return amount.movePointRight(fractionDigits(currency)).longValueExact();
+    }
+
+    /**
+     * Reads a legacy floating-point amount through its shortest decimal representation, so a
+     * stored 19.99 becomes 1999 rather than 1998 or 1999.0000000000002 * 100. Rounds half up
+     * only if the double carried sub-minor-unit noise. Migration path only.
+     */
+    public static long fromLegacyDouble(double amount, String currency) {
+        if (Double.isNaN(amount) || Double.isInfinite(amount)) {
+            throw new ArithmeticException("Not a money amount: " + amount);
+        }
+        return BigDecimal.valueOf(amount)
+                .setScale(fractionDigits(currency), RoundingMode.HALF_UP)
+                .unscaledValue()
+                .longValueExact();
+    }
+
+    /** Major-unit decimal for API responses and display, e.g. 1999 INR -> 19.99. */
+    public static BigDecimal toDecimal(long amountMinor, String currency) {
+        return BigDecimal.valueOf(amountMinor, fractionDigits(currency));
+    }
+
+    /**
+     * Nearest double of the amount, for writing the legacy floating-point column and v1
+     * contracts while older readers still depend on them.
+     */
+    public static double toLegacyDouble(long amountMinor, String currency) {
+        return toDecimal(amountMinor, currency).doubleValue();
+    }
+
+    /** Appends the plain major-unit form (-12.05, 1999.00) without creating intermediate objects. */
+    public static StringBuilder appendTo(StringBuilder out, long amountMinor, String currency) {
+        int digits = fractionDigits(currency);
+        if (amountMinor < 0) {
+            out.append('-');
+        }
+        long abs = Math.abs(amountMinor);
+        long scale = POWERS_OF_TEN[digits];
+        out.append(abs / scale);
+        if (digits > 0) {
+            out.append('.');
+            long fraction = abs % scale;
+            for (long pad = scale / 10; pad > 1 && fraction < pad; pad /= 10) {
+                out.append('0');
+            }
+            out.append(fraction);
+        }
+        return out;
+    }
+}
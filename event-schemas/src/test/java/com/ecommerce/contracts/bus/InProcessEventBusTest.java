@@ -0,0 +1,92 @@
+package com.ecommerce.contracts.bus;
+
+import com.ecommerce.contracts.events.OrderCreatedV1;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InProcessEventBusTest {
+
+    private static final OrderCreatedV1 EVENT =
+            new OrderCreatedV1(UUID.randomUUID(), "1.0", Instant.now(), 1L, 2L, 10.0);
+
+    @Test
+    void deliversTheSameInstanceToEverySubscriber() throws InterruptedException {
+        try (InProcessEventBus bus = new InProcessEventBus(8, Duration.ofMillis(100), 1)) {
+            CountDownLatch latch = new CountDownLatch(2);
+            AtomicReference<Object> first = new AtomicReference<>();
+            AtomicReference<Object> second = new AtomicReference<>();
+            bus.subscribe(EventChannels.ORDER_EVENTS, e -> { first.set(e); latch.countDown(); });
+            bus.subscribe(EventChannels.ORDER_EVENTS, e -> { second.set(e); latch.countDown(); });
+
+            bus.publish(EventChannels.ORDER_EVENTS, "ORDER_CREATED", EVENT);
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertSame(EVENT, first.get());
+            assertSame(EVENT, second.get());
+        }
+    }
+
+    @Test
+    void retriesFailedDeliveriesThenDeadLetters() throws InterruptedException {
+        try (InProcessEventBus bus = new InProcessEventBus(8, Duration.ofMillis(100), 3)) {
+            AtomicInteger attempts = new AtomicInteger();
+            CountDownLatch exhausted = new CountDownLatch(3);
+            bus.subscribe(EventChannels.ORDER_EVENTS, e -> {
+                attempts.incrementAndGet();
+                exhausted.countDown();
+                throw new IllegalStateException("boom");
+            });
+
+            bus.publish(EventChannels.ORDER_EVENTS, "ORDER_CREATED", EVENT);
+
+            assertTrue(exhausted.await(5, TimeUnit.SECONDS));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (bus.deadLetteredCount() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(3, attempts.get());
+            assertEquals(1, bus.deadLetteredCount());
+        }
+    }
+
+    @Test
+    void countsEventsPublishedWithoutSubscribers() {
+        try (InProcessEventBus bus = new InProcessEventBus(8, Duration.ofMillis(100), 1)) {
+            bus.subscribe(EventChannels.PAYMENT_EVENTS, e -> { });
+
+            bus.publish(EventChannels.ORDER_EVENTS, "ORDER_CREATED", EVENT);
+
+            assertEquals(1, bus.droppedCount());
+            assertEquals(0, bus.backlog(EventChannels.ORDER_EVENTS));
+        }
+    }
+
+    @Test
+    void rejectsPublishWhenBufferStaysFull() throws InterruptedException {
+        try (InProcessEventBus bus = new InProcessEventBus(1, Duration.ofMillis(50), 1)) {
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch handling = new CountDownLatch(1);
+            bus.subscribe(EventChannels.ORDER_EVENTS, e -> { handling.countDown(); release.await(); });
+
+            bus.publish(EventChannels.ORDER_EVENTS, "ORDER_CREATED", EVENT);
+            assertTrue(handling.await(5, TimeUnit.SECONDS));
+            bus.publish(EventChannels.ORDER_EVENTS, "ORDER_CREATED", EVENT);
+
+            assertThrows(EventBusException.class,
+                    () -> bus.publish(EventChannels.ORDER_EVENTS, "ORDER_CREATED", EVENT));
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.ecommerce.contracts.money;
+
+import com.ecommerce.contracts.events.OrderCreatedV1;
+import com.ecommerce.contracts.events.OrderCreatedV2;
+import com.ecommerce.contracts.events.PaymentFailedV1;
+import com.ecommerce.contracts.events.PaymentFailedV2;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyTest {
+
+    @Test
+    void arithmeticStaysExactInMinorUnits() {
+        assertEquals(5997, Money.times(1999, 3));
+        assertEquals(1079, Money.percentOf(5997, 1800));   // 1079.46
+        assertEquals(3, Money.percentOf(5, 5000));          // 2.5 rounds half up
+        assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1));
+
+        long[] shares = new long[3];
+        Money.allocate(1000, new long[]{1, 1, 1}, shares);
+        assertArrayEquals(new long[]{334, 333, 333}, shares);
+        Money.allocate(-1000, new long[]{1, 1, 1}, shares);
+        assertArrayEquals(new long[]{-334, -333, -333}, shares);
+
+        assertEquals("19.99", Money.appendTo(new StringBuilder(), 1999, "INR").toString());
+        assertEquals("-0.05", Money.appendTo(new StringBuilder(), -5, "INR").toString());
+        assertEquals("1500", Money.appendTo(new StringBuilder(), 1500, "JPY").toString());
+        assertEquals("1.005", Money.appendTo(new StringBuilder(), 1005, "KWD").toString());
+    }
+
+    @Test
+    void convertsDecimalAndLegacyDoubleAmounts() {
+        assertEquals(1999, Money.fromDecimal(new BigDecimal("19.99"), "INR"));
+        assertThrows(ArithmeticException.class, () -> Money.fromDecimal(new BigDecimal("19.999"), "INR"));
+        // 0.1 + 0.2 and 1.005 are the classic cases Math.round(amount * 100) gets wrong
+        assertEquals(30, Money.fromLegacyDouble(0.1 + 0.2, "INR"));
+        assertEquals(101, Money.fromLegacyDouble(1.005, "INR"));
+        assertEquals(new BigDecimal("19.99"), Money.toDecimal(1999, "INR"));
+        assertEquals("INR", Money.currencyOrDefault(null));
+        assertEquals("USD", Money.currencyOrDefault("usd"));
+        assertThrows(IllegalArgumentException.class, () -> Money.currencyOrDefault("XYZ"));
+    }
+
+    @Test
+    void upgradesAndDowngradesContractsThroughJson() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+        OrderCreatedV1 v1 = new OrderCreatedV1(UUID.randomUUID(), "1.0", Instant.parse("2026-01-01T00:00:00Z"), 1L, 2L, 1234.56);
+
+        OrderCreatedV2 v2 = ContractVersions.upgrade(v1);
+        assertEquals(123456, v2.getAmountMinor());
+        assertEquals("INR", v2.getCurrency());
+
+        String json = mapper.writeValueAsString(v2);
+        assertTrue(ContractVersions.isV2(json));
+        assertFalse(ContractVersions.isV2(mapper.writeValueAsString(v1)));
+        assertEquals(123456, mapper.readValue(json, OrderCreatedV2.class).getAmountMinor());
+        assertEquals(1234.56, ContractVersions.downgrade(v2).getAmount());
+
+        PaymentFailedV2 usd = new PaymentFailedV2(UUID.randomUUID(), "2.0", Instant.now(), 3L, 1L, 2L, 500, "USD", "declined");
+        assertThrows(IllegalArgumentException.class, () -> ContractVersions.downgrade(usd));
+        PaymentFailedV1 failed = new PaymentFailedV1(UUID.randomUUID(), "1.0", Instant.now(), 3L, 1L, 2L, 5.0, "declined");
+        assertEquals("declined", ContractVersions.upgrade(failed).getReason());
+    }
+}
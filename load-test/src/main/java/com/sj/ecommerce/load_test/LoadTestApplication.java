@@ -0,0 +1,90 @@
+package com.sj.ecommerce.load_test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sj.ecommerce.load_test.broker.AwsProtocolServer;
+import com.sj.ecommerce.load_test.broker.InMemoryBroker;
+import com.sj.ecommerce.load_test.driver.OrderFlowDriver;
+import com.sj.ecommerce.load_test.driver.PoolSaturationSampler;
+import com.sj.ecommerce.load_test.identity.FakeIdentityProvider;
+import com.sj.ecommerce.load_test.razorpay.FakeRazorpayServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Entry point: brings up the broker stand-in, fake Razorpay and fake identity provider, optionally launches the services,
+ * drives load and prints a report.
+ *
+ * Example: ./gradlew run --args="--rate=20 --duration-seconds=120"
+ */
+public class LoadTestApplication {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestApplication.class);
+
+    // Same names the services use in application-local.yaml
+    static final String ORDER_TOPIC = "order-events-topic";
+    static final String PAYMENT_TOPIC = "payment-events-topic";
+    static final String ORDER_QUEUE = "order-events-queue";
+    static final String PAYMENT_QUEUE = "payment-events-queue";
+    static final String NOTIFICATION_QUEUE = "notification-payment-events-queue";
+    private static final int VISIBILITY_TIMEOUT_SECONDS = 30;
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromArgs(args);
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+        InMemoryBroker broker = new InMemoryBroker();
+        for (String queue : new String[] {ORDER_QUEUE, PAYMENT_QUEUE, NOTIFICATION_QUEUE}) {
+            broker.createQueue(queue + "-dlq", VISIBILITY_TIMEOUT_SECONDS);
+            broker.createQueue(queue, VISIBILITY_TIMEOUT_SECONDS, 5, queue + "-dlq");
+        }
+        broker.subscribe(ORDER_TOPIC, ORDER_QUEUE);
+        broker.subscribe(PAYMENT_TOPIC, PAYMENT_QUEUE);
+        broker.subscribe(PAYMENT_TOPIC, NOTIFICATION_QUEUE);
+
+        FakeIdentityProvider identityProvider = new FakeIdentityProvider(objectMapper, config.identityProviderPort());
+        OrderFlowDriver driver = new OrderFlowDriver(config, objectMapper, identityProvider,
+                ORDER_QUEUE, PAYMENT_QUEUE, NOTIFICATION_QUEUE);
+        broker.addDeleteListener((queue, message, deletedAt) -> driver.onQueueDelete(queue, message.getBody()));
+
+        AwsProtocolServer brokerServer = new AwsProtocolServer(broker, objectMapper, config.brokerPort());
+        FakeRazorpayServer razorpay = new FakeRazorpayServer(objectMapper, config.razorpayPort(),
+                config.paymentServiceUrl() + "/payments/webhook/razorpay", config.webhookSecret(),
+                config.checkoutDelay(), config.failureRatio(), driver::onWebhookSent);
+        brokerServer.start();
+        razorpay.start();
+        identityProvider.start();
+
+        Map<String, String> pools = new LinkedHashMap<>();
+        pools.put("order-service", config.orderServiceUrl());
+        pools.put("payment-service", config.paymentServiceUrl());
+
+        try (ServiceLauncher launcher = new ServiceLauncher(config, brokerServer.endpoint(), razorpay.baseUrl(),
+                identityProvider.jwksUri());
+             PoolSaturationSampler sampler = new PoolSaturationSampler(objectMapper, pools)) {
+            if (config.launchServices()) {
+                launcher.startAll();
+            }
+            sampler.start();
+
+            Instant startedAt = Instant.now();
+            Duration elapsed = driver.run();
+
+            LoadTestReport report = LoadTestReport.of(startedAt, config, elapsed,
+                    driver.startedFlows(), driver.completedFlows(), driver.failedFlows(), driver.statusMismatches(),
+                    driver.snapshots(), sampler.snapshot());
+            System.out.println(report.toTable());
+            Path file = report.writeJson(objectMapper, config.reportDir());
+            log.info("Report written to {}", file);
+        } finally {
+            identityProvider.stop();
+            razorpay.stop();
+            brokerServer.stop();
+        }
+    }
+}
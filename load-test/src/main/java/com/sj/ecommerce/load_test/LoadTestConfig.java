@@ -0,0 +1,72 @@
+package com.sj.ecommerce.load_test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Harness settings. Every value can be overridden with {@code --key=value} on the command line
+ * or {@code -Dloadtest.key=value}; command-line arguments win.
+ */
+public record LoadTestConfig(
+        double ordersPerSecond,
+        Duration duration,
+        Duration flowTimeout,
+        Duration checkoutDelay,
+        Duration statusPollInterval,
+        double failureRatio,
+        boolean launchServices,
+        String jdbcUrl,
+        String dbUsername,
+        String dbPassword,
+        int brokerPort,
+        int razorpayPort,
+        int identityProviderPort,
+        String webhookSecret,
+        String gatewayUrl,
+        String orderServiceUrl,
+        String paymentServiceUrl,
+        Path servicesDir,
+        Path reportDir
+) {
+
+    public static LoadTestConfig fromArgs(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        System.getProperties().forEach((k, v) -> {
+            String key = k.toString();
+            if (key.startsWith("loadtest.")) {
+                values.put(key.substring("loadtest.".length()), v.toString());
+            }
+        });
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value but got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        return new LoadTestConfig(
+                Double.parseDouble(values.getOrDefault("rate", "5")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration-seconds", "60"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("flow-timeout-seconds", "60"))),
+                Duration.ofMillis(Long.parseLong(values.getOrDefault("checkout-delay-ms", "200"))),
+                Duration.ofMillis(Long.parseLong(values.getOrDefault("status-poll-ms", "0"))),
+                Double.parseDouble(values.getOrDefault("failure-ratio", "0.05")),
+                Boolean.parseBoolean(values.getOrDefault("launch-services", "true")),
+                values.getOrDefault("jdbc-url", "jdbc:postgresql://localhost:5432/ecommerce"),
+                values.getOrDefault("db-username", "postgres"),
+                values.getOrDefault("db-password", "postgres"),
+                Integer.parseInt(values.getOrDefault("broker-port", "4566")),
+                Integer.parseInt(values.getOrDefault("razorpay-port", "9090")),
+                Integer.parseInt(values.getOrDefault("idp-port", "9091")),
+                values.getOrDefault("webhook-secret", "loadtest-webhook-secret"),
+                values.getOrDefault("gateway-url", "http://localhost:8080/api/v1"),
+                values.getOrDefault("order-service-url", "http://localhost:8081/api/v1"),
+                values.getOrDefault("payment-service-url", "http://localhost:8082/api/v1"),
+                Path.of(values.getOrDefault("services-dir", "services")),
+                Path.of(values.getOrDefault("report-dir", "load-test/build/reports"))
+        );
+    }
+}
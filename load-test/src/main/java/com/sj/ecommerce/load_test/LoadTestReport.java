@@ -0,0 +1,69 @@
+package com.sj.ecommerce.load_test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sj.ecommerce.load_test.driver.LatencyRecorder;
+import com.sj.ecommerce.load_test.driver.PoolSaturationSampler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Result of one harness run. Printed as a table and written as JSON so runs before and after
+ * a change can be diffed.
+ */
+public record LoadTestReport(
+        Instant startedAt,
+        double targetOrdersPerSecond,
+        double elapsedSeconds,
+        long startedFlows,
+        long completedFlows,
+        long failedFlows,
+        long statusMismatches,
+        double throughputPerSecond,
+        Map<String, LatencyRecorder.Snapshot> stages,
+        Map<String, PoolSaturationSampler.PoolStats.Snapshot> pools
+) {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    public static LoadTestReport of(Instant startedAt, LoadTestConfig config, Duration elapsed,
+                                    long started, long completed, long failed, long mismatches,
+                                    Map<String, LatencyRecorder.Snapshot> stages,
+                                    Map<String, PoolSaturationSampler.PoolStats.Snapshot> pools) {
+        double seconds = elapsed.toNanos() / 1_000_000_000.0;
+        return new LoadTestReport(startedAt, config.ordersPerSecond(), seconds, started, completed, failed, mismatches,
+                seconds > 0 ? completed / seconds : 0, stages, pools);
+    }
+
+    public String toTable() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "%nLoad test %s: target %.1f orders/s, %.1fs%n",
+                startedAt, targetOrdersPerSecond, elapsedSeconds));
+        out.append(String.format(Locale.ROOT, "flows started=%d completed=%d failed=%d status-mismatches=%d throughput=%.2f flows/s%n%n",
+                startedFlows, completedFlows, failedFlows, statusMismatches, throughputPerSecond));
+        out.append(String.format(Locale.ROOT, "%-34s %8s %8s %10s %10s %10s%n", "stage", "count", "failed", "p50 ms", "p99 ms", "max ms"));
+        stages.values().forEach(s -> out.append(String.format(Locale.ROOT, "%-34s %8d %8d %10.1f %10.1f %10.1f%n",
+                s.stage(), s.count(), s.failures(), s.p50Millis(), s.p99Millis(), s.maxMillis())));
+        out.append(String.format(Locale.ROOT, "%n%-22s %8s %12s %12s %12s %12s%n",
+                "db pool", "samples", "mean util", "saturated", "mean wait", "max wait"));
+        pools.forEach((service, p) -> out.append(String.format(Locale.ROOT, "%-22s %8d %11.0f%% %11.0f%% %12.2f %12.0f%n",
+                service, p.samples(), p.meanUtilization() * 100, p.saturatedFraction() * 100, p.meanPending(), p.maxPending())));
+        return out.toString();
+    }
+
+    public Path writeJson(ObjectMapper objectMapper, Path reportDir) throws IOException {
+        Files.createDirectories(reportDir);
+        Path file = reportDir.resolve("loadtest-" + FILE_TIMESTAMP.format(startedAt) + ".json");
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), this);
+        return file;
+    }
+}
@@ -0,0 +1,147 @@
+package com.sj.ecommerce.load_test;
+
+import com.sj.ecommerce.load_test.identity.FakeIdentityProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the four service boot jars as child processes wired to the local Postgres, the
+ * in-memory broker, the fake Razorpay and the fake identity provider, and waits until their health endpoints report UP.
+ *
+ * Jars are expected at services/&lt;name&gt;/build/libs/&lt;name&gt;-0.0.1-SNAPSHOT.jar (./gradlew bootJar).
+ */
+public class ServiceLauncher implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ServiceLauncher.class);
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final LoadTestConfig config;
+    private final String brokerEndpoint;
+    private final String razorpayBaseUrl;
+    private final String jwksUri;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final List<Process> processes = new ArrayList<>();
+
+    public ServiceLauncher(LoadTestConfig config, String brokerEndpoint, String razorpayBaseUrl, String jwksUri) {
+        this.config = config;
+        this.brokerEndpoint = brokerEndpoint;
+        this.razorpayBaseUrl = razorpayBaseUrl;
+        this.jwksUri = jwksUri;
+    }
+
+    public void startAll() throws IOException, InterruptedException {
+        Path logDir = config.reportDir().resolveSibling("logs");
+        Files.createDirectories(logDir);
+
+        start("order-service", logDir, database(awsClients(List.of(
+                "--server.port=8081"))));
+        start("payment-service", logDir, database(awsClients(List.of(
+                "--server.port=8082",
+                "--razorpay.key-id=rzp_test_loadtest",
+                "--razorpay.key-secret=loadtest",
+                "--razorpay.webhook-secret=" + config.webhookSecret(),
+                "--razorpay.api-base-url=" + razorpayBaseUrl))));
+        start("notification-service", logDir, awsClients(List.of(
+                "--server.port=8083")));
+        start("api-gateway", logDir, List.of(
+                "--spring.profiles.active=local",
+                "--server.port=8080",
+                // Every gateway route takes its backend from these, by service rather than route position
+                "--services.order.base-url=http://localhost:8081",
+                "--services.payment.base-url=http://localhost:8082",
+                "--services.notification.base-url=http://localhost:8083",
+                "--gateway.auth.jwks-uri=" + jwksUri,
+                "--gateway.auth.issuer=" + FakeIdentityProvider.ISSUER,
+                "--gateway.auth.audience=" + FakeIdentityProvider.AUDIENCE));
+
+        awaitHealthy("http://localhost:8081/api/v1/actuator/health");
+        awaitHealthy("http://localhost:8082/api/v1/actuator/health");
+        awaitHealthy("http://localhost:8083/api/v1/actuator/health");
+        awaitHealthy("http://localhost:8080/actuator/health");
+    }
+
+    private List<String> awsClients(List<String> args) {
+        List<String> all = new ArrayList<>(args);
+        all.add("--spring.profiles.active=local");
+        all.add("--spring.cloud.aws.credentials.access-key=loadtest");
+        all.add("--spring.cloud.aws.credentials.secret-key=loadtest");
+        all.add("--spring.cloud.aws.sqs.endpoint=" + brokerEndpoint);
+        all.add("--spring.cloud.aws.sns.endpoint=" + brokerEndpoint);
+        return all;
+    }
+
+    private List<String> database(List<String> args) {
+        List<String> all = new ArrayList<>(args);
+        all.add("--spring.datasource.url=" + config.jdbcUrl());
+        all.add("--spring.datasource.username=" + config.dbUsername());
+        all.add("--spring.datasource.password=" + config.dbPassword());
+        return all;
+    }
+
+    private void start(String service, Path logDir, List<String> args) throws IOException {
+        Path jar = config.servicesDir().resolve(service).resolve("build/libs/" + service + "-0.0.1-SNAPSHOT.jar");
+        if (!Files.exists(jar)) {
+            throw new IllegalStateException("Missing " + jar + ", run ./gradlew bootJar in services/" + service);
+        }
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-jar");
+        command.add(jar.toString());
+        command.addAll(args);
+
+        Path logFile = logDir.resolve(service + ".log");
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+        processes.add(process);
+        log.info("Started {} (pid={}), logging to {}", service, process.pid(), logFile);
+    }
+
+    private void awaitHealthy(String url) throws InterruptedException {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(2)).GET().build();
+        while (System.nanoTime() < deadline) {
+            try {
+                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 200 && response.body().contains("\"UP\"")) {
+                    log.info("Healthy: {}", url);
+                    return;
+                }
+            } catch (IOException ignored) {
+                // not listening yet
+            }
+            Thread.sleep(1000);
+        }
+        throw new IllegalStateException("Service did not become healthy in time: " + url);
+    }
+
+    @Override
+    public void close() {
+        for (Process process : processes) {
+            process.destroy();
+        }
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+    }
+}
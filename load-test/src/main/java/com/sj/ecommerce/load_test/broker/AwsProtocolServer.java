@@ -0,0 +1,321 @@
+package com.sj.ecommerce.load_test.broker;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP front-end that lets the unmodified AWS SDK v2 clients inside the services talk to
+ * {@link InMemoryBroker}. Point spring.cloud.aws.sqs.endpoint and spring.cloud.aws.sns.endpoint here.
+ *
+ * SQS is served over the AWS JSON 1.0 protocol, SNS over the query protocol (form in, XML out).
+ * Only the operations the services and the harness use are implemented.
+ */
+public class AwsProtocolServer {
+
+    private static final Logger log = LoggerFactory.getLogger(AwsProtocolServer.class);
+
+    private static final String ACCOUNT_ID = "000000000000";
+    private static final String JSON_CONTENT_TYPE = "application/x-amz-json-1.0";
+    private static final String SNS_NAMESPACE = "http://sns.amazonaws.com/doc/2010-03-31/";
+
+    private final InMemoryBroker broker;
+    private final ObjectMapper objectMapper;
+    private final int port;
+    private HttpServer server;
+
+    public AwsProtocolServer(InMemoryBroker broker, ObjectMapper objectMapper, int port) {
+        this.broker = broker;
+        this.objectMapper = objectMapper;
+        this.port = port;
+    }
+
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 512);
+        // Long polls park a thread each, so use virtual threads
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", this::handle);
+        server.start();
+        log.info("In-memory SNS/SQS stand-in listening on http://localhost:{}", port);
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    public String endpoint() {
+        return "http://localhost:" + port;
+    }
+
+    public String queueUrl(String queueName) {
+        return endpoint() + "/" + ACCOUNT_ID + "/" + queueName;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            String target = exchange.getRequestHeaders().getFirst("X-Amz-Target");
+            try {
+                if (target != null && target.startsWith("AmazonSQS.")) {
+                    handleSqs(exchange, target.substring("AmazonSQS.".length()), objectMapper.readTree(body));
+                } else {
+                    handleSnsQuery(exchange, parseForm(body));
+                }
+            } catch (InMemoryBroker.QueueDoesNotExistException ex) {
+                sendSqsError(exchange, "QueueDoesNotExist", "AWS.SimpleQueueService.NonExistentQueue", ex.getMessage());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                exchange.sendResponseHeaders(503, -1);
+            } catch (RuntimeException ex) {
+                log.warn("Broker request failed: target={}", target, ex);
+                sendSqsError(exchange, "InvalidParameterValue", "InvalidParameterValue", String.valueOf(ex.getMessage()));
+            }
+        }
+    }
+
+    // ---- SQS (JSON 1.0) ----
+
+    private void handleSqs(HttpExchange exchange, String operation, JsonNode request) throws IOException, InterruptedException {
+        ObjectNode response = objectMapper.createObjectNode();
+        switch (operation) {
+            case "GetQueueUrl" -> {
+                String queueName = request.path("QueueName").asText();
+                if (!broker.hasQueue(queueName)) {
+                    throw new InMemoryBroker.QueueDoesNotExistException(queueName);
+                }
+                response.put("QueueUrl", queueUrl(queueName));
+            }
+            case "CreateQueue" -> {
+                String queueName = request.path("QueueName").asText();
+                int visibility = request.path("Attributes").path("VisibilityTimeout").asInt(30);
+                broker.createQueue(queueName, visibility);
+                response.put("QueueUrl", queueUrl(queueName));
+            }
+            case "GetQueueAttributes" -> {
+                ObjectNode attributes = response.putObject("Attributes");
+                broker.attributes(queueName(request)).forEach(attributes::put);
+            }
+            case "SendMessage" -> {
+                BrokerMessage message = broker.send(queueName(request), request.path("MessageBody").asText(),
+                        readMessageAttributes(request.path("MessageAttributes")));
+                response.put("MessageId", message.getMessageId());
+                response.put("MD5OfMessageBody", Md5Checksums.ofBody(message.getBody()));
+                String attributesMd5 = Md5Checksums.ofAttributes(message.getAttributes());
+                if (attributesMd5 != null) {
+                    response.put("MD5OfMessageAttributes", attributesMd5);
+                }
+            }
+            case "SendMessageBatch" -> {
+                String queueName = queueName(request);
+                ArrayNode successful = response.putArray("Successful");
+                response.putArray("Failed");
+                for (JsonNode entry : request.path("Entries")) {
+                    BrokerMessage message = broker.send(queueName, entry.path("MessageBody").asText(),
+                            readMessageAttributes(entry.path("MessageAttributes")));
+                    ObjectNode result = successful.addObject()
+                            .put("Id", entry.path("Id").asText())
+                            .put("MessageId", message.getMessageId())
+                            .put("MD5OfMessageBody", Md5Checksums.ofBody(message.getBody()));
+                    String attributesMd5 = Md5Checksums.ofAttributes(message.getAttributes());
+                    if (attributesMd5 != null) {
+                        result.put("MD5OfMessageAttributes", attributesMd5);
+                    }
+                }
+            }
+            case "ReceiveMessage" -> {
+                List<BrokerMessage> messages = broker.receive(
+                        queueName(request),
+                        request.path("MaxNumberOfMessages").asInt(1),
+                        request.path("WaitTimeSeconds").asInt(0),
+                        request.has("VisibilityTimeout") ? request.get("VisibilityTimeout").asInt() : -1);
+                ArrayNode array = response.putArray("Messages");
+                for (BrokerMessage message : messages) {
+                    array.add(toJson(message));
+                }
+            }
+            case "DeleteMessage" -> broker.delete(queueName(request), request.path("ReceiptHandle").asText());
+            case "DeleteMessageBatch" -> {
+                String queueName = queueName(request);
+                batch(request, response, entry -> broker.delete(queueName, entry.path("ReceiptHandle").asText()));
+            }
+            case "ChangeMessageVisibility" -> broker.changeVisibility(queueName(request),
+                    request.path("ReceiptHandle").asText(), request.path("VisibilityTimeout").asInt());
+            case "ChangeMessageVisibilityBatch" -> {
+                String queueName = queueName(request);
+                batch(request, response, entry -> broker.changeVisibility(queueName,
+                        entry.path("ReceiptHandle").asText(), entry.path("VisibilityTimeout").asInt()));
+            }
+            case "PurgeQueue" -> broker.purge(queueName(request));
+            default -> {
+                sendSqsError(exchange, "UnsupportedOperation", "AWS.SimpleQueueService.UnsupportedOperation",
+                        "Operation not supported by the local stand-in: " + operation);
+                return;
+            }
+        }
+        sendJson(exchange, 200, response);
+    }
+
+    private interface BatchEntryHandler {
+        boolean apply(JsonNode entry);
+    }
+
+    private void batch(JsonNode request, ObjectNode response, BatchEntryHandler handler) {
+        ArrayNode successful = response.putArray("Successful");
+        ArrayNode failed = response.putArray("Failed");
+        for (JsonNode entry : request.path("Entries")) {
+            String id = entry.path("Id").asText();
+            if (handler.apply(entry)) {
+                successful.addObject().put("Id", id);
+            } else {
+                failed.addObject()
+                        .put("Id", id)
+                        .put("Code", "ReceiptHandleIsInvalid")
+                        .put("SenderFault", true)
+                        .put("Message", "Unknown receipt handle");
+            }
+        }
+    }
+
+    private ObjectNode toJson(BrokerMessage message) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("MessageId", message.getMessageId());
+        node.put("ReceiptHandle", message.getReceiptHandle());
+        node.put("Body", message.getBody());
+        node.put("MD5OfBody", Md5Checksums.ofBody(message.getBody()));
+
+        ObjectNode systemAttributes = node.putObject("Attributes");
+        systemAttributes.put("SenderId", ACCOUNT_ID);
+        systemAttributes.put("SentTimestamp", String.valueOf(message.getSentTimestamp()));
+        systemAttributes.put("ApproximateReceiveCount", String.valueOf(message.getReceiveCount()));
+        systemAttributes.put("ApproximateFirstReceiveTimestamp", String.valueOf(message.getFirstReceiveTimestamp()));
+
+        if (!message.getAttributes().isEmpty()) {
+            ObjectNode attributes = node.putObject("MessageAttributes");
+            message.getAttributes().forEach((name, value) -> attributes.putObject(name)
+                    .put("DataType", value.dataType())
+                    .put("StringValue", value.stringValue()));
+            node.put("MD5OfMessageAttributes", Md5Checksums.ofAttributes(message.getAttributes()));
+        }
+        return node;
+    }
+
+    private Map<String, MessageAttribute> readMessageAttributes(JsonNode node) {
+        Map<String, MessageAttribute> attributes = new LinkedHashMap<>();
+        node.fields().forEachRemaining(field -> {
+            JsonNode value = field.getValue();
+            if (value.has("StringValue")) {
+                attributes.put(field.getKey(),
+                        new MessageAttribute(value.path("DataType").asText("String"), value.get("StringValue").asText()));
+            }
+        });
+        return attributes;
+    }
+
+    private static String queueName(JsonNode request) {
+        String url = request.path("QueueUrl").asText();
+        return url.substring(url.lastIndexOf('/') + 1);
+    }
+
+    private void sendSqsError(HttpExchange exchange, String type, String queryErrorCode, String message) throws IOException {
+        ObjectNode error = objectMapper.createObjectNode();
+        error.put("__type", "com.amazonaws.sqs#" + type);
+        error.put("message", message);
+        exchange.getResponseHeaders().add("x-amzn-query-error", queryErrorCode + ";Sender");
+        sendJson(exchange, 400, error);
+    }
+
+    private void sendJson(HttpExchange exchange, int status, JsonNode json) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(json);
+        exchange.getResponseHeaders().add("Content-Type", JSON_CONTENT_TYPE);
+        exchange.getResponseHeaders().add("x-amzn-RequestId", UUID.randomUUID().toString());
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // ---- SNS (query protocol) ----
+
+    private void handleSnsQuery(HttpExchange exchange, Map<String, String> form) throws IOException {
+        String action = form.getOrDefault("Action", "");
+        String result;
+        switch (action) {
+            case "Publish" -> {
+                String messageId = broker.publish(form.get("TopicArn"), form.get("Message"), readQueryAttributes(form));
+                result = "<MessageId>" + messageId + "</MessageId>";
+            }
+            case "CreateTopic" -> result = "<TopicArn>arn:aws:sns:local:" + ACCOUNT_ID + ":" + escapeXml(form.get("Name")) + "</TopicArn>";
+            default -> {
+                sendXml(exchange, 400, "<ErrorResponse xmlns=\"" + SNS_NAMESPACE + "\"><Error><Type>Sender</Type>"
+                        + "<Code>InvalidAction</Code><Message>Unsupported action " + escapeXml(action)
+                        + "</Message></Error></ErrorResponse>");
+                return;
+            }
+        }
+        sendXml(exchange, 200, "<" + action + "Response xmlns=\"" + SNS_NAMESPACE + "\"><" + action + "Result>" + result
+                + "</" + action + "Result><ResponseMetadata><RequestId>" + UUID.randomUUID()
+                + "</RequestId></ResponseMetadata></" + action + "Response>");
+    }
+
+    private static Map<String, MessageAttribute> readQueryAttributes(Map<String, String> form) {
+        Map<String, MessageAttribute> attributes = new LinkedHashMap<>();
+        for (int i = 1; form.containsKey("MessageAttributes.entry." + i + ".Name"); i++) {
+            String prefix = "MessageAttributes.entry." + i;
+            String value = form.get(prefix + ".Value.StringValue");
+            if (value != null) {
+                attributes.put(form.get(prefix + ".Name"),
+                        new MessageAttribute(form.getOrDefault(prefix + ".Value.DataType", "String"), value));
+            }
+        }
+        return attributes;
+    }
+
+    private void sendXml(HttpExchange exchange, int status, String xml) throws IOException {
+        byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/xml");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseForm(String body) {
+        Map<String, String> form = new HashMap<>();
+        for (String pair : body.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            form.put(key, value);
+        }
+        return form;
+    }
+
+    private static String escapeXml(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
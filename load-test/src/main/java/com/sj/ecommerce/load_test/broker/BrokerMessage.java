@@ -0,0 +1,56 @@
+package com.sj.ecommerce.load_test.broker;
+
+import java.util.Map;
+
+/**
+ * A message stored in an in-memory queue.
+ *
+ * Mutable delivery bookkeeping is guarded by the owning queue's lock.
+ */
+public final class BrokerMessage {
+
+    private final String messageId;
+    private final String body;
+    private final Map<String, MessageAttribute> attributes;
+    private final long sentTimestamp;
+
+    int receiveCount;
+    long firstReceiveTimestamp;
+    String receiptHandle;
+    long visibleAt;
+
+    BrokerMessage(String messageId, String body, Map<String, MessageAttribute> attributes, long sentTimestamp) {
+        this.messageId = messageId;
+        this.body = body;
+        this.attributes = Map.copyOf(attributes);
+        this.sentTimestamp = sentTimestamp;
+    }
+
+    public String getMessageId() {
+        return messageId;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public Map<String, MessageAttribute> getAttributes() {
+        return attributes;
+    }
+
+    public long getSentTimestamp() {
+        return sentTimestamp;
+    }
+
+    public int getReceiveCount() {
+        return receiveCount;
+    }
+
+    public long getFirstReceiveTimestamp() {
+        return firstReceiveTimestamp;
+    }
+
+    public String getReceiptHandle() {
+        return receiptHandle;
+    }
+}
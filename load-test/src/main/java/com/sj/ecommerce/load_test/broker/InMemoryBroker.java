@@ -0,0 +1,276 @@
+package com.sj.ecommerce.load_test.broker;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory SNS topics and SQS standard queues with the semantics the services rely on:
+ * fan-out from topics with raw message delivery, visibility timeouts, long polling,
+ * receive counts and redrive to a dead-letter queue after maxReceiveCount.
+ *
+ * Not durable and not FIFO; good enough to load-test the event flow without AWS.
+ */
+public class InMemoryBroker {
+
+    /** Callback fired when a consumer deletes (acknowledges) a message. */
+    @FunctionalInterface
+    public interface DeleteListener {
+        void onDelete(String queueName, BrokerMessage message, long deletedAt);
+    }
+
+    private final Map<String, QueueState> queues = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> topicSubscriptions = new ConcurrentHashMap<>();
+    private final List<DeleteListener> deleteListeners = new CopyOnWriteArrayList<>();
+
+    public void createQueue(String name, int visibilityTimeoutSeconds) {
+        createQueue(name, visibilityTimeoutSeconds, 0, null);
+    }
+
+    /**
+     * @param maxReceiveCount receives after which a message is moved to {@code deadLetterQueue}; 0 disables redrive
+     */
+    public void createQueue(String name, int visibilityTimeoutSeconds, int maxReceiveCount, String deadLetterQueue) {
+        queues.computeIfAbsent(name, n -> new QueueState(n, visibilityTimeoutSeconds, maxReceiveCount, deadLetterQueue));
+    }
+
+    public boolean hasQueue(String name) {
+        return queues.containsKey(name);
+    }
+
+    public void subscribe(String topicName, String queueName) {
+        requireQueue(queueName);
+        topicSubscriptions.computeIfAbsent(topicName, t -> ConcurrentHashMap.newKeySet()).add(queueName);
+    }
+
+    public void addDeleteListener(DeleteListener listener) {
+        deleteListeners.add(listener);
+    }
+
+    /**
+     * Publish to a topic; the topic is identified by the last segment of its ARN.
+     * Every subscribed queue receives its own copy (raw message delivery).
+     */
+    public String publish(String topicArn, String body, Map<String, MessageAttribute> attributes) {
+        String topicName = topicArn.substring(topicArn.lastIndexOf(':') + 1);
+        Set<String> subscribers = topicSubscriptions.getOrDefault(topicName, Set.of());
+        for (String queueName : subscribers) {
+            send(queueName, body, attributes);
+        }
+        return UUID.randomUUID().toString();
+    }
+
+    public BrokerMessage send(String queueName, String body, Map<String, MessageAttribute> attributes) {
+        BrokerMessage message = new BrokerMessage(UUID.randomUUID().toString(), body, attributes, System.currentTimeMillis());
+        requireQueue(queueName).enqueue(message);
+        return message;
+    }
+
+    /**
+     * Receive up to {@code maxMessages}, waiting up to {@code waitSeconds} for the first one (long polling).
+     *
+     * @param visibilityTimeoutSeconds per-request override, or a negative value for the queue default
+     */
+    public List<BrokerMessage> receive(String queueName, int maxMessages, int waitSeconds, int visibilityTimeoutSeconds)
+            throws InterruptedException {
+        return requireQueue(queueName).receive(Math.max(1, Math.min(maxMessages, 10)), waitSeconds, visibilityTimeoutSeconds);
+    }
+
+    public boolean delete(String queueName, String receiptHandle) {
+        QueueState queue = requireQueue(queueName);
+        BrokerMessage deleted = queue.delete(receiptHandle);
+        if (deleted == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        for (DeleteListener listener : deleteListeners) {
+            listener.onDelete(queueName, deleted, now);
+        }
+        return true;
+    }
+
+    public boolean changeVisibility(String queueName, String receiptHandle, int visibilityTimeoutSeconds) {
+        return requireQueue(queueName).changeVisibility(receiptHandle, visibilityTimeoutSeconds);
+    }
+
+    public void purge(String queueName) {
+        requireQueue(queueName).purge();
+    }
+
+    /** Approximate counters, named like the SQS queue attributes. */
+    public Map<String, String> attributes(String queueName) {
+        return requireQueue(queueName).attributes();
+    }
+
+    private QueueState requireQueue(String name) {
+        QueueState queue = queues.get(name);
+        if (queue == null) {
+            throw new QueueDoesNotExistException(name);
+        }
+        return queue;
+    }
+
+    public static class QueueDoesNotExistException extends RuntimeException {
+        public QueueDoesNotExistException(String queueName) {
+            super("The specified queue does not exist: " + queueName);
+        }
+    }
+
+    private final class QueueState {
+        private final String name;
+        private final int defaultVisibilitySeconds;
+        private final int maxReceiveCount;
+        private final String deadLetterQueue;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition messageAvailable = lock.newCondition();
+        private final ArrayDeque<BrokerMessage> visible = new ArrayDeque<>();
+        private final Map<String, BrokerMessage> inFlight = new LinkedHashMap<>();
+
+        QueueState(String name, int defaultVisibilitySeconds, int maxReceiveCount, String deadLetterQueue) {
+            this.name = name;
+            this.defaultVisibilitySeconds = defaultVisibilitySeconds;
+            this.maxReceiveCount = maxReceiveCount;
+            this.deadLetterQueue = deadLetterQueue;
+        }
+
+        void enqueue(BrokerMessage message) {
+            lock.lock();
+            try {
+                visible.addLast(message);
+                messageAvailable.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        List<BrokerMessage> receive(int maxMessages, int waitSeconds, int visibilityOverride) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(Math.max(0, waitSeconds));
+            int visibilitySeconds = visibilityOverride >= 0 ? visibilityOverride : defaultVisibilitySeconds;
+            List<BrokerMessage> redriven = new ArrayList<>();
+            List<BrokerMessage> received = new ArrayList<>(maxMessages);
+            lock.lockInterruptibly();
+            try {
+                while (true) {
+                    requeueExpired(redriven);
+                    while (received.size() < maxMessages && !visible.isEmpty()) {
+                        BrokerMessage message = visible.pollFirst();
+                        if (maxReceiveCount > 0 && message.receiveCount >= maxReceiveCount) {
+                            redriven.add(message);
+                            continue;
+                        }
+                        long now = System.currentTimeMillis();
+                        message.receiveCount++;
+                        if (message.firstReceiveTimestamp == 0) {
+                            message.firstReceiveTimestamp = now;
+                        }
+                        message.receiptHandle = UUID.randomUUID().toString();
+                        message.visibleAt = now + TimeUnit.SECONDS.toMillis(visibilitySeconds);
+                        inFlight.put(message.receiptHandle, message);
+                        received.add(message);
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (!received.isEmpty() || remaining <= 0) {
+                        break;
+                    }
+                    // Wake up periodically so expired in-flight messages become visible again
+                    messageAvailable.awaitNanos(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(200)));
+                }
+            } finally {
+                lock.unlock();
+            }
+            moveToDeadLetterQueue(redriven);
+            return received;
+        }
+
+        BrokerMessage delete(String receiptHandle) {
+            lock.lock();
+            try {
+                return inFlight.remove(receiptHandle);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean changeVisibility(String receiptHandle, int visibilitySeconds) {
+            lock.lock();
+            try {
+                BrokerMessage message = inFlight.get(receiptHandle);
+                if (message == null) {
+                    return false;
+                }
+                if (visibilitySeconds == 0) {
+                    inFlight.remove(receiptHandle);
+                    visible.addFirst(message);
+                    messageAvailable.signal();
+                } else {
+                    message.visibleAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(visibilitySeconds);
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void purge() {
+            lock.lock();
+            try {
+                visible.clear();
+                inFlight.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Map<String, String> attributes() {
+            lock.lock();
+            try {
+                Map<String, String> attributes = new LinkedHashMap<>();
+                attributes.put("ApproximateNumberOfMessages", String.valueOf(visible.size()));
+                attributes.put("ApproximateNumberOfMessagesNotVisible", String.valueOf(inFlight.size()));
+                attributes.put("ApproximateNumberOfMessagesDelayed", "0");
+                attributes.put("VisibilityTimeout", String.valueOf(defaultVisibilitySeconds));
+                attributes.put("QueueArn", "arn:aws:sqs:local:000000000000:" + name);
+                return attributes;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Must hold the lock. */
+        private void requeueExpired(List<BrokerMessage> redriven) {
+            long now = System.currentTimeMillis();
+            Iterator<BrokerMessage> it = inFlight.values().iterator();
+            while (it.hasNext()) {
+                BrokerMessage message = it.next();
+                if (message.visibleAt <= now) {
+                    it.remove();
+                    if (maxReceiveCount > 0 && message.receiveCount >= maxReceiveCount) {
+                        redriven.add(message);
+                    } else {
+                        visible.addLast(message);
+                    }
+                }
+            }
+        }
+
+        private void moveToDeadLetterQueue(List<BrokerMessage> messages) {
+            if (messages.isEmpty() || deadLetterQueue == null) {
+                return;
+            }
+            for (BrokerMessage message : messages) {
+                send(deadLetterQueue, message.getBody(), message.getAttributes());
+            }
+        }
+    }
+}
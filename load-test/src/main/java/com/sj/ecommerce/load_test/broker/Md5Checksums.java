@@ -0,0 +1,58 @@
+package com.sj.ecommerce.load_test.broker;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * MD5 digests in the exact form SQS returns them. The AWS SDK validates both values
+ * on send and receive, so the stand-in has to produce them byte-for-byte.
+ */
+final class Md5Checksums {
+
+    private static final byte STRING_TRANSPORT_TYPE = 1;
+
+    private Md5Checksums() {}
+
+    static String ofBody(String body) {
+        MessageDigest digest = md5();
+        digest.update(body.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Attributes are hashed in name order as length-prefixed UTF-8 name, data type,
+     * a transport-type byte and the length-prefixed value.
+     */
+    static String ofAttributes(Map<String, MessageAttribute> attributes) {
+        if (attributes.isEmpty()) {
+            return null;
+        }
+        MessageDigest digest = md5();
+        for (Map.Entry<String, MessageAttribute> entry : new TreeMap<>(attributes).entrySet()) {
+            updateLengthPrefixed(digest, entry.getKey());
+            updateLengthPrefixed(digest, entry.getValue().dataType());
+            digest.update(STRING_TRANSPORT_TYPE);
+            updateLengthPrefixed(digest, entry.getValue().stringValue());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void updateLengthPrefixed(MessageDigest digest, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.sj.ecommerce.load_test.broker;
+
+/**
+ * String-typed SNS/SQS message attribute. Binary attributes are not used by the services.
+ */
+public record MessageAttribute(String dataType, String stringValue) {}
@@ -0,0 +1,57 @@
+package com.sj.ecommerce.load_test.driver;
+
+import java.util.Arrays;
+
+/**
+ * Collects raw latency samples for one stage. Samples are kept exactly (no bucketing), which is
+ * fine for the few hundred thousand flows a local run produces.
+ */
+public class LatencyRecorder {
+
+    private final String stage;
+    private long[] samples = new long[1024];
+    private int count;
+    private long failures;
+
+    public LatencyRecorder(String stage) {
+        this.stage = stage;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    public synchronized void recordFailure() {
+        failures++;
+    }
+
+    public synchronized Snapshot snapshot() {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return new Snapshot(stage, count, failures,
+                percentile(sorted, 0.50), percentile(sorted, 0.99),
+                count == 0 ? 0 : sorted[count - 1]);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+    }
+
+    /** Latencies in milliseconds. */
+    public record Snapshot(String stage, int count, long failures, double p50Millis, double p99Millis, long maxNanos) {
+        public double maxMillis() {
+            return maxNanos / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.sj.ecommerce.load_test.driver;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sj.ecommerce.load_test.LoadTestConfig;
+import com.sj.ecommerce.load_test.identity.FakeIdentityProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives the full order → payment → webhook → order/notification flow at a fixed arrival rate
+ * (open model: new orders keep arriving even when the system slows down) and records per-stage latency.
+ *
+ * Stage boundaries come from three sources: HTTP round trips made here, webhook callbacks from the
+ * fake Razorpay, and message deletions observed by the in-memory broker (a delete is the moment a
+ * consumer finished handling the event).
+ *
+ * Gateway calls carry a bearer token from {@link FakeIdentityProvider} for a random user, the
+ * same user for an order's creation and its status polls.
+ */
+public class OrderFlowDriver {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderFlowDriver.class);
+
+    public static final String STAGE_ORDER_CREATE = "order.create";
+    public static final String STAGE_ORDER_EVENT = "order-created.to.payment-record";
+    public static final String STAGE_INITIATE = "payment.initiate";
+    public static final String STAGE_WEBHOOK = "webhook.handle";
+    public static final String STAGE_ORDER_UPDATE = "payment-event.to.order-status";
+    public static final String STAGE_NOTIFICATION = "payment-event.to.notification";
+    public static final String STAGE_STATUS_POLL = "order.status-poll";
+    public static final String STAGE_END_TO_END = "end-to-end";
+
+    private final LoadTestConfig config;
+    private final ObjectMapper objectMapper;
+    private final FakeIdentityProvider identityProvider;
+    private final String orderQueue;
+    private final String paymentQueue;
+    private final String notificationQueue;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    private final Map<Long, FlowTracker> flows = new ConcurrentHashMap<>();
+    private final Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong statusMismatches = new AtomicLong();
+
+    public OrderFlowDriver(LoadTestConfig config, ObjectMapper objectMapper, FakeIdentityProvider identityProvider,
+                           String orderQueue, String paymentQueue, String notificationQueue) {
+        this.config = config;
+        this.objectMapper = objectMapper;
+        this.identityProvider = identityProvider;
+        this.orderQueue = orderQueue;
+        this.paymentQueue = paymentQueue;
+        this.notificationQueue = notificationQueue;
+        for (String stage : new String[] {STAGE_ORDER_CREATE, STAGE_ORDER_EVENT, STAGE_INITIATE, STAGE_WEBHOOK,
+                STAGE_ORDER_UPDATE, STAGE_NOTIFICATION, STAGE_STATUS_POLL, STAGE_END_TO_END}) {
+            recorders.put(stage, new LatencyRecorder(stage));
+        }
+    }
+
+    /** Broker callback: a consumer acknowledged a message. */
+    public void onQueueDelete(String queueName, String body) {
+        long now = System.nanoTime();
+        Long orderId = orderIdOf(body);
+        // PaymentInitiated shares the payment queues but is not the outcome the stages wait for
+        if (orderId == null || body.contains("\"razorpayOrderId\"")) {
+            return;
+        }
+        FlowTracker flow = tracker(orderId);
+        if (queueName.equals(orderQueue)) {
+            flow.orderEventConsumed.complete(now);
+        } else if (queueName.equals(paymentQueue)) {
+            flow.paymentEventConsumedByOrder.complete(now);
+        } else if (queueName.equals(notificationQueue)) {
+            flow.paymentEventConsumedByNotification.complete(now);
+        }
+    }
+
+    /** Fake Razorpay callback: the webhook for this order was delivered. */
+    public void onWebhookSent(long orderId, String event, long sentAtNanos, long completedAtNanos, int httpStatus) {
+        FlowTracker flow = tracker(orderId);
+        flow.expectedStatus = "payment.failed".equals(event) ? "PAYMENT_FAILED" : "PAID";
+        if (httpStatus == 200) {
+            recorders.get(STAGE_WEBHOOK).record(completedAtNanos - sentAtNanos);
+            flow.webhookCompleted.complete(completedAtNanos);
+        } else {
+            recorders.get(STAGE_WEBHOOK).recordFailure();
+            flow.webhookCompleted.completeExceptionally(new IllegalStateException("Webhook returned " + httpStatus));
+        }
+    }
+
+    /**
+     * Run for the configured duration, then wait for in-flight flows to finish or time out.
+     *
+     * @return wall-clock time from the first order until the last flow finished
+     */
+    public Duration run() throws InterruptedException {
+        long intervalNanos = (long) (1_000_000_000L / config.ordersPerSecond());
+        long start = System.nanoTime();
+        long end = start + config.duration().toNanos();
+        log.info("Driving {} orders/s for {}s", config.ordersPerSecond(), config.duration().toSeconds());
+
+        try (ExecutorService flowsExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long next = start;
+            while (next < end) {
+                long sleep = next - System.nanoTime();
+                if (sleep > 0) {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                }
+                started.incrementAndGet();
+                flowsExecutor.execute(this::runFlow);
+                next += intervalNanos;
+            }
+            log.info("Arrivals finished after {} orders, draining in-flight flows", started.get());
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    private void runFlow() {
+        long t0 = System.nanoTime();
+        long userId = ThreadLocalRandom.current().nextLong(1, 10_000);
+        Long orderId = null;
+        try {
+            orderId = createOrder(userId);
+            long created = System.nanoTime();
+            recorders.get(STAGE_ORDER_CREATE).record(created - t0);
+            FlowTracker flow = tracker(orderId);
+
+            long polledOrderId = orderId;
+            Thread poller = config.statusPollInterval().isZero()
+                    ? null
+                    : Thread.ofVirtual().start(() -> pollStatus(flow, userId, polledOrderId));
+
+            long paymentRecorded = await(flow.orderEventConsumed, STAGE_ORDER_EVENT);
+            recorders.get(STAGE_ORDER_EVENT).record(paymentRecorded - created);
+
+            long initiateStart = System.nanoTime();
+            send(STAGE_INITIATE, HttpRequest.newBuilder(URI.create(config.paymentServiceUrl() + "/payments/order/" + orderId + "/initiate"))
+                    .POST(HttpRequest.BodyPublishers.noBody()));
+            recorders.get(STAGE_INITIATE).record(System.nanoTime() - initiateStart);
+
+            long webhookDone = await(flow.webhookCompleted, STAGE_WEBHOOK);
+            long orderUpdated = await(flow.paymentEventConsumedByOrder, STAGE_ORDER_UPDATE);
+            recorders.get(STAGE_ORDER_UPDATE).record(orderUpdated - webhookDone);
+            long notified = await(flow.paymentEventConsumedByNotification, STAGE_NOTIFICATION);
+            recorders.get(STAGE_NOTIFICATION).record(notified - webhookDone);
+            recorders.get(STAGE_END_TO_END).record(Math.max(orderUpdated, notified) - t0);
+
+            flow.done = true;
+            if (poller != null) {
+                poller.join();
+            }
+            verifyFinalStatus(orderId, flow.expectedStatus);
+            completed.incrementAndGet();
+        } catch (StageFailedException e) {
+            failed.incrementAndGet();
+            recorders.get(e.stage).recordFailure();
+            log.debug("Flow failed at {} for orderId={}", e.stage, orderId, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (orderId != null) {
+                FlowTracker flow = flows.remove(orderId);
+                if (flow != null) {
+                    flow.done = true;
+                }
+            }
+        }
+    }
+
+    private long createOrder(long userId) throws StageFailedException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("userId", userId);
+        body.put("amountMinor", random.nextLong(100_00, 5_000_00));
+        body.put("currency", "INR");
+        body.putArray("productIds").add(random.nextLong(1, 500)).add(random.nextLong(1, 500));
+        try {
+            String response = send(STAGE_ORDER_CREATE, HttpRequest.newBuilder(URI.create(config.gatewayUrl() + "/orders"))
+                    .header("Content-Type", "application/json")
+                    .header("Authorization", "Bearer " + identityProvider.tokenFor(userId))
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body))));
+            return objectMapper.readTree(response).path("id").asLong();
+        } catch (IOException e) {
+            throw new StageFailedException(STAGE_ORDER_CREATE, e);
+        }
+    }
+
+    /** Simulates a browser tab polling order status until the flow completes. */
+    private void pollStatus(FlowTracker flow, long userId, long orderId) {
+        LatencyRecorder recorder = recorders.get(STAGE_STATUS_POLL);
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(config.gatewayUrl() + "/orders/" + orderId))
+                .timeout(Duration.ofSeconds(10))
+                .GET();
+        while (!flow.done) {
+            long start = System.nanoTime();
+            try {
+                request.setHeader("Authorization", "Bearer " + identityProvider.tokenFor(userId));
+                HttpResponse<Void> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200 || response.statusCode() == 304) {
+                    recorder.record(System.nanoTime() - start);
+                } else {
+                    recorder.recordFailure();
+                }
+                Thread.sleep(config.statusPollInterval());
+            } catch (IOException e) {
+                recorder.recordFailure();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void verifyFinalStatus(long orderId, String expectedStatus) throws InterruptedException {
+        try {
+            String response = send(STAGE_END_TO_END, HttpRequest.newBuilder(URI.create(config.orderServiceUrl() + "/orders/" + orderId)).GET());
+            String status = objectMapper.readTree(response).path("status").asText();
+            if (expectedStatus != null && !expectedStatus.equals(status)) {
+                statusMismatches.incrementAndGet();
+                log.warn("orderId={} finished with status={} but webhook implied {}", orderId, status, expectedStatus);
+            }
+        } catch (IOException | StageFailedException e) {
+            statusMismatches.incrementAndGet();
+        }
+    }
+
+    private String send(String stage, HttpRequest.Builder builder) throws StageFailedException, InterruptedException {
+        try {
+            HttpResponse<String> response = httpClient.send(builder.timeout(Duration.ofSeconds(30)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new StageFailedException(stage,
+                        new IllegalStateException("HTTP " + response.statusCode() + " from " + response.uri()));
+            }
+            return response.body();
+        } catch (IOException e) {
+            throw new StageFailedException(stage, e);
+        }
+    }
+
+    private long await(CompletableFuture<Long> future, String stage) throws StageFailedException, InterruptedException {
+        try {
+            return future.get(config.flowTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new StageFailedException(stage, e);
+        }
+    }
+
+    private FlowTracker tracker(long orderId) {
+        return flows.computeIfAbsent(orderId, id -> new FlowTracker());
+    }
+
+    private Long orderIdOf(String body) {
+        try {
+            JsonNode orderId = objectMapper.readTree(body).get("orderId");
+            return orderId == null ? null : orderId.asLong();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public Map<String, LatencyRecorder.Snapshot> snapshots() {
+        Map<String, LatencyRecorder.Snapshot> snapshots = new LinkedHashMap<>();
+        recorders.forEach((stage, recorder) -> snapshots.put(stage, recorder.snapshot()));
+        return snapshots;
+    }
+
+    public long startedFlows() {
+        return started.get();
+    }
+
+    public long completedFlows() {
+        return completed.get();
+    }
+
+    public long failedFlows() {
+        return failed.get();
+    }
+
+    public long statusMismatches() {
+        return statusMismatches.get();
+    }
+
+    private static final class FlowTracker {
+        final CompletableFuture<Long> orderEventConsumed = new CompletableFuture<>();
+        final CompletableFuture<Long> webhookCompleted = new CompletableFuture<>();
+        final CompletableFuture<Long> paymentEventConsumedByOrder = new CompletableFuture<>();
+        final CompletableFuture<Long> paymentEventConsumedByNotification = new CompletableFuture<>();
+        volatile String expectedStatus;
+        volatile boolean done;
+    }
+
+    private static final class StageFailedException extends Exception {
+        final String stage;
+
+        StageFailedException(String stage, Throwable cause) {
+            super(stage, cause);
+            this.stage = stage;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.sj.ecommerce.load_test.driver;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples each service's Hikari pool through the actuator metrics endpoint while the load runs.
+ */
+public class PoolSaturationSampler implements AutoCloseable {
+
+    private static final Duration SAMPLE_INTERVAL = Duration.ofMillis(500);
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, String> serviceBaseUrls;
+    private final Map<String, PoolStats> stats = new LinkedHashMap<>();
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    public PoolSaturationSampler(ObjectMapper objectMapper, Map<String, String> serviceBaseUrls) {
+        this.objectMapper = objectMapper;
+        this.serviceBaseUrls = serviceBaseUrls;
+        serviceBaseUrls.keySet().forEach(service -> stats.put(service, new PoolStats()));
+    }
+
+    public void start() {
+        scheduler.scheduleAtFixedRate(this::sampleAll, 0, SAMPLE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void sampleAll() {
+        serviceBaseUrls.forEach((service, baseUrl) -> {
+            Double active = metric(baseUrl, "hikaricp.connections.active");
+            Double pending = metric(baseUrl, "hikaricp.connections.pending");
+            Double max = metric(baseUrl, "hikaricp.connections.max");
+            if (active != null && pending != null && max != null) {
+                stats.get(service).add(active, pending, max);
+            }
+        });
+    }
+
+    private Double metric(String baseUrl, String name) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + name))
+                .timeout(Duration.ofSeconds(2))
+                .GET()
+                .build();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return null;
+            }
+            JsonNode measurements = objectMapper.readTree(response.body()).path("measurements");
+            return measurements.isEmpty() ? null : measurements.get(0).path("value").asDouble();
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    public Map<String, PoolStats.Snapshot> snapshot() {
+        Map<String, PoolStats.Snapshot> snapshot = new LinkedHashMap<>();
+        stats.forEach((service, poolStats) -> snapshot.put(service, poolStats.snapshot()));
+        return snapshot;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    public static class PoolStats {
+        private long samples;
+        private long saturatedSamples;
+        private double utilizationSum;
+        private double pendingSum;
+        private double maxPending;
+        private double maxActive;
+
+        synchronized void add(double active, double pending, double max) {
+            samples++;
+            utilizationSum += max > 0 ? active / max : 0;
+            pendingSum += pending;
+            maxPending = Math.max(maxPending, pending);
+            maxActive = Math.max(maxActive, active);
+            if (pending > 0 || (max > 0 && active >= max)) {
+                saturatedSamples++;
+            }
+        }
+
+        synchronized Snapshot snapshot() {
+            return new Snapshot(samples,
+                    samples == 0 ? 0 : utilizationSum / samples,
+                    samples == 0 ? 0 : (double) saturatedSamples / samples,
+                    samples == 0 ? 0 : pendingSum / samples,
+                    maxPending,
+                    maxActive);
+        }
+
+        /**
+         * @param saturatedFraction share of samples where the pool was fully used or had waiting threads
+         */
+        public record Snapshot(long samples, double meanUtilization, double saturatedFraction,
+                               double meanPending, double maxPending, double maxActive) {}
+    }
+}
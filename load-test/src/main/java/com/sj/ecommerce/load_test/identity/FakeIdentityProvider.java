@@ -0,0 +1,150 @@
+package com.sj.ecommerce.load_test.identity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+/**
+ * Stand-in for the identity provider the gateway verifies bearer tokens against.
+ *
+ * Serves a one-key RSA JWKS at /jwks.json and mints RS256 tokens with a numeric sub, so the
+ * gateway is launched with gateway.auth.jwks-uri, issuer and audience pointed here. Tokens are
+ * reused per user until close to expiry, the way a browser keeps its session token.
+ */
+public class FakeIdentityProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(FakeIdentityProvider.class);
+
+    public static final String ISSUER = "https://idp.loadtest.local";
+    public static final String AUDIENCE = "ecommerce-api";
+
+    private static final String KEY_ID = "loadtest-1";
+    private static final Duration TOKEN_TTL = Duration.ofMinutes(30);
+    private static final Duration RENEW_BEFORE = Duration.ofMinutes(1);
+
+    private record IssuedToken(String value, long expiresAtEpochSecond) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final int port;
+    private final KeyPair keyPair;
+    private final Map<Long, IssuedToken> tokens = new ConcurrentHashMap<>();
+    private HttpServer server;
+
+    public FakeIdentityProvider(ObjectMapper objectMapper, int port) {
+        this.objectMapper = objectMapper;
+        this.port = port;
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            this.keyPair = generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("RSA is not available", e);
+        }
+    }
+
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 64);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/jwks.json", this::jwks);
+        server.start();
+        log.info("Fake identity provider serving {}", jwksUri());
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    public String jwksUri() {
+        return "http://localhost:" + port + "/jwks.json";
+    }
+
+    /** Bearer token for this user, minted on first use and again shortly before it expires. */
+    public String tokenFor(long userId) {
+        long now = System.currentTimeMillis() / 1000;
+        return tokens.compute(userId, (id, issued) ->
+                issued != null && issued.expiresAtEpochSecond() - RENEW_BEFORE.toSeconds() > now
+                        ? issued
+                        : mint(id, now)).value();
+    }
+
+    private IssuedToken mint(long userId, long now) {
+        long expiresAt = now + TOKEN_TTL.toSeconds();
+        ObjectNode header = objectMapper.createObjectNode();
+        header.put("alg", "RS256");
+        header.put("kid", KEY_ID);
+        header.put("typ", "JWT");
+        ObjectNode claims = objectMapper.createObjectNode();
+        claims.put("sub", Long.toString(userId));
+        claims.put("iss", ISSUER);
+        claims.put("aud", AUDIENCE);
+        claims.put("iat", now);
+        claims.put("exp", expiresAt);
+        try {
+            String signingInput = base64(objectMapper.writeValueAsBytes(header)) + "." + base64(objectMapper.writeValueAsBytes(claims));
+            Signature signature = Signature.getInstance("SHA256withRSA");
+            signature.initSign(keyPair.getPrivate());
+            signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return new IssuedToken(signingInput + "." + base64(signature.sign()), expiresAt);
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Could not mint a token for userId=" + userId, e);
+        }
+    }
+
+    private void jwks(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+            ObjectNode jwks = objectMapper.createObjectNode();
+            ObjectNode key = jwks.putArray("keys").addObject();
+            key.put("kty", "RSA");
+            key.put("kid", KEY_ID);
+            key.put("use", "sig");
+            key.put("alg", "RS256");
+            key.put("n", base64(unsigned(publicKey.getModulus())));
+            key.put("e", base64(unsigned(publicKey.getPublicExponent())));
+
+            byte[] bytes = objectMapper.writeValueAsBytes(jwks);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    // JWK integers are big-endian without the sign byte BigInteger adds for a set top bit
+    private static byte[] unsigned(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        return bytes[0] == 0 ? Arrays.copyOfRange(bytes, 1, bytes.length) : bytes;
+    }
+
+    private static String base64(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,173 @@
+package com.sj.ecommerce.load_test.razorpay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stand-in for the Razorpay Orders API plus the checkout → webhook round trip.
+ *
+ * payment-service is pointed here with razorpay.api-base-url. Every created order schedules a
+ * signed payment.captured (or payment.failed, at the configured ratio) webhook to
+ * /payments/webhook/razorpay after a simulated checkout delay.
+ */
+public class FakeRazorpayServer {
+
+    private static final Logger log = LoggerFactory.getLogger(FakeRazorpayServer.class);
+
+    /** Notified after each webhook delivery attempt. */
+    @FunctionalInterface
+    public interface WebhookListener {
+        void onWebhookSent(long orderId, String event, long sentAtNanos, long completedAtNanos, int httpStatus);
+    }
+
+    private final ObjectMapper objectMapper;
+    private final int port;
+    private final String webhookUrl;
+    private final String webhookSecret;
+    private final Duration checkoutDelay;
+    private final double failureRatio;
+    private final WebhookListener webhookListener;
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private HttpServer server;
+
+    public FakeRazorpayServer(ObjectMapper objectMapper, int port, String webhookUrl, String webhookSecret,
+                              Duration checkoutDelay, double failureRatio, WebhookListener webhookListener) {
+        this.objectMapper = objectMapper;
+        this.port = port;
+        this.webhookUrl = webhookUrl;
+        this.webhookSecret = webhookSecret;
+        this.checkoutDelay = checkoutDelay;
+        this.failureRatio = failureRatio;
+        this.webhookListener = webhookListener;
+    }
+
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 512);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v1/orders", this::createOrder);
+        server.start();
+        log.info("Fake Razorpay listening on http://localhost:{}, webhooks to {}", port, webhookUrl);
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+        senders.shutdownNow();
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    private void createOrder(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            long amount = request.path("amount").asLong();
+            String receipt = request.path("receipt").asText();
+            String razorpayOrderId = "order_" + UUID.randomUUID().toString().replace("-", "").substring(0, 14);
+
+            ObjectNode order = objectMapper.createObjectNode();
+            order.put("id", razorpayOrderId);
+            order.put("entity", "order");
+            order.put("amount", amount);
+            order.put("currency", request.path("currency").asText("INR"));
+            order.put("receipt", receipt);
+            order.put("status", "created");
+            order.put("created_at", System.currentTimeMillis() / 1000);
+
+            byte[] bytes = objectMapper.writeValueAsBytes(order);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+
+            boolean fail = ThreadLocalRandom.current().nextDouble() < failureRatio;
+            scheduler.schedule(() -> senders.execute(() -> fireWebhook(razorpayOrderId, receipt, amount, fail)),
+                    checkoutDelay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void fireWebhook(String razorpayOrderId, String receipt, long amount, boolean fail) {
+        String event = fail ? "payment.failed" : "payment.captured";
+        ObjectNode entity = objectMapper.createObjectNode();
+        entity.put("id", "pay_" + UUID.randomUUID().toString().replace("-", "").substring(0, 14));
+        entity.put("entity", "payment");
+        entity.put("order_id", razorpayOrderId);
+        entity.put("amount", amount);
+        entity.put("currency", "INR");
+        entity.put("status", fail ? "failed" : "captured");
+        if (fail) {
+            entity.put("error_description", "Simulated decline from load test");
+        }
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("entity", "event");
+        body.put("event", event);
+        body.putObject("payload").putObject("payment").set("entity", entity);
+
+        int status = -1;
+        long sentAt = System.nanoTime();
+        try {
+            String payload = objectMapper.writeValueAsString(body);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(webhookUrl))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .header("X-Razorpay-Signature", sign(payload))
+                    .POST(HttpRequest.BodyPublishers.ofString(payload))
+                    .build();
+            sentAt = System.nanoTime();
+            status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException | GeneralSecurityException e) {
+            log.warn("Webhook delivery failed for razorpayOrderId={}", razorpayOrderId, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            webhookListener.onWebhookSent(Long.parseLong(receipt), event, sentAt, System.nanoTime(), status);
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring webhook for non-numeric receipt={}", receipt);
+        }
+    }
+
+    /** Same HMAC-SHA256 hex digest Razorpay sends in X-Razorpay-Signature. */
+    private String sign(String payload) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(webhookSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+}
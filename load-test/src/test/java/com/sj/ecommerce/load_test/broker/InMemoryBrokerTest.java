@@ -0,0 +1,64 @@
+package com.sj.ecommerce.load_test.broker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryBrokerTest {
+
+    @Test
+    void publishFansOutToEverySubscribedQueue() throws InterruptedException {
+        InMemoryBroker broker = new InMemoryBroker();
+        broker.createQueue("a", 30);
+        broker.createQueue("b", 30);
+        broker.subscribe("payment-events-topic", "a");
+        broker.subscribe("payment-events-topic", "b");
+
+        broker.publish("arn:aws:sns:ap-south-1:123:payment-events-topic", "{\"orderId\":1}", Map.of());
+
+        assertEquals("{\"orderId\":1}", broker.receive("a", 10, 0, -1).get(0).getBody());
+        assertEquals("{\"orderId\":1}", broker.receive("b", 10, 0, -1).get(0).getBody());
+    }
+
+    @Test
+    void unacknowledgedMessageIsRedeliveredThenRedrivenToDeadLetterQueue() throws InterruptedException {
+        InMemoryBroker broker = new InMemoryBroker();
+        broker.createQueue("q-dlq", 30);
+        broker.createQueue("q", 0, 2, "q-dlq");
+        broker.send("q", "body", Map.of());
+
+        assertEquals(1, broker.receive("q", 1, 0, -1).get(0).getReceiveCount());
+        assertEquals(2, broker.receive("q", 1, 0, -1).get(0).getReceiveCount());
+        assertTrue(broker.receive("q", 1, 0, -1).isEmpty());
+
+        List<BrokerMessage> deadLettered = broker.receive("q-dlq", 1, 0, -1);
+        assertEquals("body", deadLettered.get(0).getBody());
+    }
+
+    @Test
+    void deletedMessageIsNotRedeliveredAndNotifiesListeners() throws InterruptedException {
+        InMemoryBroker broker = new InMemoryBroker();
+        broker.createQueue("q", 0);
+        StringBuilder deleted = new StringBuilder();
+        broker.addDeleteListener((queue, message, at) -> deleted.append(queue).append(':').append(message.getBody()));
+        broker.send("q", "body", Map.of());
+
+        BrokerMessage received = broker.receive("q", 1, 0, -1).get(0);
+        assertTrue(broker.delete("q", received.getReceiptHandle()));
+
+        assertTrue(broker.receive("q", 1, 0, -1).isEmpty());
+        assertEquals("q:body", deleted.toString());
+    }
+
+    @Test
+    void checksumsMatchWhatTheAwsSdkValidates() {
+        // Values accepted by the AWS SDK v2 SQS client's checksum validation
+        assertEquals("6ed5f16969b625c8d900cbd5da557e9e",
+                Md5Checksums.ofAttributes(Map.of("contentType", new MessageAttribute("String", "application/json"))));
+        assertEquals("26b2b85f0b3752fb13a2ea60e0700877", Md5Checksums.ofBody("{\"orderId\":5}"));
+    }
+}
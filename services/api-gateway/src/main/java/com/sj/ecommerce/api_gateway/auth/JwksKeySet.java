@@ -0,0 +1,170 @@
+package com.sj.ecommerce.api_gateway.auth;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.JsonNode;
+
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Signing keys from the identity provider's JWKS endpoint, held in memory by kid.
+ *
+ * - refreshed in the background every refreshInterval; a failed refresh keeps the previous keys
+ * - a token with an unknown kid triggers one extra refresh (key rotation), at most once per
+ *   minRefreshGap so garbage kids can't be used to hammer the endpoint
+ * - concurrent refreshes share one fetch
+ */
+public class JwksKeySet implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(JwksKeySet.class);
+
+    /** A verification key; algorithm is the JWK's alg when it pins one, otherwise null. */
+    public record Key(String keyId, String algorithm, PublicKey publicKey) {
+    }
+
+    private final WebClient webClient;
+    private final String jwksUri;
+    private final Duration fetchTimeout;
+    private final long minRefreshGapNanos;
+    private final AtomicReference<Mono<Map<String, Key>>> inFlight = new AtomicReference<>();
+    private volatile Map<String, Key> keys = Map.of();
+    private volatile long lastRefreshNanos = System.nanoTime() - Long.MAX_VALUE / 2;
+    private volatile Disposable schedule;
+
+    public JwksKeySet(WebClient webClient, String jwksUri, Duration fetchTimeout, Duration minRefreshGap) {
+        this.webClient = webClient;
+        this.jwksUri = jwksUri;
+        this.fetchTimeout = fetchTimeout;
+        this.minRefreshGapNanos = minRefreshGap.toNanos();
+    }
+
+    /** Loads the keys now and then every {@code refreshInterval}. */
+    public void start(Duration refreshInterval) {
+        schedule = Flux.interval(Duration.ZERO, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh().onErrorResume(e -> Mono.empty()))
+                .subscribe();
+    }
+
+    public Key get(String keyId) {
+        return keys.get(keyId);
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * The key for {@code keyId}, refreshing the set first when it is unknown and no refresh ran
+     * within minRefreshGap. Empty when the key still is not there.
+     */
+    public Mono<Key> find(String keyId) {
+        Key key = keys.get(keyId);
+        if (key != null) {
+            return Mono.just(key);
+        }
+        if (System.nanoTime() - lastRefreshNanos < minRefreshGapNanos) {
+            return Mono.empty();
+        }
+        return refresh().onErrorResume(e -> Mono.empty()).mapNotNull(refreshed -> refreshed.get(keyId));
+    }
+
+    Mono<Map<String, Key>> refresh() {
+        if (jwksUri.isBlank()) {
+            return Mono.error(new IllegalStateException("no JWKS uri configured"));
+        }
+        Mono<Map<String, Key>> current = inFlight.get();
+        if (current != null) {
+            return current;
+        }
+        Mono<Map<String, Key>> fetch = webClient.get()
+                .uri(jwksUri)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(fetchTimeout)
+                .map(JwksKeySet::parse)
+                .doOnNext(parsed -> {
+                    if (!parsed.keySet().equals(keys.keySet())) {
+                        log.info("JWKS from {} now has key ids {}", jwksUri, parsed.keySet());
+                    }
+                    keys = parsed;
+                })
+                .doOnError(e -> log.warn("JWKS refresh from {} failed, keeping {} cached keys: {}",
+                        jwksUri, keys.size(), e.toString()))
+                .doFinally(signal -> {
+                    lastRefreshNanos = System.nanoTime();
+                    inFlight.set(null);
+                })
+                .cache();
+        return inFlight.compareAndSet(null, fetch) ? fetch : refresh();
+    }
+
+    /** Signature keys of a JWKS document by kid; encryption keys and unsupported types are skipped. */
+    static Map<String, Key> parse(JsonNode jwks) {
+        Map<String, Key> parsed = new HashMap<>();
+        for (JsonNode jwk : jwks.path("keys")) {
+            String keyId = jwk.path("kid").asString("");
+            if (keyId.isEmpty() || "enc".equals(jwk.path("use").asString(""))) {
+                continue;
+            }
+            try {
+                PublicKey publicKey = switch (jwk.path("kty").asString("")) {
+                    case "RSA" -> KeyFactory.getInstance("RSA").generatePublic(
+                            new RSAPublicKeySpec(unsigned(jwk, "n"), unsigned(jwk, "e")));
+                    case "EC" -> KeyFactory.getInstance("EC").generatePublic(
+                            new ECPublicKeySpec(new ECPoint(unsigned(jwk, "x"), unsigned(jwk, "y")), curve(jwk)));
+                    default -> null;
+                };
+                if (publicKey != null) {
+                    String algorithm = jwk.path("alg").asString("");
+                    parsed.put(keyId, new Key(keyId, algorithm.isEmpty() ? null : algorithm, publicKey));
+                }
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                log.warn("Skipping unusable JWK kid={}: {}", keyId, e.toString());
+            }
+        }
+        return Map.copyOf(parsed);
+    }
+
+    private static ECParameterSpec curve(JsonNode jwk) throws GeneralSecurityException {
+        String name = switch (jwk.path("crv").asString("")) {
+            case "P-256" -> "secp256r1";
+            case "P-384" -> "secp384r1";
+            case "P-521" -> "secp521r1";
+            default -> throw new IllegalArgumentException("unsupported crv " + jwk.path("crv").asString(""));
+        };
+        AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+        parameters.init(new ECGenParameterSpec(name));
+        return parameters.getParameterSpec(ECParameterSpec.class);
+    }
+
+    private static BigInteger unsigned(JsonNode jwk, String field) {
+        return new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path(field).asString("")));
+    }
+
+    @Override
+    public void close() {
+        Disposable running = schedule;
+        if (running != null) {
+            running.dispose();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.sj.ecommerce.api_gateway.auth;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Signature and claim checks for compact JWS bearer tokens, with keys from {@link JwksKeySet}.
+ *
+ * - RS256/384/512 and ES256/384/512 only; "none", HMAC and anything unlisted are rejected
+ * - exp, iss and aud are required; nbf is checked when present, within clockSkewSeconds
+ * - the user id comes from a configurable claim ("sub" by default) and must be a positive whole
+ *   number, as a JSON number or digit string, because the backends bind X-User-Id to a Long
+ */
+public class JwtVerifier {
+
+    /** A token whose signature and claims checked out. */
+    public record VerifiedToken(String userId, String keyId, long expiresAtEpochSecond) {
+    }
+
+    /** Header of a token that has been split and decoded but not yet verified. */
+    public record ParsedToken(String algorithm, String keyId, String signingInput, byte[] signature, String payload) {
+    }
+
+    /** The token is malformed, badly signed or not valid now. The message never contains the token. */
+    public static class InvalidTokenException extends RuntimeException {
+        public InvalidTokenException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private static final Map<String, String> JCA_ALGORITHMS = Map.of(
+            "RS256", "SHA256withRSA",
+            "RS384", "SHA384withRSA",
+            "RS512", "SHA512withRSA",
+            "ES256", "SHA256withECDSAinP1363Format",
+            "ES384", "SHA384withECDSAinP1363Format",
+            "ES512", "SHA512withECDSAinP1363Format");
+
+    private final ObjectMapper mapper = JsonMapper.builder().build();
+    private final String issuer;
+    private final String audience;
+    private final String userIdClaim;
+    private final long clockSkewSeconds;
+
+    /**
+     * @param issuer   required iss; blank rejects every token
+     * @param audience value that aud must be or contain; blank rejects every token
+     */
+    public JwtVerifier(String issuer, String audience, String userIdClaim, long clockSkewSeconds) {
+        this.issuer = issuer == null ? "" : issuer;
+        this.audience = audience == null ? "" : audience;
+        this.userIdClaim = userIdClaim;
+        this.clockSkewSeconds = clockSkewSeconds;
+    }
+
+    public ParsedToken parse(String token) {
+        int first = token.indexOf('.');
+        int second = first < 0 ? -1 : token.indexOf('.', first + 1);
+        if (first <= 0 || second < 0 || token.indexOf('.', second + 1) >= 0) {
+            throw new InvalidTokenException("not a compact JWS");
+        }
+        JsonNode header = json(token.substring(0, first));
+        String algorithm = header.path("alg").asString("");
+        if (!JCA_ALGORITHMS.containsKey(algorithm)) {
+            throw new InvalidTokenException("unsupported alg " + algorithm);
+        }
+        String keyId = header.path("kid").asString("");
+        if (keyId.isEmpty()) {
+            throw new InvalidTokenException("missing kid");
+        }
+        return new ParsedToken(algorithm, keyId, token.substring(0, second),
+                decode(token.substring(second + 1)), token.substring(first + 1, second));
+    }
+
+    public VerifiedToken verify(ParsedToken token, JwksKeySet.Key key, long nowEpochSecond) {
+        if (key.algorithm() != null && !key.algorithm().equals(token.algorithm())) {
+            throw new InvalidTokenException("alg " + token.algorithm() + " does not match key " + key.keyId());
+        }
+        PublicKey publicKey = key.publicKey();
+        boolean rsa = token.algorithm().startsWith("RS");
+        if (rsa ? !(publicKey instanceof RSAPublicKey) : !(publicKey instanceof ECPublicKey)) {
+            throw new InvalidTokenException("alg " + token.algorithm() + " does not fit key " + key.keyId());
+        }
+        try {
+            Signature signature = Signature.getInstance(JCA_ALGORITHMS.get(token.algorithm()));
+            signature.initVerify(publicKey);
+            signature.update(token.signingInput().getBytes(StandardCharsets.US_ASCII));
+            if (!signature.verify(token.signature())) {
+                throw new InvalidTokenException("bad signature");
+            }
+        } catch (GeneralSecurityException e) {
+            throw new InvalidTokenException("bad signature");
+        }
+
+        JsonNode claims = json(token.payload());
+        JsonNode exp = claims.path("exp");
+        if (!exp.isNumber()) {
+            throw new InvalidTokenException("missing exp");
+        }
+        long expiresAt = exp.asLong();
+        if (nowEpochSecond - clockSkewSeconds >= expiresAt) {
+            throw new InvalidTokenException("expired");
+        }
+        JsonNode nbf = claims.path("nbf");
+        if (nbf.isNumber() && nowEpochSecond + clockSkewSeconds < nbf.asLong()) {
+            throw new InvalidTokenException("not yet valid");
+        }
+        if (issuer.isEmpty() || !issuer.equals(claims.path("iss").asString(""))) {
+            throw new InvalidTokenException("wrong issuer");
+        }
+        if (audience.isEmpty() || !hasAudience(claims.path("aud"))) {
+            throw new InvalidTokenException("wrong audience");
+        }
+        return new VerifiedToken(userId(claims.path(userIdClaim)), key.keyId(), expiresAt + clockSkewSeconds);
+    }
+
+    private String userId(JsonNode user) {
+        if (!user.isString() && !user.isIntegralNumber()) {
+            throw new InvalidTokenException("missing " + userIdClaim);
+        }
+        String userId = user.asString();
+        try {
+            if (Long.parseLong(userId) > 0 && userId.charAt(0) != '+') {
+                return userId;
+            }
+        } catch (NumberFormatException ignored) {
+            // falls through to the rejection below
+        }
+        throw new InvalidTokenException(userIdClaim + " is not a numeric user id");
+    }
+
+    private boolean hasAudience(JsonNode aud) {
+        if (aud.isArray()) {
+            for (JsonNode candidate : aud) {
+                if (audience.equals(candidate.asString(""))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return audience.equals(aud.asString(""));
+    }
+
+    private JsonNode json(String base64Url) {
+        try {
+            JsonNode node = mapper.readTree(decode(base64Url));
+            if (node == null || !node.isObject()) {
+                throw new InvalidTokenException("not a JSON object");
+            }
+            return node;
+        } catch (JacksonException e) {
+            throw new InvalidTokenException("malformed JSON");
+        }
+    }
+
+    private static byte[] decode(String base64Url) {
+        try {
+            return Base64.getUrlDecoder().decode(base64Url);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTokenException("malformed base64url");
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.sj.ecommerce.api_gateway.auth;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tokens that already passed {@link JwtVerifier}, keyed by the SHA-256 of the token so raw
+ * bearer tokens are never kept in memory. A hit costs one digest and one map lookup instead of a
+ * signature check.
+ *
+ * Entries live until the token's exp. At maxEntries, expired entries are swept (at most once a
+ * second); if the cache is still full, new tokens are verified every time until space frees up,
+ * rather than evicting tokens that are in use.
+ */
+public class VerifiedTokenCache {
+
+    /** The SHA-256 of a token as four longs: cheap equals/hashCode, no array copies. */
+    public record Digest(long a, long b, long c, long d) {
+
+        public static Digest of(String token) {
+            ByteBuffer hash = ByteBuffer.wrap(sha256().digest(token.getBytes(StandardCharsets.US_ASCII)));
+            return new Digest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        }
+
+        private static MessageDigest sha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is always available", e);
+            }
+        }
+    }
+
+    private final int maxEntries;
+    private final Map<Digest, JwtVerifier.VerifiedToken> entries = new ConcurrentHashMap<>();
+    private volatile long lastSweepEpochSecond = Long.MIN_VALUE;
+
+    public VerifiedTokenCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /** The cached token, or null when unknown or expired at {@code nowEpochSecond}. */
+    public JwtVerifier.VerifiedToken get(Digest digest, long nowEpochSecond) {
+        JwtVerifier.VerifiedToken token = entries.get(digest);
+        if (token == null) {
+            return null;
+        }
+        if (nowEpochSecond >= token.expiresAtEpochSecond()) {
+            entries.remove(digest, token);
+            return null;
+        }
+        return token;
+    }
+
+    public void put(Digest digest, JwtVerifier.VerifiedToken token, long nowEpochSecond) {
+        if (entries.size() >= maxEntries) {
+            if (nowEpochSecond != lastSweepEpochSecond) {
+                sweep(nowEpochSecond);
+            }
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        entries.put(digest, token);
+    }
+
+    public void remove(Digest digest) {
+        entries.remove(digest);
+    }
+
+    public void sweep(long nowEpochSecond) {
+        lastSweepEpochSecond = nowEpochSecond;
+        entries.values().removeIf(token -> nowEpochSecond >= token.expiresAtEpochSecond());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
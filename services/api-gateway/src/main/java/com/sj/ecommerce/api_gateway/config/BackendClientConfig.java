@@ -0,0 +1,22 @@
+package com.sj.ecommerce.api_gateway.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * WebClient for gateway-side composition (e.g. checkout aggregation).
+ * Shares the gateway's Netty HttpClient so routed and composed calls use the same connection pool.
+ */
+@Configuration
+public class BackendClientConfig {
+
+    @Bean
+    public WebClient backendWebClient(HttpClient gatewayHttpClient) {
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(gatewayHttpClient))
+                .build();
+    }
+}
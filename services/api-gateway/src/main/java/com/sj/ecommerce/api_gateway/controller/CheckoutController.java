@@ -0,0 +1,39 @@
+package com.sj.ecommerce.api_gateway.controller;
+
+import com.sj.ecommerce.api_gateway.dto.CheckoutResponse;
+import com.sj.ecommerce.api_gateway.service.CheckoutService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/v1/checkout")
+public class CheckoutController {
+    private final CheckoutService checkoutService;
+
+    public CheckoutController(CheckoutService checkoutService) {
+        this.checkoutService = checkoutService;
+    }
+
+    /**
+     * 200 with whatever legs succeeded (failures listed in errors), 404 when the order does not
+     * exist, 502 when neither backend answered.
+     */
+    @GetMapping("/{orderId}")
+    public Mono<ResponseEntity<CheckoutResponse>> checkout(@PathVariable Long orderId) {
+        return checkoutService.checkout(orderId).map(result -> {
+            if (result.order().status() == CheckoutService.LegStatus.NOT_FOUND) {
+                return ResponseEntity.notFound().build();
+            }
+            if (result.order().status() == CheckoutService.LegStatus.FAILED
+                    && result.payment().status() == CheckoutService.LegStatus.FAILED) {
+                return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(result.response());
+            }
+            return ResponseEntity.ok(result.response());
+        });
+    }
+}
@@ -0,0 +1,17 @@
+package com.sj.ecommerce.api_gateway.dto;
+
+import tools.jackson.databind.JsonNode;
+
+import java.util.Map;
+
+/**
+ * Checkout view merged from order-service and payment-service.
+ * A leg that failed is null and explained in {@code errors}; {@code payment} is also null
+ * (without an error) while payment-service has no record for the order yet.
+ */
+public record CheckoutResponse(Long orderId, JsonNode order, JsonNode payment, Map<String, String> errors) {
+
+    public boolean partial() {
+        return !errors.isEmpty();
+    }
+}
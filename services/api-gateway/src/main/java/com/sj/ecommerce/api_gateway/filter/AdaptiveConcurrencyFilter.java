@@ -0,0 +1,119 @@
+package com.sj.ecommerce.api_gateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-route adaptive concurrency limiting with load shedding.
+ *
+ * Each route learns its limit from observed latency ({@link GradientConcurrencyLimit}).
+ * Requests over the limit are rejected immediately with 503 and Retry-After instead of queueing
+ * in front of services that only have a handful of DB connections; GETs are shed before writes.
+ *
+ * Metrics: gateway.concurrency.limit / gateway.concurrency.inflight gauges and the
+ * gateway.concurrency.rejected counter, tagged by route (and priority for rejections).
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.concurrency.enabled", havingValue = "true", matchIfMissing = true)
+public class AdaptiveConcurrencyFilter implements GlobalFilter, Ordered {
+
+    // Ahead of the routing/load-balancing filters so shed requests cost nothing upstream
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 100;
+
+    private final MeterRegistry meterRegistry;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double readShare;
+    private final String retryAfterSeconds;
+    private final Map<String, RouteConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyFilter(MeterRegistry meterRegistry,
+                                     @Value("${gateway.concurrency.initial-limit:20}") int initialLimit,
+                                     @Value("${gateway.concurrency.min-limit:4}") int minLimit,
+                                     @Value("${gateway.concurrency.max-limit:200}") int maxLimit,
+                                     @Value("${gateway.concurrency.rtt-tolerance:1.5}") double rttTolerance,
+                                     @Value("${gateway.concurrency.read-share:0.8}") double readShare,
+                                     @Value("${gateway.concurrency.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.meterRegistry = meterRegistry;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.readShare = readShare;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "unrouted";
+        RouteConcurrencyLimiter limiter = limiters.computeIfAbsent(routeId, this::newLimiter);
+        RouteConcurrencyLimiter.Priority priority = priorityOf(exchange.getRequest().getMethod());
+
+        if (!limiter.tryAcquire(priority)) {
+            Counter.builder("gateway.concurrency.rejected")
+                    .tag("route", routeId)
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry)
+                    .increment();
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return exchange.getResponse().setComplete();
+        }
+
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            if (signal == SignalType.CANCEL) {
+                limiter.releaseWithoutSample();
+                return;
+            }
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            boolean dropped = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+            limiter.release(System.nanoTime() - start, dropped);
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private RouteConcurrencyLimiter newLimiter(String routeId) {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(initialLimit, minLimit, maxLimit, rttTolerance, 600);
+        RouteConcurrencyLimiter limiter = new RouteConcurrencyLimiter(limit, readShare);
+        Gauge.builder("gateway.concurrency.limit", limiter, RouteConcurrencyLimiter::limit)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.inflight", limiter, RouteConcurrencyLimiter::inflight)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    private static RouteConcurrencyLimiter.Priority priorityOf(HttpMethod method) {
+        return HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method) || HttpMethod.OPTIONS.equals(method)
+                ? RouteConcurrencyLimiter.Priority.READ
+                : RouteConcurrencyLimiter.Priority.WRITE;
+    }
+}
@@ -0,0 +1,69 @@
+package com.sj.ecommerce.api_gateway.filter;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.AbstractServerHttpResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Stand-in response for one attempt of a hedged request: status, headers and body are kept here
+ * instead of reaching the client, so two attempts can run side by side and only the winner is
+ * written out. Bodies over {@code maxBodyBytes} fail the attempt.
+ */
+class BufferedAttemptResponse extends AbstractServerHttpResponse {
+
+    private final int maxBodyBytes;
+    private byte[] body = new byte[0];
+
+    BufferedAttemptResponse(DataBufferFactory bufferFactory, int maxBodyBytes) {
+        super(bufferFactory, new HttpHeaders());
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    /** What the attempt produced, in the form {@link GetCoalescingFilter} replays. */
+    CachedResponse snapshot() {
+        HttpHeaders headers = HttpHeaders.copyOf(getHeaders());
+        CapturingResponse.UNCACHED_HEADERS.forEach(headers::remove);
+        HttpStatusCode status = getStatusCode();
+        return new CachedResponse(status != null ? status.value() : 200, headers, body);
+    }
+
+    @Override
+    public <T> T getNativeResponse() {
+        throw new IllegalStateException("A buffered attempt has no native response");
+    }
+
+    @Override
+    protected Mono<Void> writeWithInternal(Publisher<? extends DataBuffer> publisher) {
+        return DataBufferUtils.join(Flux.from(publisher), maxBodyBytes)
+                .doOnNext(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    body = bytes;
+                })
+                .then();
+    }
+
+    @Override
+    protected Mono<Void> writeAndFlushWithInternal(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        return writeWithInternal(Flux.from(body).concatMap(Flux::from));
+    }
+
+    @Override
+    protected void applyStatusCode() {
+    }
+
+    @Override
+    protected void applyHeaders() {
+    }
+
+    @Override
+    protected void applyCookies() {
+    }
+}
@@ -0,0 +1,14 @@
+package com.sj.ecommerce.api_gateway.filter;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Snapshot of an upstream response (status, end-to-end headers, full body) that can be replayed
+ * to other clients.
+ */
+public record CachedResponse(int status, HttpHeaders headers, byte[] body) {
+
+    public boolean isOk() {
+        return status == 200;
+    }
+}
@@ -0,0 +1,85 @@
+package com.sj.ecommerce.api_gateway.filter;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Response decorator used by the single-flight leader: buffers the upstream body, hands a
+ * {@link CachedResponse} snapshot to {@code onCapture} and then writes it to the leader's client.
+ *
+ * Bodies declared larger than {@code maxBodyBytes} are streamed through without capture.
+ */
+class CapturingResponse extends ServerHttpResponseDecorator {
+
+    // Recomputed or connection-specific; never replayed from a snapshot
+    static final List<String> UNCACHED_HEADERS = List.of(
+            HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION, HttpHeaders.DATE);
+
+    private final int maxBodyBytes;
+    private final List<String> clientIfNoneMatch;
+    private final Consumer<CachedResponse> onCapture;
+    private boolean captured;
+
+    CapturingResponse(ServerHttpResponse delegate, int maxBodyBytes, List<String> clientIfNoneMatch,
+                      Consumer<CachedResponse> onCapture) {
+        super(delegate);
+        this.maxBodyBytes = maxBodyBytes;
+        this.clientIfNoneMatch = clientIfNoneMatch;
+        this.onCapture = onCapture;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        if (getHeaders().getContentLength() > maxBodyBytes) {
+            return super.writeWith(body);
+        }
+        return DataBufferUtils.join(Flux.from(body))
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .defaultIfEmpty(new byte[0])
+                .flatMap(bytes -> {
+                    CachedResponse response = capture(bytes);
+                    getHeaders().set(GetCoalescingFilter.CACHE_STATUS_HEADER, "MISS");
+                    if (response.isOk() && GetCoalescingFilter.etagMatches(clientIfNoneMatch, response)) {
+                        setStatusCode(HttpStatus.NOT_MODIFIED);
+                        getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+                        getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+                        return super.setComplete();
+                    }
+                    return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                });
+    }
+
+    @Override
+    public Mono<Void> setComplete() {
+        capture(new byte[0]);
+        return super.setComplete();
+    }
+
+    private CachedResponse capture(byte[] body) {
+        HttpHeaders headers = HttpHeaders.copyOf(getHeaders());
+        UNCACHED_HEADERS.forEach(headers::remove);
+        HttpStatusCode status = getStatusCode();
+        CachedResponse response = new CachedResponse(status != null ? status.value() : 200, headers, body);
+        if (!captured) {
+            captured = true;
+            onCapture.accept(response);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,240 @@
+package com.sj.ecommerce.api_gateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per-route deadlines, and hedged attempts for idempotent GETs, configured through route metadata:
+ *
+ * - deadline-ms: the whole upstream exchange, hedges included, must finish within this budget or
+ *   the client gets 504
+ * - hedge: true: a GET (or HEAD) that has not been answered after the route's recent
+ *   gateway.hedging.percentile latency gets a second, identical attempt; the first response wins
+ *   and the other attempt is cancelled. A primary that fails outright is also covered by the hedge.
+ *
+ * Hedges are held to gateway.hedging.budget-ratio of the route's requests by a {@link HedgeBudget},
+ * and are not sent until gateway.hedging.min-samples latencies have been seen. Both attempts are
+ * buffered ({@link BufferedAttemptResponse}), so hedging suits the small JSON reads it is meant for.
+ *
+ * Metrics, tagged by route: gateway.hedge.requests (eligible), gateway.hedge.sent (added load),
+ * gateway.hedge.wins (the hedge answered first), gateway.hedge.budget.exhausted,
+ * gateway.hedge.delay (ms) and gateway.deadline.exceeded.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.hedging.enabled", havingValue = "true", matchIfMissing = true)
+public class DeadlineHedgingFilter implements GlobalFilter, Ordered {
+
+    // Inside the concurrency limiter and the GET cache: one permit and one cache fill per client request
+    public static final int ORDER = AdaptiveConcurrencyFilter.ORDER + 50;
+    public static final String DEADLINE_METADATA = "deadline-ms";
+    public static final String HEDGE_METADATA = "hedge";
+
+    private record Outcome(CachedResponse response, boolean hedge) {
+    }
+
+    private record RouteState(LatencyWindow latency, HedgeBudget budget, Counter requests, Counter sent,
+                              Counter wins, Counter budgetExhausted, Counter deadlineExceeded) {
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final double percentile;
+    private final double budgetRatio;
+    private final int budgetBurst;
+    private final long minDelayNanos;
+    private final int minSamples;
+    private final int windowSize;
+    private final int maxBodyBytes;
+    private final Map<String, RouteState> routes = new ConcurrentHashMap<>();
+
+    public DeadlineHedgingFilter(MeterRegistry meterRegistry,
+                                 @Value("${gateway.hedging.percentile:0.95}") double percentile,
+                                 @Value("${gateway.hedging.budget-ratio:0.1}") double budgetRatio,
+                                 @Value("${gateway.hedging.budget-burst:10}") int budgetBurst,
+                                 @Value("${gateway.hedging.min-delay-ms:5}") long minDelayMs,
+                                 @Value("${gateway.hedging.min-samples:100}") int minSamples,
+                                 @Value("${gateway.hedging.window-size:1024}") int windowSize,
+                                 @Value("${gateway.hedging.max-body-bytes:1048576}") int maxBodyBytes) {
+        this.meterRegistry = meterRegistry;
+        this.percentile = percentile;
+        this.budgetRatio = budgetRatio;
+        this.budgetBurst = budgetBurst;
+        this.minDelayNanos = Duration.ofMillis(minDelayMs).toNanos();
+        this.minSamples = minSamples;
+        this.windowSize = windowSize;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+        Duration deadline = deadline(route);
+        HttpMethod method = exchange.getRequest().getMethod();
+        boolean hedge = (HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method))
+                && Boolean.parseBoolean(String.valueOf(route.getMetadata().get(HEDGE_METADATA)));
+        if (deadline == null && !hedge) {
+            return chain.filter(exchange);
+        }
+        RouteState state = routes.computeIfAbsent(route.getId(), this::newState);
+        Mono<Void> call = hedge ? hedged(exchange, chain, state, deadline) : chain.filter(exchange);
+        if (deadline == null) {
+            return call;
+        }
+        return call.timeout(deadline)
+                .onErrorResume(TimeoutException.class, e -> deadlineExceeded(exchange, state, e));
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private Mono<Void> hedged(ServerWebExchange exchange, GatewayFilterChain chain, RouteState state, Duration deadline) {
+        state.requests().increment();
+        state.budget().deposit();
+        long observed = state.latency().percentileNanos(System.nanoTime());
+        long delayNanos = Math.max(minDelayNanos, observed);
+        if (observed < 0 || (deadline != null && delayNanos >= deadline.toNanos())) {
+            long start = System.nanoTime();
+            return chain.filter(exchange).doFinally(signal -> state.latency().record(System.nanoTime() - start));
+        }
+
+        AtomicReference<Throwable> primaryError = new AtomicReference<>();
+        Mono<Outcome> primary = attempt(exchange, chain, state)
+                .doOnError(primaryError::set)
+                .map(response -> new Outcome(response, false));
+        Mono<Outcome> backup = Mono.delay(Duration.ofNanos(delayNanos))
+                .flatMap(tick -> {
+                    if (!state.budget().tryWithdraw()) {
+                        state.budgetExhausted().increment();
+                        return Mono.empty();
+                    }
+                    state.sent().increment();
+                    return attempt(exchange, chain, state).map(response -> new Outcome(response, true));
+                });
+        return Mono.firstWithValue(primary, backup)
+                // Neither attempt answered: report the primary's failure, not the race's
+                .onErrorMap(e -> primaryError.get() != null ? primaryError.get() : e)
+                .flatMap(outcome -> {
+                    if (outcome.hedge()) {
+                        state.wins().increment();
+                    }
+                    return write(exchange, outcome.response());
+                });
+    }
+
+    private Mono<CachedResponse> attempt(ServerWebExchange exchange, GatewayFilterChain chain, RouteState state) {
+        return Mono.defer(() -> {
+            BufferedAttemptResponse response = new BufferedAttemptResponse(exchange.getResponse().bufferFactory(), maxBodyBytes);
+            long start = System.nanoTime();
+            // A cancelled attempt still records how long it had been waiting, so the percentile
+            // is not biased towards the attempts that won
+            return chain.filter(new AttemptExchange(exchange, response))
+                    .then(Mono.fromSupplier(response::snapshot))
+                    .doFinally(signal -> state.latency().record(System.nanoTime() - start));
+        });
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, CachedResponse attempt) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().putAll(attempt.headers());
+        response.setStatusCode(HttpStatusCode.valueOf(attempt.status()));
+        if (attempt.body().length == 0) {
+            return response.setComplete();
+        }
+        response.getHeaders().setContentLength(attempt.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(attempt.body())));
+    }
+
+    private static Mono<Void> deadlineExceeded(ServerWebExchange exchange, RouteState state, TimeoutException e) {
+        state.deadlineExceeded().increment();
+        ServerHttpResponse response = exchange.getResponse();
+        if (response.isCommitted()) {
+            // Part of the body is already out; all that is left is to cut the connection
+            return Mono.error(e);
+        }
+        response.setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+        return response.setComplete();
+    }
+
+    private static Duration deadline(Route route) {
+        Object value = route.getMetadata().get(DEADLINE_METADATA);
+        if (value == null) {
+            return null;
+        }
+        long millis = value instanceof Number number ? number.longValue() : Long.parseLong(value.toString().trim());
+        return millis > 0 ? Duration.ofMillis(millis) : null;
+    }
+
+    private RouteState newState(String routeId) {
+        LatencyWindow latency = new LatencyWindow(windowSize, minSamples, percentile, Duration.ofSeconds(1).toNanos());
+        Gauge.builder("gateway.hedge.delay", latency, w -> Math.max(0, w.percentileNanos(System.nanoTime())) / 1e6)
+                .description("Current hedge delay: the route's recent upstream latency percentile, in ms")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return new RouteState(latency, new HedgeBudget(budgetRatio, budgetBurst),
+                counter("gateway.hedge.requests", routeId),
+                counter("gateway.hedge.sent", routeId),
+                counter("gateway.hedge.wins", routeId),
+                counter("gateway.hedge.budget.exhausted", routeId),
+                counter("gateway.deadline.exceeded", routeId));
+    }
+
+    private Counter counter(String name, String routeId) {
+        return Counter.builder(name).tag("route", routeId).register(meterRegistry);
+    }
+
+    /**
+     * The exchange as seen by one attempt: its own response and its own copy of the attributes,
+     * since the routing filters record per-call state (already routed, client connection) there.
+     */
+    private static final class AttemptExchange extends ServerWebExchangeDecorator {
+
+        private final ServerHttpResponse response;
+        private final Map<String, Object> attributes;
+
+        AttemptExchange(ServerWebExchange delegate, ServerHttpResponse response) {
+            super(delegate);
+            this.response = response;
+            this.attributes = new ConcurrentHashMap<>(delegate.getAttributes());
+            attributes.computeIfPresent(ServerWebExchangeUtils.GATEWAY_ORIGINAL_REQUEST_URL_ATTR,
+                    (key, urls) -> new LinkedHashSet<>((Collection<?>) urls));
+        }
+
+        @Override
+        public ServerHttpResponse getResponse() {
+            return response;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+    }
+}
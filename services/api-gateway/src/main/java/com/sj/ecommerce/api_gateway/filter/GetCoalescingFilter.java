@@ -0,0 +1,169 @@
+package com.sj.ecommerce.api_gateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Request coalescing and short-TTL caching for GETs on selected routes (orders and payments by
+ * default), aimed at status polling where many clients ask for the same order at once.
+ *
+ * Concurrent identical GETs share one upstream call; completed 200s are served from memory for
+ * about a second unless the backend's Cache-Control says otherwise. The leader's upstream
+ * request is sent unconditional so its response can be shared, and If-None-Match is evaluated
+ * here against the backend's ETag. Runs ahead of {@link AdaptiveConcurrencyFilter}, so hits and
+ * followers don't take concurrency permits.
+ *
+ * Metrics: gateway.cache.requests{route,result=hit|coalesced|miss} and
+ * gateway.cache.upstream.saved{route}, the upstream calls avoided (hits plus coalesced).
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class GetCoalescingFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = AdaptiveConcurrencyFilter.ORDER - 50;
+    public static final String CACHE_STATUS_HEADER = "X-Gateway-Cache";
+
+    private final MeterRegistry meterRegistry;
+    private final Set<String> routeIds;
+    private final int maxBodyBytes;
+    private final ResponseCache cache;
+
+    public GetCoalescingFilter(MeterRegistry meterRegistry,
+                               @Value("${gateway.cache.routes:orders,payments}") Set<String> routeIds,
+                               @Value("${gateway.cache.ttl-ms:1000}") long ttlMs,
+                               @Value("${gateway.cache.max-entries:10000}") int maxEntries,
+                               @Value("${gateway.cache.max-body-bytes:262144}") int maxBodyBytes) {
+        this.meterRegistry = meterRegistry;
+        this.routeIds = routeIds;
+        this.maxBodyBytes = maxBodyBytes;
+        this.cache = new ResponseCache(maxEntries, Duration.ofMillis(ttlMs));
+        Gauge.builder("gateway.cache.size", cache, ResponseCache::size).register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!HttpMethod.GET.equals(request.getMethod()) || route == null || !routeIds.contains(route.getId())) {
+            return chain.filter(exchange);
+        }
+        String routeId = route.getId();
+        return Mono.defer(() -> coalesce(exchange, chain, routeId, cacheKey(routeId, request)));
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private Mono<Void> coalesce(ServerWebExchange exchange, GatewayFilterChain chain, String routeId, String key) {
+        ServerHttpRequest request = exchange.getRequest();
+        CachedResponse cached = cache.getFresh(key);
+        if (cached != null) {
+            record(routeId, "hit");
+            return write(exchange, cached, "HIT");
+        }
+
+        ResponseCache.Flight flight = cache.begin(key);
+        if (!flight.leader()) {
+            record(routeId, "coalesced");
+            // suppressCancel: one follower going away must not cancel the shared future
+            // An abandoned flight completes with null: go upstream ourselves
+            return Mono.fromFuture(flight.future(), true)
+                    .singleOptional()
+                    .flatMap(response -> response.isPresent()
+                            ? write(exchange, response.get(), "COALESCED")
+                            : chain.filter(exchange));
+        }
+
+        record(routeId, "miss");
+        List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+        ServerHttpRequest unconditional = request.mutate()
+                .headers(h -> {
+                    h.remove(HttpHeaders.IF_NONE_MATCH);
+                    h.remove(HttpHeaders.IF_MODIFIED_SINCE);
+                })
+                .build();
+        CapturingResponse response = new CapturingResponse(exchange.getResponse(), maxBodyBytes, ifNoneMatch,
+                captured -> cache.complete(key, flight, captured));
+        return chain.filter(exchange.mutate().request(unconditional).response(response).build())
+                .doFinally(signal -> cache.abandon(key, flight));
+    }
+
+    static boolean etagMatches(List<String> ifNoneMatch, CachedResponse response) {
+        String etag = response.headers().getETag();
+        if (etag == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        String strong = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch) {
+            String c = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if (c.equals("*") || c.equals(strong)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, CachedResponse cached, String outcome) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().putAll(cached.headers());
+        response.getHeaders().set(CACHE_STATUS_HEADER, outcome);
+        if (cached.isOk() && etagMatches(exchange.getRequest().getHeaders().getIfNoneMatch(), cached)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatusCode.valueOf(cached.status()));
+        if (cached.body().length == 0) {
+            return response.setComplete();
+        }
+        response.getHeaders().setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private void record(String routeId, String result) {
+        Counter.builder("gateway.cache.requests")
+                .tag("route", routeId)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+        if (!"miss".equals(result)) {
+            Counter.builder("gateway.cache.upstream.saved")
+                    .tag("route", routeId)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    // Authorization and Accept are part of the key so responses are never shared across callers
+    // or representations
+    private static String cacheKey(String routeId, ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        return routeId + ' ' + request.getURI().getRawPath()
+                + '?' + request.getURI().getRawQuery()
+                + '|' + headers.getFirst(HttpHeaders.ACCEPT)
+                + '|' + headers.getFirst(HttpHeaders.AUTHORIZATION);
+    }
+}
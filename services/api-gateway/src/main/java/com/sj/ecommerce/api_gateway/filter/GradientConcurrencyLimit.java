@@ -0,0 +1,68 @@
+package com.sj.ecommerce.api_gateway.filter;
+
+/**
+ * Concurrency limit learned from latency, in the style of the Gradient2 algorithm.
+ *
+ * A slow-moving average of RTT approximates the no-load latency. Each sample compares it with
+ * the current RTT: while latency holds steady the gradient is 1 and the limit grows by a
+ * sqrt(limit) queue allowance, and as latency inflates the gradient drops below 1 and the limit
+ * shrinks proportionally. Dropped requests (5xx, errors) back the limit off multiplicatively.
+ */
+public class GradientConcurrencyLimit {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double longRttAlpha;
+
+    private double limit;
+    private double longRttNanos;
+
+    public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double rttTolerance, int longWindow) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Require 1 <= min-limit <= max-limit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.longRttAlpha = 2.0 / (longWindow + 1);
+        this.limit = clamp(initialLimit);
+    }
+
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    public synchronized void onSample(long rttNanos, int inflight, boolean dropped) {
+        if (dropped) {
+            limit = clamp(limit * BACKOFF_RATIO);
+            return;
+        }
+        if (rttNanos <= 0) {
+            return;
+        }
+
+        longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos * (1 - longRttAlpha) + rttNanos * longRttAlpha;
+        // Let the baseline recover quickly after a sustained latency increase has passed
+        if (longRttNanos / rttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        // Not enough load to learn anything about the limit
+        if (inflight < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, rttTolerance * longRttNanos / rttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = clamp(limit * (1 - SMOOTHING) + target * SMOOTHING);
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
@@ -0,0 +1,40 @@
+package com.sj.ecommerce.api_gateway.filter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps hedged attempts at a share of a route's requests.
+ *
+ * Every eligible request deposits {@code ratio} of a token, and a hedge spends a whole one, so
+ * over time hedges stay at or below ratio x requests; {@code burst} bounds how many unspent
+ * tokens can pile up during quiet periods.
+ */
+public class HedgeBudget {
+
+    private static final long UNIT = 1000;
+
+    private final long deposit;
+    private final long maxBalance;
+    private final AtomicLong balance = new AtomicLong();
+
+    public HedgeBudget(double ratio, int burst) {
+        this.deposit = Math.round(ratio * UNIT);
+        this.maxBalance = Math.max(1, burst) * UNIT;
+    }
+
+    public void deposit() {
+        balance.accumulateAndGet(deposit, (current, add) -> Math.min(maxBalance, current + add));
+    }
+
+    public boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < UNIT) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - UNIT)) {
+                return true;
+            }
+        }
+    }
+}
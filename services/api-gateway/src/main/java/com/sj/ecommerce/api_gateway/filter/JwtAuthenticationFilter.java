@@ -0,0 +1,188 @@
+package com.sj.ecommerce.api_gateway.filter;
+
+import com.sj.ecommerce.api_gateway.auth.JwksKeySet;
+import com.sj.ecommerce.api_gateway.auth.JwtVerifier;
+import com.sj.ecommerce.api_gateway.auth.VerifiedTokenCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Bearer-token authentication for everything the gateway serves, routed or composed.
+ *
+ * - tokens are verified against the identity provider's JWKS ({@link JwksKeySet}, refreshed in
+ *   the background), then remembered by digest until they expire ({@link VerifiedTokenCache}),
+ *   so a repeat caller costs a SHA-256 and a map lookup rather than a signature check
+ * - the verified user id is passed downstream as X-User-Id; a caller-supplied X-User-Id is
+ *   always dropped, so backends can trust the header instead of body fields
+ * - gateway.auth.public-paths (actuator, the Razorpay webhook) and CORS preflights pass through
+ *   unauthenticated; anything else without a valid token gets 401 with WWW-Authenticate
+ *
+ * Metrics: gateway.auth.requests{result=cached|verified|missing|invalid}, gateway.auth.cache.size
+ * and gateway.auth.jwks.keys.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.auth.enabled", havingValue = "true", matchIfMissing = true)
+public class JwtAuthenticationFilter implements WebFilter, Ordered, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+
+    // Ahead of routing, so unauthenticated requests never take a concurrency permit or cache slot
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 10;
+
+    private static final String BEARER = "Bearer ";
+
+    private final JwksKeySet keySet;
+    private final JwtVerifier verifier;
+    private final VerifiedTokenCache cache;
+    private final List<PathPattern> publicPaths;
+    private final Counter cached;
+    private final Counter verified;
+    private final Counter missing;
+    private final Counter invalid;
+
+    public JwtAuthenticationFilter(MeterRegistry meterRegistry, WebClient backendWebClient,
+                                   @Value("${gateway.auth.jwks-uri:}") String jwksUri,
+                                   @Value("${gateway.auth.jwks-refresh-interval:5m}") Duration jwksRefreshInterval,
+                                   @Value("${gateway.auth.jwks-min-refresh-gap:30s}") Duration jwksMinRefreshGap,
+                                   @Value("${gateway.auth.jwks-fetch-timeout:2s}") Duration jwksFetchTimeout,
+                                   @Value("${gateway.auth.issuer:}") String issuer,
+                                   @Value("${gateway.auth.audience:}") String audience,
+                                   @Value("${gateway.auth.user-id-claim:sub}") String userIdClaim,
+                                   @Value("${gateway.auth.clock-skew-seconds:30}") long clockSkewSeconds,
+                                   @Value("${gateway.auth.cache.max-entries:100000}") int maxCachedTokens,
+                                   @Value("${gateway.auth.public-paths:/actuator/**,/api/v1/payments/webhook/**}") List<String> publicPaths) {
+        this.keySet = new JwksKeySet(backendWebClient, jwksUri, jwksFetchTimeout, jwksMinRefreshGap);
+        this.verifier = new JwtVerifier(issuer, audience, userIdClaim, clockSkewSeconds);
+        this.cache = new VerifiedTokenCache(maxCachedTokens);
+        this.publicPaths = publicPaths.stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.cached = requests(meterRegistry, "cached");
+        this.verified = requests(meterRegistry, "verified");
+        this.missing = requests(meterRegistry, "missing");
+        this.invalid = requests(meterRegistry, "invalid");
+        Gauge.builder("gateway.auth.cache.size", cache, VerifiedTokenCache::size).register(meterRegistry);
+        Gauge.builder("gateway.auth.jwks.keys", keySet, JwksKeySet::size).register(meterRegistry);
+
+        if (jwksUri.isBlank()) {
+            log.error("gateway.auth.jwks-uri is not set: every request outside gateway.auth.public-paths will get 401");
+        } else if (issuer.isBlank() || audience.isBlank()) {
+            // Without them a token minted by the same identity provider for another client would pass
+            throw new IllegalStateException("gateway.auth.issuer and gateway.auth.audience must be set with gateway.auth.jwks-uri");
+        } else {
+            keySet.start(jwksRefreshInterval);
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (HttpMethod.OPTIONS.equals(request.getMethod()) || isPublic(request)) {
+            if (!request.getHeaders().containsHeader(USER_ID_HEADER)) {
+                return chain.filter(exchange);
+            }
+            ServerHttpRequest anonymous = request.mutate().headers(h -> h.remove(USER_ID_HEADER)).build();
+            return chain.filter(exchange.mutate().request(anonymous).build());
+        }
+
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            missing.increment();
+            return reject(exchange, null);
+        }
+        String token = authorization.substring(BEARER.length()).trim();
+        long now = System.currentTimeMillis() / 1000;
+        VerifiedTokenCache.Digest digest = VerifiedTokenCache.Digest.of(token);
+
+        JwtVerifier.VerifiedToken known = cache.get(digest, now);
+        // A key dropped from the JWKS takes the tokens it signed with it
+        if (known != null && keySet.get(known.keyId()) != null) {
+            cached.increment();
+            return forward(exchange, chain, known.userId());
+        }
+
+        JwtVerifier.ParsedToken parsed;
+        try {
+            parsed = verifier.parse(token);
+        } catch (JwtVerifier.InvalidTokenException e) {
+            return invalid(exchange, e);
+        }
+        return keySet.find(parsed.keyId())
+                .switchIfEmpty(Mono.error(() -> new JwtVerifier.InvalidTokenException("unknown kid " + parsed.keyId())))
+                .map(key -> verifier.verify(parsed, key, now))
+                .onErrorResume(JwtVerifier.InvalidTokenException.class,
+                        e -> invalid(exchange, e).then(Mono.empty()))
+                .flatMap(checked -> {
+                    cache.put(digest, checked, now);
+                    verified.increment();
+                    return forward(exchange, chain, checked.userId());
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public void close() {
+        keySet.close();
+    }
+
+    private boolean isPublic(ServerHttpRequest request) {
+        for (PathPattern pattern : publicPaths) {
+            if (pattern.matches(request.getPath().pathWithinApplication())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Mono<Void> forward(ServerWebExchange exchange, WebFilterChain chain, String userId) {
+        ServerHttpRequest authenticated = exchange.getRequest().mutate()
+                .headers(h -> h.set(USER_ID_HEADER, userId))
+                .build();
+        return chain.filter(exchange.mutate().request(authenticated).build());
+    }
+
+    private Mono<Void> invalid(ServerWebExchange exchange, JwtVerifier.InvalidTokenException e) {
+        invalid.increment();
+        log.debug("Rejected bearer token for {}: {}", exchange.getRequest().getPath(), e.getMessage());
+        return reject(exchange, "invalid_token");
+    }
+
+    private static Mono<Void> reject(ServerWebExchange exchange, String error) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, error == null ? "Bearer" : "Bearer error=\"" + error + "\"");
+        return response.setComplete();
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.auth.requests")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
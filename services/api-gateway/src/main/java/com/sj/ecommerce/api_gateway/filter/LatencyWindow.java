@@ -0,0 +1,56 @@
+package com.sj.ecommerce.api_gateway.filter;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The most recent upstream latencies of one route, for reading a percentile off them.
+ *
+ * Samples go into a fixed ring without locking. The percentile is recomputed from a sorted copy
+ * of the ring at most once per {@code refreshNanos}, so reading it on every request stays cheap.
+ */
+public class LatencyWindow {
+
+    private final AtomicLongArray samples;
+    private final AtomicLong recorded = new AtomicLong();
+    private final int minSamples;
+    private final double quantile;
+    private final long refreshNanos;
+    private volatile long cachedNanos = -1;
+    private volatile long computedAtNanos;
+
+    public LatencyWindow(int size, int minSamples, double quantile, long refreshNanos) {
+        this.samples = new AtomicLongArray(size);
+        this.minSamples = Math.min(minSamples, size);
+        this.quantile = quantile;
+        this.refreshNanos = refreshNanos;
+    }
+
+    public void record(long latencyNanos) {
+        long slot = recorded.getAndIncrement() % samples.length();
+        samples.set((int) slot, latencyNanos);
+    }
+
+    /** The configured percentile over the window, or -1 until minSamples have been recorded. */
+    public long percentileNanos(long nowNanos) {
+        long count = recorded.get();
+        if (count < minSamples) {
+            return -1;
+        }
+        long cached = cachedNanos;
+        if (cached >= 0 && nowNanos - computedAtNanos < refreshNanos) {
+            return cached;
+        }
+        int n = (int) Math.min(count, samples.length());
+        long[] sorted = new long[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        long value = sorted[Math.max(0, (int) Math.ceil(quantile * n) - 1)];
+        computedAtNanos = nowNanos;
+        cachedNanos = value;
+        return value;
+    }
+}
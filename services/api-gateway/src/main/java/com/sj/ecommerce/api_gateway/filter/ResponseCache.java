@@ -0,0 +1,119 @@
+package com.sj.ecommerce.api_gateway.filter;
+
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded, short-TTL cache of GET responses plus the single-flight table for concurrent misses.
+ *
+ * The first request for a key becomes the leader and goes upstream; identical requests arriving
+ * while it is in flight wait on its future instead of issuing their own call. A completed
+ * response is kept for at most the configured TTL, shortened or skipped according to the
+ * backend's Cache-Control.
+ */
+public class ResponseCache {
+
+    /** Outcome of {@link #begin(String)}: either this caller leads the upstream call, or it follows one. */
+    public record Flight(boolean leader, CompletableFuture<CachedResponse> future) {
+    }
+
+    private record Entry(CachedResponse response, long expiresAtNanos) {
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<String, CompletableFuture<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Entry> entries;
+
+    public ResponseCache(int maxEntries, Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        // Access-ordered so the least recently used key is evicted first
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ResponseCache.this.maxEntries;
+            }
+        };
+    }
+
+    public CachedResponse getFresh(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAtNanos() >= 0) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.response();
+        }
+    }
+
+    public Flight begin(String key) {
+        CompletableFuture<CachedResponse> mine = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> existing = inFlight.putIfAbsent(key, mine);
+        return existing == null ? new Flight(true, mine) : new Flight(false, existing);
+    }
+
+    /** Publishes the leader's response to its followers and caches it if the backend allows. */
+    public void complete(String key, Flight flight, CachedResponse response) {
+        long ttl = ttlFor(response);
+        if (ttl > 0) {
+            synchronized (entries) {
+                entries.put(key, new Entry(response, System.nanoTime() + ttl));
+            }
+        }
+        inFlight.remove(key, flight.future());
+        flight.future().complete(response);
+    }
+
+    /**
+     * Ends a flight whose response could not be captured (error, cancel, oversized body).
+     * Followers receive {@code null} and make their own upstream call.
+     */
+    public void abandon(String key, Flight flight) {
+        inFlight.remove(key, flight.future());
+        flight.future().complete(null);
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /** TTL in nanos for a response: 0 unless it is a 200 the backend allows shared caches to keep. */
+    long ttlFor(CachedResponse response) {
+        if (!response.isOk() || response.headers().containsHeader(HttpHeaders.SET_COOKIE)) {
+            return 0;
+        }
+        String cacheControl = response.headers().getCacheControl();
+        if (cacheControl == null) {
+            return ttlNanos;
+        }
+        long ttl = ttlNanos;
+        for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+            String d = directive.trim();
+            if (d.equals("no-store") || d.equals("no-cache") || d.equals("private")) {
+                return 0;
+            }
+            if (d.startsWith("max-age=") || d.startsWith("s-maxage=")) {
+                try {
+                    long seconds = Long.parseLong(d.substring(d.indexOf('=') + 1).trim());
+                    ttl = Math.min(ttl, Duration.ofSeconds(Math.max(0, seconds)).toNanos());
+                } catch (NumberFormatException ignored) {
+                    // malformed directive, keep the configured TTL
+                }
+            }
+        }
+        return ttl;
+    }
+}
@@ -0,0 +1,57 @@
+package com.sj.ecommerce.api_gateway.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-flight accounting for one route on top of a {@link GradientConcurrencyLimit}.
+ *
+ * Reads may only use {@code readShare} of the limit, so when a route saturates polling GETs
+ * are shed first and writes keep the remaining headroom.
+ */
+public class RouteConcurrencyLimiter {
+
+    public enum Priority { READ, WRITE }
+
+    private final GradientConcurrencyLimit limit;
+    private final double readShare;
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    public RouteConcurrencyLimiter(GradientConcurrencyLimit limit, double readShare) {
+        this.limit = limit;
+        this.readShare = readShare;
+    }
+
+    public boolean tryAcquire(Priority priority) {
+        int allowed = priority == Priority.WRITE
+                ? limit.limit()
+                : Math.max(1, (int) (limit.limit() * readShare));
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /** Releases a permit and feeds the observed latency to the limit. */
+    public void release(long rttNanos, boolean dropped) {
+        int inflightAtCompletion = inflight.getAndDecrement();
+        limit.onSample(rttNanos, inflightAtCompletion, dropped);
+    }
+
+    /** Releases a permit without a sample, e.g. when the client cancelled. */
+    public void releaseWithoutSample() {
+        inflight.decrementAndGet();
+    }
+
+    public int limit() {
+        return limit.limit();
+    }
+
+    public int inflight() {
+        return inflight.get();
+    }
+}
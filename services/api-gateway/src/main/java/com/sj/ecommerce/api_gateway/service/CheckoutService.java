@@ -0,0 +1,105 @@
+package com.sj.ecommerce.api_gateway.service;
+
+import com.sj.ecommerce.api_gateway.dto.CheckoutResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.JsonNode;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Fans out to order-service and payment-service in parallel and merges the results,
+ * so checkout costs the slower of the two legs instead of their sum.
+ */
+@Service
+public class CheckoutService {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutService.class);
+
+    public enum LegStatus { OK, NOT_FOUND, FAILED }
+
+    public record Leg(LegStatus status, JsonNode body, String error) {
+        static Leg ok(JsonNode body) {
+            return new Leg(LegStatus.OK, body, null);
+        }
+
+        static Leg notFound() {
+            return new Leg(LegStatus.NOT_FOUND, null, null);
+        }
+
+        static Leg failed(String error) {
+            return new Leg(LegStatus.FAILED, null, error);
+        }
+    }
+
+    public record Result(Leg order, Leg payment, CheckoutResponse response) {
+    }
+
+    private final WebClient webClient;
+    private final String orderBaseUrl;
+    private final String paymentBaseUrl;
+    private final Duration orderTimeout;
+    private final Duration paymentTimeout;
+
+    public CheckoutService(WebClient backendWebClient,
+                           @Value("${services.order.base-url:http://localhost:8081}") String orderBaseUrl,
+                           @Value("${services.payment.base-url:http://localhost:8082}") String paymentBaseUrl,
+                           @Value("${gateway.checkout.order-timeout-ms:2000}") long orderTimeoutMs,
+                           @Value("${gateway.checkout.payment-timeout-ms:2000}") long paymentTimeoutMs) {
+        this.webClient = backendWebClient;
+        this.orderBaseUrl = orderBaseUrl;
+        this.paymentBaseUrl = paymentBaseUrl;
+        this.orderTimeout = Duration.ofMillis(orderTimeoutMs);
+        this.paymentTimeout = Duration.ofMillis(paymentTimeoutMs);
+    }
+
+    public Mono<Result> checkout(Long orderId) {
+        Mono<Leg> order = fetch("order", orderBaseUrl + "/api/v1/orders/{orderId}", orderId, orderTimeout);
+        Mono<Leg> payment = fetch("payment", paymentBaseUrl + "/api/v1/payments/order/{orderId}/razorpay", orderId, paymentTimeout);
+
+        // zip subscribes to both legs at once
+        return Mono.zip(order, payment).map(legs -> {
+            Leg orderLeg = legs.getT1();
+            Leg paymentLeg = legs.getT2();
+            Map<String, String> errors = new LinkedHashMap<>();
+            if (orderLeg.status() == LegStatus.FAILED) {
+                errors.put("order", orderLeg.error());
+            }
+            if (paymentLeg.status() == LegStatus.FAILED) {
+                errors.put("payment", paymentLeg.error());
+            }
+            return new Result(orderLeg, paymentLeg,
+                    new CheckoutResponse(orderId, orderLeg.body(), paymentLeg.body(), errors));
+        });
+    }
+
+    private Mono<Leg> fetch(String leg, String uriTemplate, Long orderId, Duration timeout) {
+        return webClient.get()
+                .uri(uriTemplate, orderId)
+                .exchangeToMono(response -> {
+                    if (response.statusCode().is2xxSuccessful()) {
+                        return response.bodyToMono(JsonNode.class).map(Leg::ok);
+                    }
+                    if (response.statusCode().value() == HttpStatus.NOT_FOUND.value()) {
+                        return response.releaseBody().thenReturn(Leg.notFound());
+                    }
+                    return response.releaseBody().thenReturn(Leg.failed("HTTP " + response.statusCode().value()));
+                })
+                .timeout(timeout)
+                .onErrorResume(e -> {
+                    String error = e instanceof TimeoutException
+                            ? "timed out after " + timeout.toMillis() + " ms"
+                            : e.getClass().getSimpleName() + ": " + e.getMessage();
+                    log.warn("Checkout {} leg failed for orderId={}: {}", leg, orderId, error);
+                    return Mono.just(Leg.failed(error));
+                });
+    }
+}
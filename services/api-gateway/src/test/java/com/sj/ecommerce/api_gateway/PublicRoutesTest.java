@@ -0,0 +1,38 @@
+package com.sj.ecommerce.api_gateway;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/** The local routes, with auth off so the response comes from routing alone. */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "gateway.auth.enabled=false")
+@ActiveProfiles("local")
+class PublicRoutesTest {
+
+	@LocalServerPort
+	private int port;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@Test
+	void paymentExportAndMetricsAreNotRouted() throws Exception {
+		assertEquals(404, get("/api/v1/payments/export?from=2025-01-01T00:00:00Z&to=2025-01-02T00:00:00Z"));
+		assertEquals(404, get("/api/v1/payments/metrics"));
+		// Still routed to payment-service, which is not running here
+		assertNotEquals(404, get("/api/v1/payments/1"));
+	}
+
+	private int get(String path) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+		return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+	}
+}
@@ -0,0 +1,119 @@
+package com.sj.ecommerce.api_gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DeadlineHedgingFilterTest {
+
+	// The hedge timer runs on virtual time: waiting this long is free and outlasts any hedge delay
+	// the warm-up latencies could produce, so only the order of events matters
+	private static final Duration PAST_HEDGE_DELAY = Duration.ofMinutes(1);
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+	@Test
+	void slowPrimaryIsHedgedAndTheFirstResponseWins() {
+		DeadlineHedgingFilter filter = filter(1.0);
+		warmUp(filter);
+		// The first call after warm-up stalls until released, which never happens; its hedge answers at once
+		int stalled = upstreamCalls.get() + 1;
+
+		MockServerWebExchange exchange = exchange(Map.of("hedge", true));
+		StepVerifier.withVirtualTime(() -> filter.filter(exchange, upstream(stalled, Sinks.empty())))
+				.expectSubscription()
+				.thenAwait(PAST_HEDGE_DELAY)
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+
+		assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+		assertEquals("attempt " + (stalled + 1), exchange.getResponse().getBodyAsString().block());
+		assertEquals(1.0, registry.counter("gateway.hedge.sent", "route", "orders").count());
+		assertEquals(1.0, registry.counter("gateway.hedge.wins", "route", "orders").count());
+	}
+
+	@Test
+	void exhaustedBudgetLeavesTheSlowPrimaryAlone() {
+		DeadlineHedgingFilter filter = filter(0.0);
+		warmUp(filter);
+		int stalled = upstreamCalls.get() + 1;
+		Sinks.Empty<Void> release = Sinks.empty();
+
+		MockServerWebExchange exchange = exchange(Map.of("hedge", true));
+		// The primary only answers once the hedge delay has passed and the budget has been asked
+		StepVerifier.withVirtualTime(() -> filter.filter(exchange, upstream(stalled, release)))
+				.expectSubscription()
+				.thenAwait(PAST_HEDGE_DELAY)
+				.then(() -> assertEquals(1.0, registry.counter("gateway.hedge.budget.exhausted", "route", "orders").count()))
+				.then(release::tryEmitEmpty)
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+
+		assertEquals("attempt " + stalled, exchange.getResponse().getBodyAsString().block());
+		assertEquals(stalled, upstreamCalls.get());
+		assertEquals(0.0, registry.counter("gateway.hedge.sent", "route", "orders").count());
+		assertEquals(1.0, registry.counter("gateway.hedge.budget.exhausted", "route", "orders").count());
+	}
+
+	@Test
+	void requestsPastTheRouteDeadlineGetGatewayTimeout() {
+		DeadlineHedgingFilter filter = filter(1.0);
+
+		MockServerWebExchange exchange = exchange(Map.of("deadline-ms", 50));
+		StepVerifier.withVirtualTime(() -> filter.filter(exchange, upstream(1, Sinks.empty())))
+				.expectSubscription()
+				.thenAwait(Duration.ofMillis(50))
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+
+		assertEquals(HttpStatus.GATEWAY_TIMEOUT, exchange.getResponse().getStatusCode());
+		assertEquals(1.0, registry.counter("gateway.deadline.exceeded", "route", "orders").count());
+	}
+
+	private DeadlineHedgingFilter filter(double budgetRatio) {
+		return new DeadlineHedgingFilter(registry, 0.95, budgetRatio, 10, 5, 5, 64, 65536);
+	}
+
+	private void warmUp(DeadlineHedgingFilter filter) {
+		for (int i = 0; i < 5; i++) {
+			filter.filter(exchange(Map.of("hedge", true)), upstream(-1, Sinks.empty())).block(Duration.ofSeconds(5));
+		}
+	}
+
+	/** Answers "attempt N" at once, or, for call number {@code stalledCall}, once {@code release} completes. */
+	private GatewayFilterChain upstream(int stalledCall, Sinks.Empty<Void> release) {
+		return exchange -> Mono.defer(() -> {
+			int call = upstreamCalls.incrementAndGet();
+			ServerHttpResponse response = exchange.getResponse();
+			response.setStatusCode(HttpStatus.OK);
+			byte[] body = ("attempt " + call).getBytes(StandardCharsets.UTF_8);
+			Mono<Void> answer = response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(body)));
+			return call == stalledCall ? release.asMono().then(answer) : answer;
+		});
+	}
+
+	private static MockServerWebExchange exchange(Map<String, Object> metadata) {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/orders/1"));
+		Route route = Route.async().id("orders").uri("http://order-service:8081").predicate(e -> true)
+				.metadata(metadata).build();
+		exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+		return exchange;
+	}
+}
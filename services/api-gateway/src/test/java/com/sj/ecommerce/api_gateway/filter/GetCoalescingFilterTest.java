@@ -0,0 +1,98 @@
+package com.sj.ecommerce.api_gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GetCoalescingFilterTest {
+
+	private static final String BODY = "{\"orderId\":1,\"status\":\"PAID\"}";
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final GetCoalescingFilter filter = new GetCoalescingFilter(registry, Set.of("orders"), 1000, 100, 262144);
+	private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+	private final GatewayFilterChain upstream = exchange -> Mono.defer(() -> {
+		upstreamCalls.incrementAndGet();
+		ServerHttpResponse response = exchange.getResponse();
+		response.setStatusCode(HttpStatus.OK);
+		response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+		response.getHeaders().setETag("\"v3\"");
+		byte[] bytes = BODY.getBytes(StandardCharsets.UTF_8);
+		return Mono.delay(Duration.ofMillis(100))
+				.then(response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(bytes))));
+	});
+
+	@Test
+	void concurrentGetsShareOneUpstreamCall() {
+		MockServerWebExchange first = exchange(MockServerHttpRequest.get("/api/v1/orders/1"));
+		MockServerWebExchange second = exchange(MockServerHttpRequest.get("/api/v1/orders/1"));
+		MockServerWebExchange third = exchange(MockServerHttpRequest.get("/api/v1/orders/1"));
+
+		Mono.when(filter.filter(first, upstream), filter.filter(second, upstream), filter.filter(third, upstream))
+				.block(Duration.ofSeconds(5));
+
+		assertEquals(1, upstreamCalls.get());
+		assertEquals(BODY, first.getResponse().getBodyAsString().block());
+		assertEquals(BODY, third.getResponse().getBodyAsString().block());
+		assertEquals("COALESCED", third.getResponse().getHeaders().getFirst(GetCoalescingFilter.CACHE_STATUS_HEADER));
+		assertEquals(2.0, registry.counter("gateway.cache.upstream.saved", "route", "orders").count());
+	}
+
+	@Test
+	void repeatWithinTtlIsServedFromCacheAndHonoursIfNoneMatch() {
+		filter.filter(exchange(MockServerHttpRequest.get("/api/v1/orders/1")), upstream).block(Duration.ofSeconds(5));
+
+		MockServerWebExchange conditional = exchange(MockServerHttpRequest.get("/api/v1/orders/1")
+				.header(HttpHeaders.IF_NONE_MATCH, "\"v3\""));
+		filter.filter(conditional, upstream).block(Duration.ofSeconds(5));
+
+		assertEquals(1, upstreamCalls.get());
+		assertEquals(HttpStatus.NOT_MODIFIED, conditional.getResponse().getStatusCode());
+		assertEquals("HIT", conditional.getResponse().getHeaders().getFirst(GetCoalescingFilter.CACHE_STATUS_HEADER));
+	}
+
+	@Test
+	void noStoreResponsesAreNotCached() {
+		GatewayFilterChain noStore = exchange -> {
+			exchange.getResponse().getHeaders().setCacheControl("no-store");
+			return upstream.filter(exchange);
+		};
+
+		filter.filter(exchange(MockServerHttpRequest.get("/api/v1/orders/1")), noStore).block(Duration.ofSeconds(5));
+		filter.filter(exchange(MockServerHttpRequest.get("/api/v1/orders/1")), noStore).block(Duration.ofSeconds(5));
+
+		assertEquals(2, upstreamCalls.get());
+	}
+
+	@Test
+	void writesAndOtherRoutesPassThrough() {
+		filter.filter(exchange(MockServerHttpRequest.post("/api/v1/orders")), upstream).block(Duration.ofSeconds(5));
+		filter.filter(exchange(MockServerHttpRequest.post("/api/v1/orders")), upstream).block(Duration.ofSeconds(5));
+
+		assertEquals(2, upstreamCalls.get());
+	}
+
+	private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+		MockServerWebExchange exchange = MockServerWebExchange.from(request);
+		Route route = Route.async().id("orders").uri("http://order-service:8081").predicate(e -> true).build();
+		exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+		return exchange;
+	}
+}
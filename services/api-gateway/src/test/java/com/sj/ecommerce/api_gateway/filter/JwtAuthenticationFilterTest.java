@@ -0,0 +1,196 @@
+package com.sj.ecommerce.api_gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtAuthenticationFilterTest {
+
+	private static final KeyPair RSA = keyPair("RSA", null);
+	private static final KeyPair EC = keyPair("EC", "secp256r1");
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final AtomicReference<String> forwardedUserId = new AtomicReference<>();
+	private final WebFilterChain backend = exchange -> {
+		forwardedUserId.set(exchange.getRequest().getHeaders().getFirst(JwtAuthenticationFilter.USER_ID_HEADER));
+		return Mono.empty();
+	};
+	private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(registry, jwksEndpoint(),
+			"http://idp.test/jwks.json", Duration.ofMinutes(5), Duration.ofSeconds(30), Duration.ofSeconds(2),
+			"https://idp.test", "shop-api", "sub", 30, 100, List.of("/actuator/**", "/api/v1/payments/webhook/**"));
+
+	@AfterEach
+	void close() {
+		filter.close();
+	}
+
+	@Test
+	void verifiesOnceThenServesRepeatTokensFromCache() {
+		String token = token("RS256", "rsa-1", RSA.getPrivate(), "{\"sub\":\"42\",\"iss\":\"https://idp.test\",\"aud\":\"shop-api\",\"exp\":" + inFiveMinutes() + "}");
+
+		for (int i = 0; i < 3; i++) {
+			MockServerWebExchange exchange = get("/api/v1/orders/7", token);
+			filter.filter(exchange, backend).block(Duration.ofSeconds(5));
+			assertNull(exchange.getResponse().getStatusCode());
+			assertEquals("42", forwardedUserId.getAndSet(null));
+		}
+
+		assertEquals(1.0, registry.counter("gateway.auth.requests", "result", "verified").count());
+		assertEquals(2.0, registry.counter("gateway.auth.requests", "result", "cached").count());
+	}
+
+	@Test
+	void acceptsEcdsaSignatures() {
+		String token = token("ES256", "ec-1", EC.getPrivate(), "{\"sub\":7,\"iss\":\"https://idp.test\",\"aud\":\"shop-api\",\"exp\":" + inFiveMinutes() + "}");
+
+		filter.filter(get("/api/v1/payments/3", token), backend).block(Duration.ofSeconds(5));
+
+		assertEquals("7", forwardedUserId.get());
+	}
+
+	@Test
+	void rejectsMissingExpiredForgedAndForeignTokens() {
+		long past = System.currentTimeMillis() / 1000 - 120;
+		String expired = token("RS256", "rsa-1", RSA.getPrivate(), "{\"sub\":\"42\",\"iss\":\"https://idp.test\",\"aud\":\"shop-api\",\"exp\":" + past + "}");
+		String valid = token("RS256", "rsa-1", RSA.getPrivate(), "{\"sub\":\"42\",\"iss\":\"https://idp.test\",\"aud\":\"shop-api\",\"exp\":" + inFiveMinutes() + "}");
+		String[] parts = valid.split("\\.");
+		String forged = parts[0] + "." + base64("{\"sub\":\"1\",\"iss\":\"https://idp.test\",\"aud\":\"shop-api\",\"exp\":" + inFiveMinutes() + "}") + "." + parts[2];
+		String foreignIssuer = token("RS256", "rsa-1", RSA.getPrivate(), "{\"sub\":\"42\",\"iss\":\"https://evil.test\",\"aud\":\"shop-api\",\"exp\":" + inFiveMinutes() + "}");
+		String foreignAudience = token("RS256", "rsa-1", RSA.getPrivate(), "{\"sub\":\"42\",\"iss\":\"https://idp.test\",\"aud\":[\"admin-console\"],\"exp\":" + inFiveMinutes() + "}");
+		String nonNumericUser = token("RS256", "rsa-1", RSA.getPrivate(), "{\"sub\":\"auth0|42\",\"iss\":\"https://idp.test\",\"aud\":\"shop-api\",\"exp\":" + inFiveMinutes() + "}");
+		String wrongKeyType = token("RS256", "ec-1", RSA.getPrivate(), "{\"sub\":\"42\",\"iss\":\"https://idp.test\",\"aud\":\"shop-api\",\"exp\":" + inFiveMinutes() + "}");
+
+		MockServerWebExchange anonymous = get("/api/v1/orders/7", null);
+		filter.filter(anonymous, backend).block(Duration.ofSeconds(5));
+		assertEquals(HttpStatus.UNAUTHORIZED, anonymous.getResponse().getStatusCode());
+		assertEquals("Bearer", anonymous.getResponse().getHeaders().getFirst(HttpHeaders.WWW_AUTHENTICATE));
+
+		for (String token : List.of(expired, forged, foreignIssuer, foreignAudience, nonNumericUser, wrongKeyType, "not.a.jwt")) {
+			MockServerWebExchange exchange = get("/api/v1/orders/7", token);
+			filter.filter(exchange, backend).block(Duration.ofSeconds(5));
+			assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+			assertEquals("Bearer error=\"invalid_token\"", exchange.getResponse().getHeaders().getFirst(HttpHeaders.WWW_AUTHENTICATE));
+		}
+		assertNull(forwardedUserId.get());
+		assertEquals(7.0, registry.counter("gateway.auth.requests", "result", "invalid").count());
+	}
+
+	@Test
+	void refusesToStartWithoutAnAudience() {
+		assertThrows(IllegalStateException.class, () -> new JwtAuthenticationFilter(new SimpleMeterRegistry(), jwksEndpoint(),
+				"http://idp.test/jwks.json", Duration.ofMinutes(5), Duration.ofSeconds(30), Duration.ofSeconds(2),
+				"https://idp.test", "", "sub", 30, 100, List.of()));
+	}
+
+	@Test
+	void publicPathsPassWithoutTokenButNeverWithCallerSuppliedUserId() {
+		MockServerWebExchange webhook = MockServerWebExchange.from(MockServerHttpRequest.post("/api/v1/payments/webhook/razorpay")
+				.header(JwtAuthenticationFilter.USER_ID_HEADER, "1"));
+		forwardedUserId.set("unset");
+
+		filter.filter(webhook, backend).block(Duration.ofSeconds(5));
+
+		assertNull(webhook.getResponse().getStatusCode());
+		assertNull(forwardedUserId.get());
+	}
+
+	private static MockServerWebExchange get(String path, String token) {
+		MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path)
+				.header(JwtAuthenticationFilter.USER_ID_HEADER, "999");
+		if (token != null) {
+			request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+		}
+		return MockServerWebExchange.from(request);
+	}
+
+	private static WebClient jwksEndpoint() {
+		RSAPublicKey rsa = (RSAPublicKey) RSA.getPublic();
+		ECPublicKey ec = (ECPublicKey) EC.getPublic();
+		String jwks = "{\"keys\":["
+				+ "{\"kty\":\"RSA\",\"kid\":\"rsa-1\",\"use\":\"sig\",\"alg\":\"RS256\",\"n\":\"" + unsigned(rsa.getModulus(), 0)
+				+ "\",\"e\":\"" + unsigned(rsa.getPublicExponent(), 0) + "\"},"
+				+ "{\"kty\":\"EC\",\"kid\":\"ec-1\",\"crv\":\"P-256\",\"x\":\"" + unsigned(ec.getW().getAffineX(), 32)
+				+ "\",\"y\":\"" + unsigned(ec.getW().getAffineY(), 32) + "\"}]}";
+		return WebClient.builder()
+				.exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+						.body(jwks)
+						.build()))
+				.build();
+	}
+
+	private static String token(String alg, String kid, PrivateKey key, String claims) {
+		String signingInput = base64("{\"alg\":\"" + alg + "\",\"kid\":\"" + kid + "\",\"typ\":\"JWT\"}") + "." + base64(claims);
+		try {
+			Signature signature = Signature.getInstance(alg.startsWith("RS") ? "SHA256withRSA" : "SHA256withECDSAinP1363Format");
+			signature.initSign(key);
+			signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+			return signingInput + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature.sign());
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static long inFiveMinutes() {
+		return System.currentTimeMillis() / 1000 + 300;
+	}
+
+	private static String base64(String json) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String unsigned(BigInteger value, int length) {
+		byte[] bytes = value.toByteArray();
+		if (bytes.length > 1 && bytes[0] == 0) {
+			bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+		}
+		if (bytes.length < length) {
+			byte[] padded = new byte[length];
+			System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+			bytes = padded;
+		}
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+	}
+
+	private static KeyPair keyPair(String algorithm, String curve) {
+		try {
+			KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm);
+			if (curve != null) {
+				generator.initialize(new ECGenParameterSpec(curve));
+			} else {
+				generator.initialize(2048);
+			}
+			return generator.generateKeyPair();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
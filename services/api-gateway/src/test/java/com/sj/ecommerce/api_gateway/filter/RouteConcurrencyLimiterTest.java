@@ -0,0 +1,77 @@
+package com.sj.ecommerce.api_gateway.filter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteConcurrencyLimiterTest {
+
+	private static final long MILLIS = 1_000_000L;
+
+	@Test
+	void readsAreShedBeforeWrites() {
+		RouteConcurrencyLimiter limiter = new RouteConcurrencyLimiter(
+				new GradientConcurrencyLimit(10, 4, 100, 1.5, 600), 0.8);
+
+		for (int i = 0; i < 8; i++) {
+			assertTrue(limiter.tryAcquire(RouteConcurrencyLimiter.Priority.READ));
+		}
+		assertFalse(limiter.tryAcquire(RouteConcurrencyLimiter.Priority.READ));
+		assertTrue(limiter.tryAcquire(RouteConcurrencyLimiter.Priority.WRITE));
+		assertTrue(limiter.tryAcquire(RouteConcurrencyLimiter.Priority.WRITE));
+		assertFalse(limiter.tryAcquire(RouteConcurrencyLimiter.Priority.WRITE));
+		assertEquals(10, limiter.inflight());
+	}
+
+	@Test
+	void limitGrowsWhileLatencyIsStableUnderLoad() {
+		GradientConcurrencyLimit limit = new GradientConcurrencyLimit(10, 4, 100, 1.5, 600);
+
+		for (int i = 0; i < 50; i++) {
+			limit.onSample(20 * MILLIS, limit.limit(), false);
+		}
+
+		assertTrue(limit.limit() > 10, "limit=" + limit.limit());
+	}
+
+	@Test
+	void limitShrinksWhenLatencyInflates() {
+		GradientConcurrencyLimit limit = new GradientConcurrencyLimit(50, 4, 100, 1.5, 600);
+		for (int i = 0; i < 20; i++) {
+			limit.onSample(20 * MILLIS, 50, false);
+		}
+		int before = limit.limit();
+
+		for (int i = 0; i < 20; i++) {
+			limit.onSample(200 * MILLIS, limit.limit(), false);
+		}
+
+		assertTrue(limit.limit() < before, "before=" + before + " after=" + limit.limit());
+	}
+
+	@Test
+	void dropsBackOffAndRespectMinimum() {
+		GradientConcurrencyLimit limit = new GradientConcurrencyLimit(20, 4, 100, 1.5, 600);
+
+		limit.onSample(20 * MILLIS, 20, true);
+		assertEquals(18, limit.limit());
+
+		for (int i = 0; i < 100; i++) {
+			limit.onSample(20 * MILLIS, 20, true);
+		}
+		assertEquals(4, limit.limit());
+	}
+
+	@Test
+	void idleRouteDoesNotGrowItsLimit() {
+		GradientConcurrencyLimit limit = new GradientConcurrencyLimit(20, 4, 100, 1.5, 600);
+
+		for (int i = 0; i < 50; i++) {
+			limit.onSample(20 * MILLIS, 1, false);
+		}
+
+		assertEquals(20, limit.limit());
+	}
+}
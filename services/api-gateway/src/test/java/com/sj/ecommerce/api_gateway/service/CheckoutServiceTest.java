@@ -0,0 +1,96 @@
+package com.sj.ecommerce.api_gateway.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CheckoutServiceTest {
+
+	private final List<HttpServer> servers = new ArrayList<>();
+
+	@AfterEach
+	void stopServers() {
+		servers.forEach(server -> server.stop(0));
+	}
+
+	@Test
+	void callsBothLegsInParallelAndMerges() throws IOException {
+		String order = stub("/api/v1/orders/7", 200, "{\"id\":7,\"status\":\"CREATED\"}", 300);
+		String payment = stub("/api/v1/payments/order/7/razorpay", 200, "{\"razorpayOrderId\":\"order_x\"}", 300);
+		CheckoutService service = new CheckoutService(WebClient.create(), order, payment, 2000, 2000);
+
+		long start = System.nanoTime();
+		CheckoutService.Result result = service.checkout(7L).block(Duration.ofSeconds(5));
+		long elapsedMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+		assertTrue(elapsedMs < 550, "legs should overlap, took " + elapsedMs + " ms");
+		assertEquals("CREATED", result.response().order().get("status").asString());
+		assertEquals("order_x", result.response().payment().get("razorpayOrderId").asString());
+		assertTrue(result.response().errors().isEmpty());
+	}
+
+	@Test
+	void slowLegTimesOutIntoPartialResult() throws IOException {
+		String order = stub("/api/v1/orders/7", 200, "{\"id\":7}", 0);
+		String payment = stub("/api/v1/payments/order/7/razorpay", 200, "{}", 1000);
+		CheckoutService service = new CheckoutService(WebClient.create(), order, payment, 2000, 200);
+
+		CheckoutService.Result result = service.checkout(7L).block(Duration.ofSeconds(5));
+
+		assertEquals(CheckoutService.LegStatus.OK, result.order().status());
+		assertEquals(CheckoutService.LegStatus.FAILED, result.payment().status());
+		assertNull(result.response().payment());
+		assertTrue(result.response().partial());
+		assertTrue(result.response().errors().get("payment").contains("timed out"));
+	}
+
+	@Test
+	void missingOrderAndPaymentAreNotErrors() throws IOException {
+		String order = stub("/api/v1/orders/7", 404, "", 0);
+		String payment = stub("/api/v1/payments/order/7/razorpay", 404, "", 0);
+		CheckoutService service = new CheckoutService(WebClient.create(), order, payment, 2000, 2000);
+
+		CheckoutService.Result result = service.checkout(7L).block(Duration.ofSeconds(5));
+
+		assertEquals(CheckoutService.LegStatus.NOT_FOUND, result.order().status());
+		assertEquals(CheckoutService.LegStatus.NOT_FOUND, result.payment().status());
+		assertTrue(result.response().errors().isEmpty());
+	}
+
+	private String stub(String path, int status, String body, long delayMs) throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.createContext(path, exchange -> {
+			try (exchange) {
+				Thread.sleep(delayMs);
+				byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+				exchange.getResponseHeaders().add("Content-Type", "application/json");
+				exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+				if (bytes.length > 0) {
+					try (OutputStream out = exchange.getResponseBody()) {
+						out.write(bytes);
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		server.start();
+		servers.add(server);
+		return "http://localhost:" + server.getAddress().getPort();
+	}
+}
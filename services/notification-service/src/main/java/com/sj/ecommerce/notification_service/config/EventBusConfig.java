@@ -0,0 +1,30 @@
+package com.sj.ecommerce.notification_service.config;
+
+import com.ecommerce.contracts.bus.EventBus;
+import com.ecommerce.contracts.bus.EventChannels;
+import com.ecommerce.contracts.bus.InProcessEventBus;
+import com.sj.ecommerce.notification_service.service.PaymentEventListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Subscribes the payment listener to the JVM-wide in-process bus when events.transport=in-process,
+ * which only the tests set (profile in src/test/resources).
+ * With the default sns transport events arrive through @SqsListener and nothing here is created.
+ */
+@Configuration
+@ConditionalOnProperty(name = "events.transport", havingValue = "in-process")
+public class EventBusConfig {
+
+    // Shared with other services in the same JVM, so this context must not close it
+    @Bean(destroyMethod = "")
+    public EventBus inProcessEventBus() {
+        return InProcessEventBus.shared();
+    }
+
+    @Bean
+    public EventBus.Subscription paymentEventsSubscription(EventBus eventBus, PaymentEventListener listener) {
+        return eventBus.subscribe(EventChannels.PAYMENT_EVENTS, listener::listen);
+    }
+}
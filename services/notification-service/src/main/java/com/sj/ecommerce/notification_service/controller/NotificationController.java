@@ -1,6 +1,9 @@
 package com.sj.ecommerce.notification_service.controller;
 
 import com.sj.ecommerce.notification_service.dto.NotificationRequest;
+import com.sj.ecommerce.notification_service.service.NotificationService;
+import com.sj.ecommerce.notification_service.template.RenderedMessage;
+import com.sj.ecommerce.notification_service.template.TemplateException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
@@ -8,15 +11,36 @@ import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/notifications")
 public class NotificationController {
 
     private final Logger log = LoggerFactory.getLogger(NotificationController.class);
 
+    private final NotificationService notificationService;
+
+    public NotificationController(NotificationService notificationService) {
+        this.notificationService = notificationService;
+    }
+
     @PostMapping
     public ResponseEntity<Void> sendNotification(@Valid @RequestBody NotificationRequest req) {
-        log.info("Notification type={} recipient={} message={}", req.type(), req.recipient(), req.message());
+        if (req.template() == null || req.template().isBlank()) {
+            log.info("Notification type={} recipient={} message={}", req.type(), req.recipient(), req.message());
+            return ResponseEntity.accepted().build();
+        }
+        try {
+            Map<String, Object> variables = req.variables() == null ? Map.of() : req.variables();
+            RenderedMessage message = notificationService.render(req.template(), req.type(), req.locale(), variables);
+            log.info("Notification type={} recipient={} template={} locale={} subject={}",
+                    req.type(), req.recipient(), req.template(), message.locale(), message.subject());
+            log.debug("Notification body:\n{}", message.body());
+        } catch (TemplateException e) {
+            log.warn("Notification rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
         return ResponseEntity.accepted().build();
     }
 }
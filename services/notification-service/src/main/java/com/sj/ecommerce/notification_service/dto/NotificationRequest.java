@@ -1,9 +1,25 @@
 package com.sj.ecommerce.notification_service.dto;
 
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotBlank;
 
+import java.util.Map;
+
+/**
+ * Either a literal message, or a template name rendered for the channel in {@code type}
+ * with {@code variables} (locale optional, falling back to the default).
+ */
 public record NotificationRequest(
         @NotBlank String type,
         @NotBlank String recipient,
-        @NotBlank String message
-) {}
+        String message,
+        String template,
+        String locale,
+        Map<String, Object> variables
+) {
+
+    @AssertTrue(message = "either message or template is required")
+    public boolean isContentPresent() {
+        return (message != null && !message.isBlank()) || (template != null && !template.isBlank());
+    }
+}
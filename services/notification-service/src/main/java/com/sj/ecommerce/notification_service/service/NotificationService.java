@@ -1,36 +1,104 @@
 package com.sj.ecommerce.notification_service.service;
 
-import com.ecommerce.contracts.events.PaymentCompletedV1;
-import com.ecommerce.contracts.events.PaymentFailedV1;
+import com.ecommerce.contracts.events.PaymentCompletedV2;
+import com.ecommerce.contracts.events.PaymentFailedV2;
+import com.ecommerce.contracts.money.Money;
+import com.sj.ecommerce.notification_service.template.RenderedMessage;
+import com.sj.ecommerce.notification_service.template.TemplateRenderer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Service for sending notifications based on payment events.
+ *
+ * Messages are rendered from the precompiled templates (see TemplateRegistry) for every
+ * configured channel. Payment events carry no user locale, so they use the default one.
  */
 @Service
 public class NotificationService {
 
     private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
 
-    public void sendPaymentSuccessNotification(PaymentCompletedV1 event) {
-        log.info("Processing PaymentCompleted event: paymentId={}, orderId={}, userId={}, amount={}", 
-                 event.getPaymentId(), event.getOrderId(), event.getUserId(), event.getAmount());
-        
-        // TODO: Implement notification logic (email, SMS, push notification, etc.)
-        // For now, just log the event
-        log.info("Notification sent: Payment successful for order {} - Amount: {}", 
-                 event.getOrderId(), event.getAmount());
+    static final String PAYMENT_COMPLETED = "payment-completed";
+    static final String PAYMENT_FAILED = "payment-failed";
+
+    private final TemplateRenderer renderer;
+    private final List<String> channels;
+
+    public NotificationService(TemplateRenderer renderer,
+                               @Value("${notifications.channels:email,sms}") List<String> channels) {
+        this.renderer = renderer;
+        this.channels = channels;
+    }
+
+    public void sendPaymentSuccessNotification(PaymentCompletedV2 event) {
+        log.info("Processing PaymentCompleted event: paymentId={}, orderId={}, userId={}, amountMinor={} {}",
+                 event.getPaymentId(), event.getOrderId(), event.getUserId(), event.getAmountMinor(), event.getCurrency());
+
+        // TODO: hand rendered messages to an email/SMS provider; for now they are only logged
+        send(PAYMENT_COMPLETED, event.getUserId(), renderPaymentSuccess(event));
     }
 
-    public void sendPaymentFailureNotification(PaymentFailedV1 event) {
-        log.warn("Processing PaymentFailed event: orderId={}, userId={}, reason={}", 
+    public void sendPaymentFailureNotification(PaymentFailedV2 event) {
+        log.warn("Processing PaymentFailed event: orderId={}, userId={}, reason={}",
                  event.getOrderId(), event.getUserId(), event.getReason());
-        
-        // TODO: Implement notification logic (email, SMS, push notification, etc.)
-        // For now, just log the event
-        log.warn("Notification sent: Payment failed for order {} - Reason: {}", 
-                 event.getOrderId(), event.getReason());
+
+        send(PAYMENT_FAILED, event.getUserId(), renderPaymentFailure(event));
+    }
+
+    /** The messages sendPaymentSuccessNotification would send, one per channel. */
+    List<RenderedMessage> renderPaymentSuccess(PaymentCompletedV2 event) {
+        Map<String, Object> model = model(event.getOrderId(), event.getPaymentId(), event.getUserId(),
+                event.getAmountMinor(), event.getCurrency());
+        model.put("occurredAt", event.getOccurredAt());
+        return renderAll(PAYMENT_COMPLETED, model);
+    }
+
+    /** The messages sendPaymentFailureNotification would send, one per channel. */
+    List<RenderedMessage> renderPaymentFailure(PaymentFailedV2 event) {
+        Map<String, Object> model = model(event.getOrderId(), event.getPaymentId(), event.getUserId(),
+                event.getAmountMinor(), event.getCurrency());
+        model.put("reason", event.getReason());
+        model.put("occurredAt", event.getOccurredAt());
+        return renderAll(PAYMENT_FAILED, model);
+    }
+
+    /** Renders an ad-hoc template for one channel, e.g. from the REST endpoint. */
+    public RenderedMessage render(String template, String channel, String locale, Map<String, ?> model) {
+        return renderer.render(template, channel, locale, model);
+    }
+
+    private void send(String template, Long userId, List<RenderedMessage> messages) {
+        for (RenderedMessage message : messages) {
+            log.info("Notification sent: template={} channel={} locale={} userId={} subject={}",
+                     template, message.channel(), message.locale(), userId, message.subject());
+            log.debug("Notification body:\n{}", message.body());
+        }
+    }
+
+    private List<RenderedMessage> renderAll(String template, Map<String, Object> model) {
+        List<RenderedMessage> messages = new ArrayList<>(channels.size());
+        for (String channel : channels) {
+            messages.add(renderer.render(template, channel, null, model));
+        }
+        return messages;
+    }
+
+    private static Map<String, Object> model(Long orderId, Long paymentId, Long userId, long amountMinor, String currency) {
+        Map<String, Object> model = new HashMap<>();
+        model.put("orderId", orderId);
+        model.put("paymentId", paymentId);
+        model.put("userId", userId);
+        // Exact decimal, so the money formatter never sees a rounded double
+        model.put("amount", Money.toDecimal(amountMinor, currency));
+        model.put("currency", currency);
+        return model;
     }
 }
@@ -0,0 +1,91 @@
+package com.sj.ecommerce.notification_service.service;
+
+import com.ecommerce.contracts.events.PaymentCompletedV1;
+import com.ecommerce.contracts.events.PaymentCompletedV2;
+import com.ecommerce.contracts.events.PaymentFailedV1;
+import com.ecommerce.contracts.events.PaymentFailedV2;
+import com.ecommerce.contracts.money.ContractVersions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sj.ecommerce.common.warmup.WarmUpStep;
+import com.sj.ecommerce.common.warmup.WarmUpWorkload;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * What a new instance would otherwise warm up on its first real messages, run by WarmUp before
+ * the listener starts, with nothing sent:
+ *
+ * - payment events are read in both contract versions with the ObjectMapper the listener uses
+ * - the payment-completed and payment-failed templates are rendered for every channel
+ *
+ * Both steps run warmup.iterations times, enough for the JIT to compile them, and stop early
+ * once the thread is interrupted. There is no database here, so nothing else needs priming.
+ */
+@Component
+public class NotificationWarmUp implements WarmUpWorkload {
+
+    // Identity ids are positive, so these never name a real order or payment
+    private static final Long MISSING_ID = -1L;
+
+    private final ObjectMapper objectMapper;
+    private final NotificationService notificationService;
+    private final int iterations;
+
+    public NotificationWarmUp(ObjectMapper objectMapper, NotificationService notificationService,
+                              @Value("${warmup.iterations:10000}") int iterations) {
+        this.objectMapper = objectMapper;
+        this.notificationService = notificationService;
+        this.iterations = iterations;
+    }
+
+    @Override
+    public List<WarmUpStep> steps() {
+        Instant now = Instant.now();
+        PaymentCompletedV2 completed = new PaymentCompletedV2(UUID.randomUUID(), ContractVersions.V2, now,
+                MISSING_ID, MISSING_ID, MISSING_ID, 1999, "INR");
+        PaymentFailedV2 failed = new PaymentFailedV2(UUID.randomUUID(), ContractVersions.V2, now,
+                MISSING_ID, MISSING_ID, MISSING_ID, 1999, "INR", "warm-up");
+        return List.of(
+                new WarmUpStep("event serialization", () -> events(completed, failed)),
+                new WarmUpStep("template rendering", () -> templates(completed, failed)));
+    }
+
+    private void events(PaymentCompletedV2 completed, PaymentFailedV2 failed) throws IOException {
+        String completedV2 = objectMapper.writeValueAsString(completed);
+        String completedV1 = objectMapper.writeValueAsString(ContractVersions.downgrade(completed));
+        String failedV2 = objectMapper.writeValueAsString(failed);
+        String failedV1 = objectMapper.writeValueAsString(ContractVersions.downgrade(failed));
+
+        for (int i = 0; i < iterations && !interrupted(); i++) {
+            // Same checks as PaymentEventListener, so the branches it takes are warm too
+            if (ContractVersions.isV2(completedV2) && !completedV2.contains("\"reason\"")) {
+                objectMapper.readValue(completedV2, PaymentCompletedV2.class);
+            }
+            if (!ContractVersions.isV2(completedV1)) {
+                ContractVersions.upgrade(objectMapper.readValue(completedV1, PaymentCompletedV1.class));
+            }
+            if (ContractVersions.isV2(failedV2) && failedV2.contains("\"reason\"")) {
+                objectMapper.readValue(failedV2, PaymentFailedV2.class);
+            }
+            if (!ContractVersions.isV2(failedV1)) {
+                ContractVersions.upgrade(objectMapper.readValue(failedV1, PaymentFailedV1.class));
+            }
+        }
+    }
+
+    private void templates(PaymentCompletedV2 completed, PaymentFailedV2 failed) {
+        for (int i = 0; i < iterations && !interrupted(); i++) {
+            notificationService.renderPaymentSuccess(completed);
+            notificationService.renderPaymentFailure(failed);
+        }
+    }
+
+    private static boolean interrupted() {
+        return Thread.currentThread().isInterrupted();
+    }
+}
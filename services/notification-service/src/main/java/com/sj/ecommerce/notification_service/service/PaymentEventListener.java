@@ -1,7 +1,14 @@
 package com.sj.ecommerce.notification_service.service;
 
 import com.ecommerce.contracts.events.PaymentCompletedV1;
+import com.ecommerce.contracts.events.PaymentCompletedV2;
 import com.ecommerce.contracts.events.PaymentFailedV1;
+import com.ecommerce.contracts.events.PaymentFailedV2;
+import com.ecommerce.contracts.events.PaymentInitiatedV2;
+import com.ecommerce.contracts.money.ContractVersions;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sj.ecommerce.common.profiling.HandlerEvent;
 import io.awspring.cloud.sqs.annotation.SqsListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,6 +25,10 @@ import org.springframework.stereotype.Component;
  * - Raw SNS message delivery is enabled
  * - Event contracts are enforced via generated records
  * - NotificationService is idempotent
+ *
+ * Both contract versions are accepted, as raw JSON from SQS or as objects from the in-process
+ * bus; v1 events are upgraded to v2 before they reach NotificationService. PaymentInitiated
+ * shares the channel but needs no notification, so it is acknowledged and dropped.
  */
 @Component
 public class PaymentEventListener {
@@ -25,16 +36,37 @@ public class PaymentEventListener {
     private static final Logger log = LoggerFactory.getLogger(PaymentEventListener.class);
 
     private final NotificationService notificationService;
+    private final ObjectMapper objectMapper;
 
-    public PaymentEventListener(NotificationService notificationService) {
+    public PaymentEventListener(NotificationService notificationService, ObjectMapper objectMapper) {
         this.notificationService = notificationService;
+        this.objectMapper = objectMapper;
     }
 
     @SqsListener("${aws.sqs.queue-name}")
     public void listen(Object event) {
 
+        HandlerEvent profile = HandlerEvent.begin("PaymentEventListener", null, null);
         try {
-            if (event instanceof PaymentCompletedV1 completed) {
+            Object payload = event instanceof String json ? parse(json) : event;
+
+            if (payload instanceof PaymentInitiatedV2 initiated) {
+                profile.eventType("PaymentInitiatedV2");
+                profile.orderId(initiated.getOrderId());
+                log.debug("Ignoring PaymentInitiated event. orderId={}", initiated.getOrderId());
+                profile.succeeded();
+                return;
+            }
+
+            if (payload instanceof PaymentCompletedV1 v1) {
+                payload = ContractVersions.upgrade(v1);
+            } else if (payload instanceof PaymentFailedV1 v1) {
+                payload = ContractVersions.upgrade(v1);
+            }
+
+            if (payload instanceof PaymentCompletedV2 completed) {
+                profile.eventType("PaymentCompletedV2");
+                profile.orderId(completed.getOrderId());
                 log.info(
                         "Received PaymentCompleted event. paymentId={}, orderId={}",
                         completed.getPaymentId(),
@@ -42,15 +74,19 @@ public class PaymentEventListener {
                 );
 
                 notificationService.sendPaymentSuccessNotification(completed);
+                profile.succeeded();
                 return;
             }
 
-            if (event instanceof PaymentFailedV1 failed) {
+            if (payload instanceof PaymentFailedV2 failed) {
+                profile.eventType("PaymentFailedV2");
+                profile.orderId(failed.getOrderId());
                 log.info(
                         "Received PaymentFailed event. orderId={}", failed.getOrderId()
                 );
 
                 notificationService.sendPaymentFailureNotification(failed);
+                profile.succeeded();
                 return;
             }
 
@@ -64,6 +100,28 @@ public class PaymentEventListener {
             // Throwing exception signals failure to Spring Cloud AWS:
             // message will be retried and eventually sent to DLQ
             throw ex;
+        } finally {
+            profile.finish();
+        }
+    }
+
+    /**
+     * Raw delivery drops the event type, so it is told apart by fields: "razorpayOrderId" marks
+     * an initiation, "reason" a failure.
+     */
+    private Object parse(String json) {
+        boolean v2 = ContractVersions.isV2(json);
+        boolean failed = json.contains("\"reason\"");
+        try {
+            if (json.contains("\"razorpayOrderId\"")) {
+                return objectMapper.readValue(json, PaymentInitiatedV2.class);
+            }
+            if (failed) {
+                return v2 ? objectMapper.readValue(json, PaymentFailedV2.class) : objectMapper.readValue(json, PaymentFailedV1.class);
+            }
+            return v2 ? objectMapper.readValue(json, PaymentCompletedV2.class) : objectMapper.readValue(json, PaymentCompletedV1.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unreadable payment event", e);
         }
     }
 }
@@ -0,0 +1,93 @@
+package com.sj.ecommerce.notification_service.template;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A template reduced to a flat array of render steps. Literal text, including partials
+ * that contain no placeholders, has already been merged into single strings, so rendering
+ * is one append per literal run plus one lookup and format per placeholder.
+ */
+public final class CompiledTemplate {
+
+    private final TemplateKey key;
+    private final Segment[] segments;
+    private final int literalLength;
+
+    CompiledTemplate(TemplateKey key, List<Segment> segments) {
+        this.key = key;
+        this.segments = segments.toArray(Segment[]::new);
+        int length = 0;
+        for (Segment segment : this.segments) {
+            if (segment instanceof Literal literal) {
+                length += literal.text().length();
+            }
+        }
+        this.literalLength = length;
+    }
+
+    public TemplateKey key() {
+        return key;
+    }
+
+    /** Appends the rendered template to {@code out}; missing variables render as empty. */
+    public void renderTo(Map<String, ?> model, StringBuilder out) {
+        for (Segment segment : segments) {
+            segment.render(model, out);
+        }
+    }
+
+    /** Lower bound for the rendered length, used to size buffers. */
+    int literalLength() {
+        return literalLength;
+    }
+
+    List<Segment> segments() {
+        return List.of(segments);
+    }
+
+    sealed interface Segment permits Literal, Variable {
+        void render(Map<String, ?> model, StringBuilder out);
+    }
+
+    record Literal(String text) implements Segment {
+        @Override
+        public void render(Map<String, ?> model, StringBuilder out) {
+            out.append(text);
+        }
+    }
+
+    record Variable(String name, ValueFormatter formatter, boolean escapeHtml) implements Segment {
+        @Override
+        public void render(Map<String, ?> model, StringBuilder out) {
+            Object value = model.get(name);
+            if (value == null) {
+                return;
+            }
+            if (!escapeHtml) {
+                formatter.format(value, model, out);
+                return;
+            }
+            int start = out.length();
+            formatter.format(value, model, out);
+            escapeFrom(out, start);
+        }
+
+        private static void escapeFrom(StringBuilder out, int start) {
+            for (int i = start; i < out.length(); i++) {
+                String replacement = switch (out.charAt(i)) {
+                    case '<' -> "&lt;";
+                    case '>' -> "&gt;";
+                    case '&' -> "&amp;";
+                    case '"' -> "&quot;";
+                    case '\'' -> "&#39;";
+                    default -> null;
+                };
+                if (replacement != null) {
+                    out.replace(i, i + 1, replacement);
+                    i += replacement.length() - 1;
+                }
+            }
+        }
+    }
+}
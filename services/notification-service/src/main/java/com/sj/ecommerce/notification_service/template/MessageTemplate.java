@@ -0,0 +1,8 @@
+package com.sj.ecommerce.notification_service.template;
+
+/**
+ * A compiled notification: the body plus, for templates whose first line is
+ * {@code Subject: ...}, a separately compiled subject line.
+ */
+public record MessageTemplate(TemplateKey key, CompiledTemplate subject, CompiledTemplate body) {
+}
@@ -0,0 +1,7 @@
+package com.sj.ecommerce.notification_service.template;
+
+/**
+ * Output of one template render. subject is null for channels without one (sms).
+ */
+public record RenderedMessage(String channel, String locale, String subject, String body) {
+}
@@ -0,0 +1,178 @@
+package com.sj.ecommerce.notification_service.template;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles template sources into {@link MessageTemplate}s.
+ *
+ * Syntax, deliberately small:
+ * - {@code {{orderId}}} - model value, {@code {{amount|money:currency}}} with a {@link ValueFormatter}
+ * - {@code {{> footer}}} - partial {@code _footer} of the same channel, locale falling back to the default
+ * - {@code {{! comment}}} - dropped at compile time
+ * - a first line {@code Subject: ...} becomes the subject template
+ *
+ * Partials are inlined: one without placeholders is rendered once here and merged into the
+ * surrounding literal text, so static fragments like footers cost a single append per render.
+ */
+public final class TemplateCompiler {
+
+    private static final String SUBJECT_PREFIX = "Subject:";
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_.]+");
+    private static final int MAX_PARTIAL_DEPTH = 8;
+
+    private final String defaultLocale;
+    private final ZoneId zone;
+
+    public TemplateCompiler(String defaultLocale, ZoneId zone) {
+        this.defaultLocale = defaultLocale;
+        this.zone = zone;
+    }
+
+    /**
+     * Compiles every non-partial source. Fails on the first broken template so a bad reload
+     * never replaces a working set.
+     */
+    public Map<TemplateKey, MessageTemplate> compileAll(Iterable<TemplateSource> sources) {
+        Map<TemplateKey, TemplateSource> byKey = new HashMap<>();
+        for (TemplateSource source : sources) {
+            byKey.put(source.key(), source);
+        }
+        Map<TemplateKey, MessageTemplate> compiled = new HashMap<>();
+        for (TemplateSource source : byKey.values()) {
+            if (!source.isPartial()) {
+                compiled.put(source.key(), compile(source, byKey));
+            }
+        }
+        return compiled;
+    }
+
+    MessageTemplate compile(TemplateSource source, Map<TemplateKey, TemplateSource> partials) {
+        String text = source.text();
+        CompiledTemplate subject = null;
+        if (text.startsWith(SUBJECT_PREFIX)) {
+            int end = text.indexOf('\n');
+            String subjectLine = (end < 0 ? text.substring(SUBJECT_PREFIX.length()) : text.substring(SUBJECT_PREFIX.length(), end)).strip();
+            // Subjects are headers, never HTML
+            TemplateSource subjectSource = new TemplateSource(source.key(), subjectLine, false, source.origin());
+            subject = new CompiledTemplate(source.key(), parse(subjectSource, partials, 0));
+            text = end < 0 ? "" : text.substring(end + 1);
+        }
+        TemplateSource bodySource = new TemplateSource(source.key(), text, source.html(), source.origin());
+        return new MessageTemplate(source.key(), subject, new CompiledTemplate(source.key(), parse(bodySource, partials, 0)));
+    }
+
+    private List<CompiledTemplate.Segment> parse(TemplateSource source, Map<TemplateKey, TemplateSource> partials, int depth) {
+        if (depth > MAX_PARTIAL_DEPTH) {
+            throw new TemplateException(source.origin() + ": partials nested deeper than " + MAX_PARTIAL_DEPTH + " (cycle?)");
+        }
+        Locale locale = Locale.forLanguageTag(source.key().locale());
+        String text = source.text();
+        SegmentList segments = new SegmentList();
+        int pos = 0;
+        while (pos < text.length()) {
+            int open = text.indexOf("{{", pos);
+            if (open < 0) {
+                segments.literal(text.substring(pos));
+                break;
+            }
+            segments.literal(text.substring(pos, open));
+            int close = text.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new TemplateException(source.origin() + ":" + line(text, open) + ": unterminated '{{'");
+            }
+            String tag = text.substring(open + 2, close).strip();
+            if (tag.startsWith("!")) {
+                // comment
+            } else if (tag.startsWith(">")) {
+                String name = tag.substring(1).strip();
+                TemplateSource partial = partial(source, name, partials);
+                segments.addAll(parse(withEscaping(partial, source.html()), partials, depth + 1));
+            } else {
+                String name = tag;
+                String formatter = "";
+                int pipe = tag.indexOf('|');
+                if (pipe >= 0) {
+                    name = tag.substring(0, pipe).strip();
+                    formatter = tag.substring(pipe + 1).strip();
+                }
+                if (!NAME.matcher(name).matches()) {
+                    throw new TemplateException(source.origin() + ":" + line(text, open) + ": bad placeholder '{{" + tag + "}}'");
+                }
+                ValueFormatter valueFormatter;
+                try {
+                    valueFormatter = ValueFormatter.named(formatter, locale, zone);
+                } catch (TemplateException e) {
+                    throw new TemplateException(source.origin() + ":" + line(text, open) + ": " + e.getMessage());
+                }
+                segments.add(new CompiledTemplate.Variable(name, valueFormatter, source.html()));
+            }
+            pos = close + 2;
+        }
+        return segments.list;
+    }
+
+    private TemplateSource partial(TemplateSource from, String name, Map<TemplateKey, TemplateSource> partials) {
+        TemplateKey key = from.key();
+        TemplateSource partial = partials.get(new TemplateKey("_" + name, key.channel(), key.locale()));
+        if (partial == null) {
+            partial = partials.get(new TemplateKey("_" + name, key.channel(), defaultLocale));
+        }
+        if (partial == null) {
+            throw new TemplateException(from.origin() + ": partial '" + name + "' not found for channel " + key.channel());
+        }
+        // Partials render with the including template's locale, so formatters follow the message.
+        // The file's final newline is dropped: the {{> name}} tag usually sits on its own line already.
+        String text = partial.text().endsWith("\n") ? partial.text().substring(0, partial.text().length() - 1) : partial.text();
+        return new TemplateSource(new TemplateKey(partial.key().name(), key.channel(), key.locale()),
+                text, partial.html(), partial.origin());
+    }
+
+    private static TemplateSource withEscaping(TemplateSource partial, boolean html) {
+        return new TemplateSource(partial.key(), partial.text(), html, partial.origin());
+    }
+
+    private static int line(String text, int index) {
+        int line = 1;
+        for (int i = 0; i < index; i++) {
+            if (text.charAt(i) == '\n') {
+                line++;
+            }
+        }
+        return line;
+    }
+
+    /** Merges adjacent literals, which is what turns static partials into part of one string. */
+    private static final class SegmentList {
+        private final List<CompiledTemplate.Segment> list = new ArrayList<>();
+
+        void literal(String text) {
+            if (text.isEmpty()) {
+                return;
+            }
+            int last = list.size() - 1;
+            if (last >= 0 && list.get(last) instanceof CompiledTemplate.Literal previous) {
+                list.set(last, new CompiledTemplate.Literal(previous.text() + text));
+            } else {
+                list.add(new CompiledTemplate.Literal(text));
+            }
+        }
+
+        void add(CompiledTemplate.Segment segment) {
+            if (segment instanceof CompiledTemplate.Literal literal) {
+                literal(literal.text());
+            } else {
+                list.add(segment);
+            }
+        }
+
+        void addAll(List<CompiledTemplate.Segment> segments) {
+            segments.forEach(this::add);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.sj.ecommerce.notification_service.template;
+
+/**
+ * A template failed to compile or does not exist for the requested channel and locale.
+ */
+public class TemplateException extends RuntimeException {
+
+    public TemplateException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.sj.ecommerce.notification_service.template;
+
+/**
+ * Identifies one compiled template, e.g. (payment-completed, email, en).
+ * Locales are language tags as used in the template directory names.
+ */
+public record TemplateKey(String name, String channel, String locale) {
+}
@@ -0,0 +1,230 @@
+package com.sj.ecommerce.notification_service.template;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Holds the compiled notification templates, keyed by name, channel and locale.
+ *
+ * Templates are laid out as {@code <channel>/<locale>/<name>.txt} (or .html, which escapes
+ * placeholders). The set shipped under classpath:templates is compiled at startup; files in
+ * notifications.templates.dir with the same path override or add to it. With hot reload on,
+ * a watcher recompiles the whole set when anything in that directory changes and swaps it in
+ * atomically; a set that fails to compile is logged and the previous one stays live.
+ *
+ * Lookup falls back from the requested locale to its language and then to the default locale.
+ */
+@Component
+public class TemplateRegistry implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TemplateRegistry.class);
+    private static final String CLASSPATH_ROOT = "templates/";
+    private static final long RELOAD_QUIET_MS = 200;
+
+    private final Path directory;
+    private final boolean hotReload;
+    private final String defaultLocale;
+    private final TemplateCompiler compiler;
+    private final List<TemplateSource> classpathSources;
+
+    private volatile Map<TemplateKey, MessageTemplate> templates;
+    private ExecutorService watcher;
+    private WatchService watchService;
+
+    public TemplateRegistry(@Value("${notifications.templates.dir:}") String directory,
+                            @Value("${notifications.templates.hot-reload:true}") boolean hotReload,
+                            @Value("${notifications.templates.default-locale:en}") String defaultLocale,
+                            @Value("${notifications.templates.zone:Asia/Kolkata}") String zone) {
+        this.directory = directory.isBlank() ? null : Path.of(directory);
+        this.hotReload = hotReload;
+        this.defaultLocale = defaultLocale;
+        this.compiler = new TemplateCompiler(defaultLocale, ZoneId.of(zone));
+        this.classpathSources = loadClasspath();
+        // Fail startup on a broken template rather than on the first notification
+        this.templates = compile();
+        log.info("Compiled {} notification templates (override dir: {})", templates.size(), this.directory);
+    }
+
+    /**
+     * @throws TemplateException if no template exists for the channel in any fallback locale
+     */
+    public MessageTemplate get(String name, String channel, String locale) {
+        Map<TemplateKey, MessageTemplate> current = templates;
+        String requested = locale == null || locale.isBlank() ? defaultLocale : locale;
+        for (String candidate : fallbacks(requested)) {
+            MessageTemplate template = current.get(new TemplateKey(name, channel, candidate));
+            if (template != null) {
+                return template;
+            }
+        }
+        throw new TemplateException("No template '" + name + "' for channel " + channel + " and locale " + requested);
+    }
+
+    public int size() {
+        return templates.size();
+    }
+
+    /** Recompiles classpath and directory templates; keeps the current set if that fails. */
+    public boolean reload() {
+        try {
+            Map<TemplateKey, MessageTemplate> compiled = compile();
+            templates = compiled;
+            log.info("Reloaded {} notification templates from {}", compiled.size(), directory);
+            return true;
+        } catch (TemplateException | UncheckedIOException e) {
+            log.error("Template reload failed, keeping previous templates: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (directory == null || !hotReload || !Files.isDirectory(directory)) {
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        registerDirectories();
+        watcher = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "template-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watcher.execute(this::watch);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (watcher != null) {
+            watcher.shutdownNow();
+        }
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                key.pollEvents();
+                key.reset();
+                // Editors write files in several steps; wait for the directory to go quiet
+                WatchKey more;
+                while ((more = watchService.poll(RELOAD_QUIET_MS, TimeUnit.MILLISECONDS)) != null) {
+                    more.pollEvents();
+                    more.reset();
+                }
+                registerDirectories();
+                reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("Template watcher stopped", e);
+        }
+    }
+
+    private void registerDirectories() throws IOException {
+        // WatchService is not recursive: watch the root plus every channel and locale directory
+        try (Stream<Path> dirs = Files.walk(directory, 2)) {
+            for (Path dir : dirs.filter(Files::isDirectory).toList()) {
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        }
+    }
+
+    private Map<TemplateKey, MessageTemplate> compile() {
+        Map<TemplateKey, TemplateSource> sources = new LinkedHashMap<>();
+        classpathSources.forEach(source -> sources.put(source.key(), source));
+        if (directory != null && Files.isDirectory(directory)) {
+            loadDirectory().forEach(source -> sources.put(source.key(), source));
+        }
+        return Map.copyOf(compiler.compileAll(sources.values()));
+    }
+
+    private List<String> fallbacks(String locale) {
+        List<String> candidates = new ArrayList<>(3);
+        candidates.add(locale);
+        String language = Locale.forLanguageTag(locale).getLanguage();
+        if (!language.isEmpty() && !language.equals(locale)) {
+            candidates.add(language);
+        }
+        if (!candidates.contains(defaultLocale)) {
+            candidates.add(defaultLocale);
+        }
+        return candidates;
+    }
+
+    private static List<TemplateSource> loadClasspath() {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        List<TemplateSource> sources = new ArrayList<>();
+        try {
+            for (String extension : List.of("txt", "html")) {
+                for (Resource resource : resolver.getResources("classpath*:" + CLASSPATH_ROOT + "*/*/*." + extension)) {
+                    String path = resource.getURL().toString();
+                    String relative = path.substring(path.lastIndexOf(CLASSPATH_ROOT) + CLASSPATH_ROOT.length());
+                    String text = resource.getContentAsString(StandardCharsets.UTF_8);
+                    sources.add(source(relative, text, "classpath:" + CLASSPATH_ROOT + relative));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read classpath templates", e);
+        }
+        return sources;
+    }
+
+    private List<TemplateSource> loadDirectory() {
+        try (Stream<Path> files = Files.walk(directory, 3)) {
+            List<TemplateSource> sources = new ArrayList<>();
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                Path relative = directory.relativize(file);
+                String name = file.getFileName().toString();
+                if (relative.getNameCount() != 3 || !(name.endsWith(".txt") || name.endsWith(".html"))) {
+                    continue;
+                }
+                String text = Files.readString(file, StandardCharsets.UTF_8);
+                sources.add(source(relative.toString().replace('\\', '/'), text, file.toString()));
+            }
+            return sources;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read templates from " + directory, e);
+        }
+    }
+
+    /** relative is channel/locale/name.ext */
+    private static TemplateSource source(String relative, String text, String origin) {
+        String[] parts = relative.split("/");
+        String file = parts[2];
+        int dot = file.lastIndexOf('.');
+        TemplateKey key = new TemplateKey(file.substring(0, dot), parts[0], parts[1]);
+        return new TemplateSource(key, text.replace("\r\n", "\n"), file.endsWith(".html"), origin);
+    }
+}
@@ -0,0 +1,43 @@
+package com.sj.ecommerce.notification_service.template;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Renders compiled templates into a per-thread buffer that is reused across renders, so the
+ * only allocation per message is the resulting String.
+ */
+@Component
+public class TemplateRenderer {
+
+    /** Buffers that grew past this are dropped instead of being kept for the thread's lifetime. */
+    static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+    private static final int PLACEHOLDER_ALLOWANCE = 256;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    private final TemplateRegistry registry;
+
+    public TemplateRenderer(TemplateRegistry registry) {
+        this.registry = registry;
+    }
+
+    public RenderedMessage render(String name, String channel, String locale, Map<String, ?> model) {
+        MessageTemplate template = registry.get(name, channel, locale);
+        String subject = template.subject() == null ? null : render(template.subject(), model);
+        return new RenderedMessage(channel, template.key().locale(), subject, render(template.body(), model));
+    }
+
+    static String render(CompiledTemplate template, Map<String, ?> model) {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        buffer.ensureCapacity(template.literalLength() + PLACEHOLDER_ALLOWANCE);
+        template.renderTo(model, buffer);
+        String rendered = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            BUFFER.remove();
+        }
+        return rendered;
+    }
+}
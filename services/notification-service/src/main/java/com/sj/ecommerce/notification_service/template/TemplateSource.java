@@ -0,0 +1,15 @@
+package com.sj.ecommerce.notification_service.template;
+
+/**
+ * Raw template text as loaded from the classpath or the override directory.
+ *
+ * @param html   placeholders are HTML-escaped (the file was a .html template)
+ * @param origin where the text came from, for error messages
+ */
+public record TemplateSource(TemplateKey key, String text, boolean html, String origin) {
+
+    /** Partials are files whose name starts with an underscore; they are only used via {{> name}}. */
+    public boolean isPartial() {
+        return key.name().startsWith("_");
+    }
+}
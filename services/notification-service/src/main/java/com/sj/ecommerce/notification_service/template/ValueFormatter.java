@@ -0,0 +1,77 @@
+package com.sj.ecommerce.notification_service.template;
+
+import com.ecommerce.contracts.money.Money;
+
+import java.text.NumberFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.time.temporal.TemporalAccessor;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Formats one placeholder value. Formatters are resolved when a template is compiled and are
+ * bound to that template's locale, so rendering never looks anything up by name.
+ *
+ * Supported in templates as {@code {{name|formatter}}} or {@code {{name|formatter:argument}}}:
+ * - (none) - String.valueOf
+ * - money:key - currency amount for the template locale, in the currency code the model holds
+ *   under key ({@code currency} when omitted, INR when the model has none)
+ * - datetime - medium date and time in the configured zone, for Instants or ISO-8601 strings
+ */
+@FunctionalInterface
+public interface ValueFormatter {
+
+    ValueFormatter PLAIN = (value, model, out) -> out.append(value);
+
+    /** Appends {@code value}; {@code model} is the whole render model, for formatters bound to another value. */
+    void format(Object value, Map<String, ?> model, StringBuilder out);
+
+    static ValueFormatter named(String spec, Locale locale, ZoneId zone) {
+        int colon = spec.indexOf(':');
+        String name = colon < 0 ? spec : spec.substring(0, colon).strip();
+        String argument = colon < 0 ? "" : spec.substring(colon + 1).strip();
+        return switch (name) {
+            case "" -> PLAIN;
+            case "money" -> money(locale, argument.isEmpty() ? "currency" : argument);
+            case "datetime" -> dateTime(locale, zone);
+            default -> throw new TemplateException("Unknown formatter '" + name + "'");
+        };
+    }
+
+    private static ValueFormatter money(Locale locale, String currencyKey) {
+        // NumberFormat is not thread-safe; one instance per rendering thread and currency
+        ThreadLocal<Map<String, NumberFormat>> formats = ThreadLocal.withInitial(HashMap::new);
+        return (value, model, out) -> {
+            if (value instanceof Number number) {
+                Object code = model.get(currencyKey);
+                String currency = Money.currencyOrDefault(code == null ? null : code.toString());
+                NumberFormat format = formats.get().computeIfAbsent(currency, c -> {
+                    NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(locale);
+                    currencyFormat.setCurrency(Currency.getInstance(c));
+                    currencyFormat.setMinimumFractionDigits(Money.fractionDigits(c));
+                    currencyFormat.setMaximumFractionDigits(Money.fractionDigits(c));
+                    return currencyFormat;
+                });
+                // format(Object) keeps BigDecimal amounts exact
+                out.append(format.format(number));
+            } else {
+                out.append(value);
+            }
+        };
+    }
+
+    private static ValueFormatter dateTime(Locale locale, ZoneId zone) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM)
+                .withLocale(locale)
+                .withZone(zone);
+        return (value, model, out) -> {
+            TemporalAccessor temporal = value instanceof TemporalAccessor t ? t : Instant.parse(value.toString());
+            formatter.formatTo(temporal, out);
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package com.sj.ecommerce.notification_service;
+
+import com.ecommerce.contracts.bus.EventBus;
+import com.ecommerce.contracts.bus.EventChannels;
+import com.ecommerce.contracts.events.PaymentCompletedV2;
+import com.ecommerce.contracts.events.PaymentInitiatedV2;
+import com.ecommerce.contracts.money.ContractVersions;
+import com.sj.ecommerce.notification_service.service.NotificationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/** The whole service on the in-process profile: payment events reach the listener without SQS. */
+@SpringBootTest
+@ActiveProfiles("in-process")
+class InProcessEventsTest {
+
+	@Autowired
+	private EventBus eventBus;
+
+	@MockitoBean
+	private NotificationService notificationService;
+
+	@Test
+	void paymentEventsOnTheBusReachNotificationService() {
+		Instant now = Instant.now();
+		eventBus.publish(EventChannels.PAYMENT_EVENTS, "PaymentInitiated", new PaymentInitiatedV2(UUID.randomUUID(),
+				ContractVersions.V2, now, 5L, 501L, 42L, 9900, "INR", "order_501"));
+		eventBus.publish(EventChannels.PAYMENT_EVENTS, "PaymentCompleted", new PaymentCompletedV2(UUID.randomUUID(),
+				ContractVersions.V2, now, 5L, 501L, 42L, 9900, "INR"));
+
+		verify(notificationService, timeout(5000)).sendPaymentSuccessNotification(argThat(event -> event.getOrderId() == 501L));
+		verify(notificationService, never()).sendPaymentFailureNotification(any());
+	}
+}
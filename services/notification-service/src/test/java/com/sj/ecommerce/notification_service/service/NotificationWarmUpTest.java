@@ -0,0 +1,44 @@
+package com.sj.ecommerce.notification_service.service;
+
+import com.sj.ecommerce.common.warmup.WarmUpStep;
+import com.sj.ecommerce.notification_service.config.JacksonConfig;
+import com.sj.ecommerce.notification_service.template.TemplateRegistry;
+import com.sj.ecommerce.notification_service.template.TemplateRenderer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class NotificationWarmUpTest {
+
+	private final TemplateRegistry registry = new TemplateRegistry("", false, "en", "Asia/Kolkata");
+	private final NotificationService notificationService =
+			spy(new NotificationService(new TemplateRenderer(registry), List.of("email", "sms")));
+
+	@AfterEach
+	void close() throws Exception {
+		registry.close();
+	}
+
+	@Test
+	void everyStepRunsAgainstTheShippedTemplates() throws Exception {
+		NotificationWarmUp warmUp = new NotificationWarmUp(new JacksonConfig().objectMapper(), notificationService, 3);
+
+		List<WarmUpStep> steps = warmUp.steps();
+		assertEquals(List.of("event serialization", "template rendering"), steps.stream().map(WarmUpStep::name).toList());
+		// Run directly rather than through WarmUpStep.runAll, so a failing step, e.g. a broken
+		// template, fails the test
+		for (WarmUpStep step : steps) {
+			step.task().run();
+		}
+
+		verify(notificationService, times(3)).renderPaymentSuccess(any());
+		verify(notificationService, times(3)).renderPaymentFailure(any());
+	}
+}
@@ -0,0 +1,111 @@
+package com.sj.ecommerce.notification_service.template;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemplateRegistryTest {
+
+	private static final Map<String, Object> MODEL = Map.of(
+			"orderId", 42L,
+			"paymentId", 7L,
+			"amount", 1250.0,
+			"reason", "CARD_DECLINED",
+			"occurredAt", Instant.parse("2026-03-01T10:15:30Z"));
+
+	@Test
+	void rendersShippedTemplatesPerChannelAndFallsBackToDefaultLocale() throws Exception {
+		try (TemplateRegistry registry = new TemplateRegistry("", false, "en", "Asia/Kolkata")) {
+			TemplateRenderer renderer = new TemplateRenderer(registry);
+
+			RenderedMessage email = renderer.render("payment-failed", "email", "en-IN", MODEL);
+			assertEquals("en", email.locale());
+			assertEquals("Payment failed for order #42", email.subject());
+			assertTrue(email.body().contains("₹1,250.00 for order #42 could not be completed (CARD_DECLINED)"), email.body());
+			assertTrue(email.body().endsWith("please do not reply.\n"), email.body());
+
+			RenderedMessage sms = renderer.render("payment-completed", "sms", "hi", MODEL);
+			assertEquals("hi", sms.locale());
+			assertNull(sms.subject());
+			assertTrue(sms.body().contains("#42"), sms.body());
+
+			RenderedMessage fallback = renderer.render("payment-completed", "sms", "fr", MODEL);
+			assertEquals("en", fallback.locale());
+			assertThrows(TemplateException.class, () -> renderer.render("missing", "sms", "en", MODEL));
+		}
+	}
+
+	@Test
+	void inlinesStaticPartialsAndEscapesHtmlPlaceholders() {
+		TemplateCompiler compiler = new TemplateCompiler("en", ZoneId.of("UTC"));
+		Map<TemplateKey, MessageTemplate> compiled = compiler.compileAll(List.of(
+				new TemplateSource(new TemplateKey("welcome", "email", "en"),
+						"Subject: Hi {{name}}\n<p>Hi {{name}}</p>{{! greeting }}{{> footer}}", true, "welcome.html"),
+				new TemplateSource(new TemplateKey("_footer", "email", "en"), "<hr>static footer", true, "_footer.html")));
+
+		MessageTemplate template = compiled.get(new TemplateKey("welcome", "email", "en"));
+		assertEquals(1, compiled.size(), "partials are not templates of their own");
+		// literal, variable, literal + inlined footer
+		assertEquals(3, template.body().segments().size());
+
+		String body = TemplateRenderer.render(template.body(), Map.of("name", "<Tom & Jerry>"));
+		assertEquals("<p>Hi &lt;Tom &amp; Jerry&gt;</p><hr>static footer", body);
+		assertEquals("Hi <Tom & Jerry>", TemplateRenderer.render(template.subject(), Map.of("name", "<Tom & Jerry>")));
+
+		assertThrows(TemplateException.class, () -> compiler.compileAll(List.of(
+				new TemplateSource(new TemplateKey("broken", "sms", "en"), "Total {{amount|bogus}}", false, "broken.txt"))));
+	}
+
+	@Test
+	void moneyIsFormattedInTheModelCurrency() {
+		TemplateCompiler compiler = new TemplateCompiler("en", ZoneId.of("UTC"));
+		MessageTemplate template = compiler.compileAll(List.of(
+				new TemplateSource(new TemplateKey("total", "sms", "en"), "Total {{amount|money:currency}}", false, "total.txt")))
+				.get(new TemplateKey("total", "sms", "en"));
+
+		assertEquals("Total $12.50", TemplateRenderer.render(template.body(), Map.of("amount", new BigDecimal("12.50"), "currency", "USD")));
+		assertEquals("Total ¥1,250", TemplateRenderer.render(template.body(), Map.of("amount", new BigDecimal("1250"), "currency", "JPY")));
+		assertEquals("Total ₹12.50", TemplateRenderer.render(template.body(), Map.of("amount", new BigDecimal("12.50"))));
+	}
+
+	@Test
+	void hotReloadsOverrideDirectoryAndKeepsLastGoodSetOnError(@TempDir Path dir) throws Exception {
+		Path sms = Files.createDirectories(dir.resolve("sms/en"));
+		Files.writeString(sms.resolve("payment-completed.txt"), "v1 {{orderId}}");
+
+		try (TemplateRegistry registry = new TemplateRegistry(dir.toString(), true, "en", "UTC")) {
+			TemplateRenderer renderer = new TemplateRenderer(registry);
+			assertEquals("v1 42", renderer.render("payment-completed", "sms", "en", MODEL).body());
+			registry.start();
+
+			Files.writeString(sms.resolve("payment-completed.txt"), "v2 {{orderId}}");
+			assertEquals("v2 42", awaitBody(renderer, "v2 42"));
+
+			Files.writeString(sms.resolve("payment-completed.txt"), "v3 {{orderId");
+			Thread.sleep(1500);
+			assertEquals("v2 42", renderer.render("payment-completed", "sms", "en", MODEL).body());
+			assertFalse(registry.reload());
+		}
+	}
+
+	private static String awaitBody(TemplateRenderer renderer, String expected) throws InterruptedException {
+		String body = null;
+		for (int i = 0; i < 100; i++) {
+			body = renderer.render("payment-completed", "sms", "en", MODEL).body();
+			if (expected.equals(body)) {
+				return body;
+			}
+			Thread.sleep(100);
+		}
+		return body;
+	}
+}
@@ -1,30 +1,83 @@
 package com.sj.ecommerce.order_service.controller;
 
 import com.sj.ecommerce.order_service.dto.CreateOrderRequest;
+import com.sj.ecommerce.order_service.dto.OrderBatchResponse;
 import com.sj.ecommerce.order_service.dto.OrderResponse;
 import com.sj.ecommerce.order_service.service.OrderService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/orders")
 public class OrderController {
+    static final String USER_ID_HEADER = "X-User-Id";
+
     private final OrderService orderService;
+    private final int maxBatchIds;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService,
+                           @Value("${orders.batch.max-ids:200}") int maxBatchIds) {
         this.orderService = orderService;
+        this.maxBatchIds = maxBatchIds;
     }
 
+    /**
+     * The gateway sets X-User-Id from the caller's verified token and it decides whose order this
+     * is: a request without it is refused with 400, and a body userId naming someone else with 403.
+     */
     @PostMapping
-    public ResponseEntity<OrderResponse> createOrder(@RequestBody CreateOrderRequest request) {
-        OrderResponse response = orderService.createOrder(request);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<OrderResponse> createOrder(@RequestBody CreateOrderRequest request,
+                                                     @RequestHeader(name = USER_ID_HEADER) Long authenticatedUserId) {
+        if (request.userId() != null && !request.userId().equals(authenticatedUserId)) {
+            return ResponseEntity.status(403).build();
+        }
+        request = request.withUserId(authenticatedUserId);
+        try {
+            OrderResponse response = orderService.createOrder(request);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Batch form of GET /orders/{id}: {@code ?ids=1,2,3} resolves up to orders.batch.max-ids
+     * orders with a single query. Entries come back in request order, missing orders marked
+     * found=false. 400 when ids is empty or over the cap.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<OrderBatchResponse> getOrdersByIds(@RequestParam List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > maxBatchIds || ids.contains(null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(orderService.getOrdersByIds(ids));
     }
 
+    /**
+     * Strong ETag from the order's version column. Status polls that send If-None-Match are
+     * answered with 304 after a version lookup, without loading or serializing the order.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<OrderResponse> getOrderById(@PathVariable Long id) {
+    public ResponseEntity<OrderResponse> getOrderById(@PathVariable Long id, WebRequest webRequest) {
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> version = orderService.getOrderVersion(id);
+            if (version.isPresent() && webRequest.checkNotModified(etag(id, version.get()))) {
+                // 304 and ETag already set on the response
+                return null;
+            }
+        }
         return orderService.getOrderById(id)
-                .map(ResponseEntity::ok)
+                .map(order -> ResponseEntity.ok().eTag(etag(id, order.version())).body(order))
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    private static String etag(Long id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
 }
@@ -1,5 +1,16 @@
 package com.sj.ecommerce.order_service.dto;
 
+import java.math.BigDecimal;
 import java.util.List;
 
-public record CreateOrderRequest(Long userId, Double amount, List<Long> productIds) {}
+/**
+ * amountMinor (paise) and currency are preferred; amount as a major-unit decimal is still
+ * accepted from older clients and converted exactly. Currency defaults to INR. userId is always
+ * replaced by the authenticated user from the required X-User-Id header.
+ */
+public record CreateOrderRequest(Long userId, BigDecimal amount, Long amountMinor, String currency, List<Long> productIds) {
+
+    public CreateOrderRequest withUserId(Long userId) {
+        return new CreateOrderRequest(userId, amount, amountMinor, currency, productIds);
+    }
+}
@@ -0,0 +1,17 @@
+package com.sj.ecommerce.order_service.dto;
+
+import java.util.List;
+
+/**
+ * Answer to GET /orders?ids=..., one entry per requested id in request order. A missing order
+ * is an entry with found=false and no order, rather than a gap in the list.
+ */
+public record OrderBatchResponse(List<Entry> results) {
+
+    public record Entry(Long id, boolean found, OrderResponse order) {
+
+        public static Entry of(Long id, OrderResponse order) {
+            return new Entry(id, order != null, order);
+        }
+    }
+}
@@ -1,13 +1,22 @@
 package com.sj.ecommerce.order_service.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 
+/**
+ * amount is the exact major-unit form of amountMinor, kept for clients that predate it.
+ */
 public record OrderResponse(
     Long id, 
     String status, 
     String paymentStatus,
-    Double amount,
+    BigDecimal amount,
+    long amountMinor,
+    String currency,
     Instant createdAt, 
-    List<Long> productIds
+    List<Long> productIds,
+    @JsonIgnore Long version
 ) {}
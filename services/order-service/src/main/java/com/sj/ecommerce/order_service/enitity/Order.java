@@ -1,9 +1,18 @@
 package com.sj.ecommerce.order_service.enitity;
 
+import com.ecommerce.contracts.money.Money;
+import com.sj.ecommerce.common.persistence.CurrencyConverter;
 import jakarta.persistence.*;
 import java.time.Instant;
+import java.util.Currency;
 import java.util.List;
 
+/**
+ * Amounts are fixed-point: amount_minor holds minor units (paise) and currency the ISO code.
+ * Rows written before that have only the legacy floating-point amount column; they are read
+ * through {@link Money#fromLegacyDouble} until LegacyAmountBackfill has filled amount_minor.
+ * The legacy column is still written so older instances keep working during a rollout.
+ */
 @Entity
 @Table(name = "orders")
 public class Order {
@@ -13,7 +22,16 @@ public class Order {
 
     private Long userId;    
 
-    private Double amount;
+    // Legacy floating-point amount, dual-written for readers that predate amount_minor
+    @Column(name = "amount")
+    private Double legacyAmount;
+
+    @Column(name = "amount_minor")
+    private Long amountMinor;
+
+    @Convert(converter = CurrencyConverter.class)
+    @Column(name = "currency", length = 3)
+    private Currency currency;
 
     @Enumerated(EnumType.STRING)
     private OrderStatus status;
@@ -28,11 +46,16 @@ public class Order {
 
     private Instant createdAt;
 
+    // Bumped by JPA on entity updates and by the conditional transition queries in OrderRepository
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     public Order() {}
 
-    public Order(Long userId, Double amount, OrderStatus status, List<Long> productIds) {
+    public Order(Long userId, long amountMinor, String currency, OrderStatus status, List<Long> productIds) {
         this.userId = userId;
-        this.amount = amount;
+        setAmount(amountMinor, currency);
         this.status = status;
         this.productIds = productIds;
         this.paymentStatus = PaymentStatus.PENDING;
@@ -57,12 +80,22 @@ public class Order {
         this.userId = userId;
     }
 
-    public Double getAmount() {
-        return amount;
+    /** Minor units; falls back to the legacy column for rows not yet backfilled. */
+    public long getAmountMinor() {
+        if (amountMinor != null) {
+            return amountMinor;
+        }
+        return legacyAmount == null ? 0L : Money.fromLegacyDouble(legacyAmount, getCurrency());
+    }
+
+    public String getCurrency() {
+        return currency == null ? Money.DEFAULT_CURRENCY : currency.getCurrencyCode();
     }
 
-    public void setAmount(Double amount) {
-        this.amount = amount;
+    public void setAmount(long amountMinor, String currency) {
+        this.currency = Currency.getInstance(currency);
+        this.amountMinor = amountMinor;
+        this.legacyAmount = Money.toLegacyDouble(amountMinor, currency);
     }
 
     public Instant getCreatedAt() {
@@ -96,4 +129,8 @@ public class Order {
     public void setPaymentStatus(PaymentStatus paymentStatus) {
         this.paymentStatus = paymentStatus;
     }
+
+    public Long getVersion() {
+        return version;
+    }
 }
@@ -1,9 +1,33 @@
 package com.sj.ecommerce.order_service.enitity;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum OrderStatus {
     CREATED,
     PAYMENT_PENDING,
     PAID,
     PAYMENT_FAILED,
-    CANCELLED
+    CANCELLED;
+
+    /**
+     * States an order may move into this state from. Transitions are applied as
+     * {@code UPDATE ... WHERE status IN (allowedFrom)}, so a late or duplicate event can
+     * never move an order backwards; PAID and CANCELLED are terminal.
+     */
+    public Set<OrderStatus> allowedFrom() {
+        return switch (this) {
+            case CREATED -> EnumSet.noneOf(OrderStatus.class);
+            case PAYMENT_PENDING -> EnumSet.of(CREATED);
+            // A failed attempt can still be followed by a successful retry
+            case PAID -> EnumSet.of(CREATED, PAYMENT_PENDING, PAYMENT_FAILED);
+            case PAYMENT_FAILED -> EnumSet.of(CREATED, PAYMENT_PENDING);
+            // Not while the user is in checkout: Razorpay may still capture the payment
+            case CANCELLED -> EnumSet.of(CREATED, PAYMENT_FAILED);
+        };
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return target.allowedFrom().contains(this);
+    }
 }
@@ -1,7 +1,108 @@
 package com.sj.ecommerce.order_service.repository;
 
 import com.sj.ecommerce.order_service.enitity.Order;
+import com.sj.ecommerce.order_service.enitity.OrderStatus;
+import com.sj.ecommerce.order_service.enitity.PaymentStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    /** Version column only, so an ETag check doesn't fetch the row's product ids. */
+    @Query("SELECT o.version FROM Order o WHERE o.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /** Status column only, for explaining a rejected transition. */
+    @Query("SELECT o.status FROM Order o WHERE o.id = :id")
+    Optional<OrderStatus> findStatusById(@Param("id") Long id);
+
+    /**
+     * Orders in {@code ids} with their product ids, fetched together in one query instead of one
+     * collection load per order. Missing ids are simply absent.
+     */
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.productIds WHERE o.id IN :ids")
+    List<Order> findAllWithProductsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Compare-and-set state change in one round trip.
+     * Returns 1 when applied, 0 when the order is missing or not in one of {@code from}.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE Order o
+               SET o.status = :target, o.paymentStatus = :paymentStatus, o.version = o.version + 1
+             WHERE o.id = :id AND o.status IN :from""")
+    int transition(@Param("id") Long id,
+                   @Param("from") Collection<OrderStatus> from,
+                   @Param("target") OrderStatus target,
+                   @Param("paymentStatus") PaymentStatus paymentStatus);
+
+    /** Orders in one of {@code statuses}, keyset-paged by id, for rebuilding the expiry wheel. */
+    @Query("""
+            SELECT o.id AS id, o.createdAt AS createdAt FROM Order o
+             WHERE o.status IN :statuses AND o.id > :afterId
+             ORDER BY o.id""")
+    List<ExpiryCandidate> findExpiryCandidates(@Param("statuses") Collection<OrderStatus> statuses,
+                                               @Param("afterId") Long afterId,
+                                               Limit limit);
+
+    /**
+     * Moves every order in {@code ids} that is still in one of {@code from} to {@code target} in a
+     * single statement and returns the rows it changed, so concurrent expirers each see only the
+     * orders they actually expired.
+     */
+    @Transactional
+    @Query(nativeQuery = true, value = """
+            WITH expired AS (
+                UPDATE orders
+                   SET status = :target, version = version + 1
+                 WHERE id IN (:ids) AND status IN (:from)
+                RETURNING id, user_id, amount, amount_minor, currency
+            )
+            SELECT id AS "id", user_id AS "userId",
+                   CAST(COALESCE(amount_minor, ROUND(CAST(amount AS numeric) * 100)) AS bigint) AS "amountMinor",
+                   COALESCE(currency, 'INR') AS "currency"
+              FROM expired""")
+    List<ExpiredOrder> expireAll(@Param("ids") Collection<Long> ids,
+                                 @Param("from") Collection<String> from,
+                                 @Param("target") String target);
+
+    /**
+     * Fills amount_minor/currency from the legacy floating-point amount for up to
+     * {@code batchSize} rows, see LegacyAmountBackfill. Rows predating amount_minor are all
+     * INR, so the scale is 100. The float8 -> numeric cast goes through the shortest decimal
+     * form, so 19.99 becomes 1999. The version is left alone: the amount itself is unchanged.
+     */
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = """
+            UPDATE orders
+               SET amount_minor = CAST(ROUND(CAST(amount AS numeric) * 100) AS bigint), currency = COALESCE(currency, 'INR')
+             WHERE id IN (SELECT id FROM orders WHERE amount_minor IS NULL AND amount IS NOT NULL LIMIT :batchSize)""")
+    int backfillAmountMinor(@Param("batchSize") int batchSize);
+
+    interface ExpiryCandidate {
+        Long getId();
+
+        Instant getCreatedAt();
+    }
+
+    interface ExpiredOrder {
+        Long getId();
+
+        Long getUserId();
+
+        Long getAmountMinor();
+
+        String getCurrency();
+    }
 }
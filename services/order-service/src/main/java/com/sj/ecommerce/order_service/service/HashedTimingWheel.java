@@ -0,0 +1,89 @@
+package com.sj.ecommerce.order_service.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hashed timing wheel of deadlines keyed by id.
+ *
+ * Time is cut into ticks; an id due at tick {@code t} lives in bucket {@code t mod wheelSize}
+ * and is only looked at when the wheel passes that bucket, so scheduling and cancelling are
+ * O(1) and each tick only touches the ids hashed to it, however many are pending. Ids due more
+ * than one revolution ahead simply stay in their bucket until their tick comes round.
+ *
+ * Time is passed in rather than read from a clock, so the owner decides when to advance.
+ */
+public class HashedTimingWheel {
+
+    private final long tickMillis;
+    private final int mask;
+    private final Set<Long>[] buckets;
+    private final Map<Long, Long> deadlineTicks = new HashMap<>();
+    private long nextTick;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(Duration tick, int wheelSize, long startMillis) {
+        if (tick.toMillis() < 1 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Require tick >= 1ms and a power-of-two wheel size");
+        }
+        this.tickMillis = tick.toMillis();
+        this.mask = wheelSize - 1;
+        this.buckets = new Set[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new HashSet<>();
+        }
+        this.nextTick = startMillis / tickMillis;
+    }
+
+    /** (Re)schedules {@code id}; deadlines already in the past fire on the next advance. */
+    public synchronized void schedule(long id, long deadlineMillis) {
+        cancel(id);
+        long tick = Math.max(nextTick, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis));
+        deadlineTicks.put(id, tick);
+        buckets[(int) (tick & mask)].add(id);
+    }
+
+    public synchronized boolean cancel(long id) {
+        Long tick = deadlineTicks.remove(id);
+        if (tick == null) {
+            return false;
+        }
+        buckets[(int) (tick & mask)].remove(id);
+        return true;
+    }
+
+    /** Processes every tick up to {@code nowMillis} and returns the ids that came due. */
+    public synchronized List<Long> advanceTo(long nowMillis) {
+        long currentTick = nowMillis / tickMillis;
+        List<Long> due = new ArrayList<>();
+        // After a long pause one revolution visits every bucket; later ticks add nothing new
+        long lastTick = Math.min(currentTick, nextTick + mask);
+        for (; nextTick <= lastTick; nextTick++) {
+            collect(buckets[(int) (nextTick & mask)], currentTick, due);
+        }
+        nextTick = Math.max(nextTick, currentTick + 1);
+        return due;
+    }
+
+    public synchronized int size() {
+        return deadlineTicks.size();
+    }
+
+    private void collect(Set<Long> bucket, long currentTick, List<Long> due) {
+        Iterator<Long> it = bucket.iterator();
+        while (it.hasNext()) {
+            Long id = it.next();
+            if (deadlineTicks.get(id) <= currentTick) {
+                it.remove();
+                deadlineTicks.remove(id);
+                due.add(id);
+            }
+        }
+    }
+}
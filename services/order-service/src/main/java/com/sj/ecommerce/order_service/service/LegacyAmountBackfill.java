@@ -0,0 +1,23 @@
+package com.sj.ecommerce.order_service.service;
+
+import com.sj.ecommerce.common.backfill.BatchBackfill;
+import com.sj.ecommerce.order_service.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Second half of the dual-read money migration: fills amount_minor/currency for orders written
+ * before those columns existed, in small batches on a background thread after startup. Until
+ * a row is backfilled, Order reads its legacy amount instead, so the job can stop and resume
+ * at any point; every instance may run it, the batches are idempotent.
+ */
+@Component
+public class LegacyAmountBackfill extends BatchBackfill {
+
+    public LegacyAmountBackfill(OrderRepository orderRepository,
+                                @Value("${orders.money.backfill.enabled:true}") boolean enabled,
+                                @Value("${orders.money.backfill.batch-size:1000}") int batchSize,
+                                @Value("${orders.money.backfill.pause-ms:200}") long pauseMillis) {
+        super("order-amount-backfill", orderRepository::backfillAmountMinor, enabled, batchSize, pauseMillis);
+    }
+}
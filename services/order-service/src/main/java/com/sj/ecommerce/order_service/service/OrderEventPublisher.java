@@ -1,32 +1,48 @@
 package com.sj.ecommerce.order_service.service;
 
-import com.ecommerce.contracts.events.OrderCreatedV1;
+import com.ecommerce.contracts.bus.EventBus;
+import com.ecommerce.contracts.bus.EventChannels;
+import com.ecommerce.contracts.events.OrderCreatedV2;
+import com.ecommerce.contracts.events.OrderExpiredV2;
+import com.ecommerce.contracts.money.ContractVersions;
 import com.sj.ecommerce.order_service.exception.EventPublishingException;
-import io.awspring.cloud.sns.core.SnsTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+/**
+ * Publishes order events as v2 contracts. Set events.contract-version=1 while a consumer that
+ * only understands the floating-point v1 amount is still deployed.
+ */
 @Service
 public class OrderEventPublisher {
     private static final Logger logger = LoggerFactory.getLogger(OrderEventPublisher.class);
-    private final SnsTemplate snsTemplate;
+    private final EventBus eventBus;
+    private final boolean publishV1;
 
-    @Value("${aws.sns.topic.order-events}")
-    private String orderEventsTopicArn;
-
-    public OrderEventPublisher(SnsTemplate snsTemplate) {
-        this.snsTemplate = snsTemplate;
+    public OrderEventPublisher(EventBus eventBus, @Value("${events.contract-version:2}") int contractVersion) {
+        this.eventBus = eventBus;
+        this.publishV1 = contractVersion == 1;
     }
 
-    public void publish(OrderCreatedV1 event) {
+    public void publish(OrderCreatedV2 event) {
         try {
-            snsTemplate.sendNotification(orderEventsTopicArn, event, "ORDER_CREATED");
-            logger.info("Successfully published ORDER_CREATED to SNS");
+            eventBus.publish(EventChannels.ORDER_EVENTS, "ORDER_CREATED", publishV1 ? ContractVersions.downgrade(event) : event);
+            logger.info("Successfully published ORDER_CREATED");
         } catch (Exception e) {
             logger.error("Failed to publish ORDER_CREATED event", e);
-            throw new EventPublishingException("SNS publishing failed", null, e);
+            throw new EventPublishingException("Event publishing failed", event.getOrderId(), e);
+        }
+    }
+
+    public void publish(OrderExpiredV2 event) {
+        try {
+            eventBus.publish(EventChannels.ORDER_EVENTS, "ORDER_EXPIRED", publishV1 ? ContractVersions.downgrade(event) : event);
+            logger.info("Successfully published ORDER_EXPIRED");
+        } catch (Exception e) {
+            logger.error("Failed to publish ORDER_EXPIRED event", e);
+            throw new EventPublishingException("Event publishing failed", event.getOrderId(), e);
         }
     }
 }
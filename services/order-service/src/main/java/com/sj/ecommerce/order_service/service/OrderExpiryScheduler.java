@@ -0,0 +1,168 @@
+package com.sj.ecommerce.order_service.service;
+
+import com.ecommerce.contracts.events.OrderExpiredV2;
+import com.ecommerce.contracts.money.ContractVersions;
+import com.sj.ecommerce.common.replica.ReadRouting;
+import com.sj.ecommerce.order_service.enitity.OrderStatus;
+import com.sj.ecommerce.order_service.exception.EventPublishingException;
+import com.sj.ecommerce.order_service.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cancels orders that are still unpaid {@code orders.expiry.ttl-minutes} after creation.
+ *
+ * Deadlines live in an in-memory {@link HashedTimingWheel}: orders are scheduled when created,
+ * cancelled when paid, and the wheel is rebuilt from the database on startup, so no periodic
+ * table scan is needed. Each tick expires the due orders in batches with one conditional UPDATE
+ * (only orders still in a state CANCELLED may follow) and publishes an OrderExpiredV2 per order
+ * that UPDATE actually changed. Several instances may hold the same deadline; the conditional
+ * UPDATE makes sure only one of them expires the order and publishes. Orders in PAYMENT_PENDING
+ * (PaymentInitiated received) are skipped: their outcome comes from the Razorpay webhook.
+ */
+@Component
+public class OrderExpiryScheduler implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderExpiryScheduler.class);
+
+    static final String REASON = "PAYMENT_TIMEOUT";
+    private static final Set<OrderStatus> EXPIRABLE = OrderStatus.CANCELLED.allowedFrom();
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(30);
+
+    private final OrderRepository orderRepository;
+    private final OrderEventPublisher orderEventPublisher;
+    private final ReadRouting readRouting;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final long tickMillis;
+    private final int batchSize;
+    private final HashedTimingWheel wheel;
+    private ScheduledExecutorService ticker;
+
+    public OrderExpiryScheduler(OrderRepository orderRepository, OrderEventPublisher orderEventPublisher,
+                                ReadRouting readRouting,
+                                @Value("${orders.expiry.enabled:true}") boolean enabled,
+                                @Value("${orders.expiry.ttl-minutes:30}") long ttlMinutes,
+                                @Value("${orders.expiry.tick-ms:1000}") long tickMillis,
+                                @Value("${orders.expiry.wheel-size:4096}") int wheelSize,
+                                @Value("${orders.expiry.batch-size:500}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.orderEventPublisher = orderEventPublisher;
+        this.readRouting = readRouting;
+        this.enabled = enabled;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.tickMillis = tickMillis;
+        this.batchSize = batchSize;
+        this.wheel = new HashedTimingWheel(Duration.ofMillis(tickMillis), wheelSize, System.currentTimeMillis());
+    }
+
+    public void schedule(Long orderId, Instant createdAt) {
+        if (enabled) {
+            wheel.schedule(orderId, createdAt.plus(ttl).toEpochMilli());
+        }
+    }
+
+    public void cancel(Long orderId) {
+        if (enabled) {
+            wheel.cancel(orderId);
+        }
+    }
+
+    public int pending() {
+        return wheel.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        rebuild();
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "order-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    void rebuild() {
+        long afterId = 0;
+        int loaded = 0;
+        while (true) {
+            List<OrderRepository.ExpiryCandidate> page =
+                    orderRepository.findExpiryCandidates(EXPIRABLE, afterId, Limit.of(batchSize));
+            for (OrderRepository.ExpiryCandidate candidate : page) {
+                schedule(candidate.getId(), candidate.getCreatedAt());
+                afterId = candidate.getId();
+            }
+            loaded += page.size();
+            if (page.size() < batchSize) {
+                break;
+            }
+        }
+        log.info("Order expiry wheel rebuilt with {} unpaid orders", loaded);
+    }
+
+    void tick() {
+        try {
+            List<Long> due = wheel.advanceTo(System.currentTimeMillis());
+            for (int from = 0; from < due.size(); from += batchSize) {
+                expire(due.subList(from, Math.min(due.size(), from + batchSize)));
+            }
+        } catch (RuntimeException e) {
+            // Never let an exception cancel the periodic task
+            log.error("Order expiry tick failed", e);
+        }
+    }
+
+    private void expire(List<Long> orderIds) {
+        List<OrderRepository.ExpiredOrder> expired;
+        try {
+            expired = orderRepository.expireAll(orderIds,
+                    EXPIRABLE.stream().map(Enum::name).toList(), OrderStatus.CANCELLED.name());
+        } catch (DataAccessException e) {
+            log.warn("Failed to expire {} orders, retrying in {}", orderIds.size(), RETRY_DELAY, e);
+            long retryAt = System.currentTimeMillis() + RETRY_DELAY.toMillis();
+            orderIds.forEach(id -> wheel.schedule(id, retryAt));
+            return;
+        }
+
+        Instant now = Instant.now();
+        for (OrderRepository.ExpiredOrder order : expired) {
+            readRouting.recordWrite(OrderService.orderKey(order.getId()));
+            try {
+                orderEventPublisher.publish(new OrderExpiredV2(UUID.randomUUID(), ContractVersions.V2, now,
+                        order.getId(), order.getUserId(), order.getAmountMinor(), order.getCurrency(), REASON));
+            } catch (EventPublishingException e) {
+                // Same as a failed ORDER_CREATED publish: the state change stands and is logged
+                log.error("Order {} expired but ORDER_EXPIRED could not be published", order.getId(), e);
+            }
+        }
+        if (!expired.isEmpty()) {
+            log.info("Expired {} of {} due orders", expired.size(), orderIds.size());
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package com.sj.ecommerce.order_service.service;
 
-import com.ecommerce.contracts.events.OrderCreatedV1;
+import com.ecommerce.contracts.events.OrderCreatedV2;
+import com.ecommerce.contracts.money.ContractVersions;
+import com.ecommerce.contracts.money.Money;
+import com.sj.ecommerce.common.profiling.HandlerEvent;
+import com.sj.ecommerce.common.replica.ReadRouting;
 import com.sj.ecommerce.order_service.dto.CreateOrderRequest;
+import com.sj.ecommerce.order_service.dto.OrderBatchResponse;
 import com.sj.ecommerce.order_service.dto.OrderResponse;
 import com.sj.ecommerce.order_service.enitity.Order;
 import com.sj.ecommerce.order_service.enitity.OrderStatus;
@@ -16,28 +21,52 @@ import java.util.*;
 public class OrderService {
     private final OrderRepository orderRepository;
     private final OrderEventPublisher orderEventPublisher;
+    private final ReadRouting readRouting;
+    private final OrderExpiryScheduler orderExpiry;
 
-    public OrderService(OrderRepository orderRepository, OrderEventPublisher orderEventPublisher) {
+    public OrderService(OrderRepository orderRepository, OrderEventPublisher orderEventPublisher,
+                        ReadRouting readRouting, OrderExpiryScheduler orderExpiry) {
         this.orderRepository = orderRepository;
         this.orderEventPublisher = orderEventPublisher;
+        this.readRouting = readRouting;
+        this.orderExpiry = orderExpiry;
     }
 
+    /**
+     * @throws IllegalArgumentException for a missing, negative or sub-paisa amount or an unknown currency
+     */
     public OrderResponse createOrder(CreateOrderRequest request) {
+        HandlerEvent profile = HandlerEvent.begin("OrderService.createOrder", "CreateOrderRequest", null);
+        try {
+            OrderResponse response = placeOrder(request);
+            profile.orderId(response.id());
+            profile.succeeded();
+            return response;
+        } finally {
+            profile.finish();
+        }
+    }
+
+    private OrderResponse placeOrder(CreateOrderRequest request) {
         List<Long> productIds = request.productIds();
+        String currency = Money.currencyOrDefault(request.currency());
         // don't trust frontend for amount recalculate in backend based on productIds
-        Double totalOrderAmt = request.amount();
+        long totalOrderAmt = amountMinor(request, currency);
 
-        Order order = new Order(request.userId(), totalOrderAmt, OrderStatus.CREATED, productIds);
+        Order order = new Order(request.userId(), totalOrderAmt, currency, OrderStatus.CREATED, productIds);
         Order saved = orderRepository.save(order);
+        readRouting.recordWrite(orderKey(saved.getId()));
+        orderExpiry.schedule(saved.getId(), saved.getCreatedAt());
 
         // Create event using constructor-only immutable event class
-        OrderCreatedV1 event = new OrderCreatedV1(
+        OrderCreatedV2 event = new OrderCreatedV2(
             UUID.randomUUID(),
-            "1.0",
+            ContractVersions.V2,
             saved.getCreatedAt(),
             saved.getId(),
             saved.getUserId(),
-            saved.getAmount()
+            saved.getAmountMinor(),
+            saved.getCurrency()
         );
         orderEventPublisher.publish(event);
 
@@ -46,51 +75,121 @@ public class OrderService {
             saved.getId(), 
             saved.getStatus().name(), 
             saved.getPaymentStatus().name(),
-            saved.getAmount(),
+            Money.toDecimal(saved.getAmountMinor(), saved.getCurrency()),
+            saved.getAmountMinor(),
+            saved.getCurrency(),
             saved.getCreatedAt(), 
-            savedProductIds
+            savedProductIds,
+            saved.getVersion()
         );
     }
 
+    @Transactional(readOnly = true)
     public Optional<OrderResponse> getOrderById(Long id) {
-        return orderRepository.findById(id)
-                .map(o -> {
-                    List<Long> ids = o.getProductIds() == null ? List.of() : o.getProductIds();
-                    return new OrderResponse(
-                        o.getId(), 
-                        o.getStatus().name(), 
-                        o.getPaymentStatus() != null ? o.getPaymentStatus().name() : PaymentStatus.PENDING.name(),
-                        o.getAmount(),
-                        o.getCreatedAt(), 
-                        ids
-                    );
-                });
+        return readRouting.read(orderKey(id), () -> orderRepository.findById(id)).map(OrderService::toResponse);
+    }
+
+    /**
+     * Looks up every order in {@code ids} with one query, orders and product ids together.
+     * Results follow the request order, repeats included, with a not-found entry for each
+     * missing id.
+     */
+    @Transactional(readOnly = true)
+    public OrderBatchResponse getOrdersByIds(List<Long> ids) {
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        List<String> keys = distinct.stream().map(OrderService::orderKey).toList();
+        List<Order> orders = readRouting.read(keys, () -> orderRepository.findAllWithProductsByIdIn(distinct));
+
+        Map<Long, OrderResponse> byId = new HashMap<>(orders.size() * 2);
+        for (Order order : orders) {
+            byId.put(order.getId(), toResponse(order));
+        }
+        List<OrderBatchResponse.Entry> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            results.add(OrderBatchResponse.Entry.of(id, byId.get(id)));
+        }
+        return new OrderBatchResponse(results);
+    }
+
+    /** Current version of the order for conditional GETs, without loading the order itself. */
+    @Transactional(readOnly = true)
+    public Optional<Long> getOrderVersion(Long id) {
+        return readRouting.read(orderKey(id), () -> orderRepository.findVersionById(id));
+    }
+
+    /**
+     * Applies a payment outcome to the order as a single conditional UPDATE.
+     * Duplicate or out-of-order payment events are reported as REJECTED instead of
+     * overwriting a later state.
+     */
+    @Transactional
+    public TransitionResult applyPaymentStatus(Long orderId, PaymentStatus paymentStatus) {
+        OrderStatus target = switch (paymentStatus) {
+            case PENDING -> OrderStatus.PAYMENT_PENDING;
+            case COMPLETED, PAID -> OrderStatus.PAID;
+            case FAILED -> OrderStatus.PAYMENT_FAILED;
+            default -> throw new IllegalArgumentException("No order transition for payment status " + paymentStatus);
+        };
+        return transition(orderId, target, paymentStatus);
     }
 
+    /**
+     * Current status from the primary, e.g. to tell why a payment outcome was REJECTED. Not routed
+     * to the replica, which may not have replayed the change behind the rejection yet.
+     */
     @Transactional
-    public Optional<OrderResponse> updatePaymentStatus(Long orderId, String paymentStatus) {
-        return orderRepository.findById(orderId)
-                .map(order -> {
-                    PaymentStatus newStatus = PaymentStatus.valueOf(paymentStatus);
-                    order.setPaymentStatus(newStatus);
-                    
-                    // Also update order status based on payment
-                    if (newStatus == PaymentStatus.COMPLETED) {
-                        order.setStatus(OrderStatus.PAID);
-                    } else if (newStatus == PaymentStatus.FAILED) {
-                        order.setStatus(OrderStatus.PAYMENT_FAILED);
-                    }
-                    
-                    Order saved = orderRepository.save(order);
-                    List<Long> ids = saved.getProductIds() == null ? List.of() : saved.getProductIds();
-                    return new OrderResponse(
-                        saved.getId(),
-                        saved.getStatus().name(),
-                        saved.getPaymentStatus().name(),
-                        saved.getAmount(),
-                        saved.getCreatedAt(),
-                        ids
-                    );
-                });
+    public Optional<OrderStatus> getOrderStatus(Long orderId) {
+        return orderRepository.findStatusById(orderId);
+    }
+
+    private TransitionResult transition(Long orderId, OrderStatus target, PaymentStatus paymentStatus) {
+        int updated = orderRepository.transition(orderId, target.allowedFrom(), target, paymentStatus);
+        if (updated == 1) {
+            readRouting.recordWrite(orderKey(orderId));
+            if (target == OrderStatus.PAID) {
+                orderExpiry.cancel(orderId);
+            }
+            return TransitionResult.APPLIED;
+        }
+        // Only the unhappy path pays for a second query
+        return orderRepository.existsById(orderId) ? TransitionResult.REJECTED : TransitionResult.NOT_FOUND;
+    }
+
+    private static long amountMinor(CreateOrderRequest request, String currency) {
+        long amountMinor;
+        if (request.amountMinor() != null) {
+            amountMinor = request.amountMinor();
+        } else if (request.amount() != null) {
+            try {
+                amountMinor = Money.fromDecimal(request.amount(), currency);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("amount " + request.amount() + " is not a whole number of " + currency + " minor units");
+            }
+        } else {
+            throw new IllegalArgumentException("amountMinor or amount is required");
+        }
+        if (amountMinor < 0) {
+            throw new IllegalArgumentException("amount must not be negative");
+        }
+        return amountMinor;
+    }
+
+    static OrderResponse toResponse(Order o) {
+        List<Long> ids = o.getProductIds() == null ? List.of() : o.getProductIds();
+        return new OrderResponse(
+            o.getId(),
+            o.getStatus().name(),
+            o.getPaymentStatus() != null ? o.getPaymentStatus().name() : PaymentStatus.PENDING.name(),
+            Money.toDecimal(o.getAmountMinor(), o.getCurrency()),
+            o.getAmountMinor(),
+            o.getCurrency(),
+            o.getCreatedAt(),
+            ids,
+            o.getVersion()
+        );
+    }
+
+    static String orderKey(Long orderId) {
+        return "order:" + orderId;
     }
 }
@@ -0,0 +1,140 @@
+package com.sj.ecommerce.order_service.service;
+
+import com.ecommerce.contracts.events.OrderCreatedV2;
+import com.ecommerce.contracts.events.OrderExpiredV2;
+import com.ecommerce.contracts.events.PaymentCompletedV1;
+import com.ecommerce.contracts.events.PaymentCompletedV2;
+import com.ecommerce.contracts.events.PaymentFailedV1;
+import com.ecommerce.contracts.events.PaymentFailedV2;
+import com.ecommerce.contracts.events.PaymentInitiatedV2;
+import com.ecommerce.contracts.money.ContractVersions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sj.ecommerce.common.warmup.WarmUpStep;
+import com.sj.ecommerce.common.warmup.WarmUpWorkload;
+import com.sj.ecommerce.order_service.dto.OrderBatchResponse;
+import com.sj.ecommerce.order_service.dto.OrderResponse;
+import com.sj.ecommerce.order_service.enitity.Order;
+import com.sj.ecommerce.order_service.enitity.OrderStatus;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * What a new instance would otherwise warm up on its first real requests and messages, run by
+ * WarmUp (common/service-support) before traffic is let in, against sinks that discard the output:
+ *
+ * - payment events are read in both contract versions and order events written, with the
+ *   ObjectMapper the listener and publisher use
+ * - Order to OrderResponse mapping, and its JSON through the MVC JsonMapper
+ * - the read queries behind GET /orders/{id}, GET /orders?ids= and the ETag check, for ids
+ *   that never exist
+ *
+ * The in-memory steps run warmup.iterations times, enough for the JIT to compile them, and the
+ * queries warmup.query-iterations times. Each step stops early once the thread is interrupted.
+ * The Hikari pools are already filled by then, by ConnectionPoolWarmUp.
+ */
+@Component
+public class OrderWarmUp implements WarmUpWorkload {
+
+    // Identity ids are positive, so these never match a row
+    private static final Long MISSING_ID = -1L;
+    private static final List<Long> MISSING_IDS = List.of(-1L, -2L);
+
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<JsonMapper> jsonMapper;
+    private final OrderService orderService;
+    private final int iterations;
+    private final int queryIterations;
+
+    public OrderWarmUp(ObjectMapper objectMapper, ObjectProvider<JsonMapper> jsonMapper,
+                       OrderService orderService,
+                       @Value("${warmup.iterations:10000}") int iterations,
+                       @Value("${warmup.query-iterations:50}") int queryIterations) {
+        this.objectMapper = objectMapper;
+        this.jsonMapper = jsonMapper;
+        this.orderService = orderService;
+        this.iterations = iterations;
+        this.queryIterations = queryIterations;
+    }
+
+    @Override
+    public List<WarmUpStep> steps() {
+        return List.of(
+                new WarmUpStep("event serialization", this::events),
+                new WarmUpStep("response mapping", this::responses),
+                new WarmUpStep("read queries", this::queries));
+    }
+
+    private void events() throws IOException {
+        Instant now = Instant.now();
+        OrderCreatedV2 created = new OrderCreatedV2(UUID.randomUUID(), ContractVersions.V2, now,
+                MISSING_ID, MISSING_ID, 1999, "INR");
+        OrderExpiredV2 expired = new OrderExpiredV2(UUID.randomUUID(), ContractVersions.V2, now,
+                MISSING_ID, MISSING_ID, 1999, "INR", "warm-up");
+        PaymentCompletedV2 completed = new PaymentCompletedV2(UUID.randomUUID(), ContractVersions.V2, now,
+                MISSING_ID, MISSING_ID, MISSING_ID, 1999, "INR");
+        PaymentFailedV2 failed = new PaymentFailedV2(UUID.randomUUID(), ContractVersions.V2, now,
+                MISSING_ID, MISSING_ID, MISSING_ID, 1999, "INR", "warm-up");
+        PaymentInitiatedV2 initiated = new PaymentInitiatedV2(UUID.randomUUID(), ContractVersions.V2, now,
+                MISSING_ID, MISSING_ID, MISSING_ID, 1999, "INR", "order_warmup");
+        String initiatedV2 = objectMapper.writeValueAsString(initiated);
+        String completedV2 = objectMapper.writeValueAsString(completed);
+        String completedV1 = objectMapper.writeValueAsString(ContractVersions.downgrade(completed));
+        String failedV2 = objectMapper.writeValueAsString(failed);
+        String failedV1 = objectMapper.writeValueAsString(ContractVersions.downgrade(failed));
+
+        for (int i = 0; i < iterations && !interrupted(); i++) {
+            objectMapper.writeValue(OutputStream.nullOutputStream(), created);
+            objectMapper.writeValue(OutputStream.nullOutputStream(), expired);
+            // Same checks as PaymentEventListener, so the branches it takes are warm too
+            if (initiatedV2.contains("\"razorpayOrderId\"")) {
+                objectMapper.readValue(initiatedV2, PaymentInitiatedV2.class);
+            }
+            if (ContractVersions.isV2(completedV2) && !completedV2.contains("\"reason\"")) {
+                objectMapper.readValue(completedV2, PaymentCompletedV2.class);
+            }
+            if (!ContractVersions.isV2(completedV1)) {
+                ContractVersions.upgrade(objectMapper.readValue(completedV1, PaymentCompletedV1.class));
+            }
+            if (ContractVersions.isV2(failedV2) && failedV2.contains("\"reason\"")) {
+                objectMapper.readValue(failedV2, PaymentFailedV2.class);
+            }
+            if (!ContractVersions.isV2(failedV1)) {
+                ContractVersions.upgrade(objectMapper.readValue(failedV1, PaymentFailedV1.class));
+            }
+        }
+    }
+
+    private void responses() {
+        Order order = new Order(MISSING_ID, 1999, "INR", OrderStatus.CREATED, List.of(1L, 2L));
+        JsonMapper mapper = jsonMapper.getIfAvailable();
+        for (int i = 0; i < iterations && !interrupted(); i++) {
+            OrderResponse response = OrderService.toResponse(order);
+            if (mapper != null) {
+                mapper.writeValue(OutputStream.nullOutputStream(), response);
+                mapper.writeValue(OutputStream.nullOutputStream(), new OrderBatchResponse(List.of(
+                        OrderBatchResponse.Entry.of(response.id(), response),
+                        OrderBatchResponse.Entry.of(MISSING_ID, null))));
+            }
+        }
+    }
+
+    private void queries() {
+        for (int i = 0; i < queryIterations && !interrupted(); i++) {
+            orderService.getOrderById(MISSING_ID);
+            orderService.getOrdersByIds(MISSING_IDS);
+            orderService.getOrderVersion(MISSING_ID);
+        }
+    }
+
+    private static boolean interrupted() {
+        return Thread.currentThread().isInterrupted();
+    }
+}
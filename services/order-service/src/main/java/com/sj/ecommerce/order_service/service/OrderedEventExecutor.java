@@ -0,0 +1,169 @@
+package com.sj.ecommerce.order_service.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keyed executor that serializes work per order while running different orders in parallel.
+ *
+ * Keys are hashed onto a fixed set of lanes, each drained by one thread, so two events for the
+ * same order never run concurrently. Each lane holds an event for a short reorder window after
+ * it arrives and always runs the pending event with the earliest {@code occurredAt} first, which
+ * undoes the reordering SQS standard queues introduce between closely spaced events. Events
+ * arriving later than the window are still applied; the CAS transitions in {@link OrderService}
+ * keep those from moving an order backwards.
+ */
+@Component
+public class OrderedEventExecutor implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderedEventExecutor.class);
+
+    private final Lane[] lanes;
+    private final long reorderWindowNanos;
+
+    public OrderedEventExecutor(@Value("${listeners.ordered.lanes:8}") int lanes,
+                                @Value("${listeners.ordered.reorder-window-ms:100}") long reorderWindowMs) {
+        if (lanes < 1) {
+            throw new IllegalArgumentException("listeners.ordered.lanes must be positive");
+        }
+        this.reorderWindowNanos = TimeUnit.MILLISECONDS.toNanos(reorderWindowMs);
+        this.lanes = new Lane[lanes];
+        for (int i = 0; i < lanes; i++) {
+            this.lanes[i] = new Lane(i);
+        }
+    }
+
+    /**
+     * Queues {@code task} on the lane owning {@code key}. The returned future completes when the
+     * task has run, exceptionally if it threw.
+     */
+    public CompletableFuture<Void> submit(long key, Instant occurredAt, Runnable task) {
+        return laneFor(key).submit(occurredAt != null ? occurredAt : Instant.now(), task);
+    }
+
+    /** Events queued or waiting out the reorder window, over all lanes. */
+    public int pending() {
+        int total = 0;
+        for (Lane lane : lanes) {
+            total += lane.size();
+        }
+        return total;
+    }
+
+    @Override
+    public void close() {
+        for (Lane lane : lanes) {
+            lane.stop();
+        }
+    }
+
+    int laneIndex(long key) {
+        // Spread sequential order ids that would otherwise share low bits
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(h ^ (h >>> 32), (long) lanes.length);
+    }
+
+    private Lane laneFor(long key) {
+        return lanes[laneIndex(key)];
+    }
+
+    private record Pending(Instant occurredAt, long sequence, long releaseAtNanos,
+                           Runnable task, CompletableFuture<Void> future) {
+    }
+
+    private final class Lane implements Runnable {
+        private final PriorityQueue<Pending> queue = new PriorityQueue<>(
+                Comparator.comparing(Pending::occurredAt).thenComparingLong(Pending::sequence));
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private final Thread thread;
+        private long sequence;
+        private volatile boolean running = true;
+
+        Lane(int index) {
+            this.thread = new Thread(this, "order-lane-" + index);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        CompletableFuture<Void> submit(Instant occurredAt, Runnable task) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            lock.lock();
+            try {
+                if (!running) {
+                    future.completeExceptionally(new IllegalStateException("Executor is shut down"));
+                    return future;
+                }
+                queue.add(new Pending(occurredAt, sequence++, System.nanoTime() + reorderWindowNanos, task, future));
+                changed.signal();
+            } finally {
+                lock.unlock();
+            }
+            return future;
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return queue.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void stop() {
+            lock.lock();
+            try {
+                running = false;
+                queue.forEach(p -> p.future().completeExceptionally(new IllegalStateException("Executor is shut down")));
+                queue.clear();
+                changed.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                Pending next;
+                lock.lock();
+                try {
+                    next = queue.peek();
+                    if (next == null) {
+                        changed.await();
+                        continue;
+                    }
+                    long waitNanos = next.releaseAtNanos() - System.nanoTime();
+                    if (waitNanos > 0) {
+                        changed.awaitNanos(waitNanos);
+                        continue;
+                    }
+                    queue.poll();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    next.task().run();
+                    next.future().complete(null);
+                } catch (RuntimeException e) {
+                    log.debug("Ordered task failed on {}", thread.getName(), e);
+                    next.future().completeExceptionally(e);
+                }
+            }
+        }
+    }
+}
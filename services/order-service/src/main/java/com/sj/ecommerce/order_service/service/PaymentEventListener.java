@@ -1,19 +1,36 @@
 package com.sj.ecommerce.order_service.service;
 
 import com.ecommerce.contracts.events.PaymentCompletedV1;
+import com.ecommerce.contracts.events.PaymentCompletedV2;
 import com.ecommerce.contracts.events.PaymentFailedV1;
+import com.ecommerce.contracts.events.PaymentFailedV2;
+import com.ecommerce.contracts.events.PaymentInitiatedV2;
+import com.ecommerce.contracts.money.ContractVersions;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sj.ecommerce.common.profiling.HandlerEvent;
+import com.sj.ecommerce.order_service.enitity.OrderStatus;
+import com.sj.ecommerce.order_service.enitity.PaymentStatus;
 import io.awspring.cloud.sqs.annotation.SqsListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * SQS Listener for payment events using Spring Cloud AWS.
  * 
- * Listens to PaymentCompleted and PaymentFailed events published by Payment Service
- * and updates the order status accordingly.
+ * Listens to PaymentInitiated, PaymentCompleted and PaymentFailed events published by Payment
+ * Service and updates the order status accordingly; PaymentInitiated moves the order to
+ * PAYMENT_PENDING, which order expiry leaves alone. SQS messages are applied through
+ * {@link OrderedEventExecutor}, so events for one order run serially in occurredAt order
+ * while different orders run in parallel. Both contract versions are accepted; v1 events
+ * are upgraded to v2 on receipt. A PaymentCompleted for an order that already expired is
+ * logged at WARN and counted in orders.payment.captured.after.cancel, as it needs a refund.
  */
 @Component
 public class PaymentEventListener {
@@ -22,53 +39,154 @@ public class PaymentEventListener {
 
     private final ObjectMapper objectMapper;
     private final OrderService orderService;
+    private final OrderedEventExecutor orderedExecutor;
+    private final Counter capturedAfterCancel;
 
-    public PaymentEventListener(ObjectMapper objectMapper, OrderService orderService) {
+    public PaymentEventListener(ObjectMapper objectMapper, OrderService orderService,
+                                OrderedEventExecutor orderedExecutor, MeterRegistry meterRegistry) {
         this.objectMapper = objectMapper;
         this.orderService = orderService;
+        this.orderedExecutor = orderedExecutor;
+        this.capturedAfterCancel = Counter.builder("orders.payment.captured.after.cancel")
+                .description("PaymentCompleted events for orders that were already cancelled")
+                .register(meterRegistry);
     }
 
+    /**
+     * Returns once the event is queued on its order's lane; the message is acknowledged when
+     * the returned future completes and left for redelivery if it fails.
+     */
     @SqsListener(value = "${aws.sqs.payment-events-queue}")
-    public void listen(@Payload String message) {
+    public CompletableFuture<Void> listen(@Payload String message) {
+        log.info("Received SQS message: {}", message);
+        Object event;
+        Long orderId;
+        Instant occurredAt;
         try {
-            log.info("Received SQS message: {}", message);
-            
             // With Raw Message Delivery enabled, SQS receives the event JSON directly
-            // Determine event type by checking for "reason" field
-            if (message.contains("\"reason\"")) {
-                PaymentFailedV1 event = objectMapper.readValue(message, PaymentFailedV1.class);
-                handlePaymentFailed(event);
+            // Determine event type by checking for "razorpayOrderId" (initiated, v2 only) and
+            // "reason" (failed) fields, contract version by "amountMinor"
+            boolean v2 = ContractVersions.isV2(message);
+            if (message.contains("\"razorpayOrderId\"")) {
+                PaymentInitiatedV2 initiated = objectMapper.readValue(message, PaymentInitiatedV2.class);
+                event = initiated;
+                orderId = initiated.getOrderId();
+                occurredAt = initiated.getOccurredAt();
+            } else if (message.contains("\"reason\"")) {
+                PaymentFailedV2 failed = v2
+                        ? objectMapper.readValue(message, PaymentFailedV2.class)
+                        : ContractVersions.upgrade(objectMapper.readValue(message, PaymentFailedV1.class));
+                event = failed;
+                orderId = failed.getOrderId();
+                occurredAt = failed.getOccurredAt();
             } else {
-                PaymentCompletedV1 event = objectMapper.readValue(message, PaymentCompletedV1.class);
-                handlePaymentCompleted(event);
+                PaymentCompletedV2 completed = v2
+                        ? objectMapper.readValue(message, PaymentCompletedV2.class)
+                        : ContractVersions.upgrade(objectMapper.readValue(message, PaymentCompletedV1.class));
+                event = completed;
+                orderId = completed.getOrderId();
+                occurredAt = completed.getOccurredAt();
+            }
+            if (orderId == null) {
+                throw new IllegalArgumentException("Payment event without orderId");
             }
-
-            log.info("Payment event processed successfully");
         } catch (Exception e) {
             log.error("Error processing SQS message", e);
-            throw new RuntimeException("Failed to process message", e);
+            return CompletableFuture.failedFuture(new RuntimeException("Failed to process message", e));
+        }
+
+        return orderedExecutor.submit(orderId, occurredAt, () -> onEvent(event))
+                .whenComplete((ignored, e) -> {
+                    if (e != null) {
+                        log.error("Error processing payment event for orderId={}", orderId, e);
+                    } else {
+                        log.info("Payment event processed successfully");
+                    }
+                });
+    }
+
+    /**
+     * Transport-neutral entry point, also subscribed directly when events.transport=in-process.
+     */
+    public void onEvent(Object event) {
+        HandlerEvent profile = HandlerEvent.begin("PaymentEventListener", event.getClass().getSimpleName(), orderIdOf(event));
+        try {
+            dispatch(event);
+            profile.succeeded();
+        } finally {
+            profile.finish();
+        }
+    }
+
+    private void dispatch(Object event) {
+        if (event instanceof PaymentInitiatedV2 initiated) {
+            handlePaymentInitiated(initiated);
+        } else if (event instanceof PaymentCompletedV2 completed) {
+            handlePaymentCompleted(completed);
+        } else if (event instanceof PaymentFailedV2 failed) {
+            handlePaymentFailed(failed);
+        } else if (event instanceof PaymentCompletedV1 completed) {
+            handlePaymentCompleted(ContractVersions.upgrade(completed));
+        } else if (event instanceof PaymentFailedV1 failed) {
+            handlePaymentFailed(ContractVersions.upgrade(failed));
+        } else {
+            throw new IllegalStateException("Unsupported payment event type: " + event.getClass().getName());
         }
     }
 
-    private void handlePaymentCompleted(PaymentCompletedV1 event) {
+    private static Long orderIdOf(Object event) {
+        return switch (event) {
+            case PaymentInitiatedV2 e -> e.getOrderId();
+            case PaymentCompletedV2 e -> e.getOrderId();
+            case PaymentFailedV2 e -> e.getOrderId();
+            case PaymentCompletedV1 e -> e.getOrderId();
+            case PaymentFailedV1 e -> e.getOrderId();
+            default -> null;
+        };
+    }
+
+    private void handlePaymentInitiated(PaymentInitiatedV2 event) {
+        log.info("Processing PaymentInitiated event: orderId={}, paymentId={}, razorpayOrderId={}, eventId={}",
+                 event.getOrderId(), event.getPaymentId(), event.getRazorpayOrderId(), event.getEventId());
+
+        switch (orderService.applyPaymentStatus(event.getOrderId(), PaymentStatus.PENDING)) {
+            case APPLIED -> log.info("Order {} is in checkout, status updated to PAYMENT_PENDING", event.getOrderId());
+            // Already paid or failed (events overtook each other), or expired before checkout started
+            case REJECTED -> log.info("Order {} already past this state, ignoring PaymentInitiated", event.getOrderId());
+            case NOT_FOUND -> log.warn("Order {} not found when processing PaymentInitiated", event.getOrderId());
+        }
+    }
+
+    private void handlePaymentCompleted(PaymentCompletedV2 event) {
         log.info("Processing PaymentCompleted event: orderId={}, paymentId={}, eventId={}", 
                  event.getOrderId(), event.getPaymentId(), event.getEventId());
 
-        orderService.updatePaymentStatus(event.getOrderId(), "COMPLETED")
-                .ifPresentOrElse(
-                    order -> log.info("Order {} payment status updated to COMPLETED", event.getOrderId()),
-                    () -> log.warn("Order {} not found when processing PaymentCompleted", event.getOrderId())
-                );
+        switch (orderService.applyPaymentStatus(event.getOrderId(), PaymentStatus.COMPLETED)) {
+            case APPLIED -> log.info("Order {} payment status updated to COMPLETED", event.getOrderId());
+            case REJECTED -> rejectedPaymentCompleted(event);
+            case NOT_FOUND -> log.warn("Order {} not found when processing PaymentCompleted", event.getOrderId());
+        }
     }
 
-    private void handlePaymentFailed(PaymentFailedV1 event) {
+    private void rejectedPaymentCompleted(PaymentCompletedV2 event) {
+        if (orderService.getOrderStatus(event.getOrderId()).orElse(null) == OrderStatus.CANCELLED) {
+            // Money was captured for an order that no longer exists; the payment has to be refunded
+            capturedAfterCancel.increment();
+            log.warn("Payment captured for cancelled order {}, refund required: paymentId={}, amountMinor={} {}",
+                    event.getOrderId(), event.getPaymentId(), event.getAmountMinor(), event.getCurrency());
+        } else {
+            log.info("Order {} already past this state, ignoring PaymentCompleted", event.getOrderId());
+        }
+    }
+
+    private void handlePaymentFailed(PaymentFailedV2 event) {
         log.info("Processing PaymentFailed event: orderId={}, paymentId={}, reason={}, eventId={}", 
                  event.getOrderId(), event.getPaymentId(), event.getReason(), event.getEventId());
 
-        orderService.updatePaymentStatus(event.getOrderId(), "FAILED")
-                .ifPresentOrElse(
-                    order -> log.info("Order {} payment status updated to FAILED", event.getOrderId()),
-                    () -> log.warn("Order {} not found when processing PaymentFailed", event.getOrderId())
-                );
+        switch (orderService.applyPaymentStatus(event.getOrderId(), PaymentStatus.FAILED)) {
+            case APPLIED -> log.info("Order {} payment status updated to FAILED", event.getOrderId());
+            case REJECTED -> log.info("Order {} already past this state, ignoring PaymentFailed", event.getOrderId());
+            case NOT_FOUND -> log.warn("Order {} not found when processing PaymentFailed", event.getOrderId());
+        }
     }
 }
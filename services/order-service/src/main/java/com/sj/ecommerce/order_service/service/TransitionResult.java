@@ -0,0 +1,15 @@
+package com.sj.ecommerce.order_service.service;
+
+/**
+ * Outcome of a conditional state transition.
+ */
+public enum TransitionResult {
+    APPLIED,
+    // Entity exists but its current state does not allow the transition (duplicate or late event)
+    REJECTED,
+    NOT_FOUND;
+
+    public boolean applied() {
+        return this == APPLIED;
+    }
+}
@@ -0,0 +1,53 @@
+package com.sj.ecommerce.order_service;
+
+import com.ecommerce.contracts.bus.EventBus;
+import com.ecommerce.contracts.bus.EventChannels;
+import com.ecommerce.contracts.events.PaymentCompletedV2;
+import com.ecommerce.contracts.money.ContractVersions;
+import com.sj.ecommerce.order_service.dto.CreateOrderRequest;
+import com.sj.ecommerce.order_service.dto.OrderResponse;
+import com.sj.ecommerce.order_service.enitity.OrderStatus;
+import com.sj.ecommerce.order_service.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** The whole service on the in-process profile (H2, no AWS): a payment event on the bus pays the order. */
+@SpringBootTest
+@ActiveProfiles("in-process")
+class InProcessEventsTest {
+
+	@Autowired
+	private EventBus eventBus;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Test
+	void paymentCompletedOnTheBusPaysTheOrder() throws InterruptedException {
+		OrderResponse order = orderService.createOrder(new CreateOrderRequest(42L, null, 9900L, "INR", List.of(7L)));
+
+		eventBus.publish(EventChannels.PAYMENT_EVENTS, "PaymentCompleted", new PaymentCompletedV2(UUID.randomUUID(),
+				ContractVersions.V2, Instant.now(), 5L, order.id(), 42L, 9900, "INR"));
+
+		assertEquals(Optional.of(OrderStatus.PAID), awaitStatus(order.id(), OrderStatus.PAID));
+	}
+
+	private Optional<OrderStatus> awaitStatus(Long orderId, OrderStatus expected) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		Optional<OrderStatus> status = orderService.getOrderStatus(orderId);
+		while (!status.equals(Optional.of(expected)) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+			status = orderService.getOrderStatus(orderId);
+		}
+		return status;
+	}
+}
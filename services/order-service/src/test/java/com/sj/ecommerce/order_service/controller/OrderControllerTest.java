@@ -0,0 +1,121 @@
+package com.sj.ecommerce.order_service.controller;
+
+import com.sj.ecommerce.order_service.dto.OrderBatchResponse;
+import com.sj.ecommerce.order_service.dto.OrderResponse;
+import com.sj.ecommerce.order_service.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class OrderControllerTest {
+
+	private final OrderService orderService = mock(OrderService.class);
+	private final MockMvc mvc = MockMvcBuilders.standaloneSetup(new OrderController(orderService, 3)).build();
+
+	@Test
+	void getReturnsVersionETag() throws Exception {
+		when(orderService.getOrderById(7L)).thenReturn(Optional.of(order(3L)));
+
+		mvc.perform(get("/orders/7"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", "\"7-3\""))
+				.andExpect(jsonPath("$.status").value("PAID"))
+				.andExpect(jsonPath("$.version").doesNotExist());
+	}
+
+	@Test
+	void matchingIfNoneMatchIsAnsweredFromTheVersionAlone() throws Exception {
+		when(orderService.getOrderVersion(7L)).thenReturn(Optional.of(3L));
+
+		mvc.perform(get("/orders/7").header("If-None-Match", "\"7-3\""))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string("ETag", "\"7-3\""))
+				.andExpect(content().string(""));
+
+		verify(orderService, never()).getOrderById(7L);
+	}
+
+	@Test
+	void staleIfNoneMatchGetsTheFullBody() throws Exception {
+		when(orderService.getOrderVersion(7L)).thenReturn(Optional.of(4L));
+		when(orderService.getOrderById(7L)).thenReturn(Optional.of(order(4L)));
+
+		mvc.perform(get("/orders/7").header("If-None-Match", "\"7-3\""))
+				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", "\"7-4\""));
+	}
+
+	@Test
+	void batchGetAnswersInRequestOrderWithNotFoundEntries() throws Exception {
+		when(orderService.getOrdersByIds(List.of(9L, 7L))).thenReturn(new OrderBatchResponse(List.of(
+				OrderBatchResponse.Entry.of(9L, null), OrderBatchResponse.Entry.of(7L, order(3L)))));
+
+		mvc.perform(get("/orders").param("ids", "9,7"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.results[0].id").value(9))
+				.andExpect(jsonPath("$.results[0].found").value(false))
+				.andExpect(jsonPath("$.results[1].found").value(true))
+				.andExpect(jsonPath("$.results[1].order.productIds[0]").value(1));
+	}
+
+	@Test
+	void batchGetOverTheCapIsRejected() throws Exception {
+		mvc.perform(get("/orders").param("ids", "1,2,3,4"))
+				.andExpect(status().isBadRequest());
+
+		verify(orderService, never()).getOrdersByIds(any());
+	}
+
+	@Test
+	void subPaisaAmountIsRejected() throws Exception {
+		when(orderService.createOrder(any())).thenThrow(new IllegalArgumentException("not a whole number of INR minor units"));
+
+		mvc.perform(post("/orders").header("X-User-Id", "1").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"userId\":1,\"amount\":19.999}"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void authenticatedUserReplacesTheBodyUserId() throws Exception {
+		when(orderService.createOrder(any())).thenReturn(order(0L));
+
+		mvc.perform(post("/orders").header("X-User-Id", "42").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"amountMinor\":9900}"))
+				.andExpect(status().isOk());
+		verify(orderService).createOrder(argThat(request -> request.userId() == 42L));
+
+		mvc.perform(post("/orders").header("X-User-Id", "42").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"userId\":7,\"amountMinor\":9900}"))
+				.andExpect(status().isForbidden());
+	}
+
+	@Test
+	void requestWithoutAuthenticatedUserIsRejected() throws Exception {
+		mvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON).content("{\"userId\":42,\"amountMinor\":9900}"))
+				.andExpect(status().isBadRequest());
+		verify(orderService, never()).createOrder(any());
+	}
+
+	private static OrderResponse order(Long version) {
+		return new OrderResponse(7L, "PAID", "COMPLETED", new BigDecimal("99.00"), 9900L, "INR", Instant.EPOCH, List.of(1L), version);
+	}
+}
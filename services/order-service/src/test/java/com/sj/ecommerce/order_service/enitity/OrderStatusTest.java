@@ -0,0 +1,33 @@
+package com.sj.ecommerce.order_service.enitity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderStatusTest {
+
+	@Test
+	void terminalStatesNeverRegress() {
+		for (OrderStatus target : OrderStatus.values()) {
+			assertFalse(OrderStatus.PAID.canTransitionTo(target), "PAID -> " + target);
+			assertFalse(OrderStatus.CANCELLED.canTransitionTo(target), "CANCELLED -> " + target);
+		}
+	}
+
+	@Test
+	void failedPaymentCanBeRetriedButNotRepeated() {
+		assertTrue(OrderStatus.PAYMENT_FAILED.canTransitionTo(OrderStatus.PAID));
+		assertFalse(OrderStatus.PAYMENT_FAILED.canTransitionTo(OrderStatus.PAYMENT_FAILED));
+		assertTrue(OrderStatus.CREATED.canTransitionTo(OrderStatus.PAYMENT_FAILED));
+	}
+
+	@Test
+	void expiryLeavesOrdersInCheckoutAlone() {
+		assertTrue(OrderStatus.CREATED.canTransitionTo(OrderStatus.PAYMENT_PENDING));
+		assertFalse(OrderStatus.PAYMENT_PENDING.canTransitionTo(OrderStatus.CANCELLED));
+		assertTrue(OrderStatus.PAYMENT_PENDING.canTransitionTo(OrderStatus.PAID));
+		assertTrue(OrderStatus.PAYMENT_PENDING.canTransitionTo(OrderStatus.PAYMENT_FAILED));
+		assertTrue(OrderStatus.PAYMENT_FAILED.canTransitionTo(OrderStatus.CANCELLED));
+	}
+}
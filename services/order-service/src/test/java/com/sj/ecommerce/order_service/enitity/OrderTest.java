@@ -0,0 +1,34 @@
+package com.sj.ecommerce.order_service.enitity;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Currency;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OrderTest {
+
+	@Test
+	void writesMinorUnitsAndTheLegacyColumn() {
+		Order order = new Order(1L, 1999, "INR", OrderStatus.CREATED, List.of(5L));
+
+		assertEquals(1999, order.getAmountMinor());
+		assertEquals("INR", order.getCurrency());
+		assertEquals(19.99, ReflectionTestUtils.getField(order, "legacyAmount"));
+		assertEquals(Currency.getInstance("INR"), ReflectionTestUtils.getField(order, "currency"));
+	}
+
+	@Test
+	void readsRowsWrittenBeforeAmountMinorExisted() {
+		Order legacy = new Order();
+		ReflectionTestUtils.setField(legacy, "legacyAmount", 0.1 + 0.2);
+
+		// Math.round(amount * 100) agrees here, but 1.005 * 100 would give 100
+		assertEquals(30, legacy.getAmountMinor());
+		assertEquals("INR", legacy.getCurrency());
+		ReflectionTestUtils.setField(legacy, "legacyAmount", 1.005);
+		assertEquals(101, legacy.getAmountMinor());
+	}
+}
@@ -0,0 +1,62 @@
+package com.sj.ecommerce.order_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedTimingWheelTest {
+
+	private static final long START = 1_000_000L;
+
+	private final HashedTimingWheel wheel = new HashedTimingWheel(Duration.ofMillis(100), 8, START);
+
+	@Test
+	void idsComeDueAtTheirDeadlineAndNotBefore() {
+		wheel.schedule(1L, START + 250);
+		wheel.schedule(2L, START + 500);
+
+		assertTrue(wheel.advanceTo(START + 200).isEmpty());
+		assertEquals(List.of(1L), wheel.advanceTo(START + 300));
+		assertEquals(List.of(2L), wheel.advanceTo(START + 500));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void deadlinesBeyondOneRevolutionWaitForTheirRound() {
+		// 8 buckets of 100ms: 2050ms lands in the same bucket as 450ms, two rounds later
+		wheel.schedule(1L, START + 2050);
+
+		assertTrue(wheel.advanceTo(START + 1000).isEmpty());
+		assertTrue(wheel.advanceTo(START + 2000).isEmpty());
+		assertEquals(List.of(1L), wheel.advanceTo(START + 2100));
+	}
+
+	@Test
+	void cancelledAndRescheduledIdsFireOnlyAtTheirLatestDeadline() {
+		wheel.schedule(1L, START + 200);
+		wheel.schedule(2L, START + 200);
+		assertTrue(wheel.cancel(1L));
+		wheel.schedule(2L, START + 600);
+
+		assertTrue(wheel.advanceTo(START + 300).isEmpty());
+		assertEquals(List.of(2L), wheel.advanceTo(START + 700));
+	}
+
+	@Test
+	void pastDeadlinesAndLongPausesAreCaughtUp() {
+		wheel.advanceTo(START + 1000);
+		wheel.schedule(1L, START);
+		wheel.schedule(2L, START + 1500);
+		wheel.schedule(3L, START + 9000);
+
+		List<Long> due = wheel.advanceTo(START + 5000);
+
+		assertEquals(2, due.size());
+		assertTrue(due.containsAll(List.of(1L, 2L)));
+		assertEquals(1, wheel.size());
+	}
+}
@@ -0,0 +1,62 @@
+package com.sj.ecommerce.order_service.service;
+
+import com.sj.ecommerce.common.warmup.WarmUpStep;
+import com.sj.ecommerce.order_service.config.JacksonConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderWarmUpTest {
+
+	private final OrderService orderService = mock(OrderService.class);
+
+	@Test
+	void everyStepRunsAgainstTheServicesOwnEventsAndResponses() throws Exception {
+		OrderWarmUp warmUp = new OrderWarmUp(new JacksonConfig().objectMapper(), jsonMapper(), orderService, 3, 2);
+
+		List<WarmUpStep> steps = warmUp.steps();
+		assertEquals(List.of("event serialization", "response mapping", "read queries"),
+				steps.stream().map(WarmUpStep::name).toList());
+		// Run directly rather than through WarmUpStep.runAll, so a failing step fails the test
+		for (WarmUpStep step : steps) {
+			step.task().run();
+		}
+
+		verify(orderService, times(2)).getOrderById(-1L);
+		verify(orderService, times(2)).getOrdersByIds(List.of(-1L, -2L));
+		verify(orderService, times(2)).getOrderVersion(-1L);
+	}
+
+	@Test
+	void stepsStopOnceInterrupted() throws Exception {
+		OrderWarmUp warmUp = new OrderWarmUp(new JacksonConfig().objectMapper(), jsonMapper(), orderService, 3, 2);
+		Thread.currentThread().interrupt();
+		try {
+			for (WarmUpStep step : warmUp.steps()) {
+				step.task().run();
+			}
+		} finally {
+			Thread.interrupted();
+		}
+
+		verify(orderService, times(0)).getOrderById(anyLong());
+		verify(orderService, times(0)).getOrdersByIds(anyList());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ObjectProvider<JsonMapper> jsonMapper() {
+		ObjectProvider<JsonMapper> provider = mock(ObjectProvider.class);
+		when(provider.getIfAvailable()).thenReturn(JsonMapper.builder().build());
+		return provider;
+	}
+}
@@ -0,0 +1,73 @@
+package com.sj.ecommerce.order_service.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderedEventExecutorTest {
+
+	private final OrderedEventExecutor executor = new OrderedEventExecutor(4, 100);
+
+	@AfterEach
+	void close() {
+		executor.close();
+	}
+
+	@Test
+	void eventsForOneOrderRunInOccurredAtOrderWithinTheWindow() throws Exception {
+		List<String> applied = new CopyOnWriteArrayList<>();
+		Instant t0 = Instant.parse("2025-01-01T00:00:00Z");
+
+		CompletableFuture<Void> failed = executor.submit(42L, t0.plusSeconds(2), () -> applied.add("failed"));
+		CompletableFuture<Void> completed = executor.submit(42L, t0.plusSeconds(1), () -> applied.add("completed"));
+		CompletableFuture.allOf(failed, completed).get(2, TimeUnit.SECONDS);
+
+		assertEquals(List.of("completed", "failed"), applied);
+	}
+
+	@Test
+	void differentOrdersRunInParallel() throws Exception {
+		CountDownLatch bothRunning = new CountDownLatch(2);
+		Runnable rendezvous = () -> {
+			bothRunning.countDown();
+			try {
+				assertTrue(bothRunning.await(2, TimeUnit.SECONDS));
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		};
+
+		long other = 2L;
+		while (executor.laneIndex(other) == executor.laneIndex(1L)) {
+			other++;
+		}
+		CompletableFuture<Void> first = executor.submit(1L, Instant.now(), rendezvous);
+		CompletableFuture<Void> second = executor.submit(other, Instant.now(), rendezvous);
+
+		CompletableFuture.allOf(first, second).get(3, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void failuresCompleteTheFutureExceptionallyAndKeepTheLaneAlive() throws Exception {
+		CompletableFuture<Void> failing = executor.submit(7L, Instant.now(), () -> {
+			throw new IllegalStateException("boom");
+		});
+		ExecutionException e = assertThrows(ExecutionException.class, () -> failing.get(2, TimeUnit.SECONDS));
+		assertInstanceOf(IllegalStateException.class, e.getCause());
+
+		executor.submit(7L, Instant.now(), () -> { }).get(2, TimeUnit.SECONDS);
+		assertEquals(0, executor.pending());
+	}
+}
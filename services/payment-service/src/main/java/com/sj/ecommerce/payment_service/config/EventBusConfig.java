@@ -0,0 +1,44 @@
+package com.sj.ecommerce.payment_service.config;
+
+import com.ecommerce.contracts.bus.EventBus;
+import com.ecommerce.contracts.bus.EventChannels;
+import com.ecommerce.contracts.bus.InProcessEventBus;
+import com.sj.ecommerce.common.events.SnsEventBus;
+import com.sj.ecommerce.payment_service.service.OrderEventListener;
+import io.awspring.cloud.sns.core.SnsTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+/**
+ * Selects the event transport with events.transport:
+ * - sns (default): publish to SNS, consume through @SqsListener
+ * - in-process: JVM-wide in-memory bus for tests (profile in src/test/resources); it never
+ *   reaches services running in another JVM
+ */
+@Configuration
+public class EventBusConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "events.transport", havingValue = "sns", matchIfMissing = true)
+    public EventBus snsEventBus(SnsTemplate snsTemplate,
+                                @Value("${aws.sns.topic-arn}") String paymentEventsTopicArn) {
+        return new SnsEventBus(snsTemplate, Map.of(EventChannels.PAYMENT_EVENTS, paymentEventsTopicArn));
+    }
+
+    // Shared with other services in the same JVM, so this context must not close it
+    @Bean(destroyMethod = "")
+    @ConditionalOnProperty(name = "events.transport", havingValue = "in-process")
+    public EventBus inProcessEventBus() {
+        return InProcessEventBus.shared();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "events.transport", havingValue = "in-process")
+    public EventBus.Subscription orderEventsSubscription(EventBus eventBus, OrderEventListener listener) {
+        return eventBus.subscribe(EventChannels.ORDER_EVENTS, listener::onEvent);
+    }
+}
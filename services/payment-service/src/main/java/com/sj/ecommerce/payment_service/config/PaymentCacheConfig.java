@@ -0,0 +1,92 @@
+package com.sj.ecommerce.payment_service.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.sj.ecommerce.payment_service.entity.Payment;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Hibernate second-level cache for {@link Payment}, on by default (payments.cache.enabled).
+ *
+ * - both regions are local Caffeine caches capped at payments.cache.max-entries and expired
+ *   payments.cache.ttl-seconds after being written, so a missed invalidation heals on its own
+ * - lookups by orderId resolve the id from the natural-id region, then the payment from the
+ *   entity region; see PaymentCacheInvalidator for how status changes evict them
+ * - payments.cache.requests{region, result=hit|miss} counts lookups per region
+ */
+@Configuration
+@ConditionalOnProperty(name = "payments.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class PaymentCacheConfig {
+
+    private static final List<String> REGIONS = List.of(Payment.CACHE_REGION, Payment.NATURAL_ID_CACHE_REGION);
+
+    @Bean
+    public CacheManager paymentCacheManager(@Value("${payments.cache.max-entries:10000}") long maxEntries,
+                                            @Value("${payments.cache.ttl-seconds:300}") long ttlSeconds) {
+        // Own URI so the regions are not shared with, or configured by, the provider's default manager
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("payment-service:payments"), getClass().getClassLoader());
+        for (String region : REGIONS) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maxEntries));
+            configuration.setExpireAfterWrite(OptionalLong.of(Duration.ofSeconds(ttlSeconds).toNanos()));
+            cacheManager.createCache(region, configuration);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer paymentCacheHibernateProperties(CacheManager paymentCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, "true");
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            properties.put(ConfigSettings.CACHE_MANAGER, paymentCacheManager);
+            // Regions are created above; anything else asking for one is a mapping mistake
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            // Region hit/miss counts for the metrics below
+            properties.put(AvailableSettings.GENERATE_STATISTICS, "true");
+        };
+    }
+
+    @Bean
+    public MeterBinder paymentCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            for (String region : REGIONS) {
+                register(registry, statistics, region, "hit", CacheRegionStatistics::getHitCount);
+                register(registry, statistics, region, "miss", CacheRegionStatistics::getMissCount);
+            }
+        };
+    }
+
+    private static void register(MeterRegistry registry, Statistics statistics,
+                                 String region, String result, ToDoubleFunction<CacheRegionStatistics> count) {
+        FunctionCounter.builder("payments.cache.requests", statistics,
+                        s -> count.applyAsDouble(s.getDomainDataRegionStatistics(region)))
+                .tag("region", region)
+                .tag("result", result)
+                .description("Payment second-level cache lookups")
+                .register(registry);
+    }
+}
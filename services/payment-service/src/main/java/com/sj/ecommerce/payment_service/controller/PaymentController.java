@@ -1,34 +1,158 @@
 package com.sj.ecommerce.payment_service.controller;
 
 import com.sj.ecommerce.payment_service.dto.CreatePaymentRequest;
+import com.sj.ecommerce.payment_service.dto.PaymentBatchResponse;
+import com.sj.ecommerce.payment_service.dto.PaymentMetricsResponse;
 import com.sj.ecommerce.payment_service.dto.PaymentResponse;
+import com.sj.ecommerce.payment_service.service.PaymentExporter;
+import com.sj.ecommerce.payment_service.service.PaymentMetrics;
 import com.sj.ecommerce.payment_service.service.PaymentService;
 import com.sj.ecommerce.payment_service.dto.RazorpayOrderResponse;
 import com.razorpay.RazorpayException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.net.URI;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/payments")
 public class PaymentController {
+    static final String USER_ID_HEADER = "X-User-Id";
+
     private final PaymentService paymentService;
+    private final PaymentMetrics paymentMetrics;
+    private final PaymentExporter paymentExporter;
+    private final Duration maxExportSpan;
+    private final int maxBatchIds;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, PaymentMetrics paymentMetrics,
+                             PaymentExporter paymentExporter,
+                             @Value("${payments.export.max-span:31d}") Duration maxExportSpan,
+                             @Value("${payments.batch.max-ids:200}") int maxBatchIds) {
         this.paymentService = paymentService;
+        this.paymentMetrics = paymentMetrics;
+        this.paymentExporter = paymentExporter;
+        this.maxExportSpan = maxExportSpan;
+        this.maxBatchIds = maxBatchIds;
     }
 
+    /**
+     * The gateway sets X-User-Id from the caller's verified token and it decides who is paying: a
+     * request without it is refused with 400, and a body userId naming someone else with 403. An idempotency key
+     * or order already used for another user's payment is refused with 409.
+     */
     @PostMapping
-    public ResponseEntity<PaymentResponse> createPayment(@RequestBody CreatePaymentRequest req) {
-        PaymentResponse resp = paymentService.createPayment(req);
-        return ResponseEntity.created(URI.create("/payments/" + resp.id())).body(resp);
+    public ResponseEntity<PaymentResponse> createPayment(@RequestBody CreatePaymentRequest req,
+                                                         @RequestHeader(name = USER_ID_HEADER) Long authenticatedUserId) {
+        if (req.userId() != null && !req.userId().equals(authenticatedUserId)) {
+            return ResponseEntity.status(403).build();
+        }
+        req = req.withUserId(authenticatedUserId);
+        try {
+            PaymentResponse resp = paymentService.createPayment(req);
+            return ResponseEntity.created(URI.create("/payments/" + resp.id())).body(resp);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        } catch (DataIntegrityViolationException ex) {
+            // A constraint the upsert does not resolve, e.g. a missing userId
+            return ResponseEntity.status(409).build();
+        } catch (PaymentService.IdempotencyKeyConflictException ex) {
+            return ResponseEntity.status(409).build();
+        }
+    }
+
+    /**
+     * Payments for many orders at once: {@code ?orderIds=1,2,3} resolves up to
+     * payments.batch.max-ids orders with one lookup. Entries come back in request order, orders
+     * without a payment marked found=false. 400 when orderIds is empty or over the cap.
+     */
+    @GetMapping(params = "orderIds")
+    public ResponseEntity<PaymentBatchResponse> getPaymentsByOrderIds(@RequestParam List<Long> orderIds) {
+        if (orderIds.isEmpty() || orderIds.size() > maxBatchIds || orderIds.contains(null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(paymentService.getPaymentsByOrderIds(orderIds));
+    }
+
+    /**
+     * Captured/failed counts, revenue and failure reasons over the last {@code minutes}, from
+     * in-memory counters; costs nothing on the database. Operators only: the api-gateway
+     * answers 404 for it.
+     */
+    @GetMapping("/metrics")
+    public PaymentMetricsResponse getMetrics(@RequestParam(defaultValue = "60") int minutes) {
+        return paymentMetrics.snapshot(minutes);
+    }
+
+    /**
+     * Payments created in [from, to) for reconciliation, as CSV (default) or NDJSON, gzipped when
+     * the client accepts it. Written on the request thread rather than as a StreamingResponseBody,
+     * so a long export is not cut off by the async request timeout.
+     * 400 for a bad range or format, 503 while payments.export.max-concurrent exports are running.
+     * Covers every user's payments, so the api-gateway answers 404 for it; operators call it directly.
+     */
+    @GetMapping("/export")
+    public void exportPayments(@RequestParam Instant from, @RequestParam Instant to,
+                               @RequestParam(defaultValue = "csv") String format,
+                               @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                               HttpServletResponse response) throws IOException, SQLException {
+        PaymentExporter.Format exportFormat;
+        try {
+            exportFormat = PaymentExporter.Format.of(format);
+        } catch (IllegalArgumentException ex) {
+            response.sendError(400, ex.getMessage());
+            return;
+        }
+        if (!from.isBefore(to) || Duration.between(from, to).compareTo(maxExportSpan) > 0) {
+            response.sendError(400, "need from < to, at most " + maxExportSpan + " apart");
+            return;
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        try {
+            paymentExporter.export(from, to, exportFormat, () -> {
+                response.setContentType(exportFormat.contentType() + ";charset=UTF-8");
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"payments-"
+                        + from.getEpochSecond() + "-" + to.getEpochSecond() + "." + exportFormat.extension() + "\"");
+                response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                if (gzip) {
+                    response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                    return new GZIPOutputStream(response.getOutputStream(), 8192);
+                }
+                return response.getOutputStream();
+            });
+        } catch (PaymentExporter.ExportBusyException ex) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "30");
+            response.sendError(503, ex.getMessage());
+        }
     }
 
+    /**
+     * Strong ETag from the payment's version column; If-None-Match gets a 304 after a version
+     * lookup alone.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<PaymentResponse> getPayment(@PathVariable Long id) {
+    public ResponseEntity<PaymentResponse> getPayment(@PathVariable Long id, WebRequest webRequest) {
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> version = paymentService.getPaymentVersion(id);
+            if (version.isPresent() && webRequest.checkNotModified(etag(id, version.get()))) {
+                // 304 and ETag already set on the response
+                return null;
+            }
+        }
         return paymentService.getPaymentById(id)
-                .map(ResponseEntity::ok)
+                .map(payment -> ResponseEntity.ok().eTag(etag(id, payment.version())).body(payment))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -74,4 +198,8 @@ public class PaymentController {
             return ResponseEntity.status(500).build();
         }
     }
+
+    private static String etag(Long id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
 }
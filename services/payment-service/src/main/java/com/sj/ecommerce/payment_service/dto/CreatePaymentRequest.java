@@ -1,3 +1,16 @@
 package com.sj.ecommerce.payment_service.dto;
 
-public record CreatePaymentRequest(Long orderId, Long userId, Double amount, String idempotencyKey) {}
+import java.math.BigDecimal;
+
+/**
+ * amountMinor (paise) and currency are preferred; a major-unit amount is still accepted and
+ * converted exactly. Currency defaults to INR. userId is always replaced by the authenticated
+ * user from the required X-User-Id header.
+ */
+public record CreatePaymentRequest(Long orderId, Long userId, BigDecimal amount, Long amountMinor, String currency,
+                                   String idempotencyKey) {
+
+    public CreatePaymentRequest withUserId(Long userId) {
+        return new CreatePaymentRequest(orderId, userId, amount, amountMinor, currency, idempotencyKey);
+    }
+}
@@ -0,0 +1,17 @@
+package com.sj.ecommerce.payment_service.dto;
+
+import java.util.List;
+
+/**
+ * Answer to GET /payments?orderIds=..., one entry per requested order id in request order. An
+ * order without a payment is an entry with found=false and no payment, rather than a gap.
+ */
+public record PaymentBatchResponse(List<Entry> results) {
+
+    public record Entry(Long orderId, boolean found, PaymentResponse payment) {
+
+        public static Entry of(Long orderId, PaymentResponse payment) {
+            return new Entry(orderId, payment != null, payment);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.sj.ecommerce.payment_service.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Payment outcomes since {@code from}, over {@code minutes} whole minutes including the current
+ * one. Amounts are in minor units per currency; successRatio is null when nothing completed.
+ */
+public record PaymentMetricsResponse(Instant from, int minutes, long succeeded, long failed, Double successRatio,
+                                     Map<String, Long> revenueMinor, Map<String, Long> failureReasons,
+                                     List<Minute> perMinute) {
+
+    public record Minute(Instant minute, long succeeded, long failed,
+                         Map<String, Long> revenueMinor, Map<String, Long> failureReasons) {}
+}
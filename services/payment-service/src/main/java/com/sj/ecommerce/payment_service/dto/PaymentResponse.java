@@ -1,5 +1,13 @@
 package com.sj.ecommerce.payment_service.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
 import java.time.Instant;
 
-public record PaymentResponse(Long id, Long orderId, Long userId, Double amount, String idempotencyKey, String status, Instant createdAt) {}
+/**
+ * amount is the exact major-unit form of amountMinor, kept for clients that predate it.
+ */
+public record PaymentResponse(Long id, Long orderId, Long userId, BigDecimal amount, long amountMinor, String currency,
+                              String idempotencyKey, String status, Instant createdAt,
+                              @JsonIgnore Long version) {}
@@ -1,27 +1,62 @@
 package com.sj.ecommerce.payment_service.entity;
 
 import jakarta.persistence.*;
-import java.time.Instant;
+import com.ecommerce.contracts.money.Money;
+import com.sj.ecommerce.common.persistence.CurrencyConverter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
+import java.time.Instant;
+import java.util.Currency;
+
+/**
+ * Cached in the second-level cache by id, and by orderId through the natural-id cache; see
+ * PaymentCacheConfig. Status changes go through PaymentRepository's native CAS updates, whose
+ * callers evict the affected payment via PaymentCacheInvalidator.
+ *
+ * Amounts are fixed-point: amount_minor in minor units (paise) plus currency. Rows that predate
+ * those columns are read from the legacy floating-point amount until LegacyAmountBackfill has
+ * filled them; the legacy column (NOT NULL in existing schemas) is still written.
+ */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Payment.CACHE_REGION)
+@NaturalIdCache(region = Payment.NATURAL_ID_CACHE_REGION)
 @Table(name = "payments", uniqueConstraints = {
         @UniqueConstraint(name = "uk_payments_idempotency_key", columnNames = "idempotency_key"),
         @UniqueConstraint(name = "uk_payments_order_id", columnNames = "order_id")
+}, indexes = {
+        // Range scans of GET /payments/export
+        @Index(name = "idx_payments_created_at", columnList = "created_at")
 })
 public class Payment {
 
+    public static final String CACHE_REGION = "payments";
+    public static final String NATURAL_ID_CACHE_REGION = "payments-natural-id";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "order_id", nullable = false, unique = true)
+    // One payment per order (uk_payments_order_id, see db/payments-unique-order-id.sql), never reassigned
+    @NaturalId
+    @Column(name = "order_id", nullable = false, updatable = false)
     private Long orderId;
 
     @Column(name = "user_id", nullable = false)
     private Long userId;
 
+    // Legacy floating-point amount, dual-written for readers that predate amount_minor
     @Column(name = "amount", nullable = false)
-    private Double amount;
+    private Double legacyAmount;
+
+    @Column(name = "amount_minor")
+    private Long amountMinor;
+
+    @Convert(converter = CurrencyConverter.class)
+    @Column(name = "currency", length = 3)
+    private Currency currency;
 
     @Column(name = "razorpay_order_id")
     private String razorpayOrderId;
@@ -39,21 +74,33 @@ public class Payment {
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
 
+    // Written only by the transition queries in PaymentRepository, read back by PaymentMetrics on startup
+    @Column(name = "status_changed_at", insertable = false, updatable = false)
+    private Instant statusChangedAt;
+
+    @Column(name = "failure_reason", insertable = false, updatable = false)
+    private String failureReason;
+
+    // Bumped by JPA on entity updates and by the conditional transition queries in PaymentRepository
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     public Payment() {}
 
-    public Payment(Long orderId, Long userId, Double amount, String idempotencyKey, PaymentStatus status, Instant createdAt) {
+    public Payment(Long orderId, Long userId, long amountMinor, String currency, String idempotencyKey, PaymentStatus status, Instant createdAt) {
         this.orderId = orderId;
         this.userId = userId;
-        this.amount = amount;
+        setAmount(amountMinor, currency);
         this.idempotencyKey = idempotencyKey;
         this.status = status;
         this.createdAt = createdAt;
     }
 
-    public Payment(Long orderId, Long userId, Double amount, String idempotencyKey, PaymentStatus status, Instant createdAt, String razorpayOrderId, Long razorpayAmount) {
+    public Payment(Long orderId, Long userId, long amountMinor, String currency, String idempotencyKey, PaymentStatus status, Instant createdAt, String razorpayOrderId, Long razorpayAmount) {
         this.orderId = orderId;
         this.userId = userId;
-        this.amount = amount;
+        setAmount(amountMinor, currency);
         this.idempotencyKey = idempotencyKey;
         this.status = status;
         this.createdAt = createdAt;
@@ -69,10 +116,6 @@ public class Payment {
         return orderId;
     }
 
-    public void setOrderId(Long orderId) {
-        this.orderId = orderId;
-    }
-
     public Long getUserId() {
         return userId;
     }
@@ -81,12 +124,22 @@ public class Payment {
         this.userId = userId;
     }
 
-    public Double getAmount() {
-        return amount;
+    /** Minor units; falls back to the legacy column for rows not yet backfilled. */
+    public long getAmountMinor() {
+        if (amountMinor != null) {
+            return amountMinor;
+        }
+        return legacyAmount == null ? 0L : Money.fromLegacyDouble(legacyAmount, getCurrency());
+    }
+
+    public String getCurrency() {
+        return currency == null ? Money.DEFAULT_CURRENCY : currency.getCurrencyCode();
     }
 
-    public void setAmount(Double amount) {
-        this.amount = amount;
+    public void setAmount(long amountMinor, String currency) {
+        this.currency = Currency.getInstance(currency);
+        this.amountMinor = amountMinor;
+        this.legacyAmount = Money.toLegacyDouble(amountMinor, currency);
     }
 
     public String getRazorpayOrderId() {
@@ -128,4 +181,16 @@ public class Payment {
     public void setCreatedAt(Instant createdAt) {
         this.createdAt = createdAt;
     }
+
+    public Instant getStatusChangedAt() {
+        return statusChangedAt;
+    }
+
+    public String getFailureReason() {
+        return failureReason;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
 }
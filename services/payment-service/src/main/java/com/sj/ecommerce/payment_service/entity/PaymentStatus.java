@@ -1,5 +1,8 @@
 package com.sj.ecommerce.payment_service.entity;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Payment status values for tracking payment lifecycle.
  */
@@ -9,5 +12,26 @@ public enum PaymentStatus {
     PAID,
     FAILED,
     REFUNDED,
-    CANCELLED
+    CANCELLED;
+
+    /**
+     * States a payment may move into this state from. Transitions are applied as
+     * {@code UPDATE ... WHERE status IN (allowedFrom)}, so duplicate webhooks race on the
+     * database rather than on a check-then-act in memory.
+     */
+    public Set<PaymentStatus> allowedFrom() {
+        return switch (this) {
+            case CREATED -> EnumSet.noneOf(PaymentStatus.class);
+            case PENDING -> EnumSet.of(CREATED);
+            // Razorpay may capture a retry after an earlier attempt failed
+            case PAID -> EnumSet.of(CREATED, PENDING, FAILED);
+            case FAILED -> EnumSet.of(CREATED, PENDING);
+            case REFUNDED -> EnumSet.of(PAID);
+            case CANCELLED -> EnumSet.of(CREATED, PENDING, FAILED);
+        };
+    }
+
+    public boolean canTransitionTo(PaymentStatus target) {
+        return target.allowedFrom().contains(this);
+    }
 }
@@ -0,0 +1,53 @@
+package com.sj.ecommerce.payment_service.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event around one Razorpay API call, including the SDK's or HTTP client's connection setup.
+ */
+@Name(RazorpayCallEvent.NAME)
+@Label("Razorpay Call")
+@Category({"Ecommerce", "Payment Service"})
+@Description("One request to the Razorpay API")
+@StackTrace(false)
+public class RazorpayCallEvent extends Event {
+
+    public static final String NAME = "ecommerce.payment.RazorpayCall";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Transport")
+    String transport;
+
+    @Label("Receipt")
+    String receipt;
+
+    @Label("Success")
+    boolean success;
+
+    public static RazorpayCallEvent begin(String operation, String transport, String receipt) {
+        RazorpayCallEvent event = new RazorpayCallEvent();
+        event.operation = operation;
+        event.transport = transport;
+        event.receipt = receipt;
+        event.begin();
+        return event;
+    }
+
+    public void succeeded() {
+        this.success = true;
+    }
+
+    public void finish() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
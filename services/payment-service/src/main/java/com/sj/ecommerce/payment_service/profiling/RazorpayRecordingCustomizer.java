@@ -0,0 +1,17 @@
+package com.sj.ecommerce.payment_service.profiling;
+
+import com.sj.ecommerce.common.profiling.JfrRecordingCustomizer;
+import jdk.jfr.Recording;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds {@link RazorpayCallEvent} to recordings started through /actuator/jfr.
+ */
+@Component
+public class RazorpayRecordingCustomizer implements JfrRecordingCustomizer {
+
+    @Override
+    public void customize(Recording recording) {
+        recording.enable(RazorpayCallEvent.NAME);
+    }
+}
@@ -0,0 +1,23 @@
+package com.sj.ecommerce.payment_service.repository;
+
+import com.sj.ecommerce.payment_service.entity.Payment;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Payment lookup by its natural id, orderId. Implemented by hand rather than derived, so the
+ * lookup goes through Hibernate's natural-id cache and then the entity cache instead of always
+ * issuing a query.
+ */
+public interface PaymentNaturalIdLookup {
+
+    Optional<Payment> findByOrderId(Long orderId);
+
+    /**
+     * Payments for each of {@code orderIds}, in the same order, with null where an order has no
+     * payment. Cached entries are served from the natural-id cache; the rest are loaded with a
+     * single IN query.
+     */
+    List<Payment> findByOrderIds(List<Long> orderIds);
+}
@@ -0,0 +1,30 @@
+package com.sj.ecommerce.payment_service.repository;
+
+import com.sj.ecommerce.payment_service.entity.Payment;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.List;
+import java.util.Optional;
+
+class PaymentNaturalIdLookupImpl implements PaymentNaturalIdLookup {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Payment> findByOrderId(Long orderId) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Payment.class).loadOptional(orderId);
+    }
+
+    @Override
+    public List<Payment> findByOrderIds(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.unwrap(Session.class).byMultipleNaturalId(Payment.class)
+                .withBatchSize(orderIds.size())
+                .multiLoad(orderIds);
+    }
+}
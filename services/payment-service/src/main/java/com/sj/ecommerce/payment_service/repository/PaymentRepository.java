@@ -1,12 +1,179 @@
 package com.sj.ecommerce.payment_service.repository;
 
 import com.sj.ecommerce.payment_service.entity.Payment;
+import com.sj.ecommerce.payment_service.entity.PaymentStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface PaymentRepository extends JpaRepository<Payment, Long> {
+public interface PaymentRepository extends JpaRepository<Payment, Long>, PaymentNaturalIdLookup {
+
+    /**
+     * Query space of the single-row CAS updates below. A bulk JPQL update, or a native one
+     * without declared spaces, would make Hibernate drop the whole Payment cache region on
+     * every status change; under this placeholder space it drops nothing and the caller
+     * evicts just the payment it changed.
+     */
+    String CAS_QUERY_SPACE = "payments_cas";
+
+    /*
+     * Deliberately plain queries, not cached like findByOrderId: the webhook decides its CAS
+     * transition from the row it reads by Razorpay order id, which should not be a cached copy
+     * another instance has since changed, and recent idempotency keys are already answered by
+     * IdempotencyCache before this is reached.
+     */
     Optional<Payment> findByIdempotencyKey(String idempotencyKey);
-    Optional<Payment> findByOrderId(Long orderId);
     Optional<Payment> findByRazorpayOrderId(String razorpayOrderId);
+
+    /** Version column only, for ETag checks on GET /payments/{id}. */
+    @Query("SELECT p.version FROM Payment p WHERE p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Inserts a payment unless its idempotency key or its order already has one, and returns the
+     * row that does, in one round trip; the row owning the idempotency key wins if both exist.
+     * The order usually has one already, created from OrderCreated under its own key. Empty only
+     * when a concurrent insert committed after this statement's snapshot; callers then fall back
+     * to {@link #findByIdempotencyKey} and {@link #findByOrderId}.
+     * legacyAmount is the dual-written floating-point column, see Payment.
+     */
+    @Transactional
+    @Query(nativeQuery = true, value = """
+            WITH inserted AS (
+                INSERT INTO payments (order_id, user_id, amount, amount_minor, currency, idempotency_key, status, created_at, version)
+                VALUES (:orderId, :userId, :legacyAmount, :amountMinor, :currency, :idempotencyKey, :status, :createdAt, 0)
+                ON CONFLICT DO NOTHING
+                RETURNING *
+            )
+            SELECT * FROM inserted
+            UNION ALL
+            (SELECT * FROM payments
+              WHERE (idempotency_key = :idempotencyKey OR order_id = :orderId) AND NOT EXISTS (SELECT 1 FROM inserted)
+              ORDER BY idempotency_key = :idempotencyKey DESC
+              LIMIT 1)""")
+    Optional<Payment> insertOrFindByIdempotencyKey(@Param("orderId") Long orderId,
+                                                   @Param("userId") Long userId,
+                                                   @Param("legacyAmount") double legacyAmount,
+                                                   @Param("amountMinor") long amountMinor,
+                                                   @Param("currency") String currency,
+                                                   @Param("idempotencyKey") String idempotencyKey,
+                                                   @Param("status") String status,
+                                                   @Param("createdAt") Instant createdAt);
+
+    /**
+     * Compare-and-set status change; razorpayAmount is only filled in if still unset.
+     * Returns 1 when applied, 0 when the payment is missing or not in one of {@code from}.
+     * Callers evict the payment from the second-level cache, see {@link #CAS_QUERY_SPACE}.
+     */
+    default int transition(Long id, Collection<PaymentStatus> from, PaymentStatus target, Long razorpayAmount) {
+        return transition(id, from, target, razorpayAmount, null);
+    }
+
+    /** As above, also recording why the payment failed. */
+    default int transition(Long id, Collection<PaymentStatus> from, PaymentStatus target, Long razorpayAmount,
+                           String failureReason) {
+        return transitionStatus(id, names(from), target.name(), razorpayAmount, failureReason);
+    }
+
+    /**
+     * Attaches a Razorpay order and sets the status in the same conditional UPDATE. Only applies
+     * while no Razorpay order is attached, so of concurrent initiations and background
+     * pre-creation exactly one wins. Callers evict the payment from the second-level cache.
+     */
+    default int attachRazorpayOrder(Long id, Collection<PaymentStatus> from, PaymentStatus target,
+                                    String razorpayOrderId, Long razorpayAmount) {
+        return attachRazorpayOrderStatus(id, names(from), target.name(), razorpayOrderId, razorpayAmount);
+    }
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CAS_QUERY_SPACE))
+    @Query(nativeQuery = true, value = """
+            UPDATE payments
+               SET status = :target,
+                   razorpay_amount = COALESCE(razorpay_amount, :razorpayAmount),
+                   status_changed_at = now(),
+                   failure_reason = :failureReason,
+                   version = version + 1
+             WHERE id = :id AND status IN (:from)""")
+    int transitionStatus(@Param("id") Long id,
+                         @Param("from") Collection<String> from,
+                         @Param("target") String target,
+                         @Param("razorpayAmount") Long razorpayAmount,
+                         @Param("failureReason") String failureReason);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CAS_QUERY_SPACE))
+    @Query(nativeQuery = true, value = """
+            UPDATE payments
+               SET status = :target,
+                   razorpay_order_id = :razorpayOrderId,
+                   razorpay_amount = :razorpayAmount,
+                   status_changed_at = now(),
+                   version = version + 1
+             WHERE id = :id AND status IN (:from) AND razorpay_order_id IS NULL""")
+    int attachRazorpayOrderStatus(@Param("id") Long id,
+                                  @Param("from") Collection<String> from,
+                                  @Param("target") String target,
+                                  @Param("razorpayOrderId") String razorpayOrderId,
+                                  @Param("razorpayAmount") Long razorpayAmount);
+
+    /**
+     * Fills amount_minor/currency from the legacy floating-point amount for up to
+     * {@code batchSize} rows, see LegacyAmountBackfill. Legacy rows are all INR (scale 100);
+     * the float8 -> numeric cast keeps the shortest decimal form, so 19.99 becomes 1999.
+     * The amount a cached Payment reports does not change, so nothing is evicted.
+     */
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CAS_QUERY_SPACE))
+    @Query(nativeQuery = true, value = """
+            UPDATE payments
+               SET amount_minor = CAST(ROUND(CAST(amount AS numeric) * 100) AS bigint), currency = COALESCE(currency, 'INR')
+             WHERE id IN (SELECT id FROM payments WHERE amount_minor IS NULL LIMIT :batchSize)""")
+    int backfillAmountMinor(@Param("batchSize") int batchSize);
+
+    /**
+     * PAID and FAILED transitions in [since, until) per minute, currency and failure reason,
+     * to rebuild PaymentMetrics' window after a restart.
+     */
+    @Transactional(readOnly = true)
+    @Query(nativeQuery = true, value = """
+            SELECT CAST(FLOOR(EXTRACT(EPOCH FROM status_changed_at) / 60) AS bigint) AS "epochMinute",
+                   status AS "status",
+                   COALESCE(currency, 'INR') AS "currency",
+                   failure_reason AS "failureReason",
+                   COUNT(*) AS "payments",
+                   CAST(SUM(COALESCE(amount_minor, ROUND(CAST(amount AS numeric) * 100))) AS bigint) AS "amountMinor"
+              FROM payments
+             WHERE status IN ('PAID', 'FAILED') AND status_changed_at >= :since AND status_changed_at < :until
+             GROUP BY 1, 2, 3, 4""")
+    List<MinuteTotals> minuteTotals(@Param("since") Instant since, @Param("until") Instant until);
+
+    interface MinuteTotals {
+        Long getEpochMinute();
+
+        String getStatus();
+
+        String getCurrency();
+
+        String getFailureReason();
+
+        Long getPayments();
+
+        Long getAmountMinor();
+    }
+
+    private static List<String> names(Collection<PaymentStatus> statuses) {
+        return statuses.stream().map(PaymentStatus::name).toList();
+    }
 }
@@ -0,0 +1,111 @@
+package com.sj.ecommerce.payment_service.service;
+
+import com.sj.ecommerce.payment_service.dto.PaymentResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL-limited cache of (userId, idempotency key) -> PaymentResponse for createPayment.
+ *
+ * Retries of a recent request are answered from memory. Concurrent requests with the same key
+ * share a single in-flight load, so a retry storm costs at most one database call per instance.
+ * The caller is part of the key, so another user sending the same idempotency key never gets
+ * this user's payment from memory; it goes to the database, which checks the owner.
+ */
+@Component
+public class IdempotencyCache {
+
+    private record Key(Long userId, String idempotencyKey) {
+    }
+
+    private record Entry(PaymentResponse response, long expiresAtNanos) {
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<Key, CompletableFuture<PaymentResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<Key, Entry> entries;
+
+    public IdempotencyCache(@Value("${payments.idempotency-cache.max-entries:10000}") int maxEntries,
+                            @Value("${payments.idempotency-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        // Access-ordered so the least recently used key is evicted first
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > IdempotencyCache.this.maxEntries;
+            }
+        };
+    }
+
+    public PaymentResponse getOrLoad(Long userId, String idempotencyKey, Supplier<PaymentResponse> loader) {
+        Key key = new Key(userId, idempotencyKey);
+        PaymentResponse cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<PaymentResponse> mine = new CompletableFuture<>();
+        CompletableFuture<PaymentResponse> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            PaymentResponse response = loader.get();
+            put(key, response);
+            mine.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private PaymentResponse get(Key key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAtNanos() >= 0) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.response();
+        }
+    }
+
+    private void put(Key key, PaymentResponse response) {
+        synchronized (entries) {
+            entries.put(key, new Entry(response, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    private static PaymentResponse await(CompletableFuture<PaymentResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.sj.ecommerce.payment_service.service;
+
+import com.sj.ecommerce.common.backfill.BatchBackfill;
+import com.sj.ecommerce.payment_service.repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Second half of the dual-read money migration: fills amount_minor/currency for payments written
+ * before those columns existed, in small batches on a background thread after startup. Until
+ * a row is backfilled, Payment reads its legacy amount instead, so the job can stop and resume
+ * at any point; every instance may run it, the batches are idempotent.
+ */
+@Component
+public class LegacyAmountBackfill extends BatchBackfill {
+
+    public LegacyAmountBackfill(PaymentRepository paymentRepository,
+                                @Value("${payments.money.backfill.enabled:true}") boolean enabled,
+                                @Value("${payments.money.backfill.batch-size:1000}") int batchSize,
+                                @Value("${payments.money.backfill.pause-ms:200}") long pauseMillis) {
+        super("payment-amount-backfill", paymentRepository::backfillAmountMinor, enabled, batchSize, pauseMillis);
+    }
+}
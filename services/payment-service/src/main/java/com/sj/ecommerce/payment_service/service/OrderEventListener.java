@@ -1,7 +1,12 @@
 package com.sj.ecommerce.payment_service.service;
 
 import com.ecommerce.contracts.events.OrderCreatedV1;
+import com.ecommerce.contracts.events.OrderCreatedV2;
+import com.ecommerce.contracts.events.OrderExpiredV1;
+import com.ecommerce.contracts.events.OrderExpiredV2;
+import com.ecommerce.contracts.money.ContractVersions;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sj.ecommerce.common.profiling.HandlerEvent;
 import io.awspring.cloud.sqs.annotation.SqsListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,6 +17,7 @@ import org.springframework.stereotype.Component;
 /**
  * SQS Listener for order events using Spring Cloud AWS.
  * Replaces the manual polling approach with declarative @SqsListener annotation.
+ * Accepts both contract versions; v1 events are upgraded to v2 on receipt.
  */
 @Component
 public class OrderEventListener {
@@ -31,13 +37,57 @@ public class OrderEventListener {
         try {
             String messageBody = message.getPayload();
             log.info("Received SQS message: {}", messageBody);
-            OrderCreatedV1 event = objectMapper.readValue(messageBody, OrderCreatedV1.class);
-            paymentService.processOrderCreatedEvent(event);
-            
-            log.info("OrderCreated event processed successfully");
+            // OrderExpired is the only order event carrying a "reason" field
+            boolean v2 = ContractVersions.isV2(messageBody);
+            if (messageBody.contains("\"reason\"")) {
+                onEvent(v2 ? objectMapper.readValue(messageBody, OrderExpiredV2.class)
+                        : objectMapper.readValue(messageBody, OrderExpiredV1.class));
+            } else {
+                onEvent(v2 ? objectMapper.readValue(messageBody, OrderCreatedV2.class)
+                        : objectMapper.readValue(messageBody, OrderCreatedV1.class));
+            }
+
+            log.info("Order event processed successfully");
         } catch (Exception e) {
             log.error("Error processing SQS message", e);
             throw new RuntimeException("Failed to process message", e);
         }
     }
+
+    /**
+     * Transport-neutral entry point, also subscribed directly when events.transport=in-process.
+     */
+    public void onEvent(Object event) {
+        HandlerEvent profile = HandlerEvent.begin("OrderEventListener", event.getClass().getSimpleName(), orderIdOf(event));
+        try {
+            dispatch(event);
+            profile.succeeded();
+        } finally {
+            profile.finish();
+        }
+    }
+
+    private void dispatch(Object event) {
+        if (event instanceof OrderCreatedV2 orderCreated) {
+            paymentService.processOrderCreatedEvent(orderCreated);
+        } else if (event instanceof OrderExpiredV2 orderExpired) {
+            paymentService.processOrderExpiredEvent(orderExpired);
+        } else if (event instanceof OrderCreatedV1 orderCreated) {
+            paymentService.processOrderCreatedEvent(ContractVersions.upgrade(orderCreated));
+        } else if (event instanceof OrderExpiredV1 orderExpired) {
+            paymentService.processOrderExpiredEvent(ContractVersions.upgrade(orderExpired));
+        } else {
+            throw new IllegalStateException("Unsupported order event type: " + event.getClass().getName());
+        }
+    }
+
+    private static Long orderIdOf(Object event) {
+        return switch (event) {
+            case OrderCreatedV2 e -> e.getOrderId();
+            case OrderExpiredV2 e -> e.getOrderId();
+            case OrderCreatedV1 e -> e.getOrderId();
+            case OrderExpiredV1 e -> e.getOrderId();
+            default -> null;
+        };
+    }
 }
@@ -0,0 +1,149 @@
+package com.sj.ecommerce.payment_service.service;
+
+import com.sj.ecommerce.payment_service.entity.Payment;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evicts a payment from the second-level cache after a CAS update changed it.
+ *
+ * The payment is evicted straight away and again after commit, so a concurrent read in between
+ * cannot leave the old state cached. With payments.cache.invalidation=pg-notify the payment id
+ * is also sent with pg_notify inside the transaction; Postgres delivers it only on commit, to
+ * every instance listening on {@link #CHANNEL}, which then evicts it from its own cache. The
+ * default, local, relies on the region TTL to bound staleness on other instances.
+ */
+@Component
+public class PaymentCacheInvalidator implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentCacheInvalidator.class);
+
+    static final String CHANNEL = "payment_cache_invalidation";
+    private static final int POLL_TIMEOUT_MS = 5000;
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final EntityManager entityManager;
+    private final boolean pgNotify;
+    private final String jdbcUrl;
+    private final String username;
+    private final String password;
+    private final ExecutorService listener = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "payment-cache-listener");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PaymentCacheInvalidator(EntityManagerFactory entityManagerFactory,
+                                   @Value("${payments.cache.invalidation:local}") String invalidation,
+                                   @Value("${spring.datasource.url:}") String jdbcUrl,
+                                   @Value("${spring.datasource.username:}") String username,
+                                   @Value("${spring.datasource.password:}") String password) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        this.pgNotify = switch (invalidation) {
+            case "local" -> false;
+            case "pg-notify" -> true;
+            default -> throw new IllegalArgumentException(
+                    "payments.cache.invalidation must be local or pg-notify, was " + invalidation);
+        };
+        this.jdbcUrl = jdbcUrl;
+        this.username = username;
+        this.password = password;
+    }
+
+    /**
+     * Call after a CAS update on the payment, from inside its transaction when there is one.
+     */
+    public void evict(Long paymentId) {
+        evictLocally(paymentId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictLocally(paymentId);
+                }
+            });
+        }
+        if (pgNotify) {
+            entityManager.createNativeQuery("SELECT 1 FROM pg_notify(:channel, :paymentId)")
+                    .setParameter("channel", CHANNEL)
+                    .setParameter("paymentId", paymentId.toString())
+                    .getSingleResult();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListening() {
+        if (pgNotify) {
+            listener.execute(this::listen);
+        }
+    }
+
+    @Override
+    public void close() {
+        listener.shutdownNow();
+    }
+
+    /** Drops this instance's cached copy only, e.g. before re-reading a payment another writer changed. */
+    public void evictLocally(Long paymentId) {
+        entityManagerFactory.getCache().evict(Payment.class, paymentId);
+    }
+
+    private void listen() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try (Connection connection = DriverManager.getConnection(jdbcUrl, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // Notifications sent while disconnected are lost, so start from an empty region
+                entityManagerFactory.getCache().evict(Payment.class);
+                log.info("Listening for payment cache invalidations on channel={}", CHANNEL);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (!Thread.currentThread().isInterrupted()) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        apply(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                log.warn("Payment cache invalidation listener disconnected, reconnecting in {}ms", RECONNECT_DELAY_MS, e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void apply(String payload) {
+        try {
+            evictLocally(Long.parseLong(payload));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed payment cache invalidation payload={}", payload);
+        }
+    }
+}
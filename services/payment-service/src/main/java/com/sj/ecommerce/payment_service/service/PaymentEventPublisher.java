@@ -1,38 +1,41 @@
 package com.sj.ecommerce.payment_service.service;
 
-import com.ecommerce.contracts.events.PaymentCompletedV1;
-import com.ecommerce.contracts.events.PaymentFailedV1;
-import io.awspring.cloud.sns.core.SnsTemplate;
+import com.ecommerce.contracts.bus.EventBus;
+import com.ecommerce.contracts.bus.EventChannels;
+import com.ecommerce.contracts.events.PaymentCompletedV2;
+import com.ecommerce.contracts.events.PaymentFailedV2;
+import com.ecommerce.contracts.events.PaymentInitiatedV2;
+import com.ecommerce.contracts.money.ContractVersions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
- * Fire-and-forget SNS event publisher using Spring Cloud AWS SnsTemplate.
- * Publishes payment result events to SNS topic.
+ * Fire-and-forget payment event publisher.
+ * Publishes payment result events to the payment-events channel of the configured EventBus,
+ * as v2 contracts unless events.contract-version=1 (a v1-only consumer is still deployed).
  */
 @Service
 public class PaymentEventPublisher {
 
     private static final Logger log = LoggerFactory.getLogger(PaymentEventPublisher.class);
 
-    private final SnsTemplate snsTemplate;
+    private final EventBus eventBus;
+    private final boolean publishV1;
 
-    @Value("${aws.sns.topic-arn}")
-    private String snsTopicArn;
-
-    public PaymentEventPublisher(SnsTemplate snsTemplate) {
-        this.snsTemplate = snsTemplate;
+    public PaymentEventPublisher(EventBus eventBus, @Value("${events.contract-version:2}") int contractVersion) {
+        this.eventBus = eventBus;
+        this.publishV1 = contractVersion == 1;
     }
 
     /**
-     * Publishes PaymentCompleted event to SNS.
+     * Publishes PaymentCompleted event.
      * Fire-and-forget, no retries.
      */
-    public void publishPaymentCompleted(PaymentCompletedV1 event) {
+    public void publishPaymentCompleted(PaymentCompletedV2 event) {
         try {
-            snsTemplate.sendNotification(snsTopicArn, event, "PaymentCompleted");
+            eventBus.publish(EventChannels.PAYMENT_EVENTS, "PaymentCompleted", publishV1 ? ContractVersions.downgrade(event) : event);
             
             log.info("Published PaymentCompleted event for orderId={}, paymentId={}", 
                     event.getOrderId(), event.getPaymentId());
@@ -42,12 +45,31 @@ public class PaymentEventPublisher {
     }
 
     /**
-     * Publishes PaymentFailed event to SNS.
+     * Publishes PaymentInitiated event, so order-service stops expiry from cancelling an order
+     * that is in checkout. Fire-and-forget, no retries. There is no v1 form, and v1 consumers
+     * would take it for a PaymentCompleted, so it is skipped while events.contract-version=1.
+     */
+    public void publishPaymentInitiated(PaymentInitiatedV2 event) {
+        if (publishV1) {
+            return;
+        }
+        try {
+            eventBus.publish(EventChannels.PAYMENT_EVENTS, "PaymentInitiated", event);
+
+            log.info("Published PaymentInitiated event for orderId={}, razorpayOrderId={}",
+                    event.getOrderId(), event.getRazorpayOrderId());
+        } catch (Exception e) {
+            log.error("Failed to publish PaymentInitiated event: orderId={}", event.getOrderId(), e);
+        }
+    }
+
+    /**
+     * Publishes PaymentFailed event.
      * Fire-and-forget, no retries.
      */
-    public void publishPaymentFailed(PaymentFailedV1 event) {
+    public void publishPaymentFailed(PaymentFailedV2 event) {
         try {
-            snsTemplate.sendNotification(snsTopicArn, event, "PaymentFailed");
+            eventBus.publish(EventChannels.PAYMENT_EVENTS, "PaymentFailed", publishV1 ? ContractVersions.downgrade(event) : event);
             
             log.info("Published PaymentFailed event for orderId={}, reason={}", 
                     event.getOrderId(), event.getReason());
@@ -0,0 +1,297 @@
+package com.sj.ecommerce.payment_service.service;
+
+import com.ecommerce.contracts.money.Money;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Locale;
+
+/**
+ * Streams payments created in [from, to) as CSV or NDJSON straight from a JDBC cursor.
+ *
+ * - rows come from a forward-only, read-only cursor fetched payments.export.fetch-size at a
+ *   time, and are written as they arrive; memory use does not depend on the row count
+ * - the write blocks while the client is slow to read, which in turn holds back the next fetch
+ * - exports get their own small "export" Hikari pool on the replica when datasource.replica.url
+ *   is set, otherwise on the primary, so they never hold OLTP connections; with
+ *   payments.export.max-concurrent exports running, the next one fails fast with {@link ExportBusyException};
+ *   any other connection failure, e.g. the database being down, is thrown as is
+ * - CSV text cells starting with =, +, - or @ are written as '-prefixed text, so a spreadsheet
+ *   opening the file does not evaluate them as formulas
+ */
+@Component
+public class PaymentExporter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentExporter.class);
+
+    private static final String EXPORT_SQL = """
+            SELECT id, order_id, user_id,
+                   COALESCE(amount_minor, CAST(ROUND(CAST(amount AS numeric) * 100) AS bigint)) AS amount_minor,
+                   COALESCE(currency, 'INR') AS currency,
+                   razorpay_order_id, razorpay_amount, status, failure_reason, created_at, status_changed_at
+              FROM payments
+             WHERE created_at >= ? AND created_at < ?
+             ORDER BY created_at, id""";
+
+    static final String[] COLUMNS = {"id", "orderId", "userId", "amount", "amountMinor", "currency",
+            "razorpayOrderId", "razorpayAmount", "status", "failureReason", "createdAt", "statusChangedAt"};
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format of(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("format must be csv or ndjson, was " + name);
+            }
+        }
+    }
+
+    /** Opens the response body once a connection is secured, so a busy export can still be refused cleanly. */
+    @FunctionalInterface
+    public interface Output {
+        OutputStream open() throws IOException;
+    }
+
+    public static class ExportBusyException extends RuntimeException {
+        ExportBusyException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private final String jdbcUrl;
+    private final String username;
+    private final String password;
+    private final int fetchSize;
+    private final int maxConcurrent;
+    private final long acquireTimeoutMs;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private volatile HikariDataSource dataSource;
+
+    public PaymentExporter(@Value("${datasource.replica.url:${spring.datasource.url:}}") String jdbcUrl,
+                           @Value("${datasource.replica.username:${spring.datasource.username:}}") String username,
+                           @Value("${datasource.replica.password:${spring.datasource.password:}}") String password,
+                           @Value("${payments.export.fetch-size:1000}") int fetchSize,
+                           @Value("${payments.export.max-concurrent:2}") int maxConcurrent,
+                           @Value("${payments.export.acquire-timeout-ms:1000}") long acquireTimeoutMs) {
+        this.jdbcUrl = jdbcUrl;
+        this.username = username;
+        this.password = password;
+        this.fetchSize = fetchSize;
+        this.maxConcurrent = maxConcurrent;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    /**
+     * Writes every payment created in [from, to) and returns the row count.
+     *
+     * @throws ExportBusyException when all export connections are taken; nothing has been written
+     */
+    public long export(Instant from, Instant to, Format format, Output output) throws IOException, SQLException {
+        Connection connection;
+        try {
+            connection = dataSource().getConnection();
+        } catch (SQLException e) {
+            if (poolExhausted(e)) {
+                throw new ExportBusyException("No export connection available", e);
+            }
+            throw e;
+        }
+        try (connection) {
+            // The pool is read-only; the Postgres driver only uses a cursor, instead of reading
+            // the whole result, inside a transaction
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(EXPORT_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(fetchSize);
+                statement.setObject(1, from.atOffset(ZoneOffset.UTC));
+                statement.setObject(2, to.atOffset(ZoneOffset.UTC));
+                try (ResultSet rows = statement.executeQuery();
+                     Writer writer = new BufferedWriter(new OutputStreamWriter(output.open(), StandardCharsets.UTF_8), 64 * 1024)) {
+                    long count = write(format, rows, writer);
+                    log.info("Exported {} payments created in [{}, {}) as {}", count, from, to, format);
+                    return count;
+                }
+            } finally {
+                connection.rollback();
+            }
+        }
+    }
+
+    long write(Format format, ResultSet rows, Writer writer) throws SQLException, IOException {
+        return format == Format.CSV ? writeCsv(rows, writer) : writeNdjson(rows, writer);
+    }
+
+    private long writeCsv(ResultSet rows, Writer writer) throws SQLException, IOException {
+        StringBuilder line = new StringBuilder(256);
+        writer.write(String.join(",", COLUMNS));
+        writer.write('\n');
+        long count = 0;
+        while (rows.next()) {
+            line.setLength(0);
+            String currency = rows.getString("currency");
+            long amountMinor = rows.getLong("amount_minor");
+            line.append(rows.getLong("id")).append(',')
+                    .append(rows.getLong("order_id")).append(',')
+                    .append(rows.getLong("user_id")).append(',');
+            Money.appendTo(line, amountMinor, currency).append(',')
+                    .append(amountMinor).append(',')
+                    .append(currency).append(',');
+            appendCsv(line, rows.getString("razorpay_order_id")).append(',');
+            long razorpayAmount = rows.getLong("razorpay_amount");
+            if (!rows.wasNull()) {
+                line.append(razorpayAmount);
+            }
+            line.append(',').append(rows.getString("status")).append(',');
+            appendCsv(line, rows.getString("failure_reason")).append(',');
+            appendInstant(line, rows.getTimestamp("created_at")).append(',');
+            appendInstant(line, rows.getTimestamp("status_changed_at")).append('\n');
+            writer.append(line);
+            count++;
+        }
+        return count;
+    }
+
+    private long writeNdjson(ResultSet rows, Writer writer) throws SQLException, IOException {
+        StringBuilder amount = new StringBuilder(24);
+        long count = 0;
+        try (JsonGenerator json = jsonFactory.createGenerator(writer)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // One object per line, no separator between root values
+            json.setRootValueSeparator(null);
+            while (rows.next()) {
+                String currency = rows.getString("currency");
+                long amountMinor = rows.getLong("amount_minor");
+                amount.setLength(0);
+                json.writeStartObject();
+                json.writeNumberField(COLUMNS[0], rows.getLong("id"));
+                json.writeNumberField(COLUMNS[1], rows.getLong("order_id"));
+                json.writeNumberField(COLUMNS[2], rows.getLong("user_id"));
+                json.writeFieldName(COLUMNS[3]);
+                json.writeNumber(Money.appendTo(amount, amountMinor, currency).toString());
+                json.writeNumberField(COLUMNS[4], amountMinor);
+                json.writeStringField(COLUMNS[5], currency);
+                json.writeStringField(COLUMNS[6], rows.getString("razorpay_order_id"));
+                long razorpayAmount = rows.getLong("razorpay_amount");
+                if (rows.wasNull()) {
+                    json.writeNullField(COLUMNS[7]);
+                } else {
+                    json.writeNumberField(COLUMNS[7], razorpayAmount);
+                }
+                json.writeStringField(COLUMNS[8], rows.getString("status"));
+                json.writeStringField(COLUMNS[9], rows.getString("failure_reason"));
+                json.writeStringField(COLUMNS[10], instant(rows.getTimestamp("created_at")));
+                json.writeStringField(COLUMNS[11], instant(rows.getTimestamp("status_changed_at")));
+                json.writeEndObject();
+                json.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Hikari reports an acquisition timeout as SQLTransientConnectionException; when connections
+     * could not be opened at all, it carries the driver's failure as the cause.
+     */
+    static boolean poolExhausted(SQLException e) {
+        return e instanceof SQLTransientConnectionException && e.getCause() == null;
+    }
+
+    private static StringBuilder appendCsv(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        boolean formula = !value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0;
+        if (!formula && value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return line.append(value);
+        }
+        line.append('"');
+        if (formula) {
+            line.append('\'');
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        return line.append('"');
+    }
+
+    private static StringBuilder appendInstant(StringBuilder line, Timestamp timestamp) {
+        return timestamp == null ? line : line.append(timestamp.toInstant());
+    }
+
+    private static String instant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant().toString();
+    }
+
+    private HikariDataSource dataSource() {
+        HikariDataSource pool = dataSource;
+        if (pool == null) {
+            synchronized (this) {
+                if (dataSource == null) {
+                    HikariDataSource created = new HikariDataSource();
+                    created.setPoolName("export");
+                    created.setJdbcUrl(jdbcUrl);
+                    created.setUsername(username);
+                    created.setPassword(password);
+                    created.setReadOnly(true);
+                    created.setMinimumIdle(0);
+                    created.setMaximumPoolSize(maxConcurrent);
+                    created.setConnectionTimeout(acquireTimeoutMs);
+                    dataSource = created;
+                }
+                pool = dataSource;
+            }
+        }
+        return pool;
+    }
+
+    @Override
+    public void close() {
+        HikariDataSource pool = dataSource;
+        if (pool != null) {
+            pool.close();
+        }
+    }
+}
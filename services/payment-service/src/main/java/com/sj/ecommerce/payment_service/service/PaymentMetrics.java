@@ -0,0 +1,199 @@
+package com.sj.ecommerce.payment_service.service;
+
+import com.sj.ecommerce.payment_service.dto.PaymentMetricsResponse;
+import com.sj.ecommerce.payment_service.entity.PaymentStatus;
+import com.sj.ecommerce.payment_service.repository.PaymentRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live payment outcomes, kept in memory so dashboards never query the payments table.
+ *
+ * - webhook transitions to PAID and FAILED are counted after their transaction commits, into a
+ *   {@link RollingPaymentWindow} of payments.metrics.window-minutes one-minute buckets
+ * - GET /payments/metrics reads the buckets; the payments.window.* gauges cover the trailing
+ *   payments.metrics.gauge-window
+ * - on startup the window is refilled from status_changed_at/failure_reason, for transitions
+ *   committed before this instance started counting
+ * - failure reasons beyond payments.metrics.max-failure-reasons distinct values are counted
+ *   as "other", which bounds both memory and gauge cardinality
+ * - captures that arrive for an already cancelled payment are counted separately, as they
+ *   need a refund rather than a completed order
+ */
+@Component
+public class PaymentMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentMetrics.class);
+
+    static final String OTHER_REASON = "other";
+    static final String UNKNOWN_REASON = "unknown";
+
+    private final PaymentRepository paymentRepository;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final RollingPaymentWindow window;
+    private final int gaugeMinutes;
+    private final int maxFailureReasons;
+    private final Instant countingSince;
+    private final Set<String> currencies = ConcurrentHashMap.newKeySet();
+    private final Set<String> failureReasons = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public PaymentMetrics(PaymentRepository paymentRepository, MeterRegistry meterRegistry,
+                          @Value("${payments.metrics.window-minutes:60}") int windowMinutes,
+                          @Value("${payments.metrics.gauge-window:5m}") Duration gaugeWindow,
+                          @Value("${payments.metrics.max-failure-reasons:20}") int maxFailureReasons) {
+        this(paymentRepository, meterRegistry, Clock.systemUTC(), windowMinutes, gaugeWindow, maxFailureReasons);
+    }
+
+    PaymentMetrics(PaymentRepository paymentRepository, MeterRegistry meterRegistry, Clock clock,
+                   int windowMinutes, Duration gaugeWindow, int maxFailureReasons) {
+        this.paymentRepository = paymentRepository;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.window = new RollingPaymentWindow(windowMinutes);
+        this.gaugeMinutes = (int) Math.max(1, Math.min(windowMinutes, gaugeWindow.toMinutes()));
+        this.maxFailureReasons = maxFailureReasons;
+        this.countingSince = clock.instant();
+
+        Gauge.builder("payments.window.succeeded", this, m -> m.gaugeTotals().succeeded())
+                .description("Payments captured in the gauge window").register(meterRegistry);
+        Gauge.builder("payments.window.failed", this, m -> m.gaugeTotals().failed())
+                .description("Payments failed in the gauge window").register(meterRegistry);
+        Gauge.builder("payments.window.success.ratio", this, m -> successRatio(m.gaugeTotals()))
+                .description("Captured / (captured + failed) in the gauge window, NaN without outcomes")
+                .register(meterRegistry);
+    }
+
+    /** A payment was captured; call from inside its transaction when there is one. */
+    public void recordSucceeded(long amountMinor, String currency) {
+        afterCommit(() -> {
+            registerCurrency(currency);
+            window.recordSucceeded(currentMinute(), currency, 1, amountMinor);
+        });
+    }
+
+    /** A payment failed; call from inside its transaction when there is one. */
+    public void recordFailed(String reason) {
+        afterCommit(() -> window.recordFailed(currentMinute(), failureReason(reason), 1));
+    }
+
+    /**
+     * Money was captured for a payment whose order had already expired, so it was left CANCELLED
+     * and needs a refund; counted in payments.captured.after.cancel by where it was noticed.
+     * Counted straight away, since nothing is committed for it.
+     */
+    public void recordCapturedAfterCancel(String source) {
+        meterRegistry.counter("payments.captured.after.cancel", "source", source).increment();
+    }
+
+    /** Totals and per-minute series over the last {@code lastMinutes}, capped at the window size. */
+    public PaymentMetricsResponse snapshot(int lastMinutes) {
+        int span = Math.max(1, Math.min(lastMinutes, window.minutes()));
+        long now = currentMinute();
+        RollingPaymentWindow.MinuteTotals total = window.total(now, span);
+        List<PaymentMetricsResponse.Minute> series = window.minutes(now, span).stream()
+                .map(m -> new PaymentMetricsResponse.Minute(Instant.ofEpochSecond(m.epochMinute() * 60),
+                        m.succeeded(), m.failed(), m.revenueMinor(), m.failureReasons()))
+                .toList();
+        double ratio = successRatio(total);
+        return new PaymentMetricsResponse(Instant.ofEpochSecond((now - span + 1) * 60), span,
+                total.succeeded(), total.failed(), Double.isNaN(ratio) ? null : ratio, total.revenueMinor(),
+                total.failureReasons(), series);
+    }
+
+    /**
+     * Refills the window with transitions committed before this instance started counting. Rows
+     * stamped after that are already in memory, up to clock skew between here and the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Instant since = Instant.ofEpochSecond((currentMinute() - window.minutes() + 1) * 60);
+        try {
+            List<PaymentRepository.MinuteTotals> rows = paymentRepository.minuteTotals(since, countingSince);
+            for (PaymentRepository.MinuteTotals row : rows) {
+                if (PaymentStatus.PAID.name().equals(row.getStatus())) {
+                    registerCurrency(row.getCurrency());
+                    window.recordSucceeded(row.getEpochMinute(), row.getCurrency(), row.getPayments(),
+                            row.getAmountMinor() != null ? row.getAmountMinor() : 0);
+                } else {
+                    window.recordFailed(row.getEpochMinute(), failureReason(row.getFailureReason()), row.getPayments());
+                }
+            }
+            log.info("Payment metrics window rebuilt from {} aggregate rows since {}", rows.size(), since);
+        } catch (RuntimeException e) {
+            // Live counting goes on; the window fills up within window-minutes
+            log.warn("Could not rebuild payment metrics window from the database", e);
+        }
+    }
+
+    private RollingPaymentWindow.MinuteTotals gaugeTotals() {
+        return window.total(currentMinute(), gaugeMinutes);
+    }
+
+    private long currentMinute() {
+        return Math.floorDiv(clock.millis(), 60_000L);
+    }
+
+    private String failureReason(String reason) {
+        String normalized = reason == null || reason.isBlank() ? UNKNOWN_REASON : reason;
+        if (!failureReasons.contains(normalized)) {
+            if (failureReasons.size() >= maxFailureReasons) {
+                normalized = OTHER_REASON;
+            }
+            if (failureReasons.add(normalized)) {
+                String tag = normalized;
+                Gauge.builder("payments.window.failures", this,
+                                m -> m.gaugeTotals().failureReasons().getOrDefault(tag, 0L))
+                        .description("Payments failed in the gauge window, by reason")
+                        .tag("reason", tag)
+                        .register(meterRegistry);
+            }
+        }
+        return normalized;
+    }
+
+    private void registerCurrency(String currency) {
+        if (currencies.add(currency)) {
+            Gauge.builder("payments.window.revenue", this,
+                            m -> m.gaugeTotals().revenueMinor().getOrDefault(currency, 0L))
+                    .description("Captured amount in minor units (paise for INR) in the gauge window")
+                    .tag("currency", currency)
+                    .register(meterRegistry);
+        }
+    }
+
+    private static double successRatio(RollingPaymentWindow.MinuteTotals totals) {
+        long outcomes = totals.succeeded() + totals.failed();
+        return outcomes == 0 ? Double.NaN : (double) totals.succeeded() / outcomes;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package com.sj.ecommerce.payment_service.service;
 
-import com.ecommerce.contracts.events.OrderCreatedV1;
-import com.ecommerce.contracts.events.PaymentCompletedV1;
-import com.ecommerce.contracts.events.PaymentFailedV1;
+import com.ecommerce.contracts.events.OrderCreatedV2;
+import com.ecommerce.contracts.events.OrderExpiredV2;
+import com.ecommerce.contracts.events.PaymentCompletedV2;
+import com.ecommerce.contracts.events.PaymentFailedV2;
+import com.ecommerce.contracts.events.PaymentInitiatedV2;
+import com.ecommerce.contracts.money.ContractVersions;
+import com.ecommerce.contracts.money.Money;
+import com.sj.ecommerce.common.profiling.HandlerEvent;
+import com.sj.ecommerce.common.replica.ReadRouting;
 import com.sj.ecommerce.payment_service.dto.CreatePaymentRequest;
+import com.sj.ecommerce.payment_service.dto.PaymentBatchResponse;
 import com.sj.ecommerce.payment_service.dto.PaymentResponse;
 import com.sj.ecommerce.payment_service.dto.RazorpayOrderResponse;
 import com.sj.ecommerce.payment_service.entity.Payment;
@@ -15,12 +22,16 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.beans.factory.annotation.Value;
 
-import com.razorpay.RazorpayClient;
 import com.razorpay.RazorpayException;
-import com.razorpay.Order;
 import com.razorpay.Utils;
 import org.json.JSONObject;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -30,35 +41,96 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final PaymentEventPublisher eventPublisher;
+    private final RazorpayGateway razorpayGateway;
+    private final ReadRouting readRouting;
+    private final IdempotencyCache idempotencyCache;
+    private final RazorpayOrderPrecreator razorpayOrderPrecreator;
+    private final PaymentCacheInvalidator cacheInvalidator;
+    private final PaymentMetrics paymentMetrics;
 
     @Value("${razorpay.key-id:}")
     private String razorpayKeyId;
 
-    @Value("${razorpay.key-secret:}")
-    private String razorpayKeySecret;
-
     @Value("${razorpay.webhook-secret:}")
     private String razorpayWebhookSecret;
 
-    public PaymentService(PaymentRepository paymentRepository, PaymentEventPublisher eventPublisher) {
+    public PaymentService(PaymentRepository paymentRepository, PaymentEventPublisher eventPublisher,
+                          RazorpayGateway razorpayGateway, ReadRouting readRouting,
+                          IdempotencyCache idempotencyCache, RazorpayOrderPrecreator razorpayOrderPrecreator,
+                          PaymentCacheInvalidator cacheInvalidator, PaymentMetrics paymentMetrics) {
         this.paymentRepository = paymentRepository;
         this.eventPublisher = eventPublisher;
+        this.razorpayGateway = razorpayGateway;
+        this.readRouting = readRouting;
+        this.idempotencyCache = idempotencyCache;
+        this.razorpayOrderPrecreator = razorpayOrderPrecreator;
+        this.cacheInvalidator = cacheInvalidator;
+        this.paymentMetrics = paymentMetrics;
     }
 
+    /**
+     * Idempotent on {@code idempotencyKey}: recent keys are served from {@link IdempotencyCache},
+     * otherwise a single upsert statement either creates the payment or returns the existing one,
+     * which is also the case when the order already has a payment under another key.
+     * Not transactional itself: the upsert commits before its result is shared with waiting retries.
+     * A key or order that already belongs to another user's payment is refused with
+     * {@link IdempotencyKeyConflictException} rather than answered with that payment.
+     */
     public PaymentResponse createPayment(CreatePaymentRequest req) {
-        Optional<Payment> existing = paymentRepository.findByIdempotencyKey(req.idempotencyKey());
-        if (existing.isPresent()) {
-            Payment p = existing.get();
-            return new PaymentResponse(p.getId(), p.getOrderId(), p.getUserId(), p.getAmount(), p.getIdempotencyKey(), p.getStatus().name(), p.getCreatedAt());
+        if (req.idempotencyKey() == null || req.idempotencyKey().isBlank()) {
+            throw new IllegalArgumentException("idempotencyKey is required");
         }
-
-        Payment p = new Payment(req.orderId(), req.userId(), req.amount(), req.idempotencyKey(), PaymentStatus.PAID, Instant.now());
-        Payment saved = paymentRepository.save(p);
-        return new PaymentResponse(saved.getId(), saved.getOrderId(), saved.getUserId(), saved.getAmount(), saved.getIdempotencyKey(), saved.getStatus().name(), saved.getCreatedAt());
+        String currency = Money.currencyOrDefault(req.currency());
+        long amountMinor = amountMinor(req, currency);
+        return idempotencyCache.getOrLoad(req.userId(), req.idempotencyKey(), () -> {
+            Payment p = paymentRepository.insertOrFindByIdempotencyKey(req.orderId(), req.userId(),
+                            Money.toLegacyDouble(amountMinor, currency), amountMinor, currency,
+                            req.idempotencyKey(), PaymentStatus.PAID.name(), Instant.now())
+                    .or(() -> paymentRepository.findByIdempotencyKey(req.idempotencyKey()))
+                    .or(() -> paymentRepository.findByOrderId(req.orderId()))
+                    .orElseThrow(() -> new IllegalStateException("Payment vanished for idempotencyKey=" + req.idempotencyKey()));
+            if (!p.getUserId().equals(req.userId())) {
+                // Thrown inside the load, so nothing is cached for this caller
+                log.warn("paymentId={} for idempotencyKey/orderId requested by another userId={}", p.getId(), req.userId());
+                throw new IdempotencyKeyConflictException("idempotencyKey or order belongs to another user's payment");
+            }
+            recordWrite(p);
+            return toResponse(p);
+        });
     }
 
+    @Transactional(readOnly = true)
     public Optional<PaymentResponse> getPaymentById(Long id) {
-        return paymentRepository.findById(id).map(p -> new PaymentResponse(p.getId(), p.getOrderId(), p.getUserId(), p.getAmount(), p.getIdempotencyKey(), p.getStatus().name(), p.getCreatedAt()));
+        return readRouting.read(paymentKey(id), () -> paymentRepository.findById(id)).map(PaymentService::toResponse);
+    }
+
+    /**
+     * Payments for every order in {@code orderIds} in one lookup, in request order, repeats
+     * included, with a not-found entry for each order that has no payment.
+     */
+    @Transactional(readOnly = true)
+    public PaymentBatchResponse getPaymentsByOrderIds(List<Long> orderIds) {
+        List<Long> distinct = List.copyOf(new LinkedHashSet<>(orderIds));
+        List<String> keys = distinct.stream().map(PaymentService::orderPaymentKey).toList();
+        List<Payment> payments = readRouting.read(keys, () -> paymentRepository.findByOrderIds(distinct));
+
+        Map<Long, PaymentResponse> byOrderId = new HashMap<>(distinct.size() * 2);
+        for (Payment payment : payments) {
+            if (payment != null) {
+                byOrderId.put(payment.getOrderId(), toResponse(payment));
+            }
+        }
+        List<PaymentBatchResponse.Entry> results = new ArrayList<>(orderIds.size());
+        for (Long orderId : orderIds) {
+            results.add(PaymentBatchResponse.Entry.of(orderId, byOrderId.get(orderId)));
+        }
+        return new PaymentBatchResponse(results);
+    }
+
+    /** Current version of the payment for conditional GETs, without loading the payment itself. */
+    @Transactional(readOnly = true)
+    public Optional<Long> getPaymentVersion(Long id) {
+        return readRouting.read(paymentKey(id), () -> paymentRepository.findVersionById(id));
     }
 
     /**
@@ -66,7 +138,7 @@ public class PaymentService {
      * This method is transactional: payment persistence and publishing are done within the transaction.
      */
     @Transactional
-    public void processOrderCreatedEvent(OrderCreatedV1 event) {
+    public void processOrderCreatedEvent(OrderCreatedV2 event) {
         log.info("Processing OrderCreated event in PaymentService: orderId={}, eventId={}", event.getOrderId(), event.getEventId());
 
         Optional<Payment> existingPayment = paymentRepository.findByOrderId(event.getOrderId());
@@ -80,15 +152,47 @@ public class PaymentService {
         Payment payment = new Payment(
             event.getOrderId(),
             event.getUserId(),
-            event.getAmount(),
+            event.getAmountMinor(),
+            event.getCurrency(),
             idempotencyKey,
             PaymentStatus.CREATED,
             Instant.now()
         );
 
         Payment savedPayment = paymentRepository.save(payment);
+        recordWrite(savedPayment);
         log.info("Payment record created: paymentId={}, orderId={}, status=CREATED (awaiting user payment intent)", 
                  savedPayment.getId(), savedPayment.getOrderId());
+        razorpayOrderPrecreator.submit(savedPayment.getId());
+    }
+
+    /**
+     * The order expired before the user started checkout: cancel its payment if it is still
+     * CREATED, including when a Razorpay order was pre-created for it. Initiation publishes
+     * PaymentInitiated, which keeps order-service from expiring the order, so a PENDING payment
+     * only shows up here when expiry ran before that event landed; it is left as it is, since
+     * Razorpay may still capture it. One that was already captured is reported, as the customer
+     * paid for an order that no longer exists.
+     */
+    @Transactional
+    public void processOrderExpiredEvent(OrderExpiredV2 event) {
+        Optional<Payment> payment = paymentRepository.findByOrderId(event.getOrderId());
+        if (payment.isEmpty()) {
+            log.info("No payment for expired orderId={}, nothing to cancel", event.getOrderId());
+            return;
+        }
+        int updated = paymentRepository.transition(payment.get().getId(), EnumSet.of(PaymentStatus.CREATED),
+                PaymentStatus.CANCELLED, null);
+        if (updated == 1) {
+            recordStatusChange(payment.get());
+            log.info("Payment cancelled for expired order: paymentId={}, orderId={}", payment.get().getId(), event.getOrderId());
+        } else if (payment.get().getStatus() == PaymentStatus.PAID) {
+            paymentMetrics.recordCapturedAfterCancel("order-expired");
+            log.warn("Order expired after its payment was captured, refund required: paymentId={}, orderId={}",
+                    payment.get().getId(), event.getOrderId());
+        } else {
+            log.info("Payment for expired orderId={} is past CREATED, leaving it", event.getOrderId());
+        }
     }
 
     @Transactional
@@ -97,12 +201,17 @@ public class PaymentService {
         
         Payment payment = paymentRepository.findByOrderId(orderId)
             .orElseThrow(() -> new IllegalStateException("No payment record found for orderId=" + orderId));
+
+        // The order expired: never hand out a Razorpay order that could still be paid
+        if (payment.getStatus() == PaymentStatus.CANCELLED) {
+            throw new IllegalStateException("Cannot initiate payment for orderId=" + orderId + ", it was cancelled");
+        }
         
         // Idempotency: if already has Razorpay order, return existing details
         if (payment.getRazorpayOrderId() != null && !payment.getRazorpayOrderId().isBlank()) {
             log.info("Payment already has Razorpay order, returning existing: orderId={}, razorpayOrderId={}", 
                      orderId, payment.getRazorpayOrderId());
-            return new RazorpayOrderResponse(payment.getRazorpayOrderId(), payment.getRazorpayAmount(), razorpayKeyId);
+            return attachedOrder(payment);
         }
         
         // Only allow initiation from CREATED state
@@ -112,52 +221,99 @@ public class PaymentService {
         }
         
         // NOW we call Razorpay - user has explicitly clicked "Pay Now"
-        createAndAttachRazorpayOrder(payment);
-        
-        // Update status to PENDING (payment in progress)
-        payment.setStatus(PaymentStatus.PENDING);
-        paymentRepository.save(payment);
+        long amountPaise = payment.getAmountMinor();
+        String rzOrderId = razorpayGateway.createOrder(amountPaise, payment.getCurrency(), String.valueOf(payment.getOrderId()));
+
+        // CREATED -> PENDING together with the Razorpay fields, in one conditional UPDATE
+        int updated = paymentRepository.attachRazorpayOrder(payment.getId(), PaymentStatus.PENDING.allowedFrom(),
+                PaymentStatus.PENDING, rzOrderId, amountPaise);
+        if (updated == 0) {
+            // A concurrent initiation or background pre-creation won; hand back the order it attached
+            Payment current = reread(payment);
+            if (current.getRazorpayOrderId() == null) {
+                throw new IllegalStateException("Cannot initiate payment in status=" + current.getStatus());
+            }
+            log.info("Razorpay order {} already attached for orderId={}, discarding {}",
+                     current.getRazorpayOrderId(), orderId, rzOrderId);
+            return attachedOrder(current);
+        }
+        recordStatusChange(payment);
+        publishInitiated(payment, rzOrderId);
         
-        log.info("Payment initiated: orderId={}, razorpayOrderId={}, status=PENDING", 
-                 orderId, payment.getRazorpayOrderId());
+        log.info("Payment initiated: orderId={}, razorpayOrderId={}, status=PENDING", orderId, rzOrderId);
         
-        return new RazorpayOrderResponse(payment.getRazorpayOrderId(), payment.getRazorpayAmount(), razorpayKeyId);
+        return new RazorpayOrderResponse(rzOrderId, amountPaise, razorpayKeyId);
     }
 
     /**
-     * Create a Razorpay order for the given payment and persist the razorpay fields.
-     * This method uses the RAZORPAY_KEY_ID and RAZORPAY_KEY_SECRET environment variables.
+     * The Razorpay order already attached to {@code payment}. One pre-created in the background
+     * leaves the payment CREATED, so it is moved to PENDING here, keeping expiry away from it. If
+     * that transition loses, e.g. to a second "Pay Now" click, the order is still handed out as
+     * long as the payment is PENDING by then.
      */
-    private void createAndAttachRazorpayOrder(Payment payment) throws RazorpayException {
-        if (razorpayKeyId == null || razorpayKeyId.isBlank() || razorpayKeySecret == null || razorpayKeySecret.isBlank()) {
-            throw new IllegalStateException("Razorpay key id/secret not configured in environment variables");
-        }
-
-        RazorpayClient client = new RazorpayClient(razorpayKeyId, razorpayKeySecret);
-
-        // Amount must be in paise (integer)
-        long amountPaise = 0L;
-        if (payment.getAmount() != null) {
-            amountPaise = Math.round(payment.getAmount() * 100);
+    private RazorpayOrderResponse attachedOrder(Payment payment) {
+        if (payment.getStatus() == PaymentStatus.CREATED) {
+            if (transition(payment, PaymentStatus.PENDING, null).applied()) {
+                publishInitiated(payment, payment.getRazorpayOrderId());
+            } else {
+                Payment current = reread(payment);
+                if (current.getStatus() != PaymentStatus.PENDING) {
+                    // Expiry cancelled it since we read it
+                    throw new IllegalStateException("Cannot initiate payment for orderId=" + payment.getOrderId()
+                            + " in status=" + current.getStatus());
+                }
+            }
         }
+        return new RazorpayOrderResponse(payment.getRazorpayOrderId(), payment.getRazorpayAmount(), razorpayKeyId);
+    }
 
-        JSONObject orderRequest = new JSONObject();
-        orderRequest.put("amount", amountPaise);
-        orderRequest.put("currency", "INR");
-        orderRequest.put("receipt", String.valueOf(payment.getOrderId()));
-        orderRequest.put("payment_capture", 1);
-
-        Order order = client.orders.create(orderRequest);
+    /** The payment as another writer left it, read past this instance's cached copy. */
+    private Payment reread(Payment payment) {
+        cacheInvalidator.evictLocally(payment.getId());
+        return paymentRepository.findById(payment.getId())
+            .orElseThrow(() -> new IllegalStateException("Payment disappeared for orderId=" + payment.getOrderId()));
+    }
 
-        String rzOrderId = order.get("id").toString();
+    /** Only the caller whose CREATED -> PENDING transition applied publishes. */
+    private void publishInitiated(Payment payment, String razorpayOrderId) {
+        eventPublisher.publishPaymentInitiated(new PaymentInitiatedV2(
+            UUID.randomUUID(),
+            ContractVersions.V2,
+            Instant.now(),
+            payment.getId(),
+            payment.getOrderId(),
+            payment.getUserId(),
+            payment.getAmountMinor(),
+            payment.getCurrency(),
+            razorpayOrderId
+        ));
+    }
 
-        payment.setRazorpayOrderId(rzOrderId);
-        payment.setRazorpayAmount(amountPaise);
-        // Note: Status is set by the caller (initiatePayment), not here
+    /**
+     * @throws IllegalArgumentException for a missing, negative or sub-paisa amount
+     */
+    private static long amountMinor(CreatePaymentRequest req, String currency) {
+        long amountMinor;
+        if (req.amountMinor() != null) {
+            amountMinor = req.amountMinor();
+        } else if (req.amount() != null) {
+            try {
+                amountMinor = Money.fromDecimal(req.amount(), currency);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("amount " + req.amount() + " is not a whole number of " + currency + " minor units");
+            }
+        } else {
+            throw new IllegalArgumentException("amountMinor or amount is required");
+        }
+        if (amountMinor < 0) {
+            throw new IllegalArgumentException("amount must not be negative");
+        }
+        return amountMinor;
     }
 
+    @Transactional(readOnly = true)
     public Optional<RazorpayOrderResponse> getRazorpayOrderForOrderId(Long orderId) {
-        return paymentRepository.findByOrderId(orderId).map(p -> new RazorpayOrderResponse(
+        return readRouting.read(orderPaymentKey(orderId), () -> paymentRepository.findByOrderId(orderId)).map(p -> new RazorpayOrderResponse(
             p.getRazorpayOrderId(),
             p.getRazorpayAmount(),
             razorpayKeyId
@@ -165,10 +321,21 @@ public class PaymentService {
     }
 
     /**
-     * Handle Razorpay webhook for payment events. Idempotent: skips publishing if status already final.
+     * Handle Razorpay webhook for payment events. Idempotent: the status change is a conditional UPDATE,
+     * so of several concurrent duplicate webhooks only the one that applies it publishes an event.
      */
     @Transactional
     public void handleRazorpayWebhook(String payload, String signature) throws RazorpayException {
+        HandlerEvent profile = HandlerEvent.begin("PaymentService.handleRazorpayWebhook", null, null);
+        try {
+            applyWebhook(payload, signature, profile);
+            profile.succeeded();
+        } finally {
+            profile.finish();
+        }
+    }
+
+    private void applyWebhook(String payload, String signature, HandlerEvent profile) throws RazorpayException {
         if (razorpayWebhookSecret == null || razorpayWebhookSecret.isBlank()) {
             throw new IllegalStateException("Razorpay webhook secret not configured");
         }
@@ -178,6 +345,7 @@ public class PaymentService {
 
         JSONObject body = new JSONObject(payload);
         String event = body.optString("event", "");
+        profile.eventType(event);
         JSONObject paymentEntity = body.optJSONObject("payload") != null
                 ? body.getJSONObject("payload").optJSONObject("payment") != null
                     ? body.getJSONObject("payload").getJSONObject("payment").optJSONObject("entity")
@@ -203,46 +371,53 @@ public class PaymentService {
         }
 
         Payment payment = paymentOpt.get();
+        profile.orderId(payment.getOrderId());
 
         if ("payment.captured".equals(event)) {
-            if (PaymentStatus.PAID == payment.getStatus()) {
+            if (!transition(payment, PaymentStatus.PAID, amountPaise, null).applied()) {
+                if (payment.getStatus() == PaymentStatus.CANCELLED) {
+                    // PAID is not allowed from CANCELLED: the order is gone, the money has to go back
+                    paymentMetrics.recordCapturedAfterCancel("webhook");
+                    log.warn("payment.captured for cancelled paymentId={} orderId={} razorpayOrderId={}, refund required",
+                            payment.getId(), payment.getOrderId(), razorpayOrderId);
+                    return;
+                }
                 log.info("Skipping duplicate payment.captured for razorpayOrderId={}", razorpayOrderId);
                 return;
             }
-            payment.setStatus(PaymentStatus.PAID);
-            if (payment.getRazorpayAmount() == null && amountPaise != null) {
-                payment.setRazorpayAmount(amountPaise);
-            }
-            paymentRepository.save(payment);
+            paymentMetrics.recordSucceeded(payment.getAmountMinor(), payment.getCurrency());
 
-            PaymentCompletedV1 completedEvent = new PaymentCompletedV1(
+            PaymentCompletedV2 completedEvent = new PaymentCompletedV2(
                 UUID.randomUUID(),
-                "1.0",
+                ContractVersions.V2,
                 Instant.now(),
                 payment.getId(),
                 payment.getOrderId(),
                 payment.getUserId(),
-                payment.getAmount() != null ? payment.getAmount() : 0.0
+                payment.getAmountMinor(),
+                payment.getCurrency()
             );
             eventPublisher.publishPaymentCompleted(completedEvent);
             // Order Service will receive this event via SQS and update order status
         } else if ("payment.failed".equals(event)) {
-            if (PaymentStatus.FAILED == payment.getStatus()) {
-                log.info("Skipping duplicate payment.failed for razorpayOrderId={}", razorpayOrderId);
+            // error_reason is Razorpay's short code (e.g. payment_cancelled), error_description the text
+            String failureReason = paymentEntity.optString("error_reason", null);
+            if (!transition(payment, PaymentStatus.FAILED, null, failureReason).applied()) {
+                log.info("Skipping duplicate or late payment.failed for razorpayOrderId={}", razorpayOrderId);
                 return;
             }
-            payment.setStatus(PaymentStatus.FAILED);
-            paymentRepository.save(payment);
+            paymentMetrics.recordFailed(failureReason);
 
             String reason = paymentEntity.optString("error_description", "Payment failed");
-            PaymentFailedV1 failedEvent = new PaymentFailedV1(
+            PaymentFailedV2 failedEvent = new PaymentFailedV2(
                 UUID.randomUUID(),
-                "1.0",
+                ContractVersions.V2,
                 Instant.now(),
                 payment.getId(),
                 payment.getOrderId(),
                 payment.getUserId(),
-                payment.getAmount() != null ? payment.getAmount() : 0.0,
+                payment.getAmountMinor(),
+                payment.getCurrency(),
                 reason
             );
             eventPublisher.publishPaymentFailed(failedEvent);
@@ -251,4 +426,53 @@ public class PaymentService {
             log.info("Ignoring unsupported Razorpay event type: {}", event);
         }
     }
+
+    /**
+     * Conditional status change; only the caller that gets APPLIED may publish the resulting event.
+     */
+    private TransitionResult transition(Payment payment, PaymentStatus target, Long razorpayAmount) {
+        return transition(payment, target, razorpayAmount, null);
+    }
+
+    private TransitionResult transition(Payment payment, PaymentStatus target, Long razorpayAmount,
+                                        String failureReason) {
+        int updated = paymentRepository.transition(payment.getId(), target.allowedFrom(), target, razorpayAmount,
+                failureReason);
+        if (updated == 0) {
+            return TransitionResult.REJECTED;
+        }
+        recordStatusChange(payment);
+        return TransitionResult.APPLIED;
+    }
+
+    static PaymentResponse toResponse(Payment p) {
+        return new PaymentResponse(p.getId(), p.getOrderId(), p.getUserId(), Money.toDecimal(p.getAmountMinor(), p.getCurrency()),
+                p.getAmountMinor(), p.getCurrency(), p.getIdempotencyKey(), p.getStatus().name(), p.getCreatedAt(),
+                p.getVersion());
+    }
+
+    /** After a CAS update: the cached copy is stale, and reads should see the primary for a while. */
+    private void recordStatusChange(Payment payment) {
+        cacheInvalidator.evict(payment.getId());
+        recordWrite(payment);
+    }
+
+    private void recordWrite(Payment payment) {
+        readRouting.recordWrite(paymentKey(payment.getId()), orderPaymentKey(payment.getOrderId()));
+    }
+
+    private static String paymentKey(Long paymentId) {
+        return "payment:" + paymentId;
+    }
+
+    private static String orderPaymentKey(Long orderId) {
+        return "payment-order:" + orderId;
+    }
+
+    /** The idempotency key or the order is already taken by another user's payment. */
+    public static class IdempotencyKeyConflictException extends RuntimeException {
+        IdempotencyKeyConflictException(String message) {
+            super(message);
+        }
+    }
 }
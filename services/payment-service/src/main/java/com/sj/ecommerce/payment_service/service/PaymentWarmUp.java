@@ -0,0 +1,133 @@
+package com.sj.ecommerce.payment_service.service;
+
+import com.ecommerce.contracts.events.OrderCreatedV1;
+import com.ecommerce.contracts.events.OrderCreatedV2;
+import com.ecommerce.contracts.events.OrderExpiredV1;
+import com.ecommerce.contracts.events.OrderExpiredV2;
+import com.ecommerce.contracts.events.PaymentCompletedV2;
+import com.ecommerce.contracts.events.PaymentFailedV2;
+import com.ecommerce.contracts.money.ContractVersions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sj.ecommerce.common.warmup.WarmUpStep;
+import com.sj.ecommerce.common.warmup.WarmUpWorkload;
+import com.sj.ecommerce.payment_service.dto.PaymentBatchResponse;
+import com.sj.ecommerce.payment_service.dto.PaymentResponse;
+import com.sj.ecommerce.payment_service.entity.Payment;
+import com.sj.ecommerce.payment_service.entity.PaymentStatus;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * What a new instance would otherwise warm up on its first real requests and messages, run by
+ * WarmUp (common/service-support) before traffic is let in, against sinks that discard the output:
+ *
+ * - order events are read in both contract versions and payment events written, with the
+ *   ObjectMapper the listener and publisher use
+ * - Payment to PaymentResponse mapping, and its JSON through the MVC JsonMapper
+ * - the read queries behind GET /payments/{id}, GET /payments?orderIds= and the ETag check,
+ *   for ids that never exist; they show up as misses in payments.cache.requests
+ *
+ * The in-memory steps run warmup.iterations times, enough for the JIT to compile them, and the
+ * queries warmup.query-iterations times. Each step stops early once the thread is interrupted.
+ * The Hikari pools are already filled by then, by ConnectionPoolWarmUp.
+ */
+@Component
+public class PaymentWarmUp implements WarmUpWorkload {
+
+    // Identity ids are positive, so these never match a row
+    private static final Long MISSING_ID = -1L;
+    private static final List<Long> MISSING_IDS = List.of(-1L, -2L);
+
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<JsonMapper> jsonMapper;
+    private final PaymentService paymentService;
+    private final int iterations;
+    private final int queryIterations;
+
+    public PaymentWarmUp(ObjectMapper objectMapper, ObjectProvider<JsonMapper> jsonMapper,
+                         PaymentService paymentService,
+                         @Value("${warmup.iterations:10000}") int iterations,
+                         @Value("${warmup.query-iterations:50}") int queryIterations) {
+        this.objectMapper = objectMapper;
+        this.jsonMapper = jsonMapper;
+        this.paymentService = paymentService;
+        this.iterations = iterations;
+        this.queryIterations = queryIterations;
+    }
+
+    @Override
+    public List<WarmUpStep> steps() {
+        return List.of(
+                new WarmUpStep("event serialization", this::events),
+                new WarmUpStep("response mapping", this::responses),
+                new WarmUpStep("read queries", this::queries));
+    }
+
+    private void events() throws IOException {
+        Instant now = Instant.now();
+        OrderCreatedV2 created = new OrderCreatedV2(UUID.randomUUID(), ContractVersions.V2, now,
+                MISSING_ID, MISSING_ID, 1999, "INR");
+        OrderExpiredV2 expired = new OrderExpiredV2(UUID.randomUUID(), ContractVersions.V2, now,
+                MISSING_ID, MISSING_ID, 1999, "INR", "warm-up");
+        PaymentCompletedV2 completed = new PaymentCompletedV2(UUID.randomUUID(), ContractVersions.V2, now,
+                MISSING_ID, MISSING_ID, MISSING_ID, 1999, "INR");
+        PaymentFailedV2 failed = new PaymentFailedV2(UUID.randomUUID(), ContractVersions.V2, now,
+                MISSING_ID, MISSING_ID, MISSING_ID, 1999, "INR", "warm-up");
+        String createdV2 = objectMapper.writeValueAsString(created);
+        String createdV1 = objectMapper.writeValueAsString(ContractVersions.downgrade(created));
+        String expiredV2 = objectMapper.writeValueAsString(expired);
+        String expiredV1 = objectMapper.writeValueAsString(ContractVersions.downgrade(expired));
+
+        for (int i = 0; i < iterations && !interrupted(); i++) {
+            objectMapper.writeValue(OutputStream.nullOutputStream(), completed);
+            objectMapper.writeValue(OutputStream.nullOutputStream(), failed);
+            // Same checks as OrderEventListener, so the branches it takes are warm too
+            if (ContractVersions.isV2(createdV2) && !createdV2.contains("\"reason\"")) {
+                objectMapper.readValue(createdV2, OrderCreatedV2.class);
+            }
+            if (!ContractVersions.isV2(createdV1)) {
+                ContractVersions.upgrade(objectMapper.readValue(createdV1, OrderCreatedV1.class));
+            }
+            if (ContractVersions.isV2(expiredV2) && expiredV2.contains("\"reason\"")) {
+                objectMapper.readValue(expiredV2, OrderExpiredV2.class);
+            }
+            if (!ContractVersions.isV2(expiredV1)) {
+                ContractVersions.upgrade(objectMapper.readValue(expiredV1, OrderExpiredV1.class));
+            }
+        }
+    }
+
+    private void responses() {
+        Payment payment = new Payment(MISSING_ID, MISSING_ID, 1999, "INR", "warm-up", PaymentStatus.PENDING, Instant.now());
+        JsonMapper mapper = jsonMapper.getIfAvailable();
+        for (int i = 0; i < iterations && !interrupted(); i++) {
+            PaymentResponse response = PaymentService.toResponse(payment);
+            if (mapper != null) {
+                mapper.writeValue(OutputStream.nullOutputStream(), response);
+                mapper.writeValue(OutputStream.nullOutputStream(), new PaymentBatchResponse(List.of(
+                        PaymentBatchResponse.Entry.of(response.orderId(), response),
+                        PaymentBatchResponse.Entry.of(MISSING_ID, null))));
+            }
+        }
+    }
+
+    private void queries() {
+        for (int i = 0; i < queryIterations && !interrupted(); i++) {
+            paymentService.getPaymentById(MISSING_ID);
+            paymentService.getPaymentsByOrderIds(MISSING_IDS);
+            paymentService.getPaymentVersion(MISSING_ID);
+        }
+    }
+
+    private static boolean interrupted() {
+        return Thread.currentThread().isInterrupted();
+    }
+}
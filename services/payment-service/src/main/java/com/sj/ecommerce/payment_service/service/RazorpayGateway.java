@@ -0,0 +1,124 @@
+package com.sj.ecommerce.payment_service.service;
+
+import com.razorpay.Order;
+import com.razorpay.RazorpayClient;
+import com.razorpay.RazorpayException;
+import com.sj.ecommerce.payment_service.profiling.RazorpayCallEvent;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Thin wrapper around the Razorpay Orders API.
+ *
+ * By default calls go through the Razorpay Java SDK, which always targets api.razorpay.com.
+ * When razorpay.api-base-url is set (load tests, local fakes) the same Orders API request is
+ * sent with a plain HTTP client to that base URL instead.
+ */
+@Component
+public class RazorpayGateway {
+
+    @Value("${razorpay.key-id:}")
+    private String razorpayKeyId;
+
+    @Value("${razorpay.key-secret:}")
+    private String razorpayKeySecret;
+
+    @Value("${razorpay.api-base-url:}")
+    private String apiBaseUrl;
+
+    private volatile RazorpayClient sdkClient;
+    private volatile RestClient restClient;
+
+    public boolean isConfigured() {
+        return razorpayKeyId != null && !razorpayKeyId.isBlank()
+                && razorpayKeySecret != null && !razorpayKeySecret.isBlank();
+    }
+
+    /**
+     * Create a Razorpay order and return its id.
+     *
+     * @param amountMinor order amount in the currency's minor unit (paise for INR), as Razorpay expects
+     * @param currency    ISO 4217 code
+     * @param receipt     merchant receipt, we use the internal orderId
+     */
+    public String createOrder(long amountMinor, String currency, String receipt) throws RazorpayException {
+        if (!isConfigured()) {
+            throw new IllegalStateException("Razorpay key id/secret not configured in environment variables");
+        }
+
+        JSONObject orderRequest = new JSONObject();
+        orderRequest.put("amount", amountMinor);
+        orderRequest.put("currency", currency);
+        orderRequest.put("receipt", receipt);
+        orderRequest.put("payment_capture", 1);
+
+        boolean overHttp = apiBaseUrl != null && !apiBaseUrl.isBlank();
+        RazorpayCallEvent profile = RazorpayCallEvent.begin("orders.create", overHttp ? "http" : "sdk", receipt);
+        try {
+            String razorpayOrderId;
+            if (overHttp) {
+                razorpayOrderId = createOrderOverHttp(orderRequest);
+            } else {
+                Order order = sdkClient().orders.create(orderRequest);
+                razorpayOrderId = order.get("id").toString();
+            }
+            profile.succeeded();
+            return razorpayOrderId;
+        } finally {
+            profile.finish();
+        }
+    }
+
+    private String createOrderOverHttp(JSONObject orderRequest) throws RazorpayException {
+        try {
+            String response = restClient().post()
+                    .uri("/v1/orders")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(orderRequest.toString())
+                    .retrieve()
+                    .body(String.class);
+            return new JSONObject(response).getString("id");
+        } catch (RestClientException | org.json.JSONException ex) {
+            throw new RazorpayException(ex.getMessage());
+        }
+    }
+
+    private RazorpayClient sdkClient() throws RazorpayException {
+        RazorpayClient client = sdkClient;
+        if (client == null) {
+            synchronized (this) {
+                if (sdkClient == null) {
+                    sdkClient = new RazorpayClient(razorpayKeyId, razorpayKeySecret);
+                }
+                client = sdkClient;
+            }
+        }
+        return client;
+    }
+
+    private RestClient restClient() {
+        RestClient client = restClient;
+        if (client == null) {
+            synchronized (this) {
+                if (restClient == null) {
+                    String credentials = razorpayKeyId + ":" + razorpayKeySecret;
+                    restClient = RestClient.builder()
+                            .baseUrl(apiBaseUrl)
+                            .defaultHeader(HttpHeaders.AUTHORIZATION, "Basic "
+                                    + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)))
+                            .build();
+                }
+                client = restClient;
+            }
+        }
+        return client;
+    }
+}
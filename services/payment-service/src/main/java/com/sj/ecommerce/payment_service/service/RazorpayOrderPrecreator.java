@@ -0,0 +1,147 @@
+package com.sj.ecommerce.payment_service.service;
+
+import com.sj.ecommerce.payment_service.entity.Payment;
+import com.sj.ecommerce.payment_service.entity.PaymentStatus;
+import com.sj.ecommerce.payment_service.repository.PaymentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the Razorpay order for a new payment in the background, ahead of "Pay Now".
+ *
+ * Opt-in with razorpay.precreate.enabled. Work runs on a small bounded pool and is paced to
+ * razorpay.precreate.rate-per-second to stay inside Razorpay's API limits. The order is attached
+ * while the payment stays CREATED, so {@link PaymentService#initiatePayment} finds it and skips
+ * the external call. Anything not pre-created (queue full, Razorpay error, disabled) is created
+ * inline on "Pay Now" as before.
+ */
+@Component
+public class RazorpayOrderPrecreator implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RazorpayOrderPrecreator.class);
+
+    private final PaymentRepository paymentRepository;
+    private final RazorpayGateway razorpayGateway;
+    private final PaymentCacheInvalidator cacheInvalidator;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long permitIntervalNanos;
+    private final ThreadPoolExecutor executor;
+    private long nextPermitNanos = System.nanoTime();
+
+    public RazorpayOrderPrecreator(PaymentRepository paymentRepository, RazorpayGateway razorpayGateway,
+                                   PaymentCacheInvalidator cacheInvalidator, PlatformTransactionManager transactionManager,
+                                   @Value("${razorpay.precreate.enabled:false}") boolean enabled,
+                                   @Value("${razorpay.precreate.threads:2}") int threads,
+                                   @Value("${razorpay.precreate.queue-capacity:1000}") int queueCapacity,
+                                   @Value("${razorpay.precreate.rate-per-second:10}") double ratePerSecond) {
+        this.paymentRepository = paymentRepository;
+        this.razorpayGateway = razorpayGateway;
+        this.cacheInvalidator = cacheInvalidator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.permitIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "razorpay-precreate-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Queues pre-creation for a payment, after the surrounding transaction commits if there is
+     * one. A no-op when disabled or when Razorpay credentials are missing.
+     */
+    public void submit(Long paymentId) {
+        if (!enabled || !razorpayGateway.isConfigured()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(paymentId);
+                }
+            });
+        } else {
+            enqueue(paymentId);
+        }
+    }
+
+    public int queued() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    boolean enqueue(Long paymentId) {
+        try {
+            executor.execute(() -> precreate(paymentId));
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.debug("Pre-creation queue full, paymentId={} will create its Razorpay order on Pay Now", paymentId);
+            return false;
+        }
+    }
+
+    void precreate(Long paymentId) {
+        try {
+            Payment payment = paymentRepository.findById(paymentId).orElse(null);
+            if (payment == null || payment.getStatus() != PaymentStatus.CREATED || payment.getRazorpayOrderId() != null) {
+                return;
+            }
+            awaitPermit();
+            long amountPaise = payment.getAmountMinor();
+            String rzOrderId = razorpayGateway.createOrder(amountPaise, payment.getCurrency(), String.valueOf(payment.getOrderId()));
+
+            Boolean attached = transactionTemplate.execute(status -> {
+                int updated = paymentRepository.attachRazorpayOrder(
+                        paymentId, EnumSet.of(PaymentStatus.CREATED), PaymentStatus.CREATED, rzOrderId, amountPaise);
+                if (updated == 1) {
+                    cacheInvalidator.evict(paymentId);
+                }
+                return updated == 1;
+            });
+            if (Boolean.TRUE.equals(attached)) {
+                log.info("Pre-created razorpayOrderId={} for orderId={}", rzOrderId, payment.getOrderId());
+            } else {
+                log.info("Payment {} moved on before pre-creation finished, discarding {}", paymentId, rzOrderId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Razorpay pre-creation failed for paymentId={}, Pay Now will create it inline", paymentId, e);
+        }
+    }
+
+    private void awaitPermit() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long at = Math.max(now, nextPermitNanos);
+            nextPermitNanos = at + permitIntervalNanos;
+            waitNanos = at - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
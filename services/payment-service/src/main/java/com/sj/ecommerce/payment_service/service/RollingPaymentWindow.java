@@ -0,0 +1,121 @@
+package com.sj.ecommerce.payment_service.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-minute payment outcomes for the last {@code minutes} minutes, in a ring of buckets.
+ *
+ * Writers never lock: each bucket is a set of LongAdders, and a slot whose bucket belongs to an
+ * older minute is replaced with a fresh bucket by compare-and-set. A writer still holding the
+ * replaced bucket at that instant loses its increment, which can only happen right at a minute
+ * boundary, for a bucket that is already a full window old.
+ */
+final class RollingPaymentWindow {
+
+    record MinuteTotals(long epochMinute, long succeeded, long failed,
+                        Map<String, Long> revenueMinor, Map<String, Long> failureReasons) {
+    }
+
+    private static final class Bucket {
+        final long epochMinute;
+        final LongAdder succeeded = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final Map<String, LongAdder> revenueMinor = new ConcurrentHashMap<>(4);
+        final Map<String, LongAdder> failureReasons = new ConcurrentHashMap<>(8);
+
+        Bucket(long epochMinute) {
+            this.epochMinute = epochMinute;
+        }
+
+        MinuteTotals totals() {
+            return new MinuteTotals(epochMinute, succeeded.sum(), failed.sum(), sums(revenueMinor), sums(failureReasons));
+        }
+    }
+
+    private final int minutes;
+    private final AtomicReferenceArray<Bucket> ring;
+
+    RollingPaymentWindow(int minutes) {
+        if (minutes < 1) {
+            throw new IllegalArgumentException("window must be at least one minute");
+        }
+        this.minutes = minutes;
+        this.ring = new AtomicReferenceArray<>(minutes);
+    }
+
+    int minutes() {
+        return minutes;
+    }
+
+    void recordSucceeded(long epochMinute, String currency, long count, long amountMinor) {
+        Bucket bucket = bucket(epochMinute);
+        if (bucket != null) {
+            bucket.succeeded.add(count);
+            bucket.revenueMinor.computeIfAbsent(currency, c -> new LongAdder()).add(amountMinor);
+        }
+    }
+
+    void recordFailed(long epochMinute, String reason, long count) {
+        Bucket bucket = bucket(epochMinute);
+        if (bucket != null) {
+            bucket.failed.add(count);
+            bucket.failureReasons.computeIfAbsent(reason, r -> new LongAdder()).add(count);
+        }
+    }
+
+    /** Minutes in (nowMinute - lastMinutes, nowMinute] that saw any payment outcome, oldest first. */
+    List<MinuteTotals> minutes(long nowMinute, int lastMinutes) {
+        long oldest = nowMinute - Math.min(lastMinutes, minutes);
+        List<MinuteTotals> result = new ArrayList<>();
+        for (int i = 0; i < minutes; i++) {
+            Bucket bucket = ring.get(i);
+            if (bucket != null && bucket.epochMinute > oldest && bucket.epochMinute <= nowMinute) {
+                result.add(bucket.totals());
+            }
+        }
+        result.sort(Comparator.comparingLong(MinuteTotals::epochMinute));
+        return result;
+    }
+
+    /** Sum over the same minutes as {@link #minutes(long, int)}; epochMinute is nowMinute. */
+    MinuteTotals total(long nowMinute, int lastMinutes) {
+        long succeeded = 0;
+        long failed = 0;
+        Map<String, Long> revenueMinor = new HashMap<>();
+        Map<String, Long> failureReasons = new HashMap<>();
+        for (MinuteTotals minute : minutes(nowMinute, lastMinutes)) {
+            succeeded += minute.succeeded();
+            failed += minute.failed();
+            minute.revenueMinor().forEach((currency, amount) -> revenueMinor.merge(currency, amount, Long::sum));
+            minute.failureReasons().forEach((reason, count) -> failureReasons.merge(reason, count, Long::sum));
+        }
+        return new MinuteTotals(nowMinute, succeeded, failed, revenueMinor, failureReasons);
+    }
+
+    /** The bucket for epochMinute, or null when the slot already holds a later minute. */
+    private Bucket bucket(long epochMinute) {
+        int slot = (int) Math.floorMod(epochMinute, (long) minutes);
+        Bucket bucket = ring.get(slot);
+        while (bucket == null || bucket.epochMinute < epochMinute) {
+            Bucket fresh = new Bucket(epochMinute);
+            if (ring.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+            bucket = ring.get(slot);
+        }
+        return bucket.epochMinute == epochMinute ? bucket : null;
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> adders) {
+        Map<String, Long> sums = new HashMap<>(adders.size());
+        adders.forEach((key, adder) -> sums.put(key, adder.sum()));
+        return sums;
+    }
+}
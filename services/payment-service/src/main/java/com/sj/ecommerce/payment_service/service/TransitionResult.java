@@ -0,0 +1,14 @@
+package com.sj.ecommerce.payment_service.service;
+
+/**
+ * Outcome of a conditional state transition.
+ */
+public enum TransitionResult {
+    APPLIED,
+    // Entity exists but its current state does not allow the transition (duplicate or late event)
+    REJECTED;
+
+    public boolean applied() {
+        return this == APPLIED;
+    }
+}
@@ -0,0 +1,37 @@
+-- One payment per order (uk_payments_order_id, see Payment). Runs before Hibernate's schema
+-- update, which cannot add the constraint while duplicates exist. Older rows for an order are
+-- moved to payments_order_id_duplicates for reconciliation rather than deleted outright; the
+-- row kept is the one furthest along, captured money first. Does nothing on a fresh schema or
+-- once the constraint exists. Runs as a single statement, see spring.sql.init.separator.
+DO $$
+BEGIN
+    IF to_regclass('payments') IS NULL
+            OR EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_payments_order_id') THEN
+        RETURN;
+    END IF;
+
+    CREATE TABLE IF NOT EXISTS payments_order_id_duplicates (LIKE payments);
+
+    WITH ranked AS (
+        SELECT id,
+               ROW_NUMBER() OVER (PARTITION BY order_id ORDER BY
+                   CASE status
+                       WHEN 'PAID' THEN 0
+                       WHEN 'REFUNDED' THEN 1
+                       WHEN 'PENDING' THEN 2
+                       WHEN 'FAILED' THEN 3
+                       WHEN 'CREATED' THEN 4
+                       ELSE 5
+                   END, id) AS position
+          FROM payments
+    ), moved AS (
+        DELETE FROM payments p
+         USING ranked r
+         WHERE p.id = r.id AND r.position > 1
+        RETURNING p.*
+    )
+    INSERT INTO payments_order_id_duplicates SELECT * FROM moved;
+
+    ALTER TABLE payments ADD CONSTRAINT uk_payments_order_id UNIQUE (order_id);
+END
+$$
@@ -0,0 +1,55 @@
+package com.sj.ecommerce.payment_service;
+
+import com.ecommerce.contracts.bus.EventBus;
+import com.ecommerce.contracts.bus.EventChannels;
+import com.ecommerce.contracts.events.OrderCreatedV2;
+import com.ecommerce.contracts.money.ContractVersions;
+import com.sj.ecommerce.payment_service.dto.PaymentBatchResponse;
+import com.sj.ecommerce.payment_service.service.PaymentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** The whole service on the in-process profile (H2, no AWS): an order on the bus gets a payment. */
+@SpringBootTest
+@ActiveProfiles("in-process")
+// Closes the context, and with it the JVM-wide payment cache manager PaymentCacheConfigTest also opens
+@DirtiesContext
+class InProcessEventsTest {
+
+	@Autowired
+	private EventBus eventBus;
+
+	@Autowired
+	private PaymentService paymentService;
+
+	@Test
+	void orderCreatedOnTheBusCreatesItsPayment() throws InterruptedException {
+		eventBus.publish(EventChannels.ORDER_EVENTS, "OrderCreated", new OrderCreatedV2(UUID.randomUUID(),
+				ContractVersions.V2, Instant.now(), 501L, 42L, 9900L, "INR"));
+
+		PaymentBatchResponse.Entry entry = awaitPayment(501L);
+		assertTrue(entry.found());
+		assertEquals("CREATED", entry.payment().status());
+		assertEquals(9900L, entry.payment().amountMinor());
+	}
+
+	private PaymentBatchResponse.Entry awaitPayment(Long orderId) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		PaymentBatchResponse.Entry entry = paymentService.getPaymentsByOrderIds(List.of(orderId)).results().get(0);
+		while (!entry.found() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+			entry = paymentService.getPaymentsByOrderIds(List.of(orderId)).results().get(0);
+		}
+		return entry;
+	}
+}
@@ -0,0 +1,63 @@
+package com.sj.ecommerce.payment_service.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.sj.ecommerce.payment_service.entity.Payment;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.CacheManager;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaymentCacheConfigTest {
+
+	private final PaymentCacheConfig config = new PaymentCacheConfig();
+	private final CacheManager cacheManager = config.paymentCacheManager(500, 60);
+
+	@AfterEach
+	void close() {
+		cacheManager.close();
+	}
+
+	@Test
+	void regionsAreBoundedAndExpire() {
+		for (String region : new String[]{Payment.CACHE_REGION, Payment.NATURAL_ID_CACHE_REGION}) {
+			@SuppressWarnings("unchecked")
+			CaffeineConfiguration<Object, Object> configuration =
+					cacheManager.getCache(region).getConfiguration(CaffeineConfiguration.class);
+			assertEquals(OptionalLong.of(500), configuration.getMaximumSize());
+			assertEquals(OptionalLong.of(TimeUnit.SECONDS.toNanos(60)), configuration.getExpireAfterWrite());
+		}
+	}
+
+	@Test
+	void paymentIsCachedByIdAndByOrderId() {
+		Map<String, Object> properties = new HashMap<>();
+		config.paymentCacheHibernateProperties(cacheManager).customize(properties);
+
+		// Boots the mapping without a database, which is enough to resolve the cache regions
+		Configuration configuration = new Configuration().addAnnotatedClass(Payment.class);
+		configuration.setProperty("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
+		configuration.setProperty("hibernate.boot.allow_jdbc_metadata_access", "false");
+		properties.forEach((key, value) -> configuration.getProperties().put(key, value));
+
+		try (SessionFactory sessionFactory = configuration.buildSessionFactory()) {
+			EntityPersister persister = sessionFactory.unwrap(SessionFactoryImplementor.class)
+					.getMappingMetamodel().getEntityDescriptor(Payment.class);
+			assertTrue(persister.canReadFromCache());
+			assertTrue(persister.hasNaturalIdCache());
+			assertNotNull(sessionFactory.getStatistics().getDomainDataRegionStatistics(Payment.CACHE_REGION));
+			assertNotNull(sessionFactory.getStatistics().getDomainDataRegionStatistics(Payment.NATURAL_ID_CACHE_REGION));
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package com.sj.ecommerce.payment_service.entity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaymentStatusTest {
+
+	@Test
+	void refundedAndCancelledAreTerminal() {
+		for (PaymentStatus target : PaymentStatus.values()) {
+			assertFalse(PaymentStatus.REFUNDED.canTransitionTo(target), "REFUNDED -> " + target);
+			assertFalse(PaymentStatus.CANCELLED.canTransitionTo(target), "CANCELLED -> " + target);
+		}
+	}
+
+	@Test
+	void paidPaymentCanOnlyBeRefunded() {
+		for (PaymentStatus target : PaymentStatus.values()) {
+			assertEquals(target == PaymentStatus.REFUNDED, PaymentStatus.PAID.canTransitionTo(target), "PAID -> " + target);
+		}
+	}
+
+	@Test
+	void duplicateWebhooksDoNotApplyTwice() {
+		assertFalse(PaymentStatus.PENDING.canTransitionTo(PaymentStatus.PENDING));
+		assertFalse(PaymentStatus.PAID.canTransitionTo(PaymentStatus.PAID));
+		assertFalse(PaymentStatus.FAILED.canTransitionTo(PaymentStatus.FAILED));
+	}
+
+	@Test
+	void failedPaymentCanStillBeCapturedOrCancelled() {
+		assertTrue(PaymentStatus.FAILED.canTransitionTo(PaymentStatus.PAID));
+		assertTrue(PaymentStatus.FAILED.canTransitionTo(PaymentStatus.CANCELLED));
+		assertTrue(PaymentStatus.PENDING.canTransitionTo(PaymentStatus.CANCELLED));
+	}
+}
@@ -0,0 +1,55 @@
+package com.sj.ecommerce.payment_service.repository;
+
+import com.sj.ecommerce.payment_service.entity.Payment;
+import com.sj.ecommerce.payment_service.entity.PaymentStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+
+import java.time.Instant;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** The native CAS updates against an in-memory database. */
+@DataJpaTest
+class PaymentRepositoryTest {
+
+	@Autowired
+	private PaymentRepository repository;
+
+	@Test
+	void transitionAppliesOnlyFromAllowedStates() {
+		Long id = repository.save(payment()).getId();
+
+		assertEquals(1, repository.transition(id, PaymentStatus.PENDING.allowedFrom(), PaymentStatus.PENDING, null));
+		// A duplicate initiation finds the payment already PENDING
+		assertEquals(0, repository.transition(id, PaymentStatus.PENDING.allowedFrom(), PaymentStatus.PENDING, null));
+		assertEquals(1, repository.transition(id, PaymentStatus.PAID.allowedFrom(), PaymentStatus.PAID, 9950L));
+		// A late failure webhook cannot undo the capture
+		assertEquals(0, repository.transition(id, PaymentStatus.FAILED.allowedFrom(), PaymentStatus.FAILED, null, "late"));
+
+		Payment payment = repository.findById(id).orElseThrow();
+		assertEquals(PaymentStatus.PAID, payment.getStatus());
+		assertEquals(9950L, payment.getRazorpayAmount());
+	}
+
+	@Test
+	void onlyOneRazorpayOrderIsAttached() {
+		Long id = repository.save(payment()).getId();
+
+		assertEquals(1, repository.attachRazorpayOrder(id, PaymentStatus.PENDING.allowedFrom(), PaymentStatus.PENDING,
+				"order_first", 9950L));
+		// Refused by the attached order alone, whatever the status
+		assertEquals(0, repository.attachRazorpayOrder(id, EnumSet.allOf(PaymentStatus.class), PaymentStatus.PENDING,
+				"order_second", 9950L));
+
+		Payment payment = repository.findById(id).orElseThrow();
+		assertEquals("order_first", payment.getRazorpayOrderId());
+		assertEquals(PaymentStatus.PENDING, payment.getStatus());
+	}
+
+	private static Payment payment() {
+		return new Payment(10L, 20L, 9950L, "INR", "order-10", PaymentStatus.CREATED, Instant.EPOCH);
+	}
+}
@@ -0,0 +1,101 @@
+package com.sj.ecommerce.payment_service.service;
+
+import com.sj.ecommerce.payment_service.dto.PaymentResponse;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdempotencyCacheTest {
+
+	private static final Long USER = 20L;
+
+	@Test
+	void concurrentRetriesShareOneLoad() throws Exception {
+		IdempotencyCache cache = new IdempotencyCache(100, 60);
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		PaymentResponse response = response(1L, "key-1");
+
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<PaymentResponse>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(pool.submit(() -> cache.getOrLoad(USER, "key-1", () -> {
+					loads.incrementAndGet();
+					await(release);
+					return response;
+				})));
+			}
+			Thread.sleep(100);
+			release.countDown();
+			for (Future<PaymentResponse> result : results) {
+				assertSame(response, result.get(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertEquals(1, loads.get());
+		assertSame(response, cache.getOrLoad(USER, "key-1", () -> { throw new AssertionError("served from cache"); }));
+	}
+
+	@Test
+	void failedLoadIsNotCached() {
+		IdempotencyCache cache = new IdempotencyCache(100, 60);
+		assertThrows(IllegalStateException.class, () -> cache.getOrLoad(USER, "key-1", () -> { throw new IllegalStateException("db down"); }));
+
+		PaymentResponse response = response(1L, "key-1");
+		assertSame(response, cache.getOrLoad(USER, "key-1", () -> response));
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedBeyondCapacity() {
+		IdempotencyCache cache = new IdempotencyCache(2, 60);
+		cache.getOrLoad(USER, "a", () -> response(1L, "a"));
+		cache.getOrLoad(USER, "b", () -> response(2L, "b"));
+		cache.getOrLoad(USER, "a", () -> { throw new AssertionError("a is cached"); });
+		cache.getOrLoad(USER, "c", () -> response(3L, "c"));
+
+		assertEquals(2, cache.size());
+		AtomicInteger reloads = new AtomicInteger();
+		cache.getOrLoad(USER, "b", () -> { reloads.incrementAndGet(); return response(2L, "b"); });
+		assertEquals(1, reloads.get());
+	}
+
+	@Test
+	void sameKeyFromAnotherUserIsNotServedFromCache() {
+		IdempotencyCache cache = new IdempotencyCache(100, 60);
+		PaymentResponse mine = response(1L, "key-1");
+		cache.getOrLoad(USER, "key-1", () -> mine);
+
+		AtomicInteger loads = new AtomicInteger();
+		cache.getOrLoad(21L, "key-1", () -> { loads.incrementAndGet(); return response(2L, "key-1"); });
+
+		assertEquals(1, loads.get());
+		assertSame(mine, cache.getOrLoad(USER, "key-1", () -> { throw new AssertionError("served from cache"); }));
+	}
+
+	private static PaymentResponse response(Long id, String key) {
+		return new PaymentResponse(id, 10L, 20L, new BigDecimal("99.00"), 9900L, "INR", key, "PAID", Instant.EPOCH, 0L);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package com.sj.ecommerce.payment_service.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PaymentExporterTest {
+
+	private final PaymentExporter exporter = new PaymentExporter("jdbc:postgresql://localhost/none", "", "", 100, 1, 100);
+
+	@Test
+	void writesCsvWithQuotedFieldsAndEmptyNulls() throws Exception {
+		StringWriter out = new StringWriter();
+
+		assertEquals(2, exporter.write(PaymentExporter.Format.CSV, twoPayments(), out));
+
+		assertEquals("""
+				id,orderId,userId,amount,amountMinor,currency,razorpayOrderId,razorpayAmount,status,failureReason,createdAt,statusChangedAt
+				1,10,100,499.00,49900,INR,order_A,49900,PAID,,2025-01-01T10:00:00Z,2025-01-01T10:05:00Z
+				2,11,100,0.05,5,INR,,,FAILED,"card declined, ""retry""\",2025-01-01T11:00:00Z,
+				""", out.toString());
+	}
+
+	@Test
+	void writesFormulaLikeCsvCellsAsText() throws Exception {
+		ResultSet rows = mock(ResultSet.class);
+		when(rows.next()).thenReturn(true, false);
+		when(rows.getString("currency")).thenReturn("INR");
+		when(rows.getString("razorpay_order_id")).thenReturn("@SUM(A1:A9)");
+		when(rows.wasNull()).thenReturn(true);
+		when(rows.getString("status")).thenReturn("FAILED");
+		when(rows.getString("failure_reason")).thenReturn("=HYPERLINK(\"http://x\",\"retry\")");
+		StringWriter out = new StringWriter();
+
+		exporter.write(PaymentExporter.Format.CSV, rows, out);
+
+		assertEquals("0,0,0,0.00,0,INR,\"'@SUM(A1:A9)\",,FAILED,\"'=HYPERLINK(\"\"http://x\"\",\"\"retry\"\")\",,",
+				out.toString().split("\n")[1]);
+	}
+
+	@Test
+	void onlyAnAcquisitionTimeoutMeansBusy() {
+		assertTrue(PaymentExporter.poolExhausted(new SQLTransientConnectionException("export - Connection is not available")));
+		assertFalse(PaymentExporter.poolExhausted(new SQLTransientConnectionException("export - Connection is not available",
+				"08001", new SQLException("Connection refused"))), "database unreachable");
+		assertFalse(PaymentExporter.poolExhausted(new SQLException("password authentication failed", "28P01")));
+	}
+
+	@Test
+	void writesOneJsonObjectPerLine() throws Exception {
+		StringWriter out = new StringWriter();
+
+		exporter.write(PaymentExporter.Format.NDJSON, twoPayments(), out);
+
+		String[] lines = out.toString().split("\n");
+		assertEquals(2, lines.length);
+		JsonNode first = new ObjectMapper().readTree(lines[0]);
+		assertTrue(lines[0].contains("\"amount\":499.00,"), "exact major-unit amount");
+		assertEquals("order_A", first.get("razorpayOrderId").asText());
+		JsonNode second = new ObjectMapper().readTree(lines[1]);
+		assertTrue(second.get("razorpayAmount").isNull());
+		assertEquals("card declined, \"retry\"", second.get("failureReason").asText());
+	}
+
+	@Test
+	void rejectsUnknownFormats() {
+		assertEquals(PaymentExporter.Format.NDJSON, PaymentExporter.Format.of("ndjson"));
+		assertThrows(IllegalArgumentException.class, () -> PaymentExporter.Format.of("xlsx"));
+	}
+
+	private static ResultSet twoPayments() throws Exception {
+		ResultSet rows = mock(ResultSet.class);
+		when(rows.next()).thenReturn(true, true, false);
+		when(rows.getLong("id")).thenReturn(1L, 2L);
+		when(rows.getLong("order_id")).thenReturn(10L, 11L);
+		when(rows.getLong("user_id")).thenReturn(100L, 100L);
+		when(rows.getLong("amount_minor")).thenReturn(49_900L, 5L);
+		when(rows.getString("currency")).thenReturn("INR", "INR");
+		when(rows.getString("razorpay_order_id")).thenReturn("order_A", (String) null);
+		when(rows.getLong("razorpay_amount")).thenReturn(49_900L, 0L);
+		when(rows.wasNull()).thenReturn(false, true);
+		when(rows.getString("status")).thenReturn("PAID", "FAILED");
+		when(rows.getString("failure_reason")).thenReturn(null, "card declined, \"retry\"");
+		when(rows.getTimestamp("created_at")).thenReturn(
+				Timestamp.from(Instant.parse("2025-01-01T10:00:00Z")), Timestamp.from(Instant.parse("2025-01-01T11:00:00Z")));
+		when(rows.getTimestamp("status_changed_at")).thenReturn(Timestamp.from(Instant.parse("2025-01-01T10:05:00Z")), (Timestamp) null);
+		return rows;
+	}
+}
@@ -0,0 +1,124 @@
+package com.sj.ecommerce.payment_service.service;
+
+import com.sj.ecommerce.payment_service.dto.PaymentMetricsResponse;
+import com.sj.ecommerce.payment_service.repository.PaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PaymentMetricsTest {
+
+	private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T10:00:30Z"));
+	private final PaymentRepository repository = mock(PaymentRepository.class);
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final PaymentMetrics metrics = new PaymentMetrics(repository, registry, clock, 10, Duration.ofMinutes(2), 2);
+
+	@Test
+	void countsOutcomesPerMinuteAndForgetsThemAfterTheWindow() {
+		metrics.recordSucceeded(50_000, "INR");
+		metrics.recordFailed("payment_cancelled");
+		clock.advance(Duration.ofMinutes(1));
+		metrics.recordSucceeded(25_000, "INR");
+
+		PaymentMetricsResponse snapshot = metrics.snapshot(60);
+		assertEquals(10, snapshot.minutes(), "capped at the window");
+		assertEquals(2, snapshot.succeeded());
+		assertEquals(1, snapshot.failed());
+		assertEquals(2.0 / 3, snapshot.successRatio(), 1e-9);
+		assertEquals(Map.of("INR", 75_000L), snapshot.revenueMinor());
+		assertEquals(List.of(Instant.parse("2025-01-01T10:00:00Z"), Instant.parse("2025-01-01T10:01:00Z")),
+				snapshot.perMinute().stream().map(PaymentMetricsResponse.Minute::minute).toList());
+		assertEquals(75_000, registry.get("payments.window.revenue").tag("currency", "INR").gauge().value());
+
+		clock.advance(Duration.ofMinutes(9));
+		assertEquals(1, metrics.snapshot(60).succeeded(), "the first minute has left the window");
+		assertEquals(0, registry.get("payments.window.succeeded").gauge().value(), "outside the 2 minute gauge window");
+
+		clock.advance(Duration.ofMinutes(1));
+		assertNull(metrics.snapshot(60).successRatio());
+	}
+
+	@Test
+	void countsCapturesForCancelledPaymentsBySource() {
+		metrics.recordCapturedAfterCancel("webhook");
+		metrics.recordCapturedAfterCancel("webhook");
+		metrics.recordCapturedAfterCancel("order-expired");
+
+		assertEquals(2, registry.get("payments.captured.after.cancel").tag("source", "webhook").counter().count());
+		assertEquals(1, registry.get("payments.captured.after.cancel").tag("source", "order-expired").counter().count());
+		assertEquals(0, metrics.snapshot(60).succeeded(), "not a completed payment");
+	}
+
+	@Test
+	void boundsDistinctFailureReasons() {
+		metrics.recordFailed("payment_cancelled");
+		metrics.recordFailed(null);
+		metrics.recordFailed("authentication_failed");
+		metrics.recordFailed("insufficient_funds");
+
+		assertEquals(Map.of("payment_cancelled", 1L, PaymentMetrics.UNKNOWN_REASON, 1L, PaymentMetrics.OTHER_REASON, 2L),
+				metrics.snapshot(1).failureReasons());
+		assertEquals(2, registry.get("payments.window.failures").tag("reason", PaymentMetrics.OTHER_REASON).gauge().value());
+	}
+
+	@Test
+	void rebuildsFromTransitionsCommittedBeforeStartup() {
+		long minute = Instant.parse("2025-01-01T09:58:00Z").getEpochSecond() / 60;
+		when(repository.minuteTotals(any(), any())).thenReturn(List.of(
+				new Totals(minute, "PAID", "INR", null, 3L, 90_000L),
+				new Totals(minute, "FAILED", "INR", "payment_cancelled", 2L, 10_000L)));
+
+		metrics.rebuild();
+		metrics.recordSucceeded(10_000, "INR");
+
+		PaymentMetricsResponse snapshot = metrics.snapshot(5);
+		assertEquals(4, snapshot.succeeded());
+		assertEquals(2, snapshot.failed());
+		assertEquals(Map.of("INR", 100_000L), snapshot.revenueMinor());
+		assertEquals(Map.of("payment_cancelled", 2L), snapshot.failureReasons());
+	}
+
+	private record Totals(Long getEpochMinute, String getStatus, String getCurrency, String getFailureReason,
+						  Long getPayments, Long getAmountMinor) implements PaymentRepository.MinuteTotals {
+	}
+
+	private static final class MutableClock extends Clock {
+		private Instant now;
+
+		MutableClock(Instant now) {
+			this.now = now;
+		}
+
+		void advance(Duration duration) {
+			now = now.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package com.sj.ecommerce.payment_service.service;
+
+import com.ecommerce.contracts.events.PaymentInitiatedV2;
+import com.sj.ecommerce.common.replica.ReadRouting;
+import com.sj.ecommerce.payment_service.dto.RazorpayOrderResponse;
+import com.sj.ecommerce.payment_service.entity.Payment;
+import com.sj.ecommerce.payment_service.entity.PaymentStatus;
+import com.sj.ecommerce.payment_service.repository.PaymentRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentServiceTest {
+
+	private final PaymentRepository repository = mock(PaymentRepository.class);
+	private final PaymentEventPublisher publisher = mock(PaymentEventPublisher.class);
+	private final RazorpayGateway gateway = mock(RazorpayGateway.class);
+	private final PaymentService service = new PaymentService(repository, publisher, gateway, new ReadRouting(2000),
+			mock(IdempotencyCache.class), mock(RazorpayOrderPrecreator.class), mock(PaymentCacheInvalidator.class),
+			mock(PaymentMetrics.class));
+
+	@Test
+	void preCreatedOrderMovesThePaymentToPending() throws Exception {
+		when(repository.findByOrderId(10L)).thenReturn(Optional.of(payment(PaymentStatus.CREATED, "order_pre")));
+		when(repository.transition(any(), any(), eq(PaymentStatus.PENDING), any(), any())).thenReturn(1);
+
+		RazorpayOrderResponse response = service.initiatePayment(10L);
+
+		assertEquals("order_pre", response.getRazorpayOrderId());
+		verify(publisher).publishPaymentInitiated(argThat(event -> "order_pre".equals(event.getRazorpayOrderId())));
+	}
+
+	@Test
+	void secondPayNowClickGetsTheSameOrder() throws Exception {
+		when(repository.findByOrderId(10L)).thenReturn(Optional.of(payment(PaymentStatus.CREATED, "order_pre")));
+		when(repository.transition(any(), any(), eq(PaymentStatus.PENDING), any(), any())).thenReturn(0);
+		when(repository.findById(any())).thenReturn(Optional.of(payment(PaymentStatus.PENDING, "order_pre")));
+
+		RazorpayOrderResponse response = service.initiatePayment(10L);
+
+		assertEquals("order_pre", response.getRazorpayOrderId());
+		verify(publisher, never()).publishPaymentInitiated(any(PaymentInitiatedV2.class));
+	}
+
+	@Test
+	void paymentCancelledDuringCheckoutIsRefused() {
+		when(repository.findByOrderId(10L)).thenReturn(Optional.of(payment(PaymentStatus.CREATED, "order_pre")));
+		when(repository.transition(any(), any(), eq(PaymentStatus.PENDING), any(), any())).thenReturn(0);
+		when(repository.findById(any())).thenReturn(Optional.of(payment(PaymentStatus.CANCELLED, "order_pre")));
+
+		assertThrows(IllegalStateException.class, () -> service.initiatePayment(10L));
+	}
+
+	@Test
+	void orderPreCreatedDuringInitiationStillMovesThePaymentToPending() throws Exception {
+		when(repository.findByOrderId(10L)).thenReturn(Optional.of(payment(PaymentStatus.CREATED, null)));
+		when(gateway.createOrder(anyLong(), anyString(), anyString())).thenReturn("order_inline");
+		when(repository.attachRazorpayOrder(any(), any(), any(), any(), any())).thenReturn(0);
+		when(repository.findById(any())).thenReturn(Optional.of(payment(PaymentStatus.CREATED, "order_pre")));
+		when(repository.transition(any(), any(), eq(PaymentStatus.PENDING), any(), any())).thenReturn(1);
+
+		RazorpayOrderResponse response = service.initiatePayment(10L);
+
+		assertEquals("order_pre", response.getRazorpayOrderId());
+		verify(repository).transition(any(), eq(PaymentStatus.PENDING.allowedFrom()), eq(PaymentStatus.PENDING), any(), any());
+		verify(publisher).publishPaymentInitiated(argThat(event -> "order_pre".equals(event.getRazorpayOrderId())));
+	}
+
+	private static Payment payment(PaymentStatus status, String razorpayOrderId) {
+		return new Payment(10L, 20L, 9950L, "INR", "order-10", status, Instant.EPOCH, razorpayOrderId,
+				razorpayOrderId == null ? null : 9950L);
+	}
+}
@@ -0,0 +1,62 @@
+package com.sj.ecommerce.payment_service.service;
+
+import com.sj.ecommerce.common.warmup.WarmUpStep;
+import com.sj.ecommerce.payment_service.config.JacksonConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentWarmUpTest {
+
+	private final PaymentService paymentService = mock(PaymentService.class);
+
+	@Test
+	void everyStepRunsAgainstTheServicesOwnEventsAndResponses() throws Exception {
+		PaymentWarmUp warmUp = new PaymentWarmUp(new JacksonConfig().objectMapper(), jsonMapper(), paymentService, 3, 2);
+
+		List<WarmUpStep> steps = warmUp.steps();
+		assertEquals(List.of("event serialization", "response mapping", "read queries"),
+				steps.stream().map(WarmUpStep::name).toList());
+		// Run directly rather than through WarmUpStep.runAll, so a failing step fails the test
+		for (WarmUpStep step : steps) {
+			step.task().run();
+		}
+
+		verify(paymentService, times(2)).getPaymentById(-1L);
+		verify(paymentService, times(2)).getPaymentsByOrderIds(List.of(-1L, -2L));
+		verify(paymentService, times(2)).getPaymentVersion(-1L);
+	}
+
+	@Test
+	void stepsStopOnceInterrupted() throws Exception {
+		PaymentWarmUp warmUp = new PaymentWarmUp(new JacksonConfig().objectMapper(), jsonMapper(), paymentService, 3, 2);
+		Thread.currentThread().interrupt();
+		try {
+			for (WarmUpStep step : warmUp.steps()) {
+				step.task().run();
+			}
+		} finally {
+			Thread.interrupted();
+		}
+
+		verify(paymentService, times(0)).getPaymentById(anyLong());
+		verify(paymentService, times(0)).getPaymentsByOrderIds(anyList());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ObjectProvider<JsonMapper> jsonMapper() {
+		ObjectProvider<JsonMapper> provider = mock(ObjectProvider.class);
+		when(provider.getIfAvailable()).thenReturn(JsonMapper.builder().build());
+		return provider;
+	}
+}
@@ -0,0 +1,78 @@
+package com.sj.ecommerce.payment_service.service;
+
+import com.sj.ecommerce.payment_service.entity.Payment;
+import com.sj.ecommerce.payment_service.entity.PaymentStatus;
+import com.sj.ecommerce.payment_service.repository.PaymentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RazorpayOrderPrecreatorTest {
+
+	private final PaymentRepository repository = mock(PaymentRepository.class);
+	private final RazorpayGateway gateway = mock(RazorpayGateway.class);
+	private final PaymentCacheInvalidator cacheInvalidator = mock(PaymentCacheInvalidator.class);
+	private final RazorpayOrderPrecreator precreator = new RazorpayOrderPrecreator(
+			repository, gateway, cacheInvalidator, mock(PlatformTransactionManager.class), true, 1, 1, 100);
+
+	@AfterEach
+	void close() {
+		precreator.close();
+	}
+
+	@Test
+	void attachesRazorpayOrderWhilePaymentStaysCreated() throws Exception {
+		when(repository.findById(1L)).thenReturn(Optional.of(payment(PaymentStatus.CREATED)));
+		when(gateway.createOrder(9950L, "INR", "10")).thenReturn("order_abc");
+		when(repository.attachRazorpayOrder(1L, EnumSet.of(PaymentStatus.CREATED), PaymentStatus.CREATED,
+				"order_abc", 9950L)).thenReturn(1);
+
+		precreator.precreate(1L);
+
+		verify(repository).attachRazorpayOrder(1L, EnumSet.of(PaymentStatus.CREATED), PaymentStatus.CREATED,
+				"order_abc", 9950L);
+		verify(cacheInvalidator).evict(1L);
+	}
+
+	@Test
+	void skipsPaymentsTheUserAlreadyInitiated() throws Exception {
+		when(repository.findById(1L)).thenReturn(Optional.of(payment(PaymentStatus.PENDING)));
+
+		precreator.precreate(1L);
+
+		verify(gateway, never()).createOrder(anyLong(), anyString(), anyString());
+		verify(repository, never()).attachRazorpayOrder(any(), any(), any(), any(), any());
+	}
+
+	@Test
+	void overflowIsRejectedInsteadOfQueuedWithoutBound() throws Exception {
+		when(repository.findById(any())).thenAnswer(invocation -> {
+			Thread.sleep(200);
+			return Optional.empty();
+		});
+
+		// One worker and a queue of one: the third submission has nowhere to go
+		assertTrue(precreator.enqueue(1L));
+		Thread.sleep(50);
+		assertTrue(precreator.enqueue(2L));
+		assertFalse(precreator.enqueue(3L));
+	}
+
+	private static Payment payment(PaymentStatus status) {
+		return new Payment(10L, 20L, 9950L, "INR", "order-10", status, Instant.EPOCH);
+	}
+}